@@ -3,12 +3,14 @@ package com.booksphere;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.data.jpa.repository.config.EnableJpaAuditing;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 /**
  * Main application class for BookSphere.
  */
 @SpringBootApplication
 @EnableJpaAuditing
+@EnableScheduling
 public class BookSphereApplication {
 
     public static void main(String[] args) {
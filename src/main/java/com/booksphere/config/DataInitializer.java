@@ -201,6 +201,7 @@ public class DataInitializer implements CommandLineRunner {
         transaction.setPaid(true);
         transaction.setCreatedAt(LocalDateTime.now().minusDays(10));
         transactionRepository.save(transaction);
+        bookRepository.incrementRentalCount(book1.getId());
 
         // Create a sample notification
         Notification notification = new Notification();
@@ -0,0 +1,59 @@
+package com.booksphere.config;
+
+import com.booksphere.service.AdmissionService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import java.security.Principal;
+
+/**
+ * Interceptor admitting rental requests through the admission service.
+ * A rejected request gets 429 Too Many Requests with a Retry-After header without reaching the controller.
+ * Requests of administrators are not admission controlled.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class RentalAdmissionInterceptor implements HandlerInterceptor {
+
+    private static final String ADMITTED = RentalAdmissionInterceptor.class.getName() + ".ADMITTED";
+
+    private final AdmissionService admissionService;
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) throws Exception {
+        // Staff working through returns and issues at the desk are not limited as users are
+        if (!"POST".equals(request.getMethod()) || request.isUserInRole("ADMIN")) {
+            return true;
+        }
+        Principal principal = request.getUserPrincipal();
+        String userKey = principal != null ? principal.getName() : request.getRemoteAddr();
+
+        AdmissionService.Decision decision = admissionService.admit(userKey);
+        if (decision == AdmissionService.Decision.ADMITTED) {
+            request.setAttribute(ADMITTED, Boolean.TRUE);
+            return true;
+        }
+        log.debug("Rejected {} {} of {}: {}", request.getMethod(), request.getRequestURI(), userKey, decision);
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(admissionService.getRetryAfterSeconds(userKey)));
+        response.sendError(HttpStatus.TOO_MANY_REQUESTS.value(),
+                decision == AdmissionService.Decision.USER_LIMITED
+                        ? "Too many rental requests, please try again shortly"
+                        : "The library is busy, please try again shortly");
+        return false;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        if (request.getAttribute(ADMITTED) != null) {
+            request.removeAttribute(ADMITTED);
+            admissionService.release();
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package com.booksphere.config;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+/**
+ * Web MVC configuration for the BookSphere application.
+ * Puts admission control in front of the endpoints that rent and return books.
+ */
+@Configuration
+@RequiredArgsConstructor
+public class WebConfig implements WebMvcConfigurer {
+
+    private final RentalAdmissionInterceptor rentalAdmissionInterceptor;
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(rentalAdmissionInterceptor)
+                .addPathPatterns("/books/*/rent", "/books/rent", "/transactions/**");
+    }
+}
@@ -6,14 +6,15 @@ import com.booksphere.model.Book;
 import com.booksphere.model.Genre;
 import com.booksphere.model.Transaction;
 import com.booksphere.model.User;
-import com.booksphere.model.Role;
+import com.booksphere.service.BookCacheService;
 import com.booksphere.service.BookService;
 import com.booksphere.service.FileService;
+import com.booksphere.service.ReferenceDataService;
 import com.booksphere.service.GenreService;
 import com.booksphere.service.ReportService;
 import com.booksphere.service.TransactionService;
 import com.booksphere.service.UserService;
-import com.booksphere.service.RoleService;
+import com.booksphere.util.LoadingCache;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
@@ -33,7 +34,7 @@ import jakarta.validation.Valid;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
-import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 /**
@@ -51,7 +52,8 @@ public class AdminController {
     private final ReportService reportService;
     private final GenreService genreService;
     private final FileService fileService;
-    private final RoleService roleService;
+    private final BookCacheService bookCacheService;
+    private final ReferenceDataService referenceDataService;
 
     /**
      * Display the admin dashboard.
@@ -76,6 +78,7 @@ public class AdminController {
      * @param page The page number
      * @param size The page size
      * @param search The search term
+     * @param cursor The keyset cursor of the requested page when listing without filters
      * @param model The model
      * @return The manage users view
      */
@@ -86,25 +89,23 @@ public class AdminController {
             @RequestParam(required = false) String role,
             @RequestParam(required = false) Boolean status,
             @RequestParam(required = false) String search,
+            @RequestParam(required = false) String cursor,
             Model model) {
         
         PageRequest pageRequest = PageRequest.of(page, size);
-        Page<User> users;
         
         if (role != null && !role.isEmpty()) {
-            users = userService.findByRole(role, pageRequest);
+            model.addAttribute("users", userService.findByRole(role, pageRequest));
         } else if (status != null) {
-            users = userService.findByEnabled(status, pageRequest);
+            model.addAttribute("users", userService.findByEnabled(status, pageRequest));
         } else if (search != null && !search.isEmpty()) {
-            users = userService.searchUsers(search, pageRequest);
+            model.addAttribute("users", userService.searchUsers(search, pageRequest));
         } else {
-            users = userService.getAllUsers(pageRequest);
+            model.addAttribute("users", userService.getAllUsers(cursor, size));
+            model.addAttribute("cursorPaging", true);
         }
 
-        List<Role> roles = roleService.getAllRoles();
-        
-        model.addAttribute("users", users);
-        model.addAttribute("roles", roles);
+        model.addAttribute("roles", referenceDataService.getRoles());
         model.addAttribute("userDto", new UserDto());
         return "admin/users";
     }
@@ -206,6 +207,7 @@ public class AdminController {
      * @param page The page number
      * @param size The page size
      * @param search The search term
+     * @param cursor The keyset cursor of the requested page when listing without filters
      * @param model The model
      * @return The manage books view
      */
@@ -214,19 +216,17 @@ public class AdminController {
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "10") int size,
             @RequestParam(required = false) String search,
+            @RequestParam(required = false) String cursor,
             Model model) {
         
-        Page<Book> books;
-        
         if (search != null && !search.isEmpty()) {
-            books = bookService.searchBooks(search, PageRequest.of(page, size, Sort.by("id").ascending()));
+            model.addAttribute("books", bookService.searchBooks(search, PageRequest.of(page, size, Sort.by("id").ascending())));
             model.addAttribute("search", search);
         } else {
-            books = bookService.findAll(PageRequest.of(page, size, Sort.by("id").ascending()));
+            model.addAttribute("books", bookService.findAll(cursor, size));
+            model.addAttribute("cursorPaging", true);
         }
         
-        model.addAttribute("books", books);
-        
         return "admin/manage-books";
     }
 
@@ -239,8 +239,8 @@ public class AdminController {
     @GetMapping("/books/add")
     public String showAddBookForm(Model model) {
         model.addAttribute("bookDto", new BookDto());
-        model.addAttribute("authors", userService.findByRole("AUTHOR"));
-        model.addAttribute("genres", genreService.findAll());
+        model.addAttribute("authors", referenceDataService.getAuthors());
+        model.addAttribute("genres", referenceDataService.getGenres());
         return "admin/book-form";
     }
 
@@ -296,14 +296,15 @@ public class AdminController {
         bookDto.setRentalPrice(book.getRentalPrice());
         bookDto.setTotalCopies(book.getTotalCopies());
         bookDto.setAvailableCopies(book.getAvailableCopies());
+        bookDto.setInventoryShards(book.getInventoryShards());
         bookDto.setGenreIds(book.getGenres().stream()
                 .map(Genre::getId)
                 .collect(Collectors.toSet()));
         
         model.addAttribute("book", book);
         model.addAttribute("bookDto", bookDto);
-        model.addAttribute("authors", userService.findByRole("AUTHOR"));
-        model.addAttribute("genres", genreService.findAll());
+        model.addAttribute("authors", referenceDataService.getAuthors());
+        model.addAttribute("genres", referenceDataService.getGenres());
         return "admin/book-form";
     }
 
@@ -515,6 +516,17 @@ public class AdminController {
         return "redirect:/admin/genres";
     }
 
+    /**
+     * Get the hit and miss statistics of the book caches.
+     * 
+     * @return The statistics by cache name
+     */
+    @GetMapping("/cache/stats")
+    @ResponseBody
+    public Map<String, LoadingCache.Stats> getCacheStats() {
+        return bookCacheService.getStats();
+    }
+
     @GetMapping("/genres/{id}")
     @ResponseBody
     public Genre getGenre(@PathVariable Long id) {
@@ -0,0 +1,32 @@
+package com.booksphere.controller;
+
+import com.booksphere.dto.AdmissionStatsDto;
+import com.booksphere.service.AdmissionService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * REST controller for monitoring the admission control of the rental endpoints.
+ */
+@RestController
+@RequestMapping("/api/admission")
+@PreAuthorize("hasRole('ADMIN')")
+@RequiredArgsConstructor
+public class AdmissionController {
+
+    private final AdmissionService admissionService;
+
+    /**
+     * Get the admission and rejection counters and queue wait times.
+     * 
+     * @return The admission statistics
+     */
+    @GetMapping("/stats")
+    public ResponseEntity<AdmissionStatsDto> getStats() {
+        return ResponseEntity.ok(admissionService.getStats());
+    }
+}
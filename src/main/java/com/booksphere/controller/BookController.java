@@ -1,13 +1,20 @@
 package com.booksphere.controller;
 
+import com.booksphere.dto.IdempotentResponseDto;
 import com.booksphere.model.Book;
+import com.booksphere.model.Hold;
+import com.booksphere.model.Transaction;
 import com.booksphere.model.User;
+import com.booksphere.service.BookCountService;
 import com.booksphere.service.BookService;
+import com.booksphere.service.HoldService;
+import com.booksphere.service.IdempotencyService;
 import com.booksphere.service.TransactionService;
 import com.booksphere.service.UserService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.domain.Sort;
 import org.springframework.security.core.Authentication;
 import org.springframework.stereotype.Controller;
@@ -16,6 +23,7 @@ import org.springframework.web.bind.annotation.*;
 import org.springframework.web.servlet.mvc.support.RedirectAttributes;
 
 import java.time.LocalDateTime;
+import java.util.List;
 
 /**
  * Controller for book operations.
@@ -26,8 +34,11 @@ import java.time.LocalDateTime;
 public class BookController {
 
     private final BookService bookService;
+    private final BookCountService bookCountService;
     private final UserService userService;
     private final TransactionService transactionService;
+    private final IdempotencyService idempotencyService;
+    private final HoldService holdService;
 
     /**
      * Display books catalog.
@@ -36,6 +47,8 @@ public class BookController {
      * @param size The page size
      * @param search The search term
      * @param genreId The genre ID filter
+     * @param cursor The keyset cursor of the requested page when browsing all available books
+     * @param sort The sort order, "popular" to list the most rented books first
      * @param model The model
      * @return The books catalog view
      */
@@ -45,25 +58,36 @@ public class BookController {
             @RequestParam(defaultValue = "12") int size,
             @RequestParam(required = false) String search,
             @RequestParam(required = false) Long genreId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) String sort,
             Model model) {
         
-        Page<Book> books;
-        
         if (search != null && !search.isEmpty()) {
-            // Search for books
-            books = bookService.searchBooks(search, PageRequest.of(page, size, Sort.by("title").ascending()));
+            // Search for books without counting every match
+            Slice<Book> books = bookService.searchBooksSliced(search, PageRequest.of(page, size, Sort.by("title").ascending()));
+            if (books instanceof Page<Book> counted) {
+                model.addAttribute("approximateTotal", counted.getTotalElements());
+            }
+            model.addAttribute("books", books);
             model.addAttribute("search", search);
+        } else if ("popular".equals(sort)) {
+            // Rank by rental count, read from the in-memory leaderboards
+            Page<Book> books = bookService.findMostPopular(genreId, PageRequest.of(page, size));
+            model.addAttribute("books", books);
+            model.addAttribute("approximateTotal", books.getTotalElements());
+            model.addAttribute("genreId", genreId);
+            model.addAttribute("sort", sort);
         } else if (genreId != null) {
-            // Filter by genre
-            books = bookService.findByGenre(genreId, PageRequest.of(page, size, Sort.by("title").ascending()));
+            // Filter by genre, showing the periodically refreshed genre count
+            model.addAttribute("books", bookService.findByGenreSliced(genreId, PageRequest.of(page, size, Sort.by("title").ascending())));
+            model.addAttribute("approximateTotal", bookCountService.getGenreCount(genreId));
             model.addAttribute("genreId", genreId);
         } else {
-            // Show all available books
-            books = bookService.findAvailable(PageRequest.of(page, size, Sort.by("title").ascending()));
+            // Show all available books, paged by cursor so deep pages stay cheap
+            model.addAttribute("books", bookService.findAvailable(cursor, size));
+            model.addAttribute("cursorPaging", true);
         }
         
-        model.addAttribute("books", books);
-        
         return "user/books";
     }
 
@@ -71,13 +95,27 @@ public class BookController {
      * Display book details.
      * 
      * @param id The book ID
+     * @param authentication The authenticated user
      * @param model The model
      * @return The book details view
      */
     @GetMapping("/{id}")
-    public String viewBook(@PathVariable Long id, Model model) {
+    public String viewBook(@PathVariable Long id, Authentication authentication, Model model) {
         Book book = bookService.findById(id);
         model.addAttribute("book", book);
+        model.addAttribute("alsoRented", bookService.findAlsoRented(id, 4));
+        
+        // Show the user's place on the waitlist
+        Hold hold = null;
+        if (authentication != null) {
+            User user = userService.findByUsername(authentication.getName());
+            hold = holdService.findOpenHold(user.getId(), id).orElse(null);
+        }
+        model.addAttribute("hold", hold);
+        if (hold != null && hold.getStatus() == Hold.Status.WAITING) {
+            model.addAttribute("holdPosition", holdService.getQueuePosition(hold));
+        }
+        model.addAttribute("waitlistLength", book.isAvailable() ? 0 : holdService.countWaiting(id));
         
         return "user/book-details";
     }
@@ -87,6 +125,7 @@ public class BookController {
      * 
      * @param id The book ID
      * @param rentalDays The rental period in days
+     * @param idempotencyKey Optional key making retries of the same request safe
      * @param authentication The authenticated user
      * @param redirectAttributes Attributes for redirect
      * @return Redirect to user's transactions page
@@ -95,23 +134,108 @@ public class BookController {
     public String rentBook(
             @PathVariable Long id,
             @RequestParam(defaultValue = "14") int rentalDays,
+            @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey,
+            Authentication authentication,
+            RedirectAttributes redirectAttributes) {
+        
+        String fingerprint = "POST /books/" + id + "/rent?rentalDays=" + rentalDays;
+        try {
+            return idempotencyService.execute(authentication.getName(), idempotencyKey, fingerprint, "redirect:/books/" + id, () -> {
+                User user = userService.findByUsername(authentication.getName());
+                
+                // Calculate due date
+                LocalDateTime dueDate = LocalDateTime.now().plusDays(rentalDays);
+                
+                // Issue the book
+                transactionService.issueBook(user.getId(), id, dueDate);
+                
+                return new IdempotentResponseDto("redirect:/user/transactions", "successMessage", "Book rented successfully");
+            }).applyTo(redirectAttributes);
+        } catch (Exception e) {
+            redirectAttributes.addFlashAttribute("errorMessage", e.getMessage());
+            return "redirect:/books/" + id;
+        }
+    }
+
+    /**
+     * Rent several books at once.
+     * 
+     * @param bookIds The book IDs
+     * @param rentalDays The rental period in days
+     * @param authentication The authenticated user
+     * @param redirectAttributes Attributes for redirect
+     * @return Redirect to user's transactions page
+     */
+    @PostMapping("/rent")
+    public String rentBooks(
+            @RequestParam List<Long> bookIds,
+            @RequestParam(defaultValue = "14") int rentalDays,
             Authentication authentication,
             RedirectAttributes redirectAttributes) {
         
         try {
             User user = userService.findByUsername(authentication.getName());
             
-            // Calculate due date
+            // Issue all books in one transaction
             LocalDateTime dueDate = LocalDateTime.now().plusDays(rentalDays);
+            List<Transaction> transactions = transactionService.issueBooks(user.getId(), bookIds, dueDate);
             
-            // Issue the book
-            transactionService.issueBook(user.getId(), id, dueDate);
-            
-            redirectAttributes.addFlashAttribute("successMessage", "Book rented successfully");
+            redirectAttributes.addFlashAttribute("successMessage", transactions.size() + " books rented successfully");
             return "redirect:/user/transactions";
         } catch (Exception e) {
             redirectAttributes.addFlashAttribute("errorMessage", e.getMessage());
-            return "redirect:/books/" + id;
+            return "redirect:/books";
+        }
+    }
+
+    /**
+     * Join the waitlist of a book that is out of stock.
+     * 
+     * @param id The book ID
+     * @param authentication The authenticated user
+     * @param redirectAttributes Attributes for redirect
+     * @return Redirect to the book details page
+     */
+    @PostMapping("/{id}/hold")
+    public String placeHold(
+            @PathVariable Long id,
+            Authentication authentication,
+            RedirectAttributes redirectAttributes) {
+        
+        try {
+            User user = userService.findByUsername(authentication.getName());
+            Hold hold = holdService.placeHold(user.getId(), id);
+            redirectAttributes.addFlashAttribute("successMessage",
+                    "You are number " + holdService.getQueuePosition(hold) + " on the waitlist");
+        } catch (Exception e) {
+            redirectAttributes.addFlashAttribute("errorMessage", e.getMessage());
+        }
+        
+        return "redirect:/books/" + id;
+    }
+
+    /**
+     * Leave the waitlist of a book, giving up a copy held for the user.
+     * 
+     * @param id The book ID
+     * @param authentication The authenticated user
+     * @param redirectAttributes Attributes for redirect
+     * @return Redirect to the book details page
+     */
+    @PostMapping("/{id}/hold/cancel")
+    public String cancelHold(
+            @PathVariable Long id,
+            Authentication authentication,
+            RedirectAttributes redirectAttributes) {
+        
+        try {
+            User user = userService.findByUsername(authentication.getName());
+            holdService.cancelHold(user.getId(), id);
+            redirectAttributes.addFlashAttribute("successMessage", "You have left the waitlist");
+        } catch (Exception e) {
+            redirectAttributes.addFlashAttribute("errorMessage", e.getMessage());
         }
+        
+        return "redirect:/books/" + id;
     }
 }
@@ -0,0 +1,51 @@
+package com.booksphere.controller;
+
+import com.booksphere.dto.BookFacetQueryDto;
+import com.booksphere.dto.BookFacetResultDto;
+import com.booksphere.service.BookFacetService;
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.web.PageableDefault;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.ModelAttribute;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * REST controller for faceted catalog browsing.
+ */
+@RestController
+@RequestMapping("/api/books")
+@RequiredArgsConstructor
+public class BookFacetController {
+
+    private final BookFacetService bookFacetService;
+
+    /**
+     * Browse books by any combination of genres, publication year range, price range, availability,
+     * publishers and active status, e.g.
+     * {@code /api/books/facets?genreIds=1&genreIds=3&minYear=1990&maxPrice=20&available=true}.
+     * Only administrators can browse inactive books.
+     * 
+     * @param query The facet filters
+     * @param pageable Pagination information
+     * @param request The HTTP request
+     * @return The matching books with per-facet counts, or 503 while the facet index is being built
+     */
+    @GetMapping("/facets")
+    public ResponseEntity<BookFacetResultDto> browse(
+            @ModelAttribute BookFacetQueryDto query,
+            @PageableDefault(size = 12) Pageable pageable,
+            HttpServletRequest request) {
+        if (!bookFacetService.isAvailable()) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+        }
+        if (!request.isUserInRole("ADMIN")) {
+            query.setActive(true);
+        }
+        return ResponseEntity.ok(bookFacetService.browse(query, pageable));
+    }
+}
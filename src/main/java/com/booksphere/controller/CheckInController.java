@@ -0,0 +1,42 @@
+package com.booksphere.controller;
+
+import com.booksphere.dto.CheckInRequestDto;
+import com.booksphere.dto.CheckInResultDto;
+import com.booksphere.service.TransactionService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+/**
+ * REST controller for checking in returned books in bulk, e.g. the contents of the drop box.
+ */
+@RestController
+@RequestMapping("/api/transactions")
+@PreAuthorize("hasRole('ADMIN')")
+@RequiredArgsConstructor
+public class CheckInController {
+
+    private final TransactionService transactionService;
+
+    /**
+     * Check in a batch of returned books, each identified by transaction ID or by ISBN and user ID, e.g.
+     * {@code [{"transactionId": 12}, {"isbn": "9780451524935", "userId": 3}]}.
+     * 
+     * @param requests The returned books
+     * @return The outcome of each request, in request order
+     */
+    @PostMapping("/check-in")
+    public ResponseEntity<List<CheckInResultDto>> checkIn(@RequestBody List<CheckInRequestDto> requests) {
+        try {
+            return ResponseEntity.ok(transactionService.checkIn(requests));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+}
@@ -3,12 +3,15 @@ package com.booksphere.controller;
 import com.booksphere.model.Book;
 import com.booksphere.model.Notification;
 import com.booksphere.model.User;
+import com.booksphere.service.BookCountService;
+import com.booksphere.service.BookSearchService;
 import com.booksphere.service.BookService;
 import com.booksphere.service.NotificationService;
 import com.booksphere.service.UserService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.domain.Sort;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.security.core.userdetails.UserDetails;
@@ -18,6 +21,7 @@ import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 
 import java.util.List;
+import java.util.Optional;
 
 /**
  * Controller for the home and landing pages.
@@ -27,6 +31,8 @@ import java.util.List;
 public class HomeController {
 
     private final BookService bookService;
+    private final BookSearchService bookSearchService;
+    private final BookCountService bookCountService;
     private final UserService userService;
     private final NotificationService notificationService;
 
@@ -41,6 +47,9 @@ public class HomeController {
         // Get popular books for the landing page
         List<Book> popularBooks = bookService.findMostPopular(5);
         model.addAttribute("popularBooks", popularBooks);
+
+        // Get books trending from recent rentals
+        model.addAttribute("trendingBooks", bookService.findTrending(4));
         
         return "index";
     }
@@ -83,6 +92,7 @@ public class HomeController {
      * @param query The search query
      * @param page The page number
      * @param size The page size
+     * @param fuzzy Whether to search for the spelling correction when the query itself matches nothing
      * @param model The model
      * @return The search results page view
      */
@@ -91,16 +101,32 @@ public class HomeController {
             @RequestParam(required = false) String query,
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "10") int size,
+            @RequestParam(defaultValue = "false") boolean fuzzy,
             Model model) {
         
         if (query == null || query.isEmpty()) {
             // If no query, show all available books
-            Page<Book> books = bookService.findAvailable(PageRequest.of(page, size, Sort.by("title").ascending()));
+            Slice<Book> books = bookService.findAvailableSliced(PageRequest.of(page, size, Sort.by("title").ascending()));
             model.addAttribute("books", books);
+            model.addAttribute("approximateTotal", bookCountService.getAvailableCount());
             model.addAttribute("query", "");
         } else {
             // Search for books matching the query
-            Page<Book> books = bookService.searchBooks(query, PageRequest.of(page, size, Sort.by("title").ascending()));
+            Slice<Book> books = bookService.searchBooksSliced(query, PageRequest.of(page, size, Sort.by("title").ascending()));
+            
+            // Offer a spelling correction when nothing matched, or search for it directly in fuzzy mode
+            if (books.isEmpty()) {
+                Optional<String> correction = bookSearchService.suggestCorrection(query);
+                if (correction.isPresent() && fuzzy) {
+                    books = bookService.searchBooksSliced(correction.get(), PageRequest.of(page, size, Sort.by("title").ascending()));
+                    model.addAttribute("correctedQuery", correction.get());
+                } else {
+                    correction.ifPresent(c -> model.addAttribute("didYouMean", c));
+                }
+            }
+            if (books instanceof Page<Book> counted) {
+                model.addAttribute("approximateTotal", counted.getTotalElements());
+            }
             model.addAttribute("books", books);
             model.addAttribute("query", query);
         }
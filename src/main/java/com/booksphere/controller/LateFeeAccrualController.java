@@ -0,0 +1,36 @@
+package com.booksphere.controller;
+
+import com.booksphere.dto.LateFeeAccrualDto;
+import com.booksphere.service.LateFeeAccrualService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+/**
+ * REST controller for auditing late fee accrual runs.
+ */
+@RestController
+@RequestMapping("/api/late-fees/accruals")
+@PreAuthorize("hasRole('ADMIN')")
+@RequiredArgsConstructor
+public class LateFeeAccrualController {
+
+    private final LateFeeAccrualService lateFeeAccrualService;
+
+    /**
+     * Get the audit records of the most recent accrual runs.
+     * 
+     * @param limit The maximum number of runs
+     * @return The runs, most recent first
+     */
+    @GetMapping
+    public ResponseEntity<List<LateFeeAccrualDto>> getRecent(@RequestParam(defaultValue = "20") int limit) {
+        return ResponseEntity.ok(lateFeeAccrualService.getRecent(Math.min(limit, 100)));
+    }
+}
@@ -0,0 +1,32 @@
+package com.booksphere.controller;
+
+import com.booksphere.dto.NotificationOutboxStatsDto;
+import com.booksphere.service.NotificationOutboxService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * REST controller for monitoring the notification outbox.
+ */
+@RestController
+@RequestMapping("/api/notifications/outbox")
+@PreAuthorize("hasRole('ADMIN')")
+@RequiredArgsConstructor
+public class NotificationOutboxController {
+
+    private final NotificationOutboxService notificationOutboxService;
+
+    /**
+     * Get the queue depth, delivery lag and delivery counters of the outbox.
+     * 
+     * @return The outbox statistics
+     */
+    @GetMapping("/stats")
+    public ResponseEntity<NotificationOutboxStatsDto> getStats() {
+        return ResponseEntity.ok(notificationOutboxService.getStats());
+    }
+}
@@ -0,0 +1,32 @@
+package com.booksphere.controller;
+
+import com.booksphere.dto.OverdueSweepDto;
+import com.booksphere.service.OverdueSweepService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * REST controller for monitoring the overdue alert sweep.
+ */
+@RestController
+@RequestMapping("/api/overdue-sweep")
+@PreAuthorize("hasRole('ADMIN')")
+@RequiredArgsConstructor
+public class OverdueSweepController {
+
+    private final OverdueSweepService overdueSweepService;
+
+    /**
+     * Get the progress of the most recent sweep.
+     * 
+     * @return The sweep, or 404 if none has run
+     */
+    @GetMapping("/latest")
+    public ResponseEntity<OverdueSweepDto> getLatest() {
+        return ResponseEntity.of(overdueSweepService.getLatest());
+    }
+}
@@ -0,0 +1,38 @@
+package com.booksphere.controller;
+
+import com.booksphere.dto.SuggestionDto;
+import com.booksphere.service.SuggestionService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+/**
+ * REST controller for search box autocomplete.
+ */
+@RestController
+@RequestMapping("/api")
+@RequiredArgsConstructor
+public class SuggestionController {
+
+    private static final int MAX_SUGGESTIONS = 20;
+
+    private final SuggestionService suggestionService;
+
+    /**
+     * Suggest book titles, author names and genres starting with the typed text.
+     * 
+     * @param query The text typed so far
+     * @param limit The maximum number of suggestions
+     * @return A list of suggestions, most popular first
+     */
+    @GetMapping("/suggest")
+    public List<SuggestionDto> suggest(
+            @RequestParam("q") String query,
+            @RequestParam(defaultValue = "10") int limit) {
+        return suggestionService.suggest(query, Math.max(1, Math.min(limit, MAX_SUGGESTIONS)));
+    }
+}
@@ -1,10 +1,13 @@
 package com.booksphere.controller;
 
+import com.booksphere.dto.IdempotentResponseDto;
 import com.booksphere.model.Transaction;
 import com.booksphere.model.User;
+import com.booksphere.service.IdempotencyService;
 import com.booksphere.service.TransactionService;
 import com.booksphere.service.UserService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.security.core.Authentication;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Controller;
@@ -22,12 +25,14 @@ public class TransactionController {
 
     private final TransactionService transactionService;
     private final UserService userService;
+    private final IdempotencyService idempotencyService;
 
     /**
      * Return a book.
      * 
      * @param userDetails The authenticated user details
      * @param id The transaction ID
+     * @param idempotencyKey Optional key making retries of the same request safe
      * @param redirectAttributes Attributes for redirect
      * @return Redirect to user's transactions page
      */
@@ -35,23 +40,21 @@ public class TransactionController {
     public String returnBook(
             @AuthenticationPrincipal UserDetails userDetails,
             @PathVariable Long id,
+            @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey,
             RedirectAttributes redirectAttributes) {
         
+        String fingerprint = "POST /transactions/" + id + "/return";
         try {
-            // Return the book
-            Transaction transaction = transactionService.returnBook(id);
-            
-            // Calculate late fee if any
-            if (transaction.isOverdue()) {
-                transactionService.calculateLateFee(id);
-            }
-            
-            redirectAttributes.addFlashAttribute("successMessage", "Book returned successfully");
+            return idempotencyService.execute(userDetails.getUsername(), idempotencyKey, fingerprint, "redirect:/user/transactions", () -> {
+                // Return the book; its late fee is settled by the return
+                transactionService.returnBook(id);
+                
+                return new IdempotentResponseDto("redirect:/user/transactions", "successMessage", "Book returned successfully");
+            }).applyTo(redirectAttributes);
         } catch (Exception e) {
             redirectAttributes.addFlashAttribute("errorMessage", e.getMessage());
+            return "redirect:/user/transactions";
         }
-        
-        return "redirect:/user/transactions";
     }
 
     /**
@@ -73,22 +76,29 @@ public class TransactionController {
      * Pay transaction fees.
      * 
      * @param id The transaction ID
+     * @param idempotencyKey Optional key making retries of the same request safe
+     * @param authentication The authenticated user
      * @param redirectAttributes Attributes for redirect
      * @return Redirect to transaction details page
      */
     @PostMapping("/{id}/pay")
     public String payFees(
             @PathVariable Long id,
+            @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey,
+            Authentication authentication,
             RedirectAttributes redirectAttributes) {
         
+        String view = "redirect:/transactions/" + id;
+        String fingerprint = "POST /transactions/" + id + "/pay";
         try {
-            transactionService.payFees(id);
-            redirectAttributes.addFlashAttribute("successMessage", "Payment processed successfully");
+            return idempotencyService.execute(authentication.getName(), idempotencyKey, fingerprint, view, () -> {
+                transactionService.payFees(id);
+                return new IdempotentResponseDto(view, "successMessage", "Payment processed successfully");
+            }).applyTo(redirectAttributes);
         } catch (Exception e) {
             redirectAttributes.addFlashAttribute("errorMessage", e.getMessage());
+            return view;
         }
-        
-        return "redirect:/transactions/" + id;
     }
 
     /**
@@ -97,6 +107,8 @@ public class TransactionController {
      * @param userId The user ID
      * @param bookId The book ID
      * @param days The rental period in days
+     * @param idempotencyKey Optional key making retries of the same request safe
+     * @param authentication The authenticated user
      * @param redirectAttributes Attributes for redirect
      * @return Redirect to admin's transaction management page
      */
@@ -105,20 +117,24 @@ public class TransactionController {
             @RequestParam Long userId,
             @RequestParam Long bookId,
             @RequestParam(defaultValue = "14") int days,
+            @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey,
+            Authentication authentication,
             RedirectAttributes redirectAttributes) {
         
+        String fingerprint = "POST /transactions/issue?userId=" + userId + "&bookId=" + bookId + "&days=" + days;
         try {
-            // Calculate due date
-            java.time.LocalDateTime dueDate = java.time.LocalDateTime.now().plusDays(days);
-            
-            // Issue the book
-            transactionService.issueBook(userId, bookId, dueDate);
-            
-            redirectAttributes.addFlashAttribute("successMessage", "Book issued successfully");
+            return idempotencyService.execute(authentication.getName(), idempotencyKey, fingerprint, "redirect:/admin/transactions", () -> {
+                // Calculate due date
+                java.time.LocalDateTime dueDate = java.time.LocalDateTime.now().plusDays(days);
+                
+                // Issue the book
+                transactionService.issueBook(userId, bookId, dueDate);
+                
+                return new IdempotentResponseDto("redirect:/admin/transactions", "successMessage", "Book issued successfully");
+            }).applyTo(redirectAttributes);
         } catch (Exception e) {
             redirectAttributes.addFlashAttribute("errorMessage", e.getMessage());
+            return "redirect:/admin/transactions";
         }
-        
-        return "redirect:/admin/transactions";
     }
 }
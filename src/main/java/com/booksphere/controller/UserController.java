@@ -1,16 +1,16 @@
 package com.booksphere.controller;
 
+import com.booksphere.dto.CursorPage;
 import com.booksphere.dto.UserDto;
 import com.booksphere.model.Notification;
 import com.booksphere.model.Transaction;
 import com.booksphere.model.User;
+import com.booksphere.service.BookService;
 import com.booksphere.service.NotificationService;
+import com.booksphere.service.RentalLimitService;
 import com.booksphere.service.TransactionService;
 import com.booksphere.service.UserService;
 import lombok.RequiredArgsConstructor;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageRequest;
-import org.springframework.data.domain.Sort;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.security.core.userdetails.UserDetails;
@@ -34,6 +34,8 @@ public class UserController {
     private final UserService userService;
     private final TransactionService transactionService;
     private final NotificationService notificationService;
+    private final BookService bookService;
+    private final RentalLimitService rentalLimitService;
 
     /**
      * Display the user dashboard.
@@ -53,10 +55,14 @@ public class UserController {
         // Get active rentals
         List<Transaction> activeRentals = transactionService.findActiveRentals(user);
         model.addAttribute("activeRentals", activeRentals);
+        model.addAttribute("rentalLimit", rentalLimitService.getLimit(user.getUserRole()));
         
         // Get unread notifications
         List<Notification> unreadNotifications = notificationService.findUnreadByUser(user);
         model.addAttribute("notifications", unreadNotifications);
+
+        // Get books trending from recent rentals
+        model.addAttribute("trendingBooks", bookService.findTrending(4));
         
         return "user/dashboard";
     }
@@ -161,17 +167,22 @@ public class UserController {
     /**
      * Display the user's transaction history.
      * 
-     * @param userDetails The authenticated user details
-     * @param page The page number
-     * @param size The page size
+     * @param authentication The authenticated user
+     * @param cursor The keyset cursor of the requested rental history page
+     * @param size The rental history page size
      * @param model The model
      * @return The transaction history view
      */
     @GetMapping("/transactions")
-    public String showTransactions(Authentication authentication, Model model) {
+    public String showTransactions(
+            Authentication authentication,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "10") int size,
+            Model model) {
         User user = userService.findByUsername(authentication.getName());
         List<Transaction> activeTransactions = transactionService.findActiveTransactionsByUser(user);
-        List<Transaction> completedTransactions = transactionService.findCompletedTransactionsByUser(user);
+        CursorPage<Transaction> completedTransactions =
+                transactionService.findCompletedTransactionsByUser(user, cursor, size);
         
         model.addAttribute("activeTransactions", activeTransactions);
         model.addAttribute("completedTransactions", completedTransactions);
@@ -182,7 +193,7 @@ public class UserController {
      * Display the notifications page.
      * 
      * @param userDetails The authenticated user details
-     * @param page The page number
+     * @param cursor The keyset cursor of the requested page
      * @param size The page size
      * @param model The model
      * @return The notifications view
@@ -190,16 +201,15 @@ public class UserController {
     @GetMapping("/notifications")
     public String showNotifications(
             @AuthenticationPrincipal UserDetails userDetails,
-            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(required = false) String cursor,
             @RequestParam(defaultValue = "10") int size,
             Model model) {
         
         User user = userService.findByUsername(userDetails.getUsername());
         model.addAttribute("user", user);
         
-        // Get notifications with pagination
-        Page<Notification> notifications = notificationService.findByUser(
-                user, PageRequest.of(page, size, Sort.by("createdAt").descending()));
+        // Get notifications with keyset pagination, newest first
+        CursorPage<Notification> notifications = notificationService.findByUser(user, cursor, size);
         model.addAttribute("notifications", notifications);
         
         // Mark all as read
@@ -0,0 +1,34 @@
+package com.booksphere.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Data Transfer Object for the counters of the admission control in front of the rental endpoints.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AdmissionStatsDto {
+
+    private long admitted;
+
+    private long rejectedUserLimit;
+
+    private long rejectedQueueFull;
+
+    private long rejectedTimeout;
+
+    private int inFlight;
+
+    private int queued;
+
+    private long queuedTotal;
+
+    private double averageQueueWaitMillis;
+
+    private double maxQueueWaitMillis;
+
+    private int trackedUsers;
+}
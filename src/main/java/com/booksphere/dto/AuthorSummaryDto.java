@@ -0,0 +1,30 @@
+package com.booksphere.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Data Transfer Object identifying an author in pickers and lists.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AuthorSummaryDto {
+
+    private Long id;
+
+    private String fullName;
+
+    /**
+     * Constructor used by JPQL projections.
+     *
+     * @param id The user ID
+     * @param firstName The first name
+     * @param lastName The last name
+     */
+    public AuthorSummaryDto(Long id, String firstName, String lastName) {
+        this.id = id;
+        this.fullName = firstName + " " + lastName;
+    }
+}
@@ -0,0 +1,70 @@
+package com.booksphere.dto;
+
+import com.booksphere.model.Book;
+import com.booksphere.model.Genre;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Detached snapshot of the book fields used by the in-memory catalog indexes.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BookDocumentDto {
+
+    private Long id;
+    private String title;
+    private String description;
+    private String isbn;
+    private String publisher;
+    private Long authorId;
+    private String authorName;
+    private Set<Long> genreIds = new HashSet<>();
+    private Set<String> genreNames = new HashSet<>();
+    private Integer publishedYear;
+    private BigDecimal price;
+    private BigDecimal rentalPrice;
+    private Integer availableCopies;
+    private Integer totalCopies;
+    private boolean active;
+
+    /**
+     * Create a snapshot of a book. Must be called while the book's lazy associations can still be loaded.
+     *
+     * @param book The book
+     * @return The snapshot
+     */
+    public static BookDocumentDto from(Book book) {
+        BookDocumentDto document = new BookDocumentDto();
+        document.setId(book.getId());
+        document.setTitle(book.getTitle());
+        document.setDescription(book.getDescription());
+        document.setIsbn(book.getIsbn());
+        document.setPublisher(book.getPublisher());
+        if (book.getAuthor() != null) {
+            document.setAuthorId(book.getAuthor().getId());
+            document.setAuthorName(book.getAuthor().getFullName());
+        }
+        if (book.getGenre() != null) {
+            document.getGenreIds().add(book.getGenre().getId());
+            document.getGenreNames().add(book.getGenre().getName());
+        }
+        for (Genre genre : book.getGenres()) {
+            document.getGenreIds().add(genre.getId());
+            document.getGenreNames().add(genre.getName());
+        }
+        document.setPublishedYear(book.getPublishedYear());
+        document.setPrice(book.getPrice());
+        document.setRentalPrice(book.getRentalPrice());
+        document.setAvailableCopies(book.getAvailableCopies());
+        document.setTotalCopies(book.getTotalCopies());
+        document.setActive(book.isActive());
+        return document;
+    }
+}
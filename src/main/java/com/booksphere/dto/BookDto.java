@@ -48,6 +48,9 @@ public class BookDto {
     @Min(value = 0, message = "Available copies cannot be negative")
     private Integer availableCopies;
 
+    @Min(value = 0, message = "Inventory shards cannot be negative")
+    private Integer inventoryShards;
+
     @NotNull(message = "Price is required")
     @DecimalMin(value = "0.0", inclusive = true, message = "Price cannot be negative")
     @Digits(integer = 10, fraction = 2, message = "Price must have at most 2 decimal places")
@@ -0,0 +1,36 @@
+package com.booksphere.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Data Transfer Object for a faceted catalog query.
+ * Every criterion is optional; values within one facet are combined with OR, facets with AND.
+ * Only active books are matched unless another status is asked for.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BookFacetQueryDto {
+
+    private Set<Long> genreIds = new HashSet<>();
+
+    private Integer minYear;
+
+    private Integer maxYear;
+
+    private BigDecimal minPrice;
+
+    private BigDecimal maxPrice;
+
+    private Boolean available;
+
+    private Set<String> publishers = new HashSet<>();
+
+    private Boolean active = true;
+}
@@ -0,0 +1,30 @@
+package com.booksphere.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Data Transfer Object for the result of a faceted catalog query: one page of matching books
+ * plus, for each facet, how many books each of its values would match given the other facets' filters.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BookFacetResultDto {
+
+    private List<BookDocumentDto> books = new ArrayList<>();
+
+    private long totalElements;
+
+    private int page;
+
+    private int size;
+
+    private Map<String, List<FacetCountDto>> facets = new LinkedHashMap<>();
+}
@@ -0,0 +1,58 @@
+package com.booksphere.dto;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+/**
+ * Read-only projection of a book for list pages, selected in a single query together with the
+ * author's name. The description is cut to a short summary instead of loading all 1000 characters.
+ */
+@Data
+@NoArgsConstructor
+public class BookListItemDto {
+
+    /**
+     * Number of description characters selected for the summary.
+     */
+    public static final int SUMMARY_LENGTH = 200;
+
+    private Long id;
+    private String title;
+    private String authorName;
+    private String description;
+    private String isbn;
+    private Integer availableCopies;
+    private Integer totalCopies;
+    private BigDecimal rentalPrice;
+    private String coverImage;
+    private boolean active;
+
+    /**
+     * Constructor used by JPQL constructor expressions.
+     */
+    public BookListItemDto(Long id, String title, String authorFirstName, String authorLastName,
+                           String description, String isbn, Integer availableCopies, Integer totalCopies,
+                           BigDecimal rentalPrice, String coverImage, boolean active) {
+        this.id = id;
+        this.title = title;
+        this.authorName = authorFirstName != null ? authorFirstName + " " + authorLastName : null;
+        this.description = description;
+        this.isbn = isbn;
+        this.availableCopies = availableCopies;
+        this.totalCopies = totalCopies;
+        this.rentalPrice = rentalPrice;
+        this.coverImage = coverImage;
+        this.active = active;
+    }
+
+    /**
+     * Checks if the book is available for rental.
+     * 
+     * @return true if there are available copies, false otherwise
+     */
+    public boolean isAvailable() {
+        return availableCopies != null && availableCopies > 0;
+    }
+}
@@ -0,0 +1,21 @@
+package com.booksphere.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Data Transfer Object for one returned book in a batch check-in. The rental is identified
+ * either by its transaction ID or by the book's ISBN together with the renting user's ID.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CheckInRequestDto {
+
+    private Long transactionId;
+
+    private String isbn;
+
+    private Long userId;
+}
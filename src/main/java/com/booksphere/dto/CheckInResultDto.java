@@ -0,0 +1,54 @@
+package com.booksphere.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+/**
+ * Data Transfer Object for the outcome of one returned book in a batch check-in.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CheckInResultDto {
+
+    private Long transactionId;
+
+    private String isbn;
+
+    private Long userId;
+
+    private String bookTitle;
+
+    private Status status;
+
+    private BigDecimal lateFee;
+
+    /**
+     * Outcome of checking in one book.
+     */
+    public enum Status {
+        RETURNED,
+        ALREADY_RETURNED,
+        NOT_FOUND,
+        DUPLICATE
+    }
+
+    /**
+     * Create the result of a request that could not be checked in.
+     * 
+     * @param request The request
+     * @param status The outcome
+     * @return The result
+     */
+    public static CheckInResultDto rejected(CheckInRequestDto request, Status status) {
+        CheckInResultDto result = new CheckInResultDto();
+        result.setTransactionId(request.getTransactionId());
+        result.setIsbn(request.getIsbn());
+        result.setUserId(request.getUserId());
+        result.setStatus(status);
+        return result;
+    }
+}
@@ -0,0 +1,99 @@
+package com.booksphere.dto;
+
+import com.booksphere.util.KeysetCursor;
+import lombok.Getter;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * One page of a keyset (seek) paginated listing, with opaque cursors for the neighbouring pages.
+ * Unlike {@link org.springframework.data.domain.Page} it carries no total count, so neither a
+ * count query nor an offset scan is needed however deep the page is.
+ *
+ * @param <T> The row type
+ */
+@Getter
+public class CursorPage<T> implements Iterable<T> {
+
+    /**
+     * Largest page size a listing serves, whatever size the request asks for.
+     */
+    public static final int MAX_SIZE = 100;
+
+    private final List<T> content;
+    private final int size;
+    private final String nextCursor;
+    private final String previousCursor;
+
+    public CursorPage(List<T> content, int size, String nextCursor, String previousCursor) {
+        this.content = content;
+        this.size = size;
+        this.nextCursor = nextCursor;
+        this.previousCursor = previousCursor;
+    }
+
+    /**
+     * Clamp a requested page size to between 1 and {@link #MAX_SIZE}.
+     *
+     * @param size The requested page size
+     * @return The page size to serve
+     */
+    public static int clampSize(int size) {
+        return Math.max(1, Math.min(size, MAX_SIZE));
+    }
+
+    /**
+     * Build a page from rows fetched with a limit of {@code size + 1}, in the order of the cursor's
+     * direction (i.e. reversed when paging backwards). The extra row only tells whether another
+     * page exists in that direction.
+     *
+     * @param rows The fetched rows
+     * @param size The page size
+     * @param cursor The cursor the rows were fetched from, or null for the first page
+     * @param key Function extracting a row's sort key, as stored in cursors
+     * @param id Function extracting a row's ID
+     * @param <T> The row type
+     * @return The page
+     */
+    public static <T> CursorPage<T> of(List<T> rows, int size, KeysetCursor cursor,
+                                       Function<T, String> key, Function<T, Long> id) {
+        boolean backwards = cursor != null && cursor.isPrevious();
+        boolean more = rows.size() > size;
+        List<T> content = new ArrayList<>(more ? rows.subList(0, size) : rows);
+        if (backwards) {
+            Collections.reverse(content);
+        }
+
+        boolean hasNext = backwards || more;
+        boolean hasPrevious = backwards ? more : cursor != null;
+        if (content.isEmpty()) {
+            return new CursorPage<>(content, size, null, null);
+        }
+        T first = content.get(0);
+        T last = content.get(content.size() - 1);
+        return new CursorPage<>(content, size,
+                hasNext ? KeysetCursor.next(key.apply(last), id.apply(last)).encode() : null,
+                hasPrevious ? KeysetCursor.previous(key.apply(first), id.apply(first)).encode() : null);
+    }
+
+    public boolean hasNext() {
+        return nextCursor != null;
+    }
+
+    public boolean hasPrevious() {
+        return previousCursor != null;
+    }
+
+    public boolean isEmpty() {
+        return content.isEmpty();
+    }
+
+    @Override
+    public Iterator<T> iterator() {
+        return content.iterator();
+    }
+}
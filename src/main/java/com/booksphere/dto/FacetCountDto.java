@@ -0,0 +1,20 @@
+package com.booksphere.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Data Transfer Object for the number of books matching one facet value.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class FacetCountDto {
+
+    private String value;
+
+    private String label;
+
+    private long count;
+}
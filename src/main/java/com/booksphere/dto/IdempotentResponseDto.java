@@ -0,0 +1,35 @@
+package com.booksphere.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.web.servlet.mvc.support.RedirectAttributes;
+
+/**
+ * Data Transfer Object for the response of a form submission that can be replayed to a retry:
+ * the view to render or redirect to, and an optional flash message.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class IdempotentResponseDto {
+
+    private String view;
+
+    private String messageAttribute;
+
+    private String message;
+
+    /**
+     * Add the flash message to a redirect.
+     * 
+     * @param redirectAttributes Attributes for redirect
+     * @return The view
+     */
+    public String applyTo(RedirectAttributes redirectAttributes) {
+        if (messageAttribute != null) {
+            redirectAttributes.addFlashAttribute(messageAttribute, message);
+        }
+        return view;
+    }
+}
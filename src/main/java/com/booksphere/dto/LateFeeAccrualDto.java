@@ -0,0 +1,33 @@
+package com.booksphere.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Data Transfer Object for the audit record of a late fee accrual run.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class LateFeeAccrualDto {
+
+    private long id;
+
+    private LocalDateTime asOf;
+
+    private String status;
+
+    private int chunks;
+
+    private int rentalsUpdated;
+
+    private BigDecimal outstandingFees;
+
+    private LocalDateTime startedAt;
+
+    private LocalDateTime finishedAt;
+}
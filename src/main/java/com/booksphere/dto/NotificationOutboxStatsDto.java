@@ -0,0 +1,30 @@
+package com.booksphere.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Data Transfer Object for the state of the notification outbox and its writer.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class NotificationOutboxStatsDto {
+
+    private long queueDepth;
+
+    private long oldestPendingAgeMillis;
+
+    private long lastDeliveryLagMillis;
+
+    private long deliveredTotal;
+
+    private long duplicatesSkipped;
+
+    private long failedDrains;
+
+    private LocalDateTime lastDrainAt;
+}
@@ -0,0 +1,36 @@
+package com.booksphere.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Data Transfer Object for the progress of an overdue alert sweep.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class OverdueSweepDto {
+
+    private long id;
+
+    private LocalDateTime asOf;
+
+    private String status;
+
+    private int attempts;
+
+    private long lastTransactionId;
+
+    private int chunksDone;
+
+    private int alertsCreated;
+
+    private LocalDateTime startedAt;
+
+    private LocalDateTime updatedAt;
+
+    private LocalDateTime finishedAt;
+}
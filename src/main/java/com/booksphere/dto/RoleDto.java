@@ -0,0 +1,20 @@
+package com.booksphere.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Data Transfer Object for role information.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RoleDto {
+
+    private Long id;
+
+    private String name;
+
+    private String description;
+}
@@ -0,0 +1,32 @@
+package com.booksphere.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.NoArgsConstructor;
+
+/**
+ * Data Transfer Object for a search box suggestion.
+ * Two suggestions are equal when they refer to the same book, author or genre.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@EqualsAndHashCode(onlyExplicitlyIncluded = true)
+public class SuggestionDto {
+
+    @EqualsAndHashCode.Include
+    private SuggestionType type;
+
+    @EqualsAndHashCode.Include
+    private Long id;
+
+    private String text;
+
+    /**
+     * Enum representing what a suggestion refers to.
+     */
+    public enum SuggestionType {
+        BOOK, AUTHOR, GENRE
+    }
+}
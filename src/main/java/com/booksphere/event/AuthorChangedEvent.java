@@ -0,0 +1,15 @@
+package com.booksphere.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Event published when a user with the author role is created, renamed or deleted,
+ * or when a user gains or loses the author role.
+ */
+@Getter
+@AllArgsConstructor
+public class AuthorChangedEvent {
+
+    private final Long userId;
+}
@@ -0,0 +1,48 @@
+package com.booksphere.event;
+
+import com.booksphere.dto.BookDocumentDto;
+import lombok.Getter;
+
+/**
+ * Event published when a book is created, updated or deleted.
+ * Listeners maintaining in-memory catalog indexes receive it after the change commits.
+ */
+@Getter
+public class BookChangedEvent {
+
+    private final Long bookId;
+
+    /**
+     * Snapshot of the book after the change, or null if the book was deleted.
+     */
+    private final BookDocumentDto document;
+
+    private BookChangedEvent(Long bookId, BookDocumentDto document) {
+        this.bookId = bookId;
+        this.document = document;
+    }
+
+    /**
+     * Create an event for a created or updated book.
+     *
+     * @param document Snapshot of the book
+     * @return The event
+     */
+    public static BookChangedEvent saved(BookDocumentDto document) {
+        return new BookChangedEvent(document.getId(), document);
+    }
+
+    /**
+     * Create an event for a deleted book.
+     *
+     * @param bookId The book ID
+     * @return The event
+     */
+    public static BookChangedEvent deleted(Long bookId) {
+        return new BookChangedEvent(bookId, null);
+    }
+
+    public boolean isDeleted() {
+        return document == null;
+    }
+}
@@ -0,0 +1,26 @@
+package com.booksphere.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.time.LocalDateTime;
+
+/**
+ * Event published when a book is issued to a user.
+ * Listeners maintaining rental statistics receive it after the rental commits.
+ */
+@Getter
+@AllArgsConstructor
+public class BookRentedEvent {
+
+    private final Long transactionId;
+    private final Long bookId;
+    private final Long userId;
+    private final LocalDateTime issueDate;
+    private final LocalDateTime dueDate;
+
+    /**
+     * The book's rental count including this rental.
+     */
+    private final long rentalCount;
+}
@@ -0,0 +1,20 @@
+package com.booksphere.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.time.LocalDateTime;
+
+/**
+ * Event published when a rented book is returned.
+ * Listeners tracking open rentals receive it after the return commits.
+ */
+@Getter
+@AllArgsConstructor
+public class BookReturnedEvent {
+
+    private final Long transactionId;
+    private final Long bookId;
+    private final Long userId;
+    private final LocalDateTime returnDate;
+}
@@ -0,0 +1,16 @@
+package com.booksphere.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Event published when a rental or return changes the number of available copies of a book.
+ * Listeners tracking availability receive it after the change commits.
+ */
+@Getter
+@AllArgsConstructor
+public class BookStockChangedEvent {
+
+    private final Long bookId;
+    private final Integer availableCopies;
+}
@@ -0,0 +1,47 @@
+package com.booksphere.event;
+
+import lombok.Getter;
+
+/**
+ * Event published when a genre is created, updated or deleted.
+ */
+@Getter
+public class GenreChangedEvent {
+
+    private final Long genreId;
+
+    /**
+     * The genre name after the change, or null if the genre was deleted.
+     */
+    private final String name;
+
+    private GenreChangedEvent(Long genreId, String name) {
+        this.genreId = genreId;
+        this.name = name;
+    }
+
+    /**
+     * Create an event for a created or updated genre.
+     *
+     * @param genreId The genre ID
+     * @param name The genre name
+     * @return The event
+     */
+    public static GenreChangedEvent saved(Long genreId, String name) {
+        return new GenreChangedEvent(genreId, name);
+    }
+
+    /**
+     * Create an event for a deleted genre.
+     *
+     * @param genreId The genre ID
+     * @return The event
+     */
+    public static GenreChangedEvent deleted(Long genreId) {
+        return new GenreChangedEvent(genreId, null);
+    }
+
+    public boolean isDeleted() {
+        return name == null;
+    }
+}
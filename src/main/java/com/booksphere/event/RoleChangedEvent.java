@@ -0,0 +1,14 @@
+package com.booksphere.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Event published when a role is created, updated or deleted.
+ */
+@Getter
+@AllArgsConstructor
+public class RoleChangedEvent {
+
+    private final Long roleId;
+}
@@ -3,6 +3,7 @@ package com.booksphere.model;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.DynamicUpdate;
 import org.springframework.data.annotation.CreatedDate;
 import org.springframework.data.annotation.LastModifiedDate;
 import org.springframework.data.jpa.domain.support.AuditingEntityListener;
@@ -19,7 +20,9 @@ import java.util.Set;
  */
 @Entity
 @Table(name = "books")
+@NamedEntityGraph(name = "Book.withAuthor", attributeNodes = @NamedAttributeNode("author"))
 @EntityListeners(AuditingEntityListener.class)
+@DynamicUpdate
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -52,9 +55,26 @@ public class Book {
     @Column(name = "total_copies")
     private Integer totalCopies = 0;
 
+    /**
+     * Number of copies not rented out. For a book with striped inventory this is the total of
+     * its shards, refreshed shortly after they change.
+     */
     @Column(name = "available_copies")
     private Integer availableCopies = 0;
 
+    /**
+     * Number of shards the copy pool is split across, or 0 if copies are taken from this row.
+     */
+    @Column(name = "inventory_shards", nullable = false)
+    private int inventoryShards;
+
+    /**
+     * Number of times the book has been rented. Only ever changed by an atomic increment
+     * in the database, never written back from the entity.
+     */
+    @Column(name = "rental_count", insertable = false, updatable = false)
+    private long rentalCount;
+
     @Column(nullable = false)
     private BigDecimal price;
 
@@ -101,6 +121,15 @@ public class Book {
         return availableCopies > 0;
     }
 
+    /**
+     * Gets the full name of the book's author.
+     * 
+     * @return The author's name, or null if the book has no author
+     */
+    public String getAuthorName() {
+        return author != null ? author.getFullName() : null;
+    }
+
     /**
      * Method to add a genre to this book.
      * 
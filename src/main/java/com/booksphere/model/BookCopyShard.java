@@ -0,0 +1,58 @@
+package com.booksphere.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import jakarta.persistence.*;
+
+/**
+ * Entity class representing one part of the copy pool of a book with striped inventory.
+ * Rentals of such a book take and return copies on its shards instead of the book row, so
+ * concurrent rentals of one book contend on different rows. The shards are folded back into
+ * the book's available copies and rental count shortly after they change.
+ */
+@Entity
+@Table(name = "book_copy_shards")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BookCopyShard {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "book_id", nullable = false)
+    private Long bookId;
+
+    @Column(nullable = false)
+    private int shard;
+
+    @Column(name = "available_copies", nullable = false)
+    private int availableCopies;
+
+    @Column(name = "total_copies", nullable = false)
+    private int totalCopies;
+
+    /**
+     * Rentals recorded on this shard that are not yet added to the book's rental count.
+     */
+    @Column(name = "pending_rentals", nullable = false)
+    private long pendingRentals;
+
+    /**
+     * Create a shard holding part of a book's copies.
+     * 
+     * @param bookId The book ID
+     * @param shard The index of the shard
+     * @param availableCopies The available copies in the shard
+     * @param totalCopies The total copies in the shard
+     */
+    public BookCopyShard(Long bookId, int shard, int availableCopies, int totalCopies) {
+        this.bookId = bookId;
+        this.shard = shard;
+        this.availableCopies = availableCopies;
+        this.totalCopies = totalCopies;
+    }
+}
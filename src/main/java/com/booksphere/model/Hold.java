@@ -0,0 +1,57 @@
+package com.booksphere.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import org.springframework.data.annotation.CreatedDate;
+import org.springframework.data.jpa.domain.support.AuditingEntityListener;
+
+import java.time.LocalDateTime;
+
+/**
+ * Entity class representing a user's place on the waitlist of a book that is out of stock.
+ * Holds of a book are served in the order they were placed. A returned copy is set aside for
+ * the first waiting hold, which then stays ready for pickup until it expires.
+ */
+@Data
+@Entity
+@Table(name = "holds")
+@EntityListeners(AuditingEntityListener.class)
+public class Hold {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "user_id", nullable = false)
+    private User user;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "book_id", nullable = false)
+    private Book book;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private Status status;
+
+    @Column(name = "ready_at")
+    private LocalDateTime readyAt;
+
+    @Column(name = "expires_at")
+    private LocalDateTime expiresAt;
+
+    @CreatedDate
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    /**
+     * Enum representing the state of a hold.
+     */
+    public enum Status {
+        WAITING,
+        READY,
+        FULFILLED,
+        CANCELLED,
+        EXPIRED
+    }
+}
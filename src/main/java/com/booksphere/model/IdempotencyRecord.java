@@ -0,0 +1,62 @@
+package com.booksphere.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * Entity class representing a request made with an idempotency key, and its response once completed.
+ */
+@Entity
+@Table(name = "idempotency_keys")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class IdempotencyRecord {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false, length = 50)
+    private String username;
+
+    @Column(name = "idempotency_key", nullable = false)
+    private String idempotencyKey;
+
+    /**
+     * The method, path and parameters of the request, which a retry must repeat exactly.
+     */
+    @Column(nullable = false, length = 500)
+    private String fingerprint;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private Status status;
+
+    @Column(name = "response_view")
+    private String responseView;
+
+    @Column(name = "message_attribute", length = 50)
+    private String messageAttribute;
+
+    @Column(length = 1000)
+    private String message;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "expires_at", nullable = false)
+    private LocalDateTime expiresAt;
+
+    /**
+     * Enum representing the processing state of a request.
+     */
+    public enum Status {
+        IN_PROGRESS,
+        COMPLETED
+    }
+}
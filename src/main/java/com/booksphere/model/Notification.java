@@ -20,6 +20,14 @@ import java.time.LocalDateTime;
 @AllArgsConstructor
 public class Notification {
 
+    /**
+     * Text around the book title in an overdue alert, shared by every producer of the alert,
+     * including the SQL of the overdue sweep.
+     */
+    public static final String OVERDUE_ALERT_PREFIX = "Your book '";
+    public static final String OVERDUE_ALERT_SUFFIX =
+            "' is overdue. Please return it as soon as possible to avoid additional late fees.";
+
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
@@ -86,4 +94,14 @@ public class Notification {
         this.type = type;
         this.book = book;
     }
+
+    /**
+     * Build the message of an overdue alert.
+     * 
+     * @param title The title of the overdue book
+     * @return The notification message
+     */
+    public static String overdueAlertMessage(String title) {
+        return OVERDUE_ALERT_PREFIX + title + OVERDUE_ALERT_SUFFIX;
+    }
 }
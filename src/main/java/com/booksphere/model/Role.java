@@ -9,6 +9,8 @@ import lombok.ToString;
 import lombok.EqualsAndHashCode;
 import lombok.Data;
 import lombok.Builder;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import java.util.HashSet;
 import java.util.Set;
@@ -24,6 +26,8 @@ import java.util.Set;
 @Builder
 @ToString(exclude = "users")
 @EqualsAndHashCode(exclude = "users")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 public class Role {
 
     @Id
@@ -15,8 +15,20 @@ import java.time.LocalDateTime;
 @Data
 @Entity
 @Table(name = "transactions")
+@NamedEntityGraphs({
+        @NamedEntityGraph(name = "Transaction.withBook", attributeNodes = @NamedAttributeNode("book")),
+        @NamedEntityGraph(name = "Transaction.withBookAndUser", attributeNodes = {
+                @NamedAttributeNode("book"),
+                @NamedAttributeNode("user")
+        })
+})
 @EntityListeners(AuditingEntityListener.class)
 public class Transaction {
+
+    /**
+     * Late fee charged for each full day a rental is overdue.
+     */
+    public static final BigDecimal DAILY_LATE_FEE = BigDecimal.ONE;
     
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -66,10 +78,20 @@ public class Transaction {
      * @return true if the book is overdue, false otherwise
      */
     public boolean isOverdue() {
+        return isOverdue(LocalDateTime.now());
+    }
+
+    /**
+     * Checks if the book is overdue at a given time.
+     * 
+     * @param asOf The time to check at
+     * @return true if the book is overdue, false otherwise
+     */
+    public boolean isOverdue(LocalDateTime asOf) {
         return type == TransactionType.ISSUE 
             && returnDate == null 
             && dueDate != null 
-            && LocalDateTime.now().isAfter(dueDate);
+            && asOf.isAfter(dueDate);
     }
 
     /**
@@ -78,13 +100,22 @@ public class Transaction {
      * @return The calculated late fee
      */
     public BigDecimal calculateLateFee() {
-        if (!isOverdue()) {
+        return calculateLateFee(LocalDateTime.now());
+    }
+
+    /**
+     * Calculates the late fee based on days overdue at a given time.
+     * 
+     * @param asOf The time to calculate at
+     * @return The calculated late fee
+     */
+    public BigDecimal calculateLateFee(LocalDateTime asOf) {
+        if (!isOverdue(asOf)) {
             return BigDecimal.ZERO;
         }
         
-        long daysOverdue = java.time.temporal.ChronoUnit.DAYS.between(dueDate, LocalDateTime.now());
-        // $1 per day late fee
-        return BigDecimal.ONE.multiply(BigDecimal.valueOf(daysOverdue));
+        long daysOverdue = java.time.temporal.ChronoUnit.DAYS.between(dueDate, asOf);
+        return DAILY_LATE_FEE.multiply(BigDecimal.valueOf(daysOverdue));
     }
 
     /**
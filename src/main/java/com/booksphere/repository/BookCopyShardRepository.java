@@ -0,0 +1,101 @@
+package com.booksphere.repository;
+
+import com.booksphere.model.BookCopyShard;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+/**
+ * Repository interface for BookCopyShard entity.
+ */
+@Repository
+public interface BookCopyShardRepository extends JpaRepository<BookCopyShard, Long> {
+
+    /**
+     * Find the shards of a book and lock them until the end of the transaction.
+     * 
+     * @param bookId The book ID
+     * @return The shards, in shard order
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT s FROM BookCopyShard s WHERE s.bookId = :bookId ORDER BY s.shard")
+    List<BookCopyShard> findByBookIdForUpdate(@Param("bookId") Long bookId);
+
+    /**
+     * Take one copy out of a shard if it has any available.
+     * 
+     * @param bookId The book ID
+     * @param shard The index of the shard
+     * @return 1 if a copy was taken, 0 if none was available
+     */
+    @Modifying
+    @Query("UPDATE BookCopyShard s SET s.availableCopies = s.availableCopies - 1 " +
+           "WHERE s.bookId = :bookId AND s.shard = :shard AND s.availableCopies > 0")
+    int decrementAvailableCopies(@Param("bookId") Long bookId, @Param("shard") int shard);
+
+    /**
+     * Put one copy back into a shard unless all its copies are already available.
+     * 
+     * @param bookId The book ID
+     * @param shard The index of the shard
+     * @return 1 if the copy was put back, 0 if the shard was full
+     */
+    @Modifying
+    @Query("UPDATE BookCopyShard s SET s.availableCopies = s.availableCopies + 1 " +
+           "WHERE s.bookId = :bookId AND s.shard = :shard AND s.availableCopies < s.totalCopies")
+    int incrementAvailableCopies(@Param("bookId") Long bookId, @Param("shard") int shard);
+
+    /**
+     * Record a rental on a shard.
+     * 
+     * @param bookId The book ID
+     * @param shard The index of the shard
+     * @return The number of updated rows
+     */
+    @Modifying
+    @Query("UPDATE BookCopyShard s SET s.pendingRentals = s.pendingRentals + 1 WHERE s.bookId = :bookId AND s.shard = :shard")
+    int incrementPendingRentals(@Param("bookId") Long bookId, @Param("shard") int shard);
+
+    /**
+     * Get the rentals of a book not yet added to its rental count.
+     * 
+     * @param bookId The book ID
+     * @return The number of pending rentals
+     */
+    @Query("SELECT COALESCE(SUM(s.pendingRentals), 0) FROM BookCopyShard s WHERE s.bookId = :bookId")
+    long sumPendingRentals(@Param("bookId") Long bookId);
+
+    /**
+     * Get the available copies and pending rentals of every book with striped inventory.
+     * 
+     * @return Triples of book ID, available copies and pending rentals
+     */
+    @Query("SELECT s.bookId, SUM(s.availableCopies), SUM(s.pendingRentals) FROM BookCopyShard s GROUP BY s.bookId")
+    List<Object[]> sumByBook();
+
+    /**
+     * Clear the pending rentals of a book's shards.
+     * 
+     * @param bookId The book ID
+     * @return The number of updated rows
+     */
+    @Modifying
+    @Query("UPDATE BookCopyShard s SET s.pendingRentals = 0 WHERE s.bookId = :bookId")
+    int clearPendingRentals(@Param("bookId") Long bookId);
+
+    /**
+     * Delete the shards of a book.
+     * 
+     * @param bookId The book ID
+     * @return The number of deleted rows
+     */
+    @Modifying
+    @Query("DELETE FROM BookCopyShard s WHERE s.bookId = :bookId")
+    int deleteByBookId(@Param("bookId") Long bookId);
+}
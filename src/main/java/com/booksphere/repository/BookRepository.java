@@ -1,14 +1,19 @@
 package com.booksphere.repository;
 
+import com.booksphere.dto.BookListItemDto;
 import com.booksphere.model.Book;
 import com.booksphere.model.User;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -34,12 +39,31 @@ public interface BookRepository extends JpaRepository<Book, Long> {
      */
     boolean existsByIsbn(String isbn);
 
+    /**
+     * Find a book by ID together with its author and genres, so it can be used detached.
+     * 
+     * @param id The book ID
+     * @return An optional containing the book if found
+     */
+    @EntityGraph(attributePaths = {"author", "genre", "genres"})
+    Optional<Book> findWithDetailsById(Long id);
+
+    /**
+     * Find the ID of the book with an ISBN.
+     * 
+     * @param isbn The ISBN to search for
+     * @return An optional containing the book ID if found
+     */
+    @Query("SELECT b.id FROM Book b WHERE b.isbn = :isbn")
+    Optional<Long> findIdByIsbn(@Param("isbn") String isbn);
+
     /**
      * Find all available books.
      * 
      * @param pageable Pagination information
      * @return A page of available books
      */
+    @EntityGraph("Book.withAuthor")
     @Query("SELECT b FROM Book b WHERE b.availableCopies > 0 AND b.active = true")
     Page<Book> findAvailableBooks(Pageable pageable);
 
@@ -50,12 +74,24 @@ public interface BookRepository extends JpaRepository<Book, Long> {
      * @param pageable Pagination information
      * @return A page of matching books
      */
+    @EntityGraph("Book.withAuthor")
     @Query("SELECT b FROM Book b WHERE " +
            "LOWER(b.title) LIKE LOWER(CONCAT('%', :searchTerm, '%')) OR " +
            "LOWER(b.description) LIKE LOWER(CONCAT('%', :searchTerm, '%')) OR " +
            "b.isbn LIKE CONCAT('%', :searchTerm, '%')")
     Page<Book> searchBooks(@Param("searchTerm") String searchTerm, Pageable pageable);
 
+    /**
+     * Find the next batch of books after the given ID, with author and primary genre fetched.
+     * Used to walk the whole table in ID order when building in-memory indexes.
+     * 
+     * @param afterId The last ID of the previous batch (0 for the first batch)
+     * @param pageable The batch size
+     * @return The next batch of books in ID order
+     */
+    @Query("SELECT b FROM Book b LEFT JOIN FETCH b.author LEFT JOIN FETCH b.genre WHERE b.id > :afterId ORDER BY b.id")
+    List<Book> findIndexBatch(@Param("afterId") Long afterId, Pageable pageable);
+
     /**
      * Find books by author.
      * 
@@ -72,17 +108,188 @@ public interface BookRepository extends JpaRepository<Book, Long> {
      * @param pageable Pagination information
      * @return A page of books in the genre
      */
+    @EntityGraph("Book.withAuthor")
     @Query("SELECT b FROM Book b JOIN b.genres g WHERE g.id = :genreId")
     Page<Book> findByGenreId(@Param("genreId") Long genreId, Pageable pageable);
 
     /**
-     * Find the most popular books based on number of transactions.
+     * Find the most popular books, based on their rental counts.
      * 
-     * @param limit The maximum number of books to return
+     * @param pageable Pagination information
      * @return A list of the most popular books
      */
-    @Query(value = "SELECT b.* FROM books b LEFT JOIN transactions t ON b.id = t.book_id GROUP BY b.id ORDER BY COUNT(t.id) DESC LIMIT :limit", nativeQuery = true)
-    List<Book> findMostPopular(@Param("limit") int limit);
+    @EntityGraph("Book.withAuthor")
+    @Query("SELECT b FROM Book b ORDER BY b.rentalCount DESC, b.id")
+    List<Book> findMostPopular(Pageable pageable);
+
+    /**
+     * Find the most popular books in a genre, based on their rental counts.
+     * 
+     * @param genreId The genre ID
+     * @param pageable Pagination information
+     * @return A page of books, most rented first
+     */
+    @EntityGraph("Book.withAuthor")
+    @Query(value = "SELECT b FROM Book b LEFT JOIN b.genre pg WHERE pg.id = :genreId " +
+                   "OR EXISTS (SELECT g FROM Genre g WHERE g.id = :genreId AND g MEMBER OF b.genres) " +
+                   "ORDER BY b.rentalCount DESC, b.id",
+           countQuery = "SELECT COUNT(b) FROM Book b LEFT JOIN b.genre pg WHERE pg.id = :genreId " +
+                        "OR EXISTS (SELECT g FROM Genre g WHERE g.id = :genreId AND g MEMBER OF b.genres)")
+    Page<Book> findMostPopularByGenre(@Param("genreId") Long genreId, Pageable pageable);
+
+    /**
+     * Take one copy of a book out of stock if any is available, as a single conditional update.
+     * Books with striped inventory are never updated.
+     * 
+     * @param id The book ID
+     * @return 1 if a copy was taken, 0 if none was available
+     */
+    @Modifying
+    @Query("UPDATE Book b SET b.availableCopies = b.availableCopies - 1 " +
+           "WHERE b.id = :id AND b.availableCopies > 0 AND b.inventoryShards = 0")
+    int decrementAvailableCopies(@Param("id") Long id);
+
+    /**
+     * Put one copy of a book back in stock unless all copies are already available,
+     * as a single conditional update. Books with striped inventory are never updated.
+     * 
+     * @param id The book ID
+     * @return 1 if the copy was put back, 0 if all copies were already available
+     */
+    @Modifying
+    @Query("UPDATE Book b SET b.availableCopies = b.availableCopies + 1 " +
+           "WHERE b.id = :id AND b.availableCopies < b.totalCopies AND b.inventoryShards = 0")
+    int incrementAvailableCopies(@Param("id") Long id);
+
+    /**
+     * Get the number of inventory shards of a book.
+     * 
+     * @param id The book ID
+     * @return The number of shards, 0 if the inventory is not striped
+     */
+    @Query("SELECT b.inventoryShards FROM Book b WHERE b.id = :id")
+    Integer findInventoryShards(@Param("id") Long id);
+
+    /**
+     * Read the copy counts of a book and lock its row until the end of the transaction.
+     * 
+     * @param id The book ID
+     * @return A single row of total copies, available copies and inventory shards
+     */
+    @Query(value = "SELECT total_copies, available_copies, inventory_shards FROM books WHERE id = :id FOR UPDATE",
+           nativeQuery = true)
+    List<Object[]> lockStock(@Param("id") Long id);
+
+    /**
+     * Set the copy counts of a book.
+     * 
+     * @param id The book ID
+     * @param totalCopies The total copies
+     * @param availableCopies The available copies
+     * @param inventoryShards The number of inventory shards
+     * @return The number of updated rows
+     */
+    @Modifying
+    @Query("UPDATE Book b SET b.totalCopies = :totalCopies, b.availableCopies = :availableCopies, " +
+           "b.inventoryShards = :inventoryShards WHERE b.id = :id")
+    int updateStock(@Param("id") Long id, @Param("totalCopies") int totalCopies,
+                    @Param("availableCopies") int availableCopies, @Param("inventoryShards") int inventoryShards);
+
+    /**
+     * Fold the totals of a book's inventory shards into the book, unless it no longer has any.
+     * 
+     * @param id The book ID
+     * @param availableCopies The available copies across all shards
+     * @param rentals The rentals recorded on the shards since the last fold
+     * @return The number of updated rows
+     */
+    @Modifying
+    @Query("UPDATE Book b SET b.availableCopies = :availableCopies, b.rentalCount = b.rentalCount + :rentals " +
+           "WHERE b.id = :id AND b.inventoryShards > 0")
+    int applyShardTotals(@Param("id") Long id, @Param("availableCopies") int availableCopies,
+                         @Param("rentals") long rentals);
+
+    /**
+     * Get the available copies of every book with striped inventory.
+     * 
+     * @return Pairs of book ID and available copies
+     */
+    @Query("SELECT b.id, b.availableCopies FROM Book b WHERE b.inventoryShards > 0")
+    List<Object[]> findStripedAvailableCopies();
+
+    /**
+     * Get the number of available copies of a book.
+     * 
+     * @param id The book ID
+     * @return The number of available copies
+     */
+    @Query("SELECT b.availableCopies FROM Book b WHERE b.id = :id")
+    Integer findAvailableCopies(@Param("id") Long id);
+
+    /**
+     * Get the number of available copies of several books.
+     * 
+     * @param ids The book IDs
+     * @return Pairs of book ID and available copies
+     */
+    @Query("SELECT b.id, b.availableCopies FROM Book b WHERE b.id IN :ids")
+    List<Object[]> findAvailableCopies(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Increment the rental count of a book.
+     * 
+     * @param id The book ID
+     * @return The number of updated rows
+     */
+    @Modifying
+    @Query("UPDATE Book b SET b.rentalCount = b.rentalCount + 1 WHERE b.id = :id")
+    int incrementRentalCount(@Param("id") Long id);
+
+    /**
+     * Add to the rental count of a book.
+     * 
+     * @param id The book ID
+     * @param rentals The number of rentals to add
+     * @return The number of updated rows
+     */
+    @Modifying
+    @Query("UPDATE Book b SET b.rentalCount = b.rentalCount + :rentals WHERE b.id = :id")
+    int addRentalCount(@Param("id") Long id, @Param("rentals") long rentals);
+
+    /**
+     * Get the rental count of a book.
+     * 
+     * @param id The book ID
+     * @return The rental count
+     */
+    @Query("SELECT b.rentalCount FROM Book b WHERE b.id = :id")
+    long findRentalCount(@Param("id") Long id);
+
+    /**
+     * Get the rental counts of several books.
+     * 
+     * @param ids The book IDs
+     * @return Pairs of book ID and rental count
+     */
+    @Query("SELECT b.id, b.rentalCount FROM Book b WHERE b.id IN :ids")
+    List<Object[]> findRentalCounts(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Get the rental count of every book.
+     * 
+     * @return Pairs of book ID and rental count
+     */
+    @Query("SELECT b.id, b.rentalCount FROM Book b")
+    List<Object[]> findAllRentalCounts();
+
+    /**
+     * Get the genres of every book, both its primary genre and its other genres.
+     * 
+     * @return Distinct pairs of book ID and genre ID
+     */
+    @Query("SELECT b.id, g.id FROM Book b JOIN b.genres g " +
+           "UNION SELECT b.id, b.genre.id FROM Book b WHERE b.genre IS NOT NULL")
+    List<Object[]> findAllGenreIds();
 
     /**
      * Find books by author ID.
@@ -164,4 +371,116 @@ public interface BookRepository extends JpaRepository<Book, Long> {
      */
     @Query("SELECT b FROM Book b WHERE b.availableCopies < :threshold AND b.active = true")
     Page<Book> findByAvailableCopiesLessThan(@Param("threshold") int threshold, Pageable pageable);
+
+    /**
+     * Find the available books following a position in title order, for keyset pagination.
+     * 
+     * @param title The title of the last book on the previous page
+     * @param id The ID of the last book on the previous page
+     * @param pageable Limit of the result (the page number is ignored)
+     * @return List items of available books sorted by title and ID
+     */
+    @Query("SELECT new com.booksphere.dto.BookListItemDto(b.id, b.title, a.firstName, a.lastName, " +
+           "SUBSTRING(b.description, 1, " + BookListItemDto.SUMMARY_LENGTH + "), b.isbn, b.availableCopies, b.totalCopies, b.rentalPrice, b.coverImage, b.active) " +
+           "FROM Book b LEFT JOIN b.author a WHERE b.availableCopies > 0 AND b.active = true " +
+           "AND (b.title > :title OR (b.title = :title AND b.id > :id)) ORDER BY b.title ASC, b.id ASC")
+    List<BookListItemDto> findAvailableAfter(@Param("title") String title, @Param("id") Long id, Pageable pageable);
+
+    /**
+     * Find the available books preceding a position in title order, nearest first, for keyset pagination.
+     * 
+     * @param title The title of the first book on the next page
+     * @param id The ID of the first book on the next page
+     * @param pageable Limit of the result (the page number is ignored)
+     * @return List items of available books sorted by title and ID descending
+     */
+    @Query("SELECT new com.booksphere.dto.BookListItemDto(b.id, b.title, a.firstName, a.lastName, " +
+           "SUBSTRING(b.description, 1, " + BookListItemDto.SUMMARY_LENGTH + "), b.isbn, b.availableCopies, b.totalCopies, b.rentalPrice, b.coverImage, b.active) " +
+           "FROM Book b LEFT JOIN b.author a WHERE b.availableCopies > 0 AND b.active = true " +
+           "AND (b.title < :title OR (b.title = :title AND b.id < :id)) ORDER BY b.title DESC, b.id DESC")
+    List<BookListItemDto> findAvailableBefore(@Param("title") String title, @Param("id") Long id, Pageable pageable);
+
+    /**
+     * Find the books following an ID, for keyset pagination.
+     * 
+     * @param id The ID of the last book on the previous page
+     * @param pageable Limit of the result (the page number is ignored)
+     * @return List items of books sorted by ID
+     */
+    @Query("SELECT new com.booksphere.dto.BookListItemDto(b.id, b.title, a.firstName, a.lastName, " +
+           "SUBSTRING(b.description, 1, " + BookListItemDto.SUMMARY_LENGTH + "), b.isbn, b.availableCopies, b.totalCopies, b.rentalPrice, b.coverImage, b.active) " +
+           "FROM Book b LEFT JOIN b.author a WHERE b.id > :id ORDER BY b.id ASC")
+    List<BookListItemDto> findAfterId(@Param("id") Long id, Pageable pageable);
+
+    /**
+     * Find the books preceding an ID, nearest first, for keyset pagination.
+     * 
+     * @param id The ID of the first book on the next page
+     * @param pageable Limit of the result (the page number is ignored)
+     * @return List items of books sorted by ID descending
+     */
+    @Query("SELECT new com.booksphere.dto.BookListItemDto(b.id, b.title, a.firstName, a.lastName, " +
+           "SUBSTRING(b.description, 1, " + BookListItemDto.SUMMARY_LENGTH + "), b.isbn, b.availableCopies, b.totalCopies, b.rentalPrice, b.coverImage, b.active) " +
+           "FROM Book b LEFT JOIN b.author a WHERE b.id < :id ORDER BY b.id DESC")
+    List<BookListItemDto> findBeforeId(@Param("id") Long id, Pageable pageable);
+
+    /**
+     * Find a slice of available books without counting them.
+     * 
+     * @param pageable Pagination information
+     * @return A slice of available books
+     */
+    @EntityGraph("Book.withAuthor")
+    @Query("SELECT b FROM Book b WHERE b.availableCopies > 0 AND b.active = true")
+    Slice<Book> findAvailableBooksSliced(Pageable pageable);
+
+    /**
+     * Find a slice of books in a genre without counting them.
+     * 
+     * @param genreId The genre ID
+     * @param pageable Pagination information
+     * @return A slice of books in the genre
+     */
+    @EntityGraph("Book.withAuthor")
+    @Query("SELECT b FROM Book b JOIN b.genres g WHERE g.id = :genreId")
+    Slice<Book> findByGenreIdSliced(@Param("genreId") Long genreId, Pageable pageable);
+
+    /**
+     * Search a slice of books by title, description or ISBN without counting the matches.
+     * 
+     * @param searchTerm The search term
+     * @param pageable Pagination information
+     * @return A slice of matching books
+     */
+    @EntityGraph("Book.withAuthor")
+    @Query("SELECT b FROM Book b WHERE " +
+           "LOWER(b.title) LIKE LOWER(CONCAT('%', :searchTerm, '%')) OR " +
+           "LOWER(b.description) LIKE LOWER(CONCAT('%', :searchTerm, '%')) OR " +
+           "b.isbn LIKE CONCAT('%', :searchTerm, '%')")
+    Slice<Book> searchBooksSliced(@Param("searchTerm") String searchTerm, Pageable pageable);
+
+    /**
+     * Count available books.
+     * 
+     * @return The number of active books with available copies
+     */
+    @Query("SELECT COUNT(b) FROM Book b WHERE b.availableCopies > 0 AND b.active = true")
+    long countAvailableBooks();
+
+    /**
+     * Count books per genre.
+     * 
+     * @return Rows of genre ID and number of books
+     */
+    @Query("SELECT g.id, COUNT(b) FROM Book b JOIN b.genres g GROUP BY g.id")
+    List<Object[]> countBooksPerGenre();
+
+    /**
+     * Find books by IDs together with their authors.
+     * 
+     * @param ids The book IDs
+     * @return The books, in no particular order
+     */
+    @EntityGraph("Book.withAuthor")
+    List<Book> findByIdIn(Collection<Long> ids);
 }
@@ -0,0 +1,124 @@
+package com.booksphere.repository;
+
+import com.booksphere.model.Hold;
+import org.springframework.data.jpa.repository.EntityGraph;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Repository interface for Hold entity.
+ * The waitlist of a book is read through the (book_id, status, id) index: the next hold is the
+ * first entry of the book's waiting range and a queue position is a count over a prefix of it.
+ */
+@Repository
+public interface HoldRepository extends JpaRepository<Hold, Long> {
+
+    /**
+     * Find the hold first in line for a book after a given hold.
+     * 
+     * @param bookId The book ID
+     * @param status The waiting state
+     * @param afterId The ID to start after, 0 for the head of the waitlist
+     * @return The oldest waiting hold after the given one, if any
+     */
+    @EntityGraph(attributePaths = {"user", "book"})
+    Optional<Hold> findFirstByBookIdAndStatusAndIdGreaterThanOrderByIdAsc(Long bookId, Hold.Status status, Long afterId);
+
+    /**
+     * Find a user's open hold on a book, waiting or ready.
+     * 
+     * @param userId The user ID
+     * @param bookId The book ID
+     * @return The open hold, if any
+     */
+    @Query("SELECT h FROM Hold h WHERE h.user.id = :userId AND h.book.id = :bookId " +
+           "AND h.status IN ('WAITING', 'READY')")
+    Optional<Hold> findOpenHold(@Param("userId") Long userId, @Param("bookId") Long bookId);
+
+    /**
+     * Count the holds waiting for a book ahead of a given hold.
+     * 
+     * @param bookId The book ID
+     * @param holdId The hold ID
+     * @return The number of waiting holds placed before the given one
+     */
+    @Query("SELECT COUNT(h) FROM Hold h WHERE h.book.id = :bookId AND h.status = 'WAITING' AND h.id < :holdId")
+    long countWaitingBefore(@Param("bookId") Long bookId, @Param("holdId") Long holdId);
+
+    /**
+     * Count the holds waiting for a book.
+     * 
+     * @param bookId The book ID
+     * @param status The waiting state
+     * @return The length of the book's waitlist
+     */
+    long countByBookIdAndStatus(Long bookId, Hold.Status status);
+
+    /**
+     * Find ready holds whose pickup window has passed.
+     * 
+     * @param now The current time
+     * @return The expired ready holds
+     */
+    @EntityGraph(attributePaths = {"user", "book"})
+    @Query("SELECT h FROM Hold h WHERE h.status = 'READY' AND h.expiresAt < :now ORDER BY h.expiresAt")
+    List<Hold> findExpiredReady(@Param("now") LocalDateTime now);
+
+    /**
+     * Set a returned copy aside for a waiting hold, unless it has been cancelled or served meanwhile.
+     * 
+     * @param id The hold ID
+     * @param readyAt The time the copy was set aside
+     * @param expiresAt The end of the pickup window
+     * @return 1 if the hold is now ready, 0 if it was no longer waiting
+     */
+    @Modifying
+    @Query("UPDATE Hold h SET h.status = 'READY', h.readyAt = :readyAt, h.expiresAt = :expiresAt " +
+           "WHERE h.id = :id AND h.status = 'WAITING'")
+    int markReady(@Param("id") Long id, @Param("readyAt") LocalDateTime readyAt,
+                  @Param("expiresAt") LocalDateTime expiresAt);
+
+    /**
+     * Move a hold from one state to another, unless another request moved it first.
+     * 
+     * @param id The hold ID
+     * @param from The expected current state
+     * @param to The new state
+     * @return 1 if the hold was updated, 0 if it was not in the expected state
+     */
+    @Modifying
+    @Query("UPDATE Hold h SET h.status = :to WHERE h.id = :id AND h.status = :from")
+    int updateStatus(@Param("id") Long id, @Param("from") Hold.Status from, @Param("to") Hold.Status to);
+
+    /**
+     * Close a user's open holds on books, e.g. because the user rented them.
+     * 
+     * @param userId The user ID
+     * @param bookIds The book IDs
+     * @param status The closing state
+     * @return The number of holds closed
+     */
+    @Modifying
+    @Query("UPDATE Hold h SET h.status = :status WHERE h.user.id = :userId AND h.book.id IN :bookIds " +
+           "AND h.status = 'WAITING'")
+    int closeWaitingHolds(@Param("userId") Long userId, @Param("bookIds") Collection<Long> bookIds,
+                          @Param("status") Hold.Status status);
+
+    /**
+     * Find the books a user has a ready hold on, among the given books.
+     * 
+     * @param userId The user ID
+     * @param bookIds The book IDs
+     * @return The ready holds
+     */
+    @Query("SELECT h FROM Hold h WHERE h.user.id = :userId AND h.book.id IN :bookIds AND h.status = 'READY'")
+    List<Hold> findReadyHolds(@Param("userId") Long userId, @Param("bookIds") Collection<Long> bookIds);
+}
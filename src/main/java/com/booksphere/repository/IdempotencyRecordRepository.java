@@ -0,0 +1,39 @@
+package com.booksphere.repository;
+
+import com.booksphere.model.IdempotencyRecord;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+/**
+ * Repository interface for IdempotencyRecord entity.
+ */
+@Repository
+public interface IdempotencyRecordRepository extends JpaRepository<IdempotencyRecord, Long> {
+
+    /**
+     * Find the record of a user's idempotency key.
+     * 
+     * @param username The username
+     * @param idempotencyKey The idempotency key
+     * @return An optional containing the record if found
+     */
+    Optional<IdempotencyRecord> findByUsernameAndIdempotencyKey(String username, String idempotencyKey);
+
+    /**
+     * Delete records that have expired.
+     * 
+     * @param now The current time
+     * @return The number of deleted records
+     */
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM IdempotencyRecord r WHERE r.expiresAt < :now")
+    int deleteExpired(@Param("now") LocalDateTime now);
+}
@@ -0,0 +1,156 @@
+package com.booksphere.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * JDBC access for the late fee accrual job.
+ * The late fees of overdue rentals are set by one UPDATE per chunk of consecutive transaction IDs,
+ * computed in the database from the due date. Only fees that changed are written, so running a
+ * chunk again changes nothing. Each run is recorded in the late_fee_accruals table.
+ */
+@Repository
+@RequiredArgsConstructor
+public class LateFeeAccrualRepository {
+
+    private static final String FIND_CHUNK_END =
+            "SELECT MAX(id) FROM (SELECT id FROM transactions WHERE id > ? AND type = 'ISSUE' AND return_date IS NULL " +
+            "AND due_date < ? ORDER BY id LIMIT ?) chunk";
+
+    // Whole days overdue, as ChronoUnit.DAYS.between counts them, times the daily fee
+    private static final String FEE = "FLOOR(TIMESTAMPDIFF(SECOND, due_date, CAST(? AS TIMESTAMP)) / 86400) * ?";
+
+    private static final String ACCRUE =
+            "UPDATE transactions SET late_fee = " + FEE + ", updated_at = ? " +
+            "WHERE id > ? AND id <= ? AND type = 'ISSUE' AND return_date IS NULL AND due_date < ? " +
+            "AND (late_fee IS NULL OR late_fee <> " + FEE + ")";
+
+    private static final String OUTSTANDING =
+            "SELECT COALESCE(SUM(late_fee), 0) FROM transactions WHERE type = 'ISSUE' AND return_date IS NULL";
+
+    private static final String START =
+            "INSERT INTO late_fee_accruals (as_of, status, started_at) VALUES (?, 'RUNNING', ?)";
+
+    private static final String RECORD_CHUNK =
+            "UPDATE late_fee_accruals SET chunks = chunks + 1, rentals_updated = rentals_updated + ? WHERE id = ?";
+
+    private static final String FINISH =
+            "UPDATE late_fee_accruals SET status = ?, outstanding_fees = ?, finished_at = ? WHERE id = ?";
+
+    private static final String FIND_RECENT =
+            "SELECT id, as_of, status, chunks, rentals_updated, outstanding_fees, started_at, finished_at " +
+            "FROM late_fee_accruals ORDER BY id DESC LIMIT ?";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Find the last transaction ID of the next chunk of overdue rentals.
+     *
+     * @param asOf The time rentals must have been due before
+     * @param afterId The last transaction ID of the previous chunk
+     * @param limit The maximum number of rentals in the chunk
+     * @return The last transaction ID, or null if no overdue rentals are left
+     */
+    public Long findChunkEnd(LocalDateTime asOf, long afterId, int limit) {
+        return jdbcTemplate.queryForObject(FIND_CHUNK_END, Long.class, afterId, Timestamp.valueOf(asOf), limit);
+    }
+
+    /**
+     * Bring the late fees of the overdue rentals in a range of transaction IDs up to date.
+     *
+     * @param afterId The exclusive lower bound of the transaction IDs
+     * @param toId The inclusive upper bound of the transaction IDs
+     * @param asOf The time to compute the fees at
+     * @param dailyFee The fee for each full day overdue
+     * @return The number of rentals whose fee changed
+     */
+    public int accrue(long afterId, long toId, LocalDateTime asOf, BigDecimal dailyFee) {
+        Timestamp at = Timestamp.valueOf(asOf);
+        return jdbcTemplate.update(ACCRUE, at, dailyFee, new Timestamp(System.currentTimeMillis()),
+                afterId, toId, at, at, dailyFee);
+    }
+
+    /**
+     * Sum the late fees of the open rentals.
+     *
+     * @return The total fees
+     */
+    public BigDecimal sumOutstanding() {
+        return jdbcTemplate.queryForObject(OUTSTANDING, BigDecimal.class);
+    }
+
+    /**
+     * Record the start of a run.
+     *
+     * @param asOf The time fees are computed at
+     * @return The ID of the run
+     */
+    public long start(LocalDateTime asOf) {
+        KeyHolder keyHolder = new GeneratedKeyHolder();
+        jdbcTemplate.update(connection -> {
+            PreparedStatement ps = connection.prepareStatement(START, new String[] {"id"});
+            ps.setTimestamp(1, Timestamp.valueOf(asOf));
+            ps.setTimestamp(2, new Timestamp(System.currentTimeMillis()));
+            return ps;
+        }, keyHolder);
+        return keyHolder.getKey().longValue();
+    }
+
+    /**
+     * Record a chunk of a run as done.
+     *
+     * @param id The ID of the run
+     * @param updated The number of rentals whose fee the chunk changed
+     */
+    public void recordChunk(long id, int updated) {
+        jdbcTemplate.update(RECORD_CHUNK, updated, id);
+    }
+
+    /**
+     * Record the end of a run.
+     *
+     * @param id The ID of the run
+     * @param status COMPLETED or FAILED
+     * @param outstanding The total late fees of the open rentals, or null if the run failed
+     */
+    public void finish(long id, String status, BigDecimal outstanding) {
+        jdbcTemplate.update(FINISH, status, outstanding, new Timestamp(System.currentTimeMillis()), id);
+    }
+
+    /**
+     * Find the most recent runs.
+     *
+     * @param limit The maximum number of runs
+     * @return The runs, most recent first
+     */
+    public List<Accrual> findRecent(int limit) {
+        return jdbcTemplate.query(FIND_RECENT, (rs, rowNum) -> {
+            Timestamp finishedAt = rs.getTimestamp(8);
+            return new Accrual(
+                    rs.getLong(1),
+                    rs.getTimestamp(2).toLocalDateTime(),
+                    rs.getString(3),
+                    rs.getInt(4),
+                    rs.getInt(5),
+                    rs.getBigDecimal(6),
+                    rs.getTimestamp(7).toLocalDateTime(),
+                    finishedAt != null ? finishedAt.toLocalDateTime() : null);
+        }, limit);
+    }
+
+    /**
+     * The audit record of a run.
+     */
+    public record Accrual(long id, LocalDateTime asOf, String status, int chunks, int rentalsUpdated,
+                          BigDecimal outstandingFees, LocalDateTime startedAt, LocalDateTime finishedAt) {
+    }
+}
@@ -0,0 +1,149 @@
+package com.booksphere.repository;
+
+import com.booksphere.model.Notification;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * JDBC access to the notification outbox.
+ * Rentals append notifications to the outbox in their own transaction; the outbox writer later
+ * moves them to the notifications table in batches. Every delivered notification carries the ID of
+ * its outbox row, which the unique index on notifications.outbox_id keeps from being delivered twice.
+ */
+@Repository
+@RequiredArgsConstructor
+public class NotificationOutboxRepository {
+
+    private static final String APPEND =
+            "INSERT INTO notification_outbox (user_id, book_id, type, message, created_at) VALUES (?, ?, ?, ?, ?)";
+
+    private static final String FIND_BATCH =
+            "SELECT id, user_id, book_id, type, message, created_at FROM notification_outbox ORDER BY id LIMIT ?";
+
+    private static final String FIND_DELIVERED =
+            "SELECT outbox_id FROM notifications WHERE outbox_id IN (:ids)";
+
+    private static final String DELIVER =
+            "INSERT INTO notifications (user_id, message, type, is_read, created_at, book_id, outbox_id) " +
+            "VALUES (?, ?, ?, FALSE, ?, ?, ?)";
+
+    private static final String DELETE =
+            "DELETE FROM notification_outbox WHERE id = ?";
+
+    private static final String PENDING =
+            "SELECT COUNT(*), MIN(created_at) FROM notification_outbox";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+
+    /**
+     * Append notifications to the outbox.
+     *
+     * @param notifications The notifications, with user set
+     */
+    public void append(List<Notification> notifications) {
+        Timestamp now = new Timestamp(System.currentTimeMillis());
+        jdbcTemplate.batchUpdate(APPEND, notifications, notifications.size(), (ps, notification) -> {
+            ps.setLong(1, notification.getUser().getId());
+            if (notification.getBook() != null) {
+                ps.setLong(2, notification.getBook().getId());
+            } else {
+                ps.setNull(2, Types.BIGINT);
+            }
+            ps.setString(3, notification.getType().name());
+            ps.setString(4, notification.getMessage());
+            ps.setTimestamp(5, now);
+        });
+    }
+
+    /**
+     * Find the oldest entries of the outbox.
+     *
+     * @param limit The maximum number of entries
+     * @return The entries, oldest first
+     */
+    public List<Entry> findBatch(int limit) {
+        return jdbcTemplate.query(FIND_BATCH, (rs, rowNum) -> new Entry(
+                rs.getLong(1),
+                rs.getLong(2),
+                rs.getObject(3, Long.class),
+                rs.getString(4),
+                rs.getString(5),
+                rs.getTimestamp(6).toLocalDateTime()
+        ), limit);
+    }
+
+    /**
+     * Find which outbox entries already have their notification.
+     *
+     * @param ids The outbox entry IDs
+     * @return The IDs of the delivered entries
+     */
+    public Set<Long> findDelivered(List<Long> ids) {
+        return new HashSet<>(namedParameterJdbcTemplate.queryForList(
+                FIND_DELIVERED, new MapSqlParameterSource("ids", ids), Long.class));
+    }
+
+    /**
+     * Insert the notifications of outbox entries, keeping the time each was created.
+     *
+     * @param entries The outbox entries
+     */
+    public void deliver(List<Entry> entries) {
+        jdbcTemplate.batchUpdate(DELIVER, entries, entries.size(), (ps, entry) -> {
+            ps.setLong(1, entry.userId());
+            ps.setString(2, entry.message());
+            ps.setString(3, entry.type());
+            ps.setTimestamp(4, Timestamp.valueOf(entry.createdAt()));
+            if (entry.bookId() != null) {
+                ps.setLong(5, entry.bookId());
+            } else {
+                ps.setNull(5, Types.BIGINT);
+            }
+            ps.setLong(6, entry.id());
+        });
+    }
+
+    /**
+     * Remove entries from the outbox.
+     *
+     * @param ids The outbox entry IDs
+     */
+    public void delete(List<Long> ids) {
+        jdbcTemplate.batchUpdate(DELETE, ids, ids.size(), (ps, id) -> ps.setLong(1, id));
+    }
+
+    /**
+     * Count the entries waiting in the outbox.
+     *
+     * @return The number of entries and the creation time of the oldest, null if the outbox is empty
+     */
+    public Pending findPending() {
+        return jdbcTemplate.queryForObject(PENDING, (rs, rowNum) -> {
+            Timestamp oldest = rs.getTimestamp(2);
+            return new Pending(rs.getLong(1), oldest != null ? oldest.toLocalDateTime() : null);
+        });
+    }
+
+    /**
+     * A notification waiting in the outbox.
+     */
+    public record Entry(long id, long userId, Long bookId, String type, String message, LocalDateTime createdAt) {
+    }
+
+    /**
+     * Size of the outbox.
+     */
+    public record Pending(long count, LocalDateTime oldestCreatedAt) {
+    }
+}
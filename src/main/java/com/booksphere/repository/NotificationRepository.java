@@ -9,6 +9,7 @@ import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 /**
@@ -60,4 +61,38 @@ public interface NotificationRepository extends JpaRepository<Notification, Long
     @Modifying
     @Query("UPDATE Notification n SET n.isRead = true WHERE n.user.id = :userId AND n.isRead = false")
     int markAllAsRead(@Param("userId") Long userId);
+
+    /**
+     * Find a user's notifications older than a position, newest first, for keyset pagination.
+     * 
+     * @param user The user
+     * @param createdAt The creation time of the last notification on the previous page
+     * @param id The ID of the last notification on the previous page
+     * @param pageable Limit of the result (the page number is ignored)
+     * @return Notifications sorted by creation time and ID descending
+     */
+    @Query("SELECT n FROM Notification n WHERE n.user = :user " +
+           "AND (n.createdAt < :createdAt OR (n.createdAt = :createdAt AND n.id < :id)) " +
+           "ORDER BY n.createdAt DESC, n.id DESC")
+    List<Notification> findByUserOlderThan(@Param("user") User user,
+                                           @Param("createdAt") LocalDateTime createdAt,
+                                           @Param("id") Long id,
+                                           Pageable pageable);
+
+    /**
+     * Find a user's notifications newer than a position, oldest first, for keyset pagination.
+     * 
+     * @param user The user
+     * @param createdAt The creation time of the first notification on the next page
+     * @param id The ID of the first notification on the next page
+     * @param pageable Limit of the result (the page number is ignored)
+     * @return Notifications sorted by creation time and ID
+     */
+    @Query("SELECT n FROM Notification n WHERE n.user = :user " +
+           "AND (n.createdAt > :createdAt OR (n.createdAt = :createdAt AND n.id > :id)) " +
+           "ORDER BY n.createdAt ASC, n.id ASC")
+    List<Notification> findByUserNewerThan(@Param("user") User user,
+                                           @Param("createdAt") LocalDateTime createdAt,
+                                           @Param("id") Long id,
+                                           Pageable pageable);
 }
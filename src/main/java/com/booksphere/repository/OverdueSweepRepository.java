@@ -0,0 +1,193 @@
+package com.booksphere.repository;
+
+import com.booksphere.model.Notification;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * JDBC access for the overdue alert sweep.
+ * Overdue rentals are walked in chunks of consecutive transaction IDs. Each chunk's alerts are
+ * written with one INSERT ... SELECT into the notification outbox, which skips rentals already alerted
+ * since their due date, so a chunk can safely be run again and a read alert is not repeated. The
+ * progress of each sweep is checkpointed in the overdue_sweeps table.
+ */
+@Repository
+@RequiredArgsConstructor
+public class OverdueSweepRepository {
+
+    private static final String FIND_OVERDUE_IDS =
+            "SELECT id FROM transactions WHERE id > ? AND type = 'ISSUE' AND return_date IS NULL AND due_date < ? " +
+            "ORDER BY id LIMIT ?";
+
+    private static final String INSERT_ALERTS =
+            "INSERT INTO notification_outbox (user_id, book_id, type, message, created_at) " +
+            "SELECT t.user_id, t.book_id, 'OVERDUE_ALERT', " +
+            "CONCAT('" + Notification.OVERDUE_ALERT_PREFIX.replace("'", "''") + "', b.title, '" +
+            Notification.OVERDUE_ALERT_SUFFIX.replace("'", "''") + "'), " +
+            "CAST(? AS TIMESTAMP) " +
+            "FROM transactions t JOIN books b ON b.id = t.book_id " +
+            "WHERE t.id > ? AND t.id <= ? AND t.type = 'ISSUE' AND t.return_date IS NULL AND t.due_date < ? " +
+            "AND NOT EXISTS (SELECT 1 FROM notifications n WHERE n.user_id = t.user_id AND n.book_id = t.book_id " +
+            "AND n.type = 'OVERDUE_ALERT' AND n.created_at >= t.due_date) " +
+            "AND NOT EXISTS (SELECT 1 FROM notification_outbox o WHERE o.user_id = t.user_id AND o.book_id = t.book_id " +
+            "AND o.type = 'OVERDUE_ALERT' AND o.created_at >= t.due_date)";
+
+    private static final String START =
+            "INSERT INTO overdue_sweeps (as_of, status, started_at, updated_at) VALUES (?, 'RUNNING', ?, ?)";
+
+    private static final String CHECKPOINT =
+            "UPDATE overdue_sweeps SET last_transaction_id = ?, chunks_done = chunks_done + 1, " +
+            "alerts_created = alerts_created + ?, updated_at = ? WHERE id = ?";
+
+    private static final String RETRY =
+            "UPDATE overdue_sweeps SET attempts = attempts + 1, updated_at = ? WHERE id = ?";
+
+    private static final String FINISH =
+            "UPDATE overdue_sweeps SET status = ?, updated_at = ?, finished_at = ? WHERE id = ?";
+
+    private static final String SELECT_SWEEP =
+            "SELECT id, as_of, status, attempts, last_transaction_id, chunks_done, alerts_created, started_at, " +
+            "updated_at, finished_at FROM overdue_sweeps ";
+
+    private static final RowMapper<Sweep> SWEEP_MAPPER = (rs, rowNum) -> {
+        Timestamp finishedAt = rs.getTimestamp(10);
+        return new Sweep(
+                rs.getLong(1),
+                rs.getTimestamp(2).toLocalDateTime(),
+                rs.getString(3),
+                rs.getInt(4),
+                rs.getLong(5),
+                rs.getInt(6),
+                rs.getInt(7),
+                rs.getTimestamp(8).toLocalDateTime(),
+                rs.getTimestamp(9).toLocalDateTime(),
+                finishedAt != null ? finishedAt.toLocalDateTime() : null);
+    };
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Find the IDs of the next chunk of overdue rentals.
+     *
+     * @param asOf The time rentals must have been due before
+     * @param afterId The last transaction ID of the previous chunk
+     * @param limit The maximum number of IDs
+     * @return The transaction IDs, in ascending order
+     */
+    public List<Long> findOverdueIds(LocalDateTime asOf, long afterId, int limit) {
+        return jdbcTemplate.queryForList(FIND_OVERDUE_IDS, Long.class, afterId, Timestamp.valueOf(asOf), limit);
+    }
+
+    /**
+     * Append an overdue alert for each overdue rental in a range of transaction IDs that has not been
+     * alerted since its due date, whether the alert was read, is unread or is still undelivered.
+     *
+     * @param afterId The exclusive lower bound of the transaction IDs
+     * @param toId The inclusive upper bound of the transaction IDs
+     * @param asOf The time rentals must have been due before
+     * @return The number of alerts appended
+     */
+    public int insertAlerts(long afterId, long toId, LocalDateTime asOf) {
+        return jdbcTemplate.update(INSERT_ALERTS,
+                new Timestamp(System.currentTimeMillis()), afterId, toId, Timestamp.valueOf(asOf));
+    }
+
+    /**
+     * Record the start of a sweep.
+     *
+     * @param asOf The time rentals must have been due before
+     * @return The ID of the sweep
+     */
+    public long start(LocalDateTime asOf) {
+        Timestamp now = new Timestamp(System.currentTimeMillis());
+        KeyHolder keyHolder = new GeneratedKeyHolder();
+        jdbcTemplate.update(connection -> {
+            PreparedStatement ps = connection.prepareStatement(START, new String[] {"id"});
+            ps.setTimestamp(1, Timestamp.valueOf(asOf));
+            ps.setTimestamp(2, now);
+            ps.setTimestamp(3, now);
+            return ps;
+        }, keyHolder);
+        return keyHolder.getKey().longValue();
+    }
+
+    /**
+     * Record a chunk of a sweep as done, along with every chunk before it.
+     *
+     * @param id The ID of the sweep
+     * @param lastTransactionId The last transaction ID of the chunk
+     * @param alerts The number of alerts the chunk appended
+     */
+    public void checkpoint(long id, long lastTransactionId, int alerts) {
+        jdbcTemplate.update(CHECKPOINT, lastTransactionId, alerts, new Timestamp(System.currentTimeMillis()), id);
+    }
+
+    /**
+     * Record another attempt at an unfinished sweep.
+     *
+     * @param id The ID of the sweep
+     */
+    public void retry(long id) {
+        jdbcTemplate.update(RETRY, new Timestamp(System.currentTimeMillis()), id);
+    }
+
+    /**
+     * Record a sweep as completed.
+     *
+     * @param id The ID of the sweep
+     */
+    public void finish(long id) {
+        end(id, "COMPLETED");
+    }
+
+    /**
+     * Record a sweep as failed, so that it is no longer resumed.
+     *
+     * @param id The ID of the sweep
+     */
+    public void fail(long id) {
+        end(id, "FAILED");
+    }
+
+    /**
+     * Find the most recent sweep that is still running, having neither completed nor failed.
+     *
+     * @return The sweep, or empty if every sweep completed or failed
+     */
+    public Optional<Sweep> findUnfinished() {
+        return jdbcTemplate.query(SELECT_SWEEP + "WHERE status = 'RUNNING' ORDER BY id DESC LIMIT 1", SWEEP_MAPPER)
+                .stream().findFirst();
+    }
+
+    /**
+     * Find the most recent sweep.
+     *
+     * @return The sweep, or empty if none has run
+     */
+    public Optional<Sweep> findLatest() {
+        return jdbcTemplate.query(SELECT_SWEEP + "ORDER BY id DESC LIMIT 1", SWEEP_MAPPER).stream().findFirst();
+    }
+
+    private void end(long id, String status) {
+        Timestamp now = new Timestamp(System.currentTimeMillis());
+        jdbcTemplate.update(FINISH, status, now, now, id);
+    }
+
+    /**
+     * A sweep and its checkpoint: every overdue rental up to the last transaction ID has been handled.
+     */
+    public record Sweep(long id, LocalDateTime asOf, String status, int attempts, long lastTransactionId,
+                        int chunksDone, int alertsCreated, LocalDateTime startedAt, LocalDateTime updatedAt,
+                        LocalDateTime finishedAt) {
+    }
+}
@@ -0,0 +1,244 @@
+package com.booksphere.repository;
+
+import com.booksphere.model.Transaction;
+import lombok.RequiredArgsConstructor;
+import org.springframework.dao.IncorrectResultSizeDataAccessException;
+import org.springframework.jdbc.IncorrectUpdateSemanticsDataAccessException;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * JDBC access for writing the rows of several rentals at once.
+ * Each method sends its statements as a single JDBC batch, which Hibernate cannot do for
+ * entities with IDENTITY keys. Statements run on the connection of the current transaction.
+ */
+@Repository
+@RequiredArgsConstructor
+public class RentalJdbcRepository {
+
+    private static final String DECREMENT_AVAILABLE_COPIES =
+            "UPDATE books SET available_copies = available_copies - 1 " +
+            "WHERE id = ? AND available_copies > 0 AND inventory_shards = 0";
+
+    private static final String ADD_AVAILABLE_COPIES =
+            "UPDATE books SET available_copies = LEAST(total_copies, available_copies + ?) " +
+            "WHERE id = ? AND inventory_shards = 0";
+
+    private static final String SUBTRACT_ACTIVE_RENTALS =
+            "UPDATE users SET active_rentals = CASE WHEN active_rentals > ? THEN active_rentals - ? ELSE 0 END " +
+            "WHERE id = ?";
+
+    private static final String MARK_RETURNED =
+            "UPDATE transactions SET return_date = ?, type = 'RETURN', late_fee = COALESCE(?, late_fee), updated_at = ? " +
+            "WHERE id = ? AND return_date IS NULL";
+
+    private static final String UPDATE_LATE_FEE =
+            "UPDATE transactions SET late_fee = ?, updated_at = ? WHERE id = ? AND return_date IS NULL";
+
+    private static final String INCREMENT_RENTAL_COUNT =
+            "UPDATE books SET rental_count = rental_count + 1 WHERE id = ?";
+
+    private static final String INSERT_TRANSACTION =
+            "INSERT INTO transactions (user_id, book_id, issue_date, due_date, rental_price, paid, type, " +
+            "created_at, updated_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Take one copy of each book out of stock, skipping books with none available and books
+     * with striped inventory. Relies on the driver reporting the update count of each statement
+     * in the batch, as H2 and MySQL do unless batched statements are rewritten; the batch fails
+     * if it does not. Pass the IDs in ascending order, so that concurrent batches lock the rows
+     * in the same order.
+     * 
+     * @param bookIds The book IDs
+     * @return For each book, 1 if a copy was taken and 0 otherwise
+     */
+    public int[] decrementAvailableCopies(List<Long> bookIds) {
+        return requireUpdateCounts(jdbcTemplate.batchUpdate(DECREMENT_AVAILABLE_COPIES, bookIds, bookIds.size(),
+                (ps, bookId) -> ps.setLong(1, bookId))[0]);
+    }
+
+    /**
+     * Put copies of each book back in stock, never above its total copies, skipping books
+     * with striped inventory.
+     * 
+     * @param bookIds The book IDs
+     * @param copies The number of copies returned of each book
+     * @return For each book, 1 if it was updated and 0 otherwise
+     */
+    public int[] addAvailableCopies(List<Long> bookIds, List<Integer> copies) {
+        return requireUpdateCounts(jdbcTemplate.batchUpdate(ADD_AVAILABLE_COPIES, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                ps.setInt(1, copies.get(i));
+                ps.setLong(2, bookIds.get(i));
+            }
+
+            @Override
+            public int getBatchSize() {
+                return bookIds.size();
+            }
+        }));
+    }
+
+    /**
+     * Take returned rentals off users' active rental counters, never going below zero.
+     * 
+     * @param userIds The user IDs
+     * @param counts The number of rentals returned by each user
+     */
+    public void subtractActiveRentals(List<Long> userIds, List<Integer> counts) {
+        jdbcTemplate.batchUpdate(SUBTRACT_ACTIVE_RENTALS, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                ps.setInt(1, counts.get(i));
+                ps.setInt(2, counts.get(i));
+                ps.setLong(3, userIds.get(i));
+            }
+
+            @Override
+            public int getBatchSize() {
+                return userIds.size();
+            }
+        });
+    }
+
+    /**
+     * Mark a transaction as returned, unless it already is.
+     * 
+     * @param id The transaction ID
+     * @param lateFee The late fee, or null to keep the current fee
+     * @param returnDate The return date
+     * @return 1 if the transaction was marked returned, 0 if it was already returned
+     */
+    public int markReturned(Long id, BigDecimal lateFee, LocalDateTime returnDate) {
+        Timestamp returned = Timestamp.valueOf(returnDate);
+        return jdbcTemplate.update(MARK_RETURNED, returned, lateFee, returned, id);
+    }
+
+    /**
+     * Mark transactions as returned, skipping those already returned.
+     * 
+     * @param ids The transaction IDs
+     * @param lateFees The late fee of each transaction, or null to keep its current fee
+     * @param returnDate The return date
+     * @return For each transaction, 1 if it was marked returned and 0 otherwise
+     */
+    public int[] markReturned(List<Long> ids, List<BigDecimal> lateFees, LocalDateTime returnDate) {
+        Timestamp returned = Timestamp.valueOf(returnDate);
+        return requireUpdateCounts(jdbcTemplate.batchUpdate(MARK_RETURNED, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                ps.setTimestamp(1, returned);
+                ps.setBigDecimal(2, lateFees.get(i));
+                ps.setTimestamp(3, returned);
+                ps.setLong(4, ids.get(i));
+            }
+
+            @Override
+            public int getBatchSize() {
+                return ids.size();
+            }
+        }));
+    }
+
+    /**
+     * Set the late fees of open transactions, skipping those already returned.
+     * 
+     * @param ids The transaction IDs
+     * @param lateFees The late fee of each transaction
+     * @param updatedAt The time of the update
+     */
+    public void updateLateFees(List<Long> ids, List<BigDecimal> lateFees, LocalDateTime updatedAt) {
+        Timestamp updated = Timestamp.valueOf(updatedAt);
+        jdbcTemplate.batchUpdate(UPDATE_LATE_FEE, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                ps.setBigDecimal(1, lateFees.get(i));
+                ps.setTimestamp(2, updated);
+                ps.setLong(3, ids.get(i));
+            }
+
+            @Override
+            public int getBatchSize() {
+                return ids.size();
+            }
+        });
+    }
+
+    /**
+     * Increment the rental count of each book.
+     * 
+     * @param bookIds The book IDs
+     */
+    public void incrementRentalCounts(List<Long> bookIds) {
+        jdbcTemplate.batchUpdate(INCREMENT_RENTAL_COUNT, bookIds, bookIds.size(),
+                (ps, bookId) -> ps.setLong(1, bookId));
+    }
+
+    /**
+     * Insert new transactions.
+     * 
+     * @param transactions The transactions, with user and book set
+     * @return The generated IDs, in the order of the transactions
+     */
+    public List<Long> insertTransactions(List<Transaction> transactions) {
+        return jdbcTemplate.execute((ConnectionCallback<List<Long>>) connection -> {
+            try (PreparedStatement ps = connection.prepareStatement(INSERT_TRANSACTION, new String[] {"id"})) {
+                Timestamp now = new Timestamp(System.currentTimeMillis());
+                for (Transaction transaction : transactions) {
+                    ps.setLong(1, transaction.getUser().getId());
+                    ps.setLong(2, transaction.getBook().getId());
+                    ps.setTimestamp(3, Timestamp.valueOf(transaction.getIssueDate()));
+                    ps.setTimestamp(4, Timestamp.valueOf(transaction.getDueDate()));
+                    ps.setBigDecimal(5, transaction.getRentalPrice());
+                    ps.setBoolean(6, transaction.isPaid());
+                    ps.setString(7, transaction.getType().name());
+                    ps.setTimestamp(8, now);
+                    ps.setTimestamp(9, now);
+                    ps.addBatch();
+                }
+                ps.executeBatch();
+
+                List<Long> ids = new ArrayList<>(transactions.size());
+                try (ResultSet keys = ps.getGeneratedKeys()) {
+                    while (keys.next()) {
+                        ids.add(keys.getLong(1));
+                    }
+                }
+                if (ids.size() != transactions.size()) {
+                    throw new IncorrectResultSizeDataAccessException(
+                            "Driver returned generated keys for only some transactions", transactions.size(), ids.size());
+                }
+                return ids;
+            }
+        });
+    }
+
+    /**
+     * Fail a batch whose driver did not report the update count of each statement, as happens when
+     * it rewrites batched statements; callers could not tell which rows were changed.
+     */
+    private static int[] requireUpdateCounts(int[] counts) {
+        for (int count : counts) {
+            if (count == Statement.SUCCESS_NO_INFO) {
+                throw new IncorrectUpdateSemanticsDataAccessException(
+                        "Driver did not report update counts for the batch; disable batch rewriting");
+            }
+        }
+        return counts;
+    }
+}
@@ -5,12 +5,14 @@ import com.booksphere.model.User;
 import com.booksphere.model.Book;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 @Repository
@@ -20,6 +22,27 @@ public interface TransactionRepository extends JpaRepository<Transaction, Long>
     
     @Query("SELECT t FROM Transaction t WHERE t.user = :user AND t.type = 'ISSUE' AND t.returnDate IS NULL")
     List<Transaction> findActiveRentals(@Param("user") User user);
+
+    boolean existsByUserIdAndBookIdAndTypeAndReturnDateIsNull(Long userId, Long bookId, Transaction.TransactionType type);
+
+    /**
+     * Whether the user has the book on loan. The derived exists query stops at the first matching
+     * row instead of counting them all.
+     */
+    default boolean existsActiveRental(Long userId, Long bookId) {
+        return existsByUserIdAndBookIdAndTypeAndReturnDateIsNull(userId, bookId, Transaction.TransactionType.ISSUE);
+    }
+
+    @Query("SELECT t.book.id FROM Transaction t WHERE t.user = :user AND t.type = 'ISSUE' AND t.returnDate IS NULL " +
+           "AND t.book.id IN :bookIds")
+    List<Long> findActiveRentalBookIds(@Param("user") User user, @Param("bookIds") Collection<Long> bookIds);
+
+    @EntityGraph(attributePaths = {"book", "book.author", "user"})
+    List<Transaction> findWithDetailsByIdIn(Collection<Long> ids);
+
+    @Query("SELECT t.id, t.book.isbn, t.user.id FROM Transaction t WHERE t.type = 'ISSUE' AND t.returnDate IS NULL " +
+           "AND t.book.isbn IN :isbns AND t.user.id IN :userIds ORDER BY t.issueDate")
+    List<Object[]> findActiveRentalIds(@Param("isbns") Collection<String> isbns, @Param("userIds") Collection<Long> userIds);
     
     @Query("SELECT t FROM Transaction t WHERE t.issueDate BETWEEN :startDate AND :endDate")
     Page<Transaction> findTransactionsBetweenDates(
@@ -28,6 +51,7 @@ public interface TransactionRepository extends JpaRepository<Transaction, Long>
         Pageable pageable
     );
     
+    @EntityGraph("Transaction.withBookAndUser")
     @Query("SELECT t FROM Transaction t WHERE t.book.author.id = :authorId")
     Page<Transaction> findTransactionsByAuthor(
         @Param("authorId") Long authorId,
@@ -43,9 +67,57 @@ public interface TransactionRepository extends JpaRepository<Transaction, Long>
     @Query("SELECT t FROM Transaction t WHERE t.type = 'ISSUE' AND t.returnDate IS NULL AND t.dueDate < :currentDate")
     List<Transaction> findOverdueTransactions(@Param("currentDate") LocalDateTime currentDate);
 
+    /**
+     * Get the due dates of all open rentals.
+     *
+     * @return Pairs of transaction ID and due date
+     */
+    @Query("SELECT t.id, t.dueDate FROM Transaction t WHERE t.type = 'ISSUE' AND t.returnDate IS NULL " +
+           "AND t.dueDate IS NOT NULL")
+    List<Object[]> findOpenDueDates();
+
+    /**
+     * Get the rentals issued since a point in time, oldest first.
+     *
+     * @param since The earliest issue date
+     * @return Triples of transaction ID, book ID and issue date
+     */
+    @Query("SELECT t.id, t.book.id, t.issueDate FROM Transaction t WHERE t.issueDate >= :since ORDER BY t.issueDate")
+    List<Object[]> findIssuesSince(@Param("since") LocalDateTime since);
+
+    /**
+     * Get every distinct pair of user and rented book.
+     *
+     * @return Pairs of user ID and book ID
+     */
+    @Query("SELECT DISTINCT t.user.id, t.book.id FROM Transaction t")
+    List<Object[]> findAllRentalPairs();
+
+    @Query("SELECT t.book.id, COUNT(t) FROM Transaction t GROUP BY t.book.id")
+    List<Object[]> countRentalsPerBook();
+
+    @EntityGraph("Transaction.withBook")
     List<Transaction> findByUserAndReturnDateIsNull(User user);
     List<Transaction> findByUserAndReturnDateIsNotNull(User user);
 
     long countByReturnDateIsNull();
     long countByDueDateBeforeAndReturnDateIsNull(LocalDateTime date);
+
+    @EntityGraph("Transaction.withBook")
+    @Query("SELECT t FROM Transaction t WHERE t.user = :user AND t.returnDate IS NOT NULL " +
+           "AND (t.issueDate < :issueDate OR (t.issueDate = :issueDate AND t.id < :id)) " +
+           "ORDER BY t.issueDate DESC, t.id DESC")
+    List<Transaction> findCompletedByUserOlderThan(@Param("user") User user,
+                                                   @Param("issueDate") LocalDateTime issueDate,
+                                                   @Param("id") Long id,
+                                                   Pageable pageable);
+
+    @EntityGraph("Transaction.withBook")
+    @Query("SELECT t FROM Transaction t WHERE t.user = :user AND t.returnDate IS NOT NULL " +
+           "AND (t.issueDate > :issueDate OR (t.issueDate = :issueDate AND t.id > :id)) " +
+           "ORDER BY t.issueDate ASC, t.id ASC")
+    List<Transaction> findCompletedByUserNewerThan(@Param("user") User user,
+                                                   @Param("issueDate") LocalDateTime issueDate,
+                                                   @Param("id") Long id,
+                                                   Pageable pageable);
 }
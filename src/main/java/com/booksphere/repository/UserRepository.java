@@ -1,10 +1,12 @@
 package com.booksphere.repository;
 
+import com.booksphere.dto.AuthorSummaryDto;
 import com.booksphere.model.User;
 import com.booksphere.model.UserRole;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
@@ -59,6 +61,16 @@ public interface UserRepository extends JpaRepository<User, Long> {
     @Query("SELECT u FROM User u WHERE u.userRole = :role")
     List<User> findByRole(@Param("role") UserRole role);
 
+    /**
+     * Find the ID and name of users with a role, ordered by name.
+     * 
+     * @param role The role to search for
+     * @return The user summaries
+     */
+    @Query("SELECT new com.booksphere.dto.AuthorSummaryDto(u.id, u.firstName, u.lastName) FROM User u " +
+           "WHERE u.userRole = :role ORDER BY u.firstName, u.lastName, u.id")
+    List<AuthorSummaryDto> findSummariesByRole(@Param("role") UserRole role);
+
     /**
      * Find users by role name.
      * 
@@ -101,4 +113,88 @@ public interface UserRepository extends JpaRepository<User, Long> {
 
     Page<User> findByFirstNameContainingIgnoreCaseOrLastNameContainingIgnoreCaseOrEmailContainingIgnoreCase(
             String firstName, String lastName, String email, Pageable pageable);
+
+    /**
+     * Find the users following an ID, for keyset pagination.
+     * 
+     * @param id The ID of the last user on the previous page
+     * @param pageable Limit of the result (the page number is ignored)
+     * @return Users sorted by ID
+     */
+    @Query("SELECT u FROM User u WHERE u.id > :id ORDER BY u.id ASC")
+    List<User> findAfterId(@Param("id") Long id, Pageable pageable);
+
+    /**
+     * Find the users preceding an ID, nearest first, for keyset pagination.
+     * 
+     * @param id The ID of the first user on the next page
+     * @param pageable Limit of the result (the page number is ignored)
+     * @return Users sorted by ID descending
+     */
+    @Query("SELECT u FROM User u WHERE u.id < :id ORDER BY u.id DESC")
+    List<User> findBeforeId(@Param("id") Long id, Pageable pageable);
+
+    /**
+     * Count rentals against a user's active rental counter, unless that would exceed the limit,
+     * as a single conditional update.
+     * 
+     * @param id The user ID
+     * @param count The number of new rentals
+     * @param limit The maximum number of active rentals
+     * @return 1 if the rentals were counted, 0 if they would exceed the limit
+     */
+    @Modifying
+    @Query("UPDATE User u SET u.activeRentals = u.activeRentals + :count " +
+           "WHERE u.id = :id AND u.activeRentals + :count <= :limit")
+    int addActiveRentals(@Param("id") Long id, @Param("count") int count, @Param("limit") long limit);
+
+    /**
+     * Take returned rentals off a user's active rental counter, never going below zero.
+     * 
+     * @param id The user ID
+     * @param count The number of returned rentals
+     * @return 1 if the user exists, 0 otherwise
+     */
+    @Modifying
+    @Query("UPDATE User u SET u.activeRentals = CASE WHEN u.activeRentals > :count " +
+           "THEN u.activeRentals - :count ELSE 0 END WHERE u.id = :id")
+    int subtractActiveRentals(@Param("id") Long id, @Param("count") int count);
+
+    /**
+     * Sum the active rental counters of all users.
+     * 
+     * @return The number of books currently rented out
+     */
+    @Query("SELECT COALESCE(SUM(u.activeRentals), 0) FROM User u")
+    long sumActiveRentals();
+
+    /**
+     * Find users whose active rental counter differs from their unreturned rentals.
+     * 
+     * @return The IDs of the users whose counter has drifted
+     */
+    @Query(value = "SELECT u.id FROM users u LEFT JOIN (SELECT user_id, COUNT(*) AS rentals FROM transactions " +
+                   "WHERE type = 'ISSUE' AND return_date IS NULL GROUP BY user_id) t ON t.user_id = u.id " +
+                   "WHERE u.active_rentals <> COALESCE(t.rentals, 0)", nativeQuery = true)
+    List<Long> findDriftedActiveRentals();
+
+    /**
+     * Lock a user row and read its active rental counter, waiting for rentals in progress to commit.
+     * 
+     * @param id The user ID
+     * @return The active rental counter, or null if the user does not exist
+     */
+    @Query(value = "SELECT active_rentals FROM users WHERE id = :id FOR UPDATE", nativeQuery = true)
+    Integer lockActiveRentals(@Param("id") Long id);
+
+    /**
+     * Set a user's active rental counter.
+     * 
+     * @param id The user ID
+     * @param activeRentals The number of active rentals
+     * @return 1 if the user exists, 0 otherwise
+     */
+    @Modifying
+    @Query("UPDATE User u SET u.activeRentals = :activeRentals WHERE u.id = :id")
+    int updateActiveRentals(@Param("id") Long id, @Param("activeRentals") int activeRentals);
 }
@@ -0,0 +1,49 @@
+package com.booksphere.service;
+
+import com.booksphere.dto.AdmissionStatsDto;
+
+/**
+ * Service interface for limiting the rate and concurrency of rental requests, so that bursts of
+ * rentals cannot take every database connection from the rest of the application.
+ */
+public interface AdmissionService {
+
+    /**
+     * Admit a request of a user, waiting a short bounded time for a free slot.
+     * An admitted request must be followed by a call to {@link #release()}.
+     * 
+     * @param userKey The user, or another key identifying the client
+     * @return The outcome
+     */
+    Decision admit(String userKey);
+
+    /**
+     * Free the slot of an admitted request.
+     */
+    void release();
+
+    /**
+     * Get the number of whole seconds after which a rejected client may try again.
+     * 
+     * @param userKey The user, or another key identifying the client
+     * @return The retry delay in seconds, at least 1
+     */
+    long getRetryAfterSeconds(String userKey);
+
+    /**
+     * Get the admission and rejection counters and queue wait times.
+     * 
+     * @return The admission statistics
+     */
+    AdmissionStatsDto getStats();
+
+    /**
+     * Outcome of an admission attempt.
+     */
+    enum Decision {
+        ADMITTED,
+        USER_LIMITED,
+        QUEUE_FULL,
+        TIMED_OUT
+    }
+}
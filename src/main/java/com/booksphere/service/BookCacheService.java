@@ -0,0 +1,57 @@
+package com.booksphere.service;
+
+import com.booksphere.model.Book;
+import com.booksphere.util.LoadingCache;
+
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Service interface for the read-through book cache used by single-book lookups.
+ * Cached books are detached and have their author and genres loaded; they must not be modified.
+ */
+public interface BookCacheService {
+
+    /**
+     * Get a book by ID.
+     *
+     * @param id The book ID
+     * @return An optional containing the book if found
+     */
+    Optional<Book> findById(Long id);
+
+    /**
+     * Get a book by ISBN.
+     *
+     * @param isbn The ISBN
+     * @return An optional containing the book if found
+     */
+    Optional<Book> findByIsbn(String isbn);
+
+    /**
+     * Check if a book exists by ISBN.
+     *
+     * @param isbn The ISBN
+     * @return true if a book with the given ISBN exists, false otherwise
+     */
+    boolean existsByIsbn(String isbn);
+
+    /**
+     * Remove a book from the cache, together with its ISBN mapping.
+     *
+     * @param id The book ID
+     */
+    void evict(Long id);
+
+    /**
+     * Remove all books from the cache.
+     */
+    void evictAll();
+
+    /**
+     * Get the hit and miss statistics of the book and ISBN caches.
+     *
+     * @return The statistics by cache name
+     */
+    Map<String, LoadingCache.Stats> getStats();
+}
@@ -0,0 +1,35 @@
+package com.booksphere.service;
+
+/**
+ * Service interface for approximate book counts, refreshed in the background so that list pages
+ * can show a total without running a count query per request.
+ */
+public interface BookCountService {
+
+    /**
+     * Get the approximate number of books.
+     *
+     * @return The number of books as of the last refresh
+     */
+    long getTotalCount();
+
+    /**
+     * Get the approximate number of available books.
+     *
+     * @return The number of active books with available copies as of the last refresh
+     */
+    long getAvailableCount();
+
+    /**
+     * Get the approximate number of books in a genre.
+     *
+     * @param genreId The genre ID
+     * @return The number of books in the genre as of the last refresh
+     */
+    long getGenreCount(Long genreId);
+
+    /**
+     * Recount the books now.
+     */
+    void refresh();
+}
@@ -0,0 +1,34 @@
+package com.booksphere.service;
+
+import com.booksphere.dto.BookFacetQueryDto;
+import com.booksphere.dto.BookFacetResultDto;
+import org.springframework.data.domain.Pageable;
+
+/**
+ * Service interface for faceted catalog browsing backed by in-memory bitmap indexes.
+ */
+public interface BookFacetService {
+
+    /**
+     * Check whether the facet indexes have finished their initial build.
+     *
+     * @return true if queries can be answered, false otherwise
+     */
+    boolean isAvailable();
+
+    /**
+     * Find books matching all given facet filters, in ID order, together with per-facet counts.
+     * Counts for a facet are computed against the other facets' filters only, so they show how
+     * the result would change when picking a different value of that facet.
+     *
+     * @param query The facet filters
+     * @param pageable Pagination information
+     * @return The matching books and facet counts
+     */
+    BookFacetResultDto browse(BookFacetQueryDto query, Pageable pageable);
+
+    /**
+     * Rebuild the facet indexes from the books table.
+     */
+    void rebuildIndex();
+}
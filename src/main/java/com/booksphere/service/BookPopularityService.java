@@ -0,0 +1,39 @@
+package com.booksphere.service;
+
+import java.util.List;
+
+/**
+ * Service interface for book popularity rankings, kept in memory and updated as rentals commit.
+ */
+public interface BookPopularityService {
+
+    /**
+     * Check whether the rankings have finished their initial build.
+     *
+     * @return true if rankings are served from memory, false otherwise
+     */
+    boolean isAvailable();
+
+    /**
+     * Get the IDs of the most rented books.
+     *
+     * @param genreId The genre to rank within, or null to rank all books
+     * @param offset The number of top ranked books to skip
+     * @param limit The maximum number of IDs to return
+     * @return The book IDs, most rented first
+     */
+    List<Long> getMostRented(Long genreId, long offset, int limit);
+
+    /**
+     * Get the number of ranked books.
+     *
+     * @param genreId The genre to count within, or null to count all books
+     * @return The number of books in the ranking
+     */
+    long getRankedCount(Long genreId);
+
+    /**
+     * Rebuild the rankings from the books' rental counters.
+     */
+    void rebuild();
+}
@@ -0,0 +1,51 @@
+package com.booksphere.service;
+
+import com.booksphere.model.Book;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+
+import java.util.Optional;
+
+/**
+ * Service interface for full-text book search backed by an in-memory inverted index.
+ */
+public interface BookSearchService {
+
+    /**
+     * Check whether the index is enabled and has finished its initial build.
+     *
+     * @return true if searches are served from the index, false otherwise
+     */
+    boolean isAvailable();
+
+    /**
+     * Search books by title, description, ISBN, publisher and author name, best match first.
+     * Falls back to the database query while the index is unavailable.
+     *
+     * @param query The search query
+     * @param pageable Pagination information
+     * @return A page of matching books
+     */
+    Page<Book> search(String query, Pageable pageable);
+
+    /**
+     * Suggest a spelling correction for a query by replacing unknown words with the closest
+     * title or author name terms, e.g. "harry poter" becomes "harry potter".
+     *
+     * @param query The search query
+     * @return The corrected query, or empty if every word is known or has no close match
+     */
+    Optional<String> suggestCorrection(String query);
+
+    /**
+     * Rebuild the index from the books table.
+     */
+    void rebuildIndex();
+
+    /**
+     * Get the number of books in the index.
+     *
+     * @return The indexed book count
+     */
+    int getIndexedCount();
+}
@@ -1,10 +1,13 @@
 package com.booksphere.service;
 
 import com.booksphere.dto.BookDto;
+import com.booksphere.dto.BookListItemDto;
+import com.booksphere.dto.CursorPage;
 import com.booksphere.model.Book;
 import com.booksphere.model.User;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 
 import java.util.List;
 import java.util.Optional;
@@ -30,9 +33,17 @@ public interface BookService {
     Book create(BookDto bookDto, User author);
     Page<Book> findAll(Pageable pageable);
     Page<Book> findAvailable(Pageable pageable);
+    CursorPage<BookListItemDto> findAll(String cursor, int size);
+    CursorPage<BookListItemDto> findAvailable(String cursor, int size);
+    Slice<Book> findAvailableSliced(Pageable pageable);
+    Slice<Book> findByGenreSliced(Long genreId, Pageable pageable);
+    Slice<Book> searchBooksSliced(String searchTerm, Pageable pageable);
     Page<Book> findByAuthor(User author, Pageable pageable);
     Page<Book> findByGenre(Long genreId, Pageable pageable);
     List<Book> findMostPopular(int limit);
+    Page<Book> findMostPopular(Long genreId, Pageable pageable);
+    List<Book> findTrending(int limit);
+    List<Book> findAlsoRented(Long id, int limit);
     Book addGenres(Long bookId, Set<Long> genreIds);
     Book removeGenres(Long bookId, Set<Long> genreIds);
     Book updateAvailableCopies(Long id, int availableCopies);
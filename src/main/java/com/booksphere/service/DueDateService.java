@@ -0,0 +1,31 @@
+package com.booksphere.service;
+
+/**
+ * Service interface for the due dates of open rentals.
+ * Due dates are kept in a timer wheel, so reminders, overdue alerts and late-fee accrual fire
+ * when they are due instead of being found by scanning the transactions.
+ */
+public interface DueDateService {
+
+    /**
+     * Schedule the timers of every open rental, replacing the timers already scheduled.
+     * 
+     * @return The number of open rentals loaded
+     */
+    int load();
+
+    /**
+     * Fire the timers that have come due: send reminders and overdue alerts, and bring the late
+     * fees of overdue rentals up to date.
+     * 
+     * @return The number of timers handled; timers beyond the per-tick limit wait for the next tick
+     */
+    int advance();
+
+    /**
+     * Get the number of scheduled timers.
+     * 
+     * @return The number of timers
+     */
+    int getScheduledCount();
+}
@@ -0,0 +1,88 @@
+package com.booksphere.service;
+
+import com.booksphere.model.Book;
+import com.booksphere.model.Hold;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Service interface for managing the waitlists of books that are out of stock.
+ */
+public interface HoldService {
+
+    /**
+     * Put a user on the waitlist of a book that is out of stock.
+     * 
+     * @param userId The user ID
+     * @param bookId The book ID
+     * @return The new hold
+     */
+    Hold placeHold(Long userId, Long bookId);
+
+    /**
+     * Take a user off the waitlist of a book. A copy held for the user goes to the next in line.
+     * 
+     * @param userId The user ID
+     * @param bookId The book ID
+     */
+    void cancelHold(Long userId, Long bookId);
+
+    /**
+     * Find a user's open hold on a book.
+     * 
+     * @param userId The user ID
+     * @param bookId The book ID
+     * @return The waiting or ready hold, if any
+     */
+    Optional<Hold> findOpenHold(Long userId, Long bookId);
+
+    /**
+     * Get the position of a waiting hold on its book's waitlist.
+     * 
+     * @param hold The hold
+     * @return The position, starting at 1
+     */
+    long getQueuePosition(Hold hold);
+
+    /**
+     * Count the users waiting for a book.
+     * 
+     * @param bookId The book ID
+     * @return The length of the waitlist
+     */
+    long countWaiting(Long bookId);
+
+    /**
+     * Close a user's holds on books the user is renting. Must be called in the rental's transaction.
+     * 
+     * @param userId The user ID
+     * @param bookIds The rented book IDs
+     * @return The IDs of the books whose copy was already held for the user and so is out of stock
+     */
+    Set<Long> fulfilHolds(Long userId, Collection<Long> bookIds);
+
+    /**
+     * Hold a returned copy for the first user on the book's waitlist and notify that user.
+     * Must be called in the return's transaction.
+     * 
+     * @param book The returned book
+     * @return true if the copy is held for a user, false if it should go back in stock
+     */
+    boolean allocateReturnedCopy(Book book);
+
+    /**
+     * Hold returned copies for the users first on the books' waitlists.
+     * 
+     * @param books The returned books, once per copy
+     * @return The books whose copies should go back in stock, once per copy
+     */
+    List<Book> allocateReturnedCopies(List<Book> books);
+
+    /**
+     * Expire ready holds whose pickup window has passed, passing each copy on.
+     */
+    void expireReadyHolds();
+}
@@ -0,0 +1,32 @@
+package com.booksphere.service;
+
+import com.booksphere.dto.IdempotentResponseDto;
+
+import java.util.function.Supplier;
+
+/**
+ * Service interface for making retried form submissions safe.
+ * A request carrying an idempotency key runs once; retries with the same key receive the stored
+ * response of the first request instead of running it again.
+ */
+public interface IdempotencyService {
+
+    /**
+     * Run an action at most once per user and idempotency key.
+     * 
+     * @param username The user making the request
+     * @param idempotencyKey The idempotency key, or null to always run the action
+     * @param fingerprint The method, path and parameters of the request
+     * @param errorView The view to send the user to if the key cannot be used
+     * @param action The action, returning the response to store; it must fail by throwing, which
+     *               releases the key so that a retry runs the action again
+     * @return The response of the action, or the stored response of an earlier request with the same key
+     */
+    IdempotentResponseDto execute(String username, String idempotencyKey, String fingerprint, String errorView,
+                                  Supplier<IdempotentResponseDto> action);
+
+    /**
+     * Delete records whose time to live has passed.
+     */
+    void purgeExpired();
+}
@@ -0,0 +1,94 @@
+package com.booksphere.service;
+
+import com.booksphere.model.Book;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Service interface for the copy inventory of books.
+ * A book's copies are normally counted on the book row. A book expecting heavy concurrent demand
+ * can instead have its copies striped across several shards, each of which can serve a rental
+ * independently; the book row then shows the total of its shards, refreshed shortly after a change.
+ */
+public interface InventoryService {
+
+    /**
+     * Take one copy of a book out of stock.
+     * 
+     * @param book The book
+     * @throws IllegalStateException if no copy is available
+     */
+    void reserveCopy(Book book);
+
+    /**
+     * Take one copy of each of several books out of stock, all or none.
+     * 
+     * @param books The books
+     * @throws IllegalStateException if no copy of one of the books is available
+     */
+    void reserveCopies(List<Book> books);
+
+    /**
+     * Put one copy of a book back in stock. A copy beyond the book's total is ignored.
+     * 
+     * @param book The book
+     */
+    void releaseCopy(Book book);
+
+    /**
+     * Put one copy back in stock for each occurrence of a book, never above its total copies.
+     * 
+     * @param books The returned books, a book occurring once per returned copy
+     */
+    void releaseCopies(List<Book> books);
+
+    /**
+     * Count a rental of a book.
+     * 
+     * @param book The book
+     * @return The book's rental count including this rental; for a book with striped inventory
+     *         it may miss rentals being counted concurrently
+     */
+    long recordRental(Book book);
+
+    /**
+     * Count a rental of each of several books.
+     * 
+     * @param books The books
+     * @return The rental count of each book including this rental, by book ID
+     */
+    Map<Long, Long> recordRentals(List<Book> books);
+
+    /**
+     * Set the copy counts of a book, updating the given book as well.
+     * Copies added to the total are held for the book's waitlist first.
+     * 
+     * @param book The book
+     * @param totalCopies The total copies
+     * @param availableCopies The available copies
+     */
+    void updateCopies(Book book, int totalCopies, int availableCopies);
+
+    /**
+     * Set the total copies of a book, keeping the number of copies rented out.
+     * Copies added to the total are held for the book's waitlist first. The given book is updated as well.
+     * 
+     * @param book The book
+     * @param totalCopies The total copies
+     */
+    void updateTotalCopies(Book book, int totalCopies);
+
+    /**
+     * Set the number of shards a book's copies are striped across, updating the given book as well.
+     * 
+     * @param book The book
+     * @param shards The number of shards, or 0 to count copies on the book row
+     */
+    void updateShards(Book book, int shards);
+
+    /**
+     * Fold changed shards into their books' available copies and rental counts.
+     */
+    void flushShards();
+}
@@ -0,0 +1,27 @@
+package com.booksphere.service;
+
+import com.booksphere.dto.LateFeeAccrualDto;
+
+import java.util.List;
+
+/**
+ * Service interface for the job that stores the late fees of overdue rentals, so that reports and
+ * balances read the stored fee instead of computing it for every row.
+ */
+public interface LateFeeAccrualService {
+
+    /**
+     * Bring the late fee of every open overdue rental up to date.
+     * 
+     * @return The audit record of the run
+     */
+    LateFeeAccrualDto accrue();
+
+    /**
+     * Get the audit records of the most recent runs.
+     * 
+     * @param limit The maximum number of runs
+     * @return The runs, most recent first
+     */
+    List<LateFeeAccrualDto> getRecent(int limit);
+}
@@ -0,0 +1,41 @@
+package com.booksphere.service;
+
+import com.booksphere.dto.NotificationOutboxStatsDto;
+import com.booksphere.model.Notification;
+
+import java.util.List;
+
+/**
+ * Service interface for creating notifications outside the transaction that causes them.
+ */
+public interface NotificationOutboxService {
+
+    /**
+     * Queue a notification. It is written to the outbox in the current transaction and delivered
+     * shortly after that transaction commits.
+     * 
+     * @param notification The notification, with user set
+     */
+    void enqueue(Notification notification);
+
+    /**
+     * Queue several notifications in the current transaction.
+     * 
+     * @param notifications The notifications, with user set
+     */
+    void enqueue(List<Notification> notifications);
+
+    /**
+     * Deliver the queued notifications, batch by batch, until the outbox is empty.
+     * 
+     * @return The number of notifications delivered
+     */
+    int drain();
+
+    /**
+     * Get the queue depth, lag and delivery counters of the outbox.
+     * 
+     * @return The outbox statistics
+     */
+    NotificationOutboxStatsDto getStats();
+}
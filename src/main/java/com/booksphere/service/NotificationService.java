@@ -1,5 +1,6 @@
 package com.booksphere.service;
 
+import com.booksphere.dto.CursorPage;
 import com.booksphere.model.Notification;
 import com.booksphere.model.User;
 import org.springframework.data.domain.Page;
@@ -29,6 +30,16 @@ public interface NotificationService {
      */
     Page<Notification> findByUser(User user, Pageable pageable);
 
+    /**
+     * Find notifications for a user, newest first, using keyset pagination.
+     * 
+     * @param user The user
+     * @param cursor The cursor of the requested page, or null (or malformed) for the first page
+     * @param size The page size, clamped to between 1 and {@link CursorPage#MAX_SIZE}
+     * @return A page of notifications for the user
+     */
+    CursorPage<Notification> findByUser(User user, String cursor, int size);
+
     /**
      * Find unread notifications for a user.
      * 
@@ -97,7 +108,8 @@ public interface NotificationService {
     int createForRole(String roleName, String message, Notification.NotificationType type);
     
     /**
-     * Create notifications for overdue books.
+     * Create notifications for overdue books, skipping books the user has an unread alert for.
+     * Runs the overdue sweep.
      * 
      * @return The number of created notifications
      */
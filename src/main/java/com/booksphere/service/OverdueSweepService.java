@@ -0,0 +1,28 @@
+package com.booksphere.service;
+
+import com.booksphere.dto.OverdueSweepDto;
+
+import java.util.Optional;
+
+/**
+ * Service interface for the sweep that alerts users of their overdue rentals.
+ * The sweep walks the overdue rentals in chunks, several at a time, and checkpoints its progress
+ * so that a sweep interrupted by a failure or a restart resumes where it stopped.
+ */
+public interface OverdueSweepService {
+
+    /**
+     * Alert the users of overdue rentals who have no unread alert for the book, resuming the last
+     * sweep if it did not complete.
+     * 
+     * @return The sweep
+     */
+    OverdueSweepDto sweep();
+
+    /**
+     * Get the most recent sweep.
+     * 
+     * @return The sweep, or empty if none has run
+     */
+    Optional<OverdueSweepDto> getLatest();
+}
@@ -0,0 +1,23 @@
+package com.booksphere.service;
+
+import java.util.List;
+
+/**
+ * Service interface for "readers also rented" recommendations, derived from which books
+ * were rented by the same users.
+ */
+public interface RecommendationService {
+
+    /**
+     * Get the books most often rented by users who also rented a book.
+     *
+     * @param bookId The book ID
+     * @return The IDs of the recommended books, strongest first
+     */
+    List<Long> getAlsoRented(Long bookId);
+
+    /**
+     * Rebuild the co-occurrence counts from the full rental history.
+     */
+    void rebuild();
+}
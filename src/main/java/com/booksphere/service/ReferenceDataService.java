@@ -0,0 +1,40 @@
+package com.booksphere.service;
+
+import com.booksphere.dto.AuthorSummaryDto;
+import com.booksphere.dto.GenreDto;
+import com.booksphere.dto.RoleDto;
+
+import java.util.List;
+
+/**
+ * Service interface for rarely changing reference data used by forms and filters.
+ * Lists are held in memory, loaded at startup and reloaded after each committed change.
+ */
+public interface ReferenceDataService {
+
+    /**
+     * Get all genres, ordered by name.
+     *
+     * @return The genres
+     */
+    List<GenreDto> getGenres();
+
+    /**
+     * Get all roles, ordered by name.
+     *
+     * @return The roles
+     */
+    List<RoleDto> getRoles();
+
+    /**
+     * Get the ID and name of all authors, ordered by name.
+     *
+     * @return The authors
+     */
+    List<AuthorSummaryDto> getAuthors();
+
+    /**
+     * Reload genres, roles and authors from the database.
+     */
+    void refresh();
+}
@@ -0,0 +1,45 @@
+package com.booksphere.service;
+
+import com.booksphere.model.User;
+import com.booksphere.model.UserRole;
+
+import java.util.Collection;
+
+/**
+ * Service interface for the limit on the number of books a user can rent at the same time.
+ * Each user's active rentals are kept in a counter on the user, so the limit is checked without
+ * counting the user's transactions.
+ */
+public interface RentalLimitService {
+
+    /**
+     * Get the maximum number of active rentals for a role.
+     * 
+     * @param role The user role
+     * @return The limit, or 0 if users of the role are not limited
+     */
+    int getLimit(UserRole role);
+
+    /**
+     * Count new rentals against a user's limit. Must be called in the rental's transaction.
+     * 
+     * @param user The user
+     * @param count The number of books being rented
+     * @throws IllegalStateException if the rentals would exceed the user's limit
+     */
+    void reserve(User user, int count);
+
+    /**
+     * Take returned rentals off users' counters. Must be called in the return's transaction.
+     * 
+     * @param userIds The users, once per returned rental
+     */
+    void release(Collection<Long> userIds);
+
+    /**
+     * Correct the counters of users whose counter no longer matches their unreturned rentals.
+     * 
+     * @return The number of counters corrected
+     */
+    int reconcile();
+}
@@ -0,0 +1,26 @@
+package com.booksphere.service;
+
+import com.booksphere.dto.SuggestionDto;
+
+import java.util.List;
+
+/**
+ * Service interface for search box autocomplete over book titles, author names and genres.
+ */
+public interface SuggestionService {
+
+    /**
+     * Suggest completions for a typed prefix, most popular first.
+     * Any word of a title or name can be the start of a match.
+     * 
+     * @param prefix The text typed so far
+     * @param limit The maximum number of suggestions
+     * @return A list of suggestions
+     */
+    List<SuggestionDto> suggest(String prefix, int limit);
+
+    /**
+     * Rebuild the suggestions from the database.
+     */
+    void rebuild();
+}
@@ -1,5 +1,8 @@
 package com.booksphere.service;
 
+import com.booksphere.dto.CheckInRequestDto;
+import com.booksphere.dto.CheckInResultDto;
+import com.booksphere.dto.CursorPage;
 import com.booksphere.dto.TransactionDto;
 import com.booksphere.model.Book;
 import com.booksphere.model.Transaction;
@@ -41,6 +44,16 @@ public interface TransactionService {
      */
     Transaction issueBook(Long userId, Long bookId, LocalDateTime dueDate);
 
+    /**
+     * Issue several books to a user at once. Either all books are issued or none is.
+     * 
+     * @param userId The user ID
+     * @param bookIds The book IDs, each at most once
+     * @param dueDate The due date
+     * @return The created transactions, in the order of the book IDs
+     */
+    List<Transaction> issueBooks(Long userId, List<Long> bookIds, LocalDateTime dueDate);
+
     /**
      * Return a book.
      * 
@@ -49,6 +62,15 @@ public interface TransactionService {
      */
     Transaction returnBook(Long transactionId);
 
+    /**
+     * Return a batch of books at once. Requests that cannot be checked in are reported
+     * and do not prevent the others from being returned.
+     * 
+     * @param requests The returned books
+     * @return The outcome of each request, in request order
+     */
+    List<CheckInResultDto> checkIn(List<CheckInRequestDto> requests);
+
     /**
      * Find transactions by user.
      * 
@@ -122,6 +144,16 @@ public interface TransactionService {
 
     List<Transaction> findActiveTransactionsByUser(User user);
     List<Transaction> findCompletedTransactionsByUser(User user);
+
+    /**
+     * Find a user's returned transactions, most recently issued first, using keyset pagination.
+     * 
+     * @param user The user
+     * @param cursor The cursor of the requested page, or null (or malformed) for the first page
+     * @param size The page size, clamped to between 1 and {@link CursorPage#MAX_SIZE}
+     * @return A page of returned transactions
+     */
+    CursorPage<Transaction> findCompletedTransactionsByUser(User user, String cursor, int size);
     Transaction createTransaction(User user, Long bookId, int rentalDays);
     Transaction returnBook(Transaction transaction);
     double calculateLateFee(Transaction transaction);
@@ -0,0 +1,23 @@
+package com.booksphere.service;
+
+import java.util.List;
+
+/**
+ * Service interface for "trending now" books, ranked by recent rentals with older rentals
+ * counting exponentially less.
+ */
+public interface TrendingService {
+
+    /**
+     * Get the IDs of the trending books.
+     *
+     * @param limit The maximum number of IDs to return
+     * @return The book IDs, most trending first
+     */
+    List<Long> getTrendingBookIds(int limit);
+
+    /**
+     * Rebuild the trending ranking from recent transaction history.
+     */
+    void rebuild();
+}
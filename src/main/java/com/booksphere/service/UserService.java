@@ -1,5 +1,6 @@
 package com.booksphere.service;
 
+import com.booksphere.dto.CursorPage;
 import com.booksphere.dto.UserDto;
 import com.booksphere.dto.RegistrationRequest;
 import com.booksphere.model.User;
@@ -38,4 +39,5 @@ public interface UserService extends UserDetailsService {
     Page<User> findByEnabled(boolean enabled, Pageable pageable);
     User registerUser(UserDto userDto);
     Page<User> getAllUsers(Pageable pageable);
+    CursorPage<User> getAllUsers(String cursor, int size);
 }
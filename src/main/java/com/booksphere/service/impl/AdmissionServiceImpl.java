@@ -0,0 +1,148 @@
+package com.booksphere.service.impl;
+
+import com.booksphere.dto.AdmissionStatsDto;
+import com.booksphere.service.AdmissionService;
+import com.booksphere.util.TokenBucket;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Implementation of the AdmissionService interface.
+ * A request first takes a token from its user's bucket, then one of a fixed number of global slots.
+ * Without a free slot it joins a bounded queue and waits at most a short time; when the queue is
+ * full it is rejected at once, so a burst turns into fast rejections instead of threads piling up
+ * on the connection pool. Buckets live in a concurrent map and are dropped once they have refilled.
+ */
+@Service
+@Slf4j
+public class AdmissionServiceImpl implements AdmissionService {
+
+    @Value("${app.admission.user-rate-per-second:1}")
+    private double userRatePerSecond;
+
+    @Value("${app.admission.user-burst:5}")
+    private int userBurst;
+
+    @Value("${app.admission.max-concurrent:6}")
+    private int maxConcurrent;
+
+    @Value("${app.admission.max-queued:50}")
+    private int maxQueued;
+
+    @Value("${app.admission.max-wait-ms:500}")
+    private long maxWaitMillis;
+
+    private final Map<String, TokenBucket> buckets = new ConcurrentHashMap<>();
+    private final AtomicInteger queued = new AtomicInteger();
+    private Semaphore slots;
+
+    private final LongAdder admitted = new LongAdder();
+    private final LongAdder rejectedUserLimit = new LongAdder();
+    private final LongAdder rejectedQueueFull = new LongAdder();
+    private final LongAdder rejectedTimeout = new LongAdder();
+    private final LongAdder queuedTotal = new LongAdder();
+    private final LongAdder queueWaitNanos = new LongAdder();
+    private final LongAccumulator maxQueueWaitNanos = new LongAccumulator(Math::max, 0);
+
+    @PostConstruct
+    public void init() {
+        // Fair, so queued requests are admitted in arrival order
+        slots = new Semaphore(maxConcurrent, true);
+    }
+
+    @Override
+    public Decision admit(String userKey) {
+        if (!bucket(userKey).tryAcquire(System.nanoTime())) {
+            rejectedUserLimit.increment();
+            return Decision.USER_LIMITED;
+        }
+        if (slots.tryAcquire()) {
+            admitted.increment();
+            return Decision.ADMITTED;
+        }
+
+        if (queued.incrementAndGet() > maxQueued) {
+            queued.decrementAndGet();
+            rejectedQueueFull.increment();
+            return Decision.QUEUE_FULL;
+        }
+        long start = System.nanoTime();
+        boolean acquired = false;
+        try {
+            acquired = slots.tryAcquire(maxWaitMillis, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            queued.decrementAndGet();
+        }
+        long waited = System.nanoTime() - start;
+        queuedTotal.increment();
+        queueWaitNanos.add(waited);
+        maxQueueWaitNanos.accumulate(waited);
+
+        if (!acquired) {
+            rejectedTimeout.increment();
+            return Decision.TIMED_OUT;
+        }
+        admitted.increment();
+        return Decision.ADMITTED;
+    }
+
+    @Override
+    public void release() {
+        slots.release();
+    }
+
+    @Override
+    public long getRetryAfterSeconds(String userKey) {
+        TokenBucket bucket = buckets.get(userKey);
+        long nanos = bucket != null ? bucket.nanosUntilAvailable(System.nanoTime()) : 0;
+        return Math.max(1, TimeUnit.NANOSECONDS.toSeconds(nanos + 999_999_999L));
+    }
+
+    @Override
+    public AdmissionStatsDto getStats() {
+        long waits = queuedTotal.sum();
+        return new AdmissionStatsDto(
+                admitted.sum(),
+                rejectedUserLimit.sum(),
+                rejectedQueueFull.sum(),
+                rejectedTimeout.sum(),
+                maxConcurrent - slots.availablePermits(),
+                queued.get(),
+                waits,
+                waits == 0 ? 0 : queueWaitNanos.sum() / 1_000_000.0 / waits,
+                maxQueueWaitNanos.get() / 1_000_000.0,
+                buckets.size()
+        );
+    }
+
+    /**
+     * Drop the buckets of users who have been idle long enough for them to refill.
+     */
+    @Scheduled(fixedDelayString = "${app.admission.bucket-cleanup-ms:60000}")
+    public void removeFullBuckets() {
+        long now = System.nanoTime();
+        // A token taken from a bucket as it is dropped is forgiven, which only ever favours the user
+        buckets.values().removeIf(bucket -> bucket.isFull(now));
+    }
+
+    private TokenBucket bucket(String userKey) {
+        TokenBucket bucket = buckets.get(userKey);
+        if (bucket == null) {
+            bucket = buckets.computeIfAbsent(userKey, key -> new TokenBucket(userRatePerSecond, userBurst));
+        }
+        return bucket;
+    }
+}
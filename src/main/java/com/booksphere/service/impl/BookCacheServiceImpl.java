@@ -0,0 +1,123 @@
+package com.booksphere.service.impl;
+
+import com.booksphere.event.BookChangedEvent;
+import com.booksphere.event.BookStockChangedEvent;
+import com.booksphere.model.Book;
+import com.booksphere.repository.BookRepository;
+import com.booksphere.service.BookCacheService;
+import com.booksphere.util.LoadingCache;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Implementation of the BookCacheService interface.
+ * Books are cached by ID and ISBNs are cached as a mapping to the book ID, so each book is stored
+ * once. Books are loaded in a separate read-only transaction so the cached instance is never
+ * attached to the caller's persistence context, and evicted once a change to them commits.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class BookCacheServiceImpl implements BookCacheService {
+
+    private final BookRepository bookRepository;
+    private final PlatformTransactionManager transactionManager;
+
+    @Value("${app.cache.book.max-size:10000}")
+    private int maxSize;
+
+    @Value("${app.cache.book.ttl-seconds:300}")
+    private long ttlSeconds;
+
+    private LoadingCache<Long, Book> books;
+    private LoadingCache<String, Long> isbns;
+    private TransactionTemplate loadTransaction;
+
+    @PostConstruct
+    public void init() {
+        books = new LoadingCache<>(maxSize, ttlSeconds * 1000);
+        isbns = new LoadingCache<>(maxSize, ttlSeconds * 1000);
+        loadTransaction = new TransactionTemplate(transactionManager);
+        loadTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        loadTransaction.setReadOnly(true);
+    }
+
+    @Override
+    public Optional<Book> findById(Long id) {
+        if (id == null) {
+            return Optional.empty();
+        }
+        return Optional.ofNullable(books.get(id,
+                key -> loadTransaction.execute(status -> bookRepository.findWithDetailsById(key).orElse(null))));
+    }
+
+    @Override
+    public Optional<Book> findByIsbn(String isbn) {
+        if (isbn == null) {
+            return Optional.empty();
+        }
+        Long id = isbns.get(isbn, key -> bookRepository.findIdByIsbn(key).orElse(null));
+        if (id == null) {
+            return Optional.empty();
+        }
+        Optional<Book> book = findById(id);
+        if (book.isPresent() && isbn.equals(book.get().getIsbn())) {
+            return book;
+        }
+        // The mapping outlived a change of ISBN, resolve it again
+        isbns.invalidate(isbn);
+        return bookRepository.findIdByIsbn(isbn).flatMap(this::findById);
+    }
+
+    @Override
+    public boolean existsByIsbn(String isbn) {
+        return findByIsbn(isbn).isPresent();
+    }
+
+    @Override
+    public void evict(Long id) {
+        Book cached = books.getIfPresent(id);
+        books.invalidate(id);
+        if (cached != null && cached.getIsbn() != null) {
+            isbns.invalidate(cached.getIsbn());
+        }
+    }
+
+    @Override
+    public void evictAll() {
+        books.invalidateAll();
+        isbns.invalidateAll();
+    }
+
+    @Override
+    public Map<String, LoadingCache.Stats> getStats() {
+        Map<String, LoadingCache.Stats> stats = new LinkedHashMap<>();
+        stats.put("books", books.stats());
+        stats.put("isbns", isbns.stats());
+        return stats;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBookChanged(BookChangedEvent event) {
+        evict(event.getBookId());
+        if (!event.isDeleted() && event.getDocument().getIsbn() != null) {
+            isbns.invalidate(event.getDocument().getIsbn());
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onStockChanged(BookStockChangedEvent event) {
+        evict(event.getBookId());
+    }
+}
@@ -0,0 +1,70 @@
+package com.booksphere.service.impl;
+
+import com.booksphere.repository.BookRepository;
+import com.booksphere.service.BookCountService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Implementation of the BookCountService interface.
+ * All counts are recomputed together on a fixed delay and published as one immutable snapshot,
+ * so readers never block and never hit the database.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class BookCountServiceImpl implements BookCountService {
+
+    private final BookRepository bookRepository;
+
+    private volatile Counts counts = new Counts(0, 0, Collections.emptyMap());
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        refresh();
+    }
+
+    @Scheduled(fixedDelayString = "${app.catalog.count-refresh-ms:60000}",
+               initialDelayString = "${app.catalog.count-refresh-ms:60000}")
+    public void scheduledRefresh() {
+        refresh();
+    }
+
+    @Override
+    public long getTotalCount() {
+        return counts.total();
+    }
+
+    @Override
+    public long getAvailableCount() {
+        return counts.available();
+    }
+
+    @Override
+    public long getGenreCount(Long genreId) {
+        return counts.byGenre().getOrDefault(genreId, 0L);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public void refresh() {
+        Map<Long, Long> byGenre = new HashMap<>();
+        for (Object[] row : bookRepository.countBooksPerGenre()) {
+            byGenre.put((Long) row[0], (Long) row[1]);
+        }
+        counts = new Counts(bookRepository.count(), bookRepository.countAvailableBooks(), byGenre);
+        log.debug("Book counts refreshed: {} total, {} available", counts.total(), counts.available());
+    }
+
+    private record Counts(long total, long available, Map<Long, Long> byGenre) {
+    }
+}
@@ -0,0 +1,456 @@
+package com.booksphere.service.impl;
+
+import com.booksphere.dto.BookDocumentDto;
+import com.booksphere.dto.BookFacetQueryDto;
+import com.booksphere.dto.BookFacetResultDto;
+import com.booksphere.dto.FacetCountDto;
+import com.booksphere.event.BookChangedEvent;
+import com.booksphere.event.BookStockChangedEvent;
+import com.booksphere.event.GenreChangedEvent;
+import com.booksphere.model.Book;
+import com.booksphere.model.Genre;
+import com.booksphere.repository.BookRepository;
+import com.booksphere.repository.GenreRepository;
+import com.booksphere.service.BookFacetService;
+import com.booksphere.util.CompressedBitmap;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Implementation of the BookFacetService interface.
+ * Every facet value (a genre, a year, a price, a publisher, in stock or not, active or not) owns a
+ * {@link CompressedBitmap} of the IDs of the books having it. A query ORs the bitmaps of the selected
+ * values within each facet and ANDs the facets together, so only the requested page of books is read
+ * from the database. The bitmaps are built once the application is ready and kept current from
+ * {@link BookChangedEvent}s and {@link BookStockChangedEvent}s.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class BookFacetServiceImpl implements BookFacetService {
+
+    private static final int REBUILD_BATCH_SIZE = 500;
+    private static final int MAX_PUBLISHER_COUNTS = 20;
+
+    /**
+     * Lower bounds of the price ranges reported in the price facet counts.
+     */
+    private static final BigDecimal[] PRICE_RANGES = {
+            BigDecimal.ZERO, BigDecimal.valueOf(10), BigDecimal.valueOf(25), BigDecimal.valueOf(50)
+    };
+
+    private static final int GENRE = 0;
+    private static final int YEAR = 1;
+    private static final int PRICE = 2;
+    private static final int AVAILABILITY = 3;
+    private static final int PUBLISHER = 4;
+    private static final int STATUS = 5;
+    private static final int FACET_COUNT = 6;
+
+    private final BookRepository bookRepository;
+    private final GenreRepository genreRepository;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private final Map<Long, String> genreNames = new ConcurrentHashMap<>();
+
+    private volatile Facets facets = new Facets();
+    private volatile Facets building;
+    private volatile boolean ready;
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void onApplicationReady() {
+        rebuildIndex();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBookChanged(BookChangedEvent event) {
+        apply(facets, event);
+        Facets rebuilding = building;
+        if (rebuilding != null) {
+            // Changes committed during a rebuild must survive the swap
+            apply(rebuilding, event);
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBookStockChanged(BookStockChangedEvent event) {
+        facets.updateStock(event.getBookId(), event.getAvailableCopies());
+        Facets rebuilding = building;
+        if (rebuilding != null) {
+            rebuilding.updateStock(event.getBookId(), event.getAvailableCopies());
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onGenreChanged(GenreChangedEvent event) {
+        if (event.isDeleted()) {
+            genreNames.remove(event.getGenreId());
+        } else {
+            genreNames.put(event.getGenreId(), event.getName());
+        }
+    }
+
+    @Override
+    public boolean isAvailable() {
+        return ready;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public BookFacetResultDto browse(BookFacetQueryDto query, Pageable pageable) {
+        if (!ready) {
+            throw new IllegalStateException("Catalog facets are not available yet");
+        }
+
+        BookFacetResultDto result = new BookFacetResultDto();
+        int[] pageIds = facets.query(query, pageable, result, genreNames);
+
+        List<Long> ids = new ArrayList<>(pageIds.length);
+        for (int id : pageIds) {
+            ids.add((long) id);
+        }
+        Map<Long, Book> booksById = bookRepository.findAllById(ids).stream()
+                .collect(Collectors.toMap(Book::getId, Function.identity()));
+        result.setBooks(ids.stream()
+                .map(booksById::get)
+                .filter(Objects::nonNull)
+                .map(BookDocumentDto::from)
+                .collect(Collectors.toList()));
+        return result;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public void rebuildIndex() {
+        long start = System.currentTimeMillis();
+        for (Genre genre : genreRepository.findAll()) {
+            genreNames.put(genre.getId(), genre.getName());
+        }
+
+        Facets rebuilt = new Facets();
+        building = rebuilt;
+        long lastId = 0;
+        List<Book> batch;
+        do {
+            batch = bookRepository.findIndexBatch(lastId, PageRequest.of(0, REBUILD_BATCH_SIZE));
+            for (Book book : batch) {
+                rebuilt.put(BookDocumentDto.from(book));
+                lastId = book.getId();
+            }
+            // Keep the persistence context small while walking the whole table
+            entityManager.clear();
+        } while (batch.size() == REBUILD_BATCH_SIZE);
+
+        facets = rebuilt;
+        building = null;
+        ready = true;
+        log.info("Facet bitmaps built for {} books in {} ms", rebuilt.size(), System.currentTimeMillis() - start);
+    }
+
+    private void apply(Facets target, BookChangedEvent event) {
+        if (event.isDeleted()) {
+            target.remove(event.getBookId());
+        } else {
+            target.put(event.getDocument());
+        }
+    }
+
+    private static int priceRange(BigDecimal price) {
+        for (int i = PRICE_RANGES.length - 1; i > 0; i--) {
+            if (price.compareTo(PRICE_RANGES[i]) >= 0) {
+                return i;
+            }
+        }
+        return 0;
+    }
+
+    private static String priceRangeLabel(int range) {
+        return range == PRICE_RANGES.length - 1
+                ? PRICE_RANGES[range].toPlainString() + "+"
+                : PRICE_RANGES[range].toPlainString() + "-" + PRICE_RANGES[range + 1].toPlainString();
+    }
+
+    private static String publisherKey(String publisher) {
+        return publisher.trim().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * The facet bitmaps of one build, guarded by their own lock so a rebuild can be swapped in atomically.
+     */
+    private static class Facets {
+
+        private final ReadWriteLock lock = new ReentrantReadWriteLock();
+        private final CompressedBitmap all = new CompressedBitmap();
+        private final Map<Long, CompressedBitmap> genres = new HashMap<>();
+        private final TreeMap<Integer, CompressedBitmap> years = new TreeMap<>();
+        private final TreeMap<BigDecimal, CompressedBitmap> prices = new TreeMap<>();
+        private final Map<Integer, CompressedBitmap> priceRanges = new HashMap<>();
+        private final Map<Boolean, CompressedBitmap> availability = new HashMap<>();
+        private final Map<String, CompressedBitmap> publishers = new HashMap<>();
+        private final Map<String, String> publisherNames = new HashMap<>();
+        private final Map<Boolean, CompressedBitmap> statuses = new HashMap<>();
+        private final Map<Integer, Entry> entries = new HashMap<>();
+
+        void put(BookDocumentDto book) {
+            int id = Math.toIntExact(book.getId());
+            boolean available = book.getAvailableCopies() != null && book.getAvailableCopies() > 0;
+            String publisher = book.getPublisher() != null ? publisherKey(book.getPublisher()) : null;
+            Entry entry = new Entry(new HashSet<>(book.getGenreIds()), book.getPublishedYear(),
+                    book.getPrice(), publisher, available, book.isActive());
+
+            lock.writeLock().lock();
+            try {
+                removeInternal(id);
+                entries.put(id, entry);
+                all.add(id);
+                for (Long genreId : entry.genreIds()) {
+                    add(genres, genreId, id);
+                }
+                if (entry.year() != null) {
+                    add(years, entry.year(), id);
+                }
+                if (entry.price() != null) {
+                    add(prices, entry.price(), id);
+                    add(priceRanges, priceRange(entry.price()), id);
+                }
+                if (publisher != null) {
+                    add(publishers, publisher, id);
+                    publisherNames.put(publisher, book.getPublisher().trim());
+                }
+                add(availability, available, id);
+                add(statuses, entry.active(), id);
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        void remove(Long bookId) {
+            lock.writeLock().lock();
+            try {
+                removeInternal(Math.toIntExact(bookId));
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        void updateStock(Long bookId, Integer availableCopies) {
+            int id = Math.toIntExact(bookId);
+            boolean available = availableCopies != null && availableCopies > 0;
+            lock.writeLock().lock();
+            try {
+                Entry entry = entries.get(id);
+                if (entry == null || entry.available() == available) {
+                    return;
+                }
+                remove(availability, entry.available(), id);
+                add(availability, available, id);
+                entries.put(id, new Entry(entry.genreIds(), entry.year(), entry.price(),
+                        entry.publisher(), available, entry.active()));
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        int size() {
+            lock.readLock().lock();
+            try {
+                return all.cardinality();
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+
+        /**
+         * Evaluate a query, filling in the total and the facet counts of the result.
+         *
+         * @return The IDs of the books on the requested page
+         */
+        int[] query(BookFacetQueryDto query, Pageable pageable, BookFacetResultDto result, Map<Long, String> genreNames) {
+            lock.readLock().lock();
+            try {
+                CompressedBitmap[] filters = new CompressedBitmap[FACET_COUNT];
+                if (query.getGenreIds() != null && !query.getGenreIds().isEmpty()) {
+                    filters[GENRE] = union(genres, query.getGenreIds());
+                }
+                if (query.getMinYear() != null || query.getMaxYear() != null) {
+                    int minYear = query.getMinYear() != null ? query.getMinYear() : Integer.MIN_VALUE;
+                    int maxYear = query.getMaxYear() != null ? query.getMaxYear() : Integer.MAX_VALUE;
+                    // An inverted range matches nothing rather than failing the submap
+                    filters[YEAR] = minYear > maxYear
+                            ? new CompressedBitmap()
+                            : CompressedBitmap.orAll(years.subMap(minYear, true, maxYear, true).values());
+                }
+                if (query.getMinPrice() != null && query.getMaxPrice() != null
+                        && query.getMinPrice().compareTo(query.getMaxPrice()) > 0) {
+                    filters[PRICE] = new CompressedBitmap();
+                } else if (query.getMinPrice() != null || query.getMaxPrice() != null) {
+                    NavigableMap<BigDecimal, CompressedBitmap> range = prices;
+                    if (query.getMinPrice() != null) {
+                        range = range.tailMap(query.getMinPrice(), true);
+                    }
+                    if (query.getMaxPrice() != null) {
+                        range = range.headMap(query.getMaxPrice(), true);
+                    }
+                    filters[PRICE] = CompressedBitmap.orAll(range.values());
+                }
+                if (query.getAvailable() != null) {
+                    filters[AVAILABILITY] = availability.getOrDefault(query.getAvailable(), new CompressedBitmap());
+                }
+                if (query.getPublishers() != null && !query.getPublishers().isEmpty()) {
+                    filters[PUBLISHER] = union(publishers, query.getPublishers().stream()
+                            .map(BookFacetServiceImpl::publisherKey)
+                            .collect(Collectors.toList()));
+                }
+                if (query.getActive() != null) {
+                    filters[STATUS] = statuses.getOrDefault(query.getActive(), new CompressedBitmap());
+                }
+
+                CompressedBitmap matches = intersect(filters, -1);
+                result.setTotalElements(matches.cardinality());
+                int[] ids;
+                if (pageable.isPaged()) {
+                    result.setPage(pageable.getPageNumber());
+                    result.setSize(pageable.getPageSize());
+                    ids = matches.page(pageable.getOffset(), pageable.getPageSize());
+                } else {
+                    ids = matches.page(0, matches.cardinality());
+                    result.setSize(ids.length);
+                }
+
+                Map<String, List<FacetCountDto>> counts = result.getFacets();
+                counts.put("genre", counts(intersect(filters, GENRE), genres,
+                        genreId -> genreNames.getOrDefault(genreId, String.valueOf(genreId)), true, 0));
+                counts.put("year", counts(intersect(filters, YEAR), years, String::valueOf, false, 0));
+                counts.put("price", counts(intersect(filters, PRICE), new TreeMap<>(priceRanges),
+                        BookFacetServiceImpl::priceRangeLabel, false, 0));
+                counts.put("availability", counts(intersect(filters, AVAILABILITY), availability,
+                        available -> available ? "Available" : "Out of stock", false, 0));
+                counts.put("publisher", counts(intersect(filters, PUBLISHER), publishers,
+                        publisherNames::get, true, MAX_PUBLISHER_COUNTS));
+                counts.put("status", counts(intersect(filters, STATUS), statuses,
+                        active -> active ? "Active" : "Inactive", false, 0));
+                return ids;
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+
+        /**
+         * AND all filters except the excluded one.
+         */
+        private CompressedBitmap intersect(CompressedBitmap[] filters, int excluded) {
+            CompressedBitmap result = all;
+            for (int i = 0; i < filters.length; i++) {
+                if (i != excluded && filters[i] != null) {
+                    result = CompressedBitmap.and(result, filters[i]);
+                }
+            }
+            return result;
+        }
+
+        private <K> List<FacetCountDto> counts(CompressedBitmap base, Map<K, CompressedBitmap> values,
+                                               Function<K, String> label, boolean byCount, int limit) {
+            List<FacetCountDto> counts = new ArrayList<>();
+            for (Map.Entry<K, CompressedBitmap> value : values.entrySet()) {
+                int count = CompressedBitmap.andCardinality(base, value.getValue());
+                if (count > 0) {
+                    counts.add(new FacetCountDto(String.valueOf(value.getKey()), label.apply(value.getKey()), count));
+                }
+            }
+            if (byCount) {
+                counts.sort(Comparator.comparingLong(FacetCountDto::getCount).reversed()
+                        .thenComparing(FacetCountDto::getLabel, Comparator.nullsLast(Comparator.naturalOrder())));
+            }
+            return limit > 0 && counts.size() > limit ? new ArrayList<>(counts.subList(0, limit)) : counts;
+        }
+
+        private <K> CompressedBitmap union(Map<K, CompressedBitmap> values, Collection<K> keys) {
+            List<CompressedBitmap> selected = new ArrayList<>();
+            for (K key : keys) {
+                CompressedBitmap bitmap = values.get(key);
+                if (bitmap != null) {
+                    selected.add(bitmap);
+                }
+            }
+            return CompressedBitmap.orAll(selected);
+        }
+
+        private void removeInternal(int id) {
+            Entry entry = entries.remove(id);
+            if (entry == null) {
+                return;
+            }
+            all.remove(id);
+            for (Long genreId : entry.genreIds()) {
+                remove(genres, genreId, id);
+            }
+            if (entry.year() != null) {
+                remove(years, entry.year(), id);
+            }
+            if (entry.price() != null) {
+                remove(prices, entry.price(), id);
+                remove(priceRanges, priceRange(entry.price()), id);
+            }
+            if (entry.publisher() != null && remove(publishers, entry.publisher(), id)) {
+                publisherNames.remove(entry.publisher());
+            }
+            remove(availability, entry.available(), id);
+            remove(statuses, entry.active(), id);
+        }
+
+        private static <K> void add(Map<K, CompressedBitmap> values, K key, int id) {
+            values.computeIfAbsent(key, k -> new CompressedBitmap()).add(id);
+        }
+
+        /**
+         * @return true if the value no longer has any books and was dropped
+         */
+        private static <K> boolean remove(Map<K, CompressedBitmap> values, K key, int id) {
+            CompressedBitmap bitmap = values.get(key);
+            if (bitmap == null) {
+                return false;
+            }
+            bitmap.remove(id);
+            if (bitmap.isEmpty()) {
+                values.remove(key);
+                return true;
+            }
+            return false;
+        }
+    }
+
+    private record Entry(Set<Long> genreIds, Integer year, BigDecimal price, String publisher,
+                         boolean available, boolean active) {
+    }
+}
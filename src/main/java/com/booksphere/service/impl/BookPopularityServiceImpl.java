@@ -0,0 +1,164 @@
+package com.booksphere.service.impl;
+
+import com.booksphere.event.BookChangedEvent;
+import com.booksphere.event.BookRentedEvent;
+import com.booksphere.repository.BookRepository;
+import com.booksphere.service.BookPopularityService;
+import com.booksphere.util.Leaderboard;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Implementation of the BookPopularityService interface.
+ * The rental counter of each book lives in the books table and is incremented in the same
+ * transaction as the rental. Rentals carry the new counter value, so leaderboards only ever raise
+ * a book's score to that value and events applied twice or out of order are harmless.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class BookPopularityServiceImpl implements BookPopularityService {
+
+    private final BookRepository bookRepository;
+
+    private volatile Rankings rankings = new Rankings();
+    private volatile Rankings building;
+    private volatile boolean ready;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        rebuild();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBookRented(BookRentedEvent event) {
+        rankings.raise(event.getBookId(), event.getRentalCount());
+        Rankings rebuilding = building;
+        if (rebuilding != null) {
+            rebuilding.raise(event.getBookId(), event.getRentalCount());
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBookChanged(BookChangedEvent event) {
+        apply(rankings, event);
+        Rankings rebuilding = building;
+        if (rebuilding != null) {
+            // Changes committed during a rebuild must survive the swap
+            apply(rebuilding, event);
+        }
+    }
+
+    @Override
+    public boolean isAvailable() {
+        return ready;
+    }
+
+    @Override
+    public List<Long> getMostRented(Long genreId, long offset, int limit) {
+        Leaderboard board = rankings.board(genreId);
+        return board != null ? board.top(offset, limit) : Collections.emptyList();
+    }
+
+    @Override
+    public long getRankedCount(Long genreId) {
+        Leaderboard board = rankings.board(genreId);
+        return board != null ? board.size() : 0;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public void rebuild() {
+        long start = System.currentTimeMillis();
+        Rankings rebuilt = new Rankings();
+        building = rebuilt;
+
+        Map<Long, Set<Long>> genresByBook = new HashMap<>();
+        for (Object[] row : bookRepository.findAllGenreIds()) {
+            genresByBook.computeIfAbsent((Long) row[0], id -> new HashSet<>()).add((Long) row[1]);
+        }
+        for (Object[] row : bookRepository.findAllRentalCounts()) {
+            Long bookId = (Long) row[0];
+            rebuilt.put(bookId, genresByBook.getOrDefault(bookId, Collections.emptySet()));
+            rebuilt.raise(bookId, (Long) row[1]);
+        }
+
+        rankings = rebuilt;
+        building = null;
+        ready = true;
+        log.info("Popularity rankings built for {} books in {} ms",
+                rebuilt.global.size(), System.currentTimeMillis() - start);
+    }
+
+    private void apply(Rankings target, BookChangedEvent event) {
+        if (event.isDeleted()) {
+            target.remove(event.getBookId());
+        } else {
+            target.put(event.getBookId(), event.getDocument().getGenreIds());
+        }
+    }
+
+    /**
+     * The global leaderboard and one leaderboard per genre. Updates touching several leaderboards
+     * are serialized; reads go straight to a single leaderboard.
+     */
+    private static class Rankings {
+
+        private final Leaderboard global = new Leaderboard();
+        private final Map<Long, Leaderboard> byGenre = new ConcurrentHashMap<>();
+        private final Map<Long, Set<Long>> genresByBook = new HashMap<>();
+
+        Leaderboard board(Long genreId) {
+            return genreId == null ? global : byGenre.get(genreId);
+        }
+
+        /**
+         * Add a book or update its genres, keeping its score.
+         */
+        synchronized void put(Long bookId, Set<Long> genreIds) {
+            long score = global.score(bookId);
+            global.put(bookId, score);
+            Set<Long> previous = genresByBook.put(bookId, new HashSet<>(genreIds));
+            if (previous != null) {
+                for (Long genreId : previous) {
+                    if (!genreIds.contains(genreId)) {
+                        byGenre.get(genreId).remove(bookId);
+                    }
+                }
+            }
+            for (Long genreId : genreIds) {
+                byGenre.computeIfAbsent(genreId, id -> new Leaderboard()).put(bookId, score);
+            }
+        }
+
+        synchronized void raise(Long bookId, long score) {
+            global.raise(bookId, score);
+            for (Long genreId : genresByBook.getOrDefault(bookId, Collections.emptySet())) {
+                byGenre.get(genreId).raise(bookId, score);
+            }
+        }
+
+        synchronized void remove(Long bookId) {
+            global.remove(bookId);
+            Set<Long> previous = genresByBook.remove(bookId);
+            if (previous != null) {
+                for (Long genreId : previous) {
+                    byGenre.get(genreId).remove(bookId);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,201 @@
+package com.booksphere.service.impl;
+
+import com.booksphere.dto.BookDocumentDto;
+import com.booksphere.event.BookChangedEvent;
+import com.booksphere.model.Book;
+import com.booksphere.repository.BookRepository;
+import com.booksphere.service.BookSearchService;
+import com.booksphere.util.InvertedIndex;
+import com.booksphere.util.TrigramIndex;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Implementation of the BookSearchService interface.
+ * The indexes are built once the application is ready and kept current from {@link BookChangedEvent}s:
+ * an inverted index for ranked full-text search and a trigram index over the title and author name
+ * vocabulary for spelling correction.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class BookSearchServiceImpl implements BookSearchService {
+
+    private static final int REBUILD_BATCH_SIZE = 500;
+
+    private static final float TITLE_WEIGHT = 3.0f;
+    private static final float ISBN_WEIGHT = 4.0f;
+    private static final float AUTHOR_WEIGHT = 2.0f;
+    private static final float PUBLISHER_WEIGHT = 1.0f;
+    private static final float DESCRIPTION_WEIGHT = 1.0f;
+
+    private static final int MIN_CORRECTABLE_LENGTH = 3;
+
+    private final BookRepository bookRepository;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Value("${app.search.index.enabled:true}")
+    private boolean enabled;
+
+    private volatile Indexes indexes = new Indexes();
+    private volatile Indexes building;
+    private volatile boolean ready;
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void onApplicationReady() {
+        if (enabled) {
+            rebuildIndex();
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBookChanged(BookChangedEvent event) {
+        apply(indexes, event);
+        Indexes rebuilding = building;
+        if (rebuilding != null) {
+            // Changes committed during a rebuild must survive the swap
+            apply(rebuilding, event);
+        }
+    }
+
+    @Override
+    public boolean isAvailable() {
+        return enabled && ready;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Page<Book> search(String query, Pageable pageable) {
+        if (!isAvailable()) {
+            return bookRepository.searchBooks(query, pageable);
+        }
+
+        List<InvertedIndex.Hit> hits = indexes.text.search(query);
+        int from = pageable.isPaged() ? (int) Math.min(pageable.getOffset(), hits.size()) : 0;
+        int to = pageable.isPaged() ? Math.min(from + pageable.getPageSize(), hits.size()) : hits.size();
+        List<Long> ids = hits.subList(from, to).stream()
+                .map(InvertedIndex.Hit::id)
+                .collect(Collectors.toList());
+
+        Map<Long, Book> booksById = bookRepository.findByIdIn(ids).stream()
+                .collect(Collectors.toMap(Book::getId, Function.identity()));
+        List<Book> content = ids.stream()
+                .map(booksById::get)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
+
+        return new PageImpl<>(content, pageable, hits.size());
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public void rebuildIndex() {
+        long start = System.currentTimeMillis();
+        Indexes rebuilt = new Indexes();
+        building = rebuilt;
+        long lastId = 0;
+        List<Book> batch;
+        do {
+            batch = bookRepository.findIndexBatch(lastId, PageRequest.of(0, REBUILD_BATCH_SIZE));
+            for (Book book : batch) {
+                rebuilt.put(BookDocumentDto.from(book));
+                lastId = book.getId();
+            }
+            // Keep the persistence context small while walking the whole table
+            entityManager.clear();
+        } while (batch.size() == REBUILD_BATCH_SIZE);
+
+        indexes = rebuilt;
+        building = null;
+        ready = true;
+        log.info("Search index built with {} books in {} ms", rebuilt.text.size(), System.currentTimeMillis() - start);
+    }
+
+    @Override
+    public int getIndexedCount() {
+        return indexes.text.size();
+    }
+
+    @Override
+    public Optional<String> suggestCorrection(String query) {
+        if (!isAvailable()) {
+            return Optional.empty();
+        }
+
+        TrigramIndex vocabulary = indexes.vocabulary;
+        List<String> words = InvertedIndex.tokenize(query);
+        List<String> corrected = new ArrayList<>(words.size());
+        boolean changed = false;
+        for (String word : words) {
+            String replacement = word;
+            if (word.length() >= MIN_CORRECTABLE_LENGTH && !vocabulary.contains(word)) {
+                int maxDistance = word.length() <= 4 ? 1 : 2;
+                List<TrigramIndex.Match> matches = vocabulary.closestTerms(word, maxDistance, 1);
+                if (!matches.isEmpty()) {
+                    replacement = matches.get(0).term();
+                    changed = true;
+                }
+            }
+            corrected.add(replacement);
+        }
+        return changed ? Optional.of(String.join(" ", corrected)) : Optional.empty();
+    }
+
+    private void apply(Indexes target, BookChangedEvent event) {
+        if (event.isDeleted()) {
+            target.remove(event.getBookId());
+        } else {
+            target.put(event.getDocument());
+        }
+    }
+
+    /**
+     * The full-text index and the spelling vocabulary, built and swapped together.
+     */
+    private static class Indexes {
+
+        private final InvertedIndex text = new InvertedIndex();
+        private final TrigramIndex vocabulary = new TrigramIndex();
+
+        void put(BookDocumentDto book) {
+            text.put(book.getId(), new InvertedIndex.Document()
+                    .field(book.getTitle(), TITLE_WEIGHT)
+                    .field(book.getIsbn(), ISBN_WEIGHT)
+                    .field(book.getAuthorName(), AUTHOR_WEIGHT)
+                    .field(book.getPublisher(), PUBLISHER_WEIGHT)
+                    .field(book.getDescription(), DESCRIPTION_WEIGHT));
+
+            List<String> terms = new ArrayList<>(InvertedIndex.tokenize(book.getTitle()));
+            terms.addAll(InvertedIndex.tokenize(book.getAuthorName()));
+            vocabulary.put(book.getId(), terms);
+        }
+
+        void remove(Long bookId) {
+            text.remove(bookId);
+            vocabulary.remove(bookId);
+        }
+    }
+}
@@ -1,17 +1,31 @@
 package com.booksphere.service.impl;
 
+import com.booksphere.dto.BookDocumentDto;
 import com.booksphere.dto.BookDto;
+import com.booksphere.dto.BookListItemDto;
+import com.booksphere.dto.CursorPage;
+import com.booksphere.event.BookChangedEvent;
 import com.booksphere.exception.ResourceNotFoundException;
 import com.booksphere.model.Book;
 import com.booksphere.model.Genre;
 import com.booksphere.model.User;
 import com.booksphere.repository.BookRepository;
 import com.booksphere.repository.GenreRepository;
+import com.booksphere.service.BookCacheService;
+import com.booksphere.service.BookPopularityService;
+import com.booksphere.service.BookSearchService;
 import com.booksphere.service.BookService;
+import com.booksphere.service.InventoryService;
+import com.booksphere.service.RecommendationService;
+import com.booksphere.service.TrendingService;
+import com.booksphere.util.KeysetCursor;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -31,6 +45,13 @@ public class BookServiceImpl implements BookService {
 
     private final BookRepository bookRepository;
     private final GenreRepository genreRepository;
+    private final BookSearchService bookSearchService;
+    private final BookCacheService bookCacheService;
+    private final BookPopularityService bookPopularityService;
+    private final TrendingService trendingService;
+    private final RecommendationService recommendationService;
+    private final InventoryService inventoryService;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Override
     @Transactional
@@ -53,10 +74,10 @@ public class BookServiceImpl implements BookService {
         if (book.getRentalPrice().compareTo(BigDecimal.ZERO) < 0) {
             throw new IllegalArgumentException("Rental price cannot be negative");
         }
-        if (bookRepository.existsByIsbn(book.getIsbn())) {
+        if (bookCacheService.existsByIsbn(book.getIsbn())) {
             throw new IllegalArgumentException("Book with ISBN " + book.getIsbn() + " already exists");
         }
-        return bookRepository.save(book);
+        return saveAndPublish(book);
     }
 
     @Override
@@ -66,15 +87,13 @@ public class BookServiceImpl implements BookService {
     }
 
     @Override
-    @Transactional(readOnly = true)
     public Optional<Book> getBookById(Long id) {
-        return bookRepository.findById(id);
+        return bookCacheService.findById(id);
     }
 
     @Override
-    @Transactional(readOnly = true)
     public Optional<Book> getBookByIsbn(String isbn) {
-        return bookRepository.findByIsbn(isbn);
+        return bookCacheService.findByIsbn(isbn);
     }
 
     @Override
@@ -104,7 +123,7 @@ public class BookServiceImpl implements BookService {
 
         // Check if ISBN is changed and already exists
         if (!book.getIsbn().equals(bookDetails.getIsbn()) && 
-                bookRepository.existsByIsbn(bookDetails.getIsbn())) {
+                bookCacheService.existsByIsbn(bookDetails.getIsbn())) {
             throw new IllegalArgumentException("Book with ISBN " + bookDetails.getIsbn() + " already exists");
         }
 
@@ -113,15 +132,14 @@ public class BookServiceImpl implements BookService {
         book.setIsbn(bookDetails.getIsbn());
         book.setPrice(bookDetails.getPrice());
         book.setRentalPrice(bookDetails.getRentalPrice());
-        book.setTotalCopies(bookDetails.getTotalCopies());
-        book.setAvailableCopies(bookDetails.getAvailableCopies());
+        inventoryService.updateCopies(book, bookDetails.getTotalCopies(), bookDetails.getAvailableCopies());
         book.setPublishedYear(bookDetails.getPublishedYear());
         book.setPublisher(bookDetails.getPublisher());
         book.setPublishedDate(bookDetails.getPublishedDate());
         book.setCoverImage(bookDetails.getCoverImage());
         book.setActive(bookDetails.isActive());
 
-        return bookRepository.save(book);
+        return saveAndPublish(book);
     }
 
     @Override
@@ -130,12 +148,13 @@ public class BookServiceImpl implements BookService {
         Book book = bookRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Book not found with id: " + id));
         bookRepository.delete(book);
+        eventPublisher.publishEvent(BookChangedEvent.deleted(id));
     }
 
     @Override
     @Transactional(readOnly = true)
     public Page<Book> searchBooks(String searchTerm, Pageable pageable) {
-        return bookRepository.searchBooks(searchTerm, pageable);
+        return bookSearchService.search(searchTerm, pageable);
     }
 
     @Override
@@ -178,10 +197,9 @@ public class BookServiceImpl implements BookService {
             throw new IllegalArgumentException("Quantity cannot be negative");
         }
         
-        book.setTotalCopies(quantity);
-        book.setAvailableCopies(Math.max(0, quantity - (book.getTotalCopies() - book.getAvailableCopies())));
+        inventoryService.updateTotalCopies(book, quantity);
         
-        return bookRepository.save(book);
+        return saveAndPublish(book);
     }
 
     @Override
@@ -217,7 +235,7 @@ public class BookServiceImpl implements BookService {
             book.setGenres(genres);
         }
 
-        return bookRepository.save(book);
+        return saveAndPublish(book);
     }
 
     @Override
@@ -232,6 +250,40 @@ public class BookServiceImpl implements BookService {
         return bookRepository.findAvailableBooks(pageable);
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public CursorPage<BookListItemDto> findAll(String cursor, int size) {
+        KeysetCursor position = KeysetCursor.parse(cursor);
+        size = CursorPage.clampSize(size);
+        Pageable limit = PageRequest.of(0, size + 1);
+        List<BookListItemDto> rows;
+        if (position == null) {
+            rows = bookRepository.findAfterId(0L, limit);
+        } else if (position.isPrevious()) {
+            rows = bookRepository.findBeforeId(position.getId(), limit);
+        } else {
+            rows = bookRepository.findAfterId(position.getId(), limit);
+        }
+        return CursorPage.of(rows, size, position, book -> null, BookListItemDto::getId);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public CursorPage<BookListItemDto> findAvailable(String cursor, int size) {
+        KeysetCursor position = KeysetCursor.parse(cursor);
+        size = CursorPage.clampSize(size);
+        Pageable limit = PageRequest.of(0, size + 1);
+        List<BookListItemDto> rows;
+        if (position == null) {
+            rows = bookRepository.findAvailableAfter("", 0L, limit);
+        } else if (position.isPrevious()) {
+            rows = bookRepository.findAvailableBefore(position.getKey(), position.getId(), limit);
+        } else {
+            rows = bookRepository.findAvailableAfter(position.getKey(), position.getId(), limit);
+        }
+        return CursorPage.of(rows, size, position, BookListItemDto::getTitle, BookListItemDto::getId);
+    }
+
     @Override
     @Transactional(readOnly = true)
     public Page<Book> findByAuthor(User author, Pageable pageable) {
@@ -244,9 +296,74 @@ public class BookServiceImpl implements BookService {
         return bookRepository.findByGenreId(genreId, pageable);
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public Slice<Book> findAvailableSliced(Pageable pageable) {
+        return bookRepository.findAvailableBooksSliced(pageable);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Slice<Book> findByGenreSliced(Long genreId, Pageable pageable) {
+        return bookRepository.findByGenreIdSliced(genreId, pageable);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Slice<Book> searchBooksSliced(String searchTerm, Pageable pageable) {
+        if (bookSearchService.isAvailable()) {
+            // The index knows the exact number of hits anyway, so keep the full page
+            return bookSearchService.search(searchTerm, pageable);
+        }
+        return bookRepository.searchBooksSliced(searchTerm, pageable);
+    }
+
     @Override
     public List<Book> findMostPopular(int limit) {
-        return bookRepository.findMostPopular(limit);
+        if (!bookPopularityService.isAvailable()) {
+            return bookRepository.findMostPopular(PageRequest.of(0, limit));
+        }
+        return loadRanked(bookPopularityService.getMostRented(null, 0, limit));
+    }
+
+    @Override
+    public Page<Book> findMostPopular(Long genreId, Pageable pageable) {
+        if (!bookPopularityService.isAvailable()) {
+            if (genreId != null) {
+                return bookRepository.findMostPopularByGenre(genreId, pageable);
+            }
+            List<Book> books = bookRepository.findMostPopular(pageable);
+            return new PageImpl<>(books, pageable, bookRepository.count());
+        }
+        List<Book> books = loadRanked(bookPopularityService.getMostRented(genreId, pageable.getOffset(), pageable.getPageSize()));
+        return new PageImpl<>(books, pageable, bookPopularityService.getRankedCount(genreId));
+    }
+
+    @Override
+    public List<Book> findTrending(int limit) {
+        // Ask for spare IDs since deleted and deactivated books stay in the sketch until they fade out
+        return loadRanked(trendingService.getTrendingBookIds(limit * 2)).stream()
+                .filter(Book::isActive)
+                .limit(limit)
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public List<Book> findAlsoRented(Long id, int limit) {
+        return loadRanked(recommendationService.getAlsoRented(id)).stream()
+                .filter(Book::isActive)
+                .limit(limit)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Resolve ranked book IDs through the book cache, keeping their order.
+     */
+    private List<Book> loadRanked(List<Long> ids) {
+        return ids.stream()
+                .map(bookCacheService::findById)
+                .flatMap(Optional::stream)
+                .collect(Collectors.toList());
     }
 
     @Override
@@ -261,7 +378,7 @@ public class BookServiceImpl implements BookService {
                 .collect(Collectors.toSet());
 
         book.getGenres().addAll(genres);
-        return bookRepository.save(book);
+        return saveAndPublish(book);
     }
 
     @Override
@@ -276,7 +393,7 @@ public class BookServiceImpl implements BookService {
                 .collect(Collectors.toSet());
 
         book.getGenres().removeAll(genresToRemove);
-        return bookRepository.save(book);
+        return saveAndPublish(book);
     }
 
     @Override
@@ -292,8 +409,8 @@ public class BookServiceImpl implements BookService {
             throw new IllegalArgumentException("Available copies cannot exceed total copies");
         }
 
-        book.setAvailableCopies(availableCopies);
-        return bookRepository.save(book);
+        inventoryService.updateCopies(book, book.getTotalCopies(), availableCopies);
+        return saveAndPublish(book);
     }
 
     @Override
@@ -306,9 +423,8 @@ public class BookServiceImpl implements BookService {
             throw new IllegalArgumentException("Total copies cannot be negative");
         }
 
-        book.setTotalCopies(totalCopies);
-        book.setAvailableCopies(Math.max(0, totalCopies - (book.getTotalCopies() - book.getAvailableCopies())));
-        return bookRepository.save(book);
+        inventoryService.updateTotalCopies(book, totalCopies);
+        return saveAndPublish(book);
     }
 
     @Override
@@ -317,13 +433,12 @@ public class BookServiceImpl implements BookService {
         Book book = bookRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Book not found with id: " + id));
         book.setActive(active);
-        return bookRepository.save(book);
+        return saveAndPublish(book);
     }
 
     @Override
-    @Transactional(readOnly = true)
     public Book findById(Long id) {
-        return bookRepository.findById(id)
+        return bookCacheService.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Book not found with id: " + id));
     }
 
@@ -342,8 +457,11 @@ public class BookServiceImpl implements BookService {
         book.setIsbn(bookDto.getIsbn());
         book.setPrice(bookDto.getPrice());
         book.setRentalPrice(bookDto.getRentalPrice());
-        book.setTotalCopies(bookDto.getTotalCopies());
-        book.setAvailableCopies(bookDto.getTotalCopies());
+        // Keeps the copies out on loan; only copies added to the total go to stock or the waitlist
+        inventoryService.updateTotalCopies(book, bookDto.getTotalCopies());
+        if (bookDto.getInventoryShards() != null) {
+            inventoryService.updateShards(book, bookDto.getInventoryShards());
+        }
         book.setPublishedYear(bookDto.getPublishedYear());
         book.setPublisher(bookDto.getPublisher());
         book.setPublishedDate(bookDto.getPublishedDate());
@@ -357,7 +475,7 @@ public class BookServiceImpl implements BookService {
             book.setGenres(genres);
         }
 
-        return bookRepository.save(book);
+        return saveAndPublish(book);
     }
 
     @Override
@@ -378,4 +496,16 @@ public class BookServiceImpl implements BookService {
     public long countTotalBooks() {
         return bookRepository.count();
     }
+
+    /**
+     * Save a book and publish a change event so the in-memory catalog indexes pick it up after commit.
+     * 
+     * @param book The book to save
+     * @return The saved book
+     */
+    private Book saveAndPublish(Book book) {
+        Book saved = bookRepository.save(book);
+        eventPublisher.publishEvent(BookChangedEvent.saved(BookDocumentDto.from(saved)));
+        return saved;
+    }
 }
@@ -0,0 +1,323 @@
+package com.booksphere.service.impl;
+
+import com.booksphere.event.BookRentedEvent;
+import com.booksphere.event.BookReturnedEvent;
+import com.booksphere.model.Notification;
+import com.booksphere.model.Transaction;
+import com.booksphere.repository.RentalJdbcRepository;
+import com.booksphere.repository.TransactionRepository;
+import com.booksphere.service.DueDateService;
+import com.booksphere.service.NotificationOutboxService;
+import com.booksphere.util.TimerWheel;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Implementation of the DueDateService interface.
+ * Each open rental has up to two timers in a hierarchical timer wheel: a reminder some hours before
+ * it is due, and one that fires when it falls overdue and then once a day to accrue the late fee.
+ * Rentals and returns schedule and cancel their timers as they commit, and the wheel is loaded from
+ * the open rentals at startup; events arriving while it loads are applied once it has. Rentals
+ * already overdue at startup are left to the set-based overdue sweep and late fee accrual until
+ * their next daily timer. Fired timers are handled in short transactions of a bounded number of
+ * timers each, with their notifications and fee updates batched, and a bounded number per tick.
+ * The wheel lives in memory, so a single instance is assumed to run the timers.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class DueDateServiceImpl implements DueDateService {
+
+    private final TransactionRepository transactionRepository;
+    private final RentalJdbcRepository rentalJdbcRepository;
+    private final NotificationOutboxService notificationOutboxService;
+    private final PlatformTransactionManager transactionManager;
+
+    @Value("${app.due-dates.tick-ms:60000}")
+    private long tickMillis;
+
+    @Value("${app.due-dates.wheel-slots:64}")
+    private int wheelSlots;
+
+    @Value("${app.due-dates.wheel-levels:4}")
+    private int wheelLevels;
+
+    @Value("${app.due-dates.reminder-hours:24}")
+    private long reminderHours;
+
+    @Value("${app.due-dates.max-per-transaction:500}")
+    private int maxPerTransaction;
+
+    @Value("${app.due-dates.max-per-tick:5000}")
+    private int maxPerTick;
+
+    private final Object wheelLock = new Object();
+
+    // Guarded by wheelLock
+    private TimerWheel<Timer> wheel;
+
+    // Guarded by wheelLock; events received before the wheel is loaded, applied in order once it is
+    private List<Object> pending = new ArrayList<>();
+
+    private TransactionTemplate timerTransaction;
+
+    @PostConstruct
+    public void init() {
+        timerTransaction = new TransactionTemplate(transactionManager);
+        timerTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        load();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBookRented(BookRentedEvent event) {
+        synchronized (wheelLock) {
+            if (pending != null) {
+                pending.add(event);
+            } else {
+                schedule(wheel, event.getTransactionId(), event.getDueDate(), System.currentTimeMillis());
+            }
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBookReturned(BookReturnedEvent event) {
+        synchronized (wheelLock) {
+            if (pending != null) {
+                pending.add(event);
+            } else {
+                cancel(wheel, event.getTransactionId());
+            }
+        }
+    }
+
+    @Override
+    public int load() {
+        long start = System.currentTimeMillis();
+        synchronized (wheelLock) {
+            if (pending == null) {
+                pending = new ArrayList<>();
+            }
+        }
+
+        TimerWheel<Timer> loaded = new TimerWheel<>(tickMillis, wheelSlots, wheelLevels, start);
+        List<Object[]> rows = transactionRepository.findOpenDueDates();
+        for (Object[] row : rows) {
+            Long id = (Long) row[0];
+            long dueMillis = toEpochMillis((LocalDateTime) row[1]);
+            if (dueMillis > start) {
+                schedule(loaded, id, dueMillis, start);
+            } else {
+                // Already overdue: the alert and the fee so far are left to the overdue sweep and the
+                // nightly accrual, so a restart never fires the whole backlog at once
+                long daysOverdue = TimeUnit.MILLISECONDS.toDays(start - dueMillis);
+                long accrueAt = dueMillis + TimeUnit.DAYS.toMillis(daysOverdue + 1);
+                loaded.schedule(overdueKey(id), accrueAt, new Timer(id, Timer.Kind.ACCRUE, dueMillis, accrueAt));
+            }
+        }
+
+        synchronized (wheelLock) {
+            // Rentals and returns committed while the rows were read may already be part of them
+            for (Object event : pending) {
+                if (event instanceof BookRentedEvent rented) {
+                    schedule(loaded, rented.getTransactionId(), rented.getDueDate(), start);
+                } else if (event instanceof BookReturnedEvent returned) {
+                    cancel(loaded, returned.getTransactionId());
+                }
+            }
+            pending = null;
+            wheel = loaded;
+        }
+        log.info("Due date timers loaded for {} open rentals in {} ms", rows.size(), System.currentTimeMillis() - start);
+        return rows.size();
+    }
+
+    @Override
+    @Scheduled(fixedDelayString = "${app.due-dates.tick-ms:60000}")
+    public synchronized int advance() {
+        long now = System.currentTimeMillis();
+        List<Timer> fired = new ArrayList<>();
+        synchronized (wheelLock) {
+            if (wheel == null) {
+                return 0;
+            }
+            wheel.advance(now, fired::add);
+        }
+        if (fired.isEmpty()) {
+            return 0;
+        }
+
+        List<Timer> next = new ArrayList<>();
+        int handled = 0;
+        for (int from = 0; from < fired.size(); from += maxPerTransaction) {
+            List<Timer> chunk = fired.subList(from, Math.min(from + maxPerTransaction, fired.size()));
+            if (from >= maxPerTick) {
+                // Left for the next tick, so a burst of due dates is spread over several ticks
+                chunk.forEach(timer -> next.add(timer.retryAt(now)));
+                continue;
+            }
+            try {
+                next.addAll(timerTransaction.execute(status -> fire(chunk, now)));
+                handled += chunk.size();
+            } catch (RuntimeException e) {
+                // Nothing was sent or charged for the chunk; its timers fire again on the next tick
+                log.warn("Due date timers failed, will retry: {}", e.getMessage());
+                chunk.forEach(timer -> next.add(timer.retryAt(now)));
+            }
+        }
+
+        synchronized (wheelLock) {
+            for (Timer timer : next) {
+                // A rental returned meanwhile is skipped when its timer fires
+                wheel.schedule(timer.key(), timer.fireAtMillis(), timer);
+            }
+        }
+        return handled;
+    }
+
+    @Override
+    public int getScheduledCount() {
+        synchronized (wheelLock) {
+            return wheel != null ? wheel.size() : 0;
+        }
+    }
+
+    /**
+     * Handle fired timers of rentals still open.
+     *
+     * @return The timers to schedule next
+     */
+    private List<Timer> fire(List<Timer> fired, long nowMillis) {
+        LocalDateTime now = toLocalDateTime(nowMillis);
+        Map<Long, Transaction> open = transactionRepository.findWithDetailsByIdIn(
+                        fired.stream().map(Timer::transactionId).collect(Collectors.toSet())).stream()
+                .filter(transaction -> transaction.getReturnDate() == null && transaction.getDueDate() != null)
+                .collect(Collectors.toMap(Transaction::getId, Function.identity()));
+
+        List<Notification> notifications = new ArrayList<>();
+        List<Long> feeIds = new ArrayList<>();
+        List<BigDecimal> fees = new ArrayList<>();
+        List<Timer> next = new ArrayList<>();
+        for (Timer timer : fired) {
+            Transaction transaction = open.get(timer.transactionId());
+            if (transaction == null) {
+                continue;
+            }
+            String title = transaction.getBook().getTitle();
+            if (timer.kind() == Timer.Kind.DUE_SOON) {
+                notifications.add(new Notification(
+                    transaction.getUser(),
+                    "'" + title + "' is due back on " + transaction.getDueDate().toLocalDate() + ".",
+                    Notification.NotificationType.DUE_REMINDER,
+                    transaction.getBook()
+                ));
+                continue;
+            }
+            if (timer.kind() == Timer.Kind.OVERDUE) {
+                notifications.add(new Notification(
+                    transaction.getUser(),
+                    Notification.overdueAlertMessage(title),
+                    Notification.NotificationType.OVERDUE_ALERT,
+                    transaction.getBook()
+                ));
+            }
+            feeIds.add(transaction.getId());
+            fees.add(transaction.calculateLateFee(now));
+
+            // The fee grows by a day at each anniversary of the due date
+            long daysOverdue = ChronoUnit.DAYS.between(transaction.getDueDate(), now);
+            long dueMillis = toEpochMillis(transaction.getDueDate());
+            next.add(new Timer(transaction.getId(), Timer.Kind.ACCRUE, dueMillis,
+                    dueMillis + TimeUnit.DAYS.toMillis(Math.max(0, daysOverdue) + 1)));
+        }
+
+        if (!feeIds.isEmpty()) {
+            rentalJdbcRepository.updateLateFees(feeIds, fees, now);
+        }
+        notificationOutboxService.enqueue(notifications);
+        return next;
+    }
+
+    /**
+     * Schedule the reminder, unless it is already too late for it, and the overdue timer of a rental.
+     */
+    private void schedule(TimerWheel<Timer> timers, Long transactionId, LocalDateTime dueDate, long nowMillis) {
+        if (dueDate == null) {
+            return;
+        }
+        long dueMillis = toEpochMillis(dueDate);
+        long remindAt = dueMillis - TimeUnit.HOURS.toMillis(reminderHours);
+        if (remindAt > nowMillis) {
+            timers.schedule(reminderKey(transactionId), remindAt,
+                    new Timer(transactionId, Timer.Kind.DUE_SOON, dueMillis, remindAt));
+        }
+        timers.schedule(overdueKey(transactionId), dueMillis,
+                new Timer(transactionId, Timer.Kind.OVERDUE, dueMillis, dueMillis));
+    }
+
+    private static void cancel(TimerWheel<Timer> timers, Long transactionId) {
+        timers.cancel(reminderKey(transactionId));
+        timers.cancel(overdueKey(transactionId));
+    }
+
+    private static long reminderKey(long transactionId) {
+        return transactionId * 2;
+    }
+
+    private static long overdueKey(long transactionId) {
+        return transactionId * 2 + 1;
+    }
+
+    private static long toEpochMillis(LocalDateTime dateTime) {
+        return dateTime.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    private static LocalDateTime toLocalDateTime(long epochMillis) {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(epochMillis), ZoneId.systemDefault());
+    }
+
+    /**
+     * A timer of a rental: what it is for, when the rental is due and when the timer fires.
+     */
+    private record Timer(long transactionId, Kind kind, long dueMillis, long fireAtMillis) {
+
+        long key() {
+            return kind == Kind.DUE_SOON ? reminderKey(transactionId) : overdueKey(transactionId);
+        }
+
+        Timer retryAt(long nowMillis) {
+            return new Timer(transactionId, kind, dueMillis, nowMillis);
+        }
+
+        enum Kind {
+            DUE_SOON,
+            OVERDUE,
+            ACCRUE
+        }
+    }
+}
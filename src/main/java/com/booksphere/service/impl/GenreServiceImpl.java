@@ -1,9 +1,11 @@
 package com.booksphere.service.impl;
 
+import com.booksphere.event.GenreChangedEvent;
 import com.booksphere.model.Genre;
 import com.booksphere.repository.GenreRepository;
 import com.booksphere.service.GenreService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
@@ -20,13 +22,18 @@ public class GenreServiceImpl implements GenreService {
     @Autowired
     private GenreRepository genreRepository;
 
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
     @Override
     @Transactional
     public Genre createGenre(Genre genre) {
         if (genreRepository.existsByName(genre.getName())) {
             throw new IllegalArgumentException("Genre with name '" + genre.getName() + "' already exists");
         }
-        return genreRepository.save(genre);
+        Genre saved = genreRepository.save(genre);
+        eventPublisher.publishEvent(GenreChangedEvent.saved(saved.getId(), saved.getName()));
+        return saved;
     }
 
     @Override
@@ -36,7 +43,9 @@ public class GenreServiceImpl implements GenreService {
         existingGenre.setName(genre.getName());
         existingGenre.setDescription(genre.getDescription());
         existingGenre.setActive(genre.isActive());
-        return genreRepository.save(existingGenre);
+        Genre saved = genreRepository.save(existingGenre);
+        eventPublisher.publishEvent(GenreChangedEvent.saved(saved.getId(), saved.getName()));
+        return saved;
     }
 
     @Override
@@ -44,6 +53,7 @@ public class GenreServiceImpl implements GenreService {
     public void deleteGenre(Long id) {
         Genre genre = getGenreById(id);
         genreRepository.delete(genre);
+        eventPublisher.publishEvent(GenreChangedEvent.deleted(id));
     }
 
     @Override
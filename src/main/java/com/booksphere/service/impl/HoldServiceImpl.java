@@ -0,0 +1,217 @@
+package com.booksphere.service.impl;
+
+import com.booksphere.exception.ResourceNotFoundException;
+import com.booksphere.model.Book;
+import com.booksphere.model.Hold;
+import com.booksphere.model.Notification;
+import com.booksphere.model.User;
+import com.booksphere.repository.BookRepository;
+import com.booksphere.repository.HoldRepository;
+import com.booksphere.repository.TransactionRepository;
+import com.booksphere.repository.UserRepository;
+import com.booksphere.service.HoldService;
+import com.booksphere.service.InventoryService;
+import com.booksphere.service.NotificationOutboxService;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Implementation of the HoldService interface.
+ * A returned copy goes to the oldest waiting hold of its book instead of back in stock. The hold
+ * is found with one seek on the (book_id, status, id) index and claimed with a conditional update,
+ * so two returns of the same book never hand their copies to the same hold; a claim that loses to
+ * a concurrent return or cancellation moves on to the next hold. The copy stays out of stock while
+ * the hold is ready, and is passed on again if the user cancels or does not pick it up in time.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class HoldServiceImpl implements HoldService {
+
+    private final HoldRepository holdRepository;
+    private final BookRepository bookRepository;
+    private final UserRepository userRepository;
+    private final TransactionRepository transactionRepository;
+    private final InventoryService inventoryService;
+    private final NotificationOutboxService notificationOutboxService;
+    private final PlatformTransactionManager transactionManager;
+
+    @Value("${app.holds.pickup-days:3}")
+    private int pickupDays;
+
+    private TransactionTemplate expiryTransaction;
+
+    @PostConstruct
+    public void init() {
+        expiryTransaction = new TransactionTemplate(transactionManager);
+        expiryTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    @Override
+    @Transactional
+    public Hold placeHold(Long userId, Long bookId) {
+        // Lock the user row, so that of concurrent requests of the same user only one sees no open hold
+        if (userRepository.lockActiveRentals(userId) == null) {
+            throw new ResourceNotFoundException("User not found with id: " + userId);
+        }
+        User user = userRepository.findById(userId)
+                .orElseThrow(() -> new ResourceNotFoundException("User not found with id: " + userId));
+
+        Book book = bookRepository.findById(bookId)
+                .orElseThrow(() -> new ResourceNotFoundException("Book not found with id: " + bookId));
+
+        if (book.isAvailable()) {
+            throw new IllegalStateException("Book is available for rental: " + book.getTitle());
+        }
+        if (transactionRepository.existsActiveRental(userId, bookId)) {
+            throw new IllegalStateException("User already has this book: " + book.getTitle());
+        }
+        if (holdRepository.findOpenHold(userId, bookId).isPresent()) {
+            throw new IllegalStateException("User is already on the waitlist for: " + book.getTitle());
+        }
+
+        Hold hold = new Hold();
+        hold.setUser(user);
+        hold.setBook(book);
+        hold.setStatus(Hold.Status.WAITING);
+        return holdRepository.save(hold);
+    }
+
+    @Override
+    @Transactional
+    public void cancelHold(Long userId, Long bookId) {
+        Hold hold = holdRepository.findOpenHold(userId, bookId)
+                .orElseThrow(() -> new ResourceNotFoundException("No hold found for book with id: " + bookId));
+
+        if (holdRepository.updateStatus(hold.getId(), hold.getStatus(), Hold.Status.CANCELLED) == 0) {
+            throw new IllegalStateException("Hold was changed by another request, please try again");
+        }
+        if (hold.getStatus() == Hold.Status.READY) {
+            passOn(hold.getBook());
+        }
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Optional<Hold> findOpenHold(Long userId, Long bookId) {
+        return holdRepository.findOpenHold(userId, bookId);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public long getQueuePosition(Hold hold) {
+        return holdRepository.countWaitingBefore(hold.getBook().getId(), hold.getId()) + 1;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public long countWaiting(Long bookId) {
+        return holdRepository.countByBookIdAndStatus(bookId, Hold.Status.WAITING);
+    }
+
+    @Override
+    @Transactional
+    public Set<Long> fulfilHolds(Long userId, Collection<Long> bookIds) {
+        Set<Long> held = new HashSet<>();
+        for (Hold hold : holdRepository.findReadyHolds(userId, bookIds)) {
+            // Lost to expiry if the pickup window just passed; the rental then takes a copy from stock
+            if (holdRepository.updateStatus(hold.getId(), Hold.Status.READY, Hold.Status.FULFILLED) == 1) {
+                held.add(hold.getBook().getId());
+            }
+        }
+        holdRepository.closeWaitingHolds(userId, bookIds, Hold.Status.FULFILLED);
+        return held;
+    }
+
+    @Override
+    @Transactional
+    public boolean allocateReturnedCopy(Book book) {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime expiresAt = now.plusDays(pickupDays);
+        long afterId = 0;
+        Optional<Hold> next;
+        // Skip past a hold claimed by a concurrent request, as a snapshot read may keep returning it
+        while ((next = holdRepository.findFirstByBookIdAndStatusAndIdGreaterThanOrderByIdAsc(
+                book.getId(), Hold.Status.WAITING, afterId)).isPresent()) {
+            Hold hold = next.get();
+            afterId = hold.getId();
+            if (holdRepository.markReady(hold.getId(), now, expiresAt) == 1) {
+                notificationOutboxService.enqueue(new Notification(
+                    hold.getUser(),
+                    "A copy of '" + book.getTitle() + "' is being held for you until " + expiresAt.toLocalDate() + ".",
+                    Notification.NotificationType.BOOK_AVAILABLE,
+                    book
+                ));
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    @Transactional
+    public List<Book> allocateReturnedCopies(List<Book> books) {
+        List<Book> toStock = new ArrayList<>(books.size());
+        Set<Long> noWaitlist = new HashSet<>();
+        for (Book book : books) {
+            // Once a book's waitlist is empty its remaining copies need no further lookups
+            if (noWaitlist.contains(book.getId()) || !allocateReturnedCopy(book)) {
+                noWaitlist.add(book.getId());
+                toStock.add(book);
+            }
+        }
+        return toStock;
+    }
+
+    @Override
+    @Scheduled(fixedDelayString = "${app.holds.expiry-check-ms:60000}")
+    public void expireReadyHolds() {
+        int expired = 0;
+        for (Hold hold : holdRepository.findExpiredReady(LocalDateTime.now())) {
+            Boolean changed = expiryTransaction.execute(status -> {
+                if (holdRepository.updateStatus(hold.getId(), Hold.Status.READY, Hold.Status.EXPIRED) == 0) {
+                    return false;
+                }
+                notificationOutboxService.enqueue(new Notification(
+                    hold.getUser(),
+                    "Your hold on '" + hold.getBook().getTitle() + "' has expired.",
+                    Notification.NotificationType.SYSTEM_NOTIFICATION,
+                    hold.getBook()
+                ));
+                passOn(hold.getBook());
+                return true;
+            });
+            if (Boolean.TRUE.equals(changed)) {
+                expired++;
+            }
+        }
+        if (expired > 0) {
+            log.info("Expired {} holds not picked up", expired);
+        }
+    }
+
+    /**
+     * Hand a copy released from a hold to the next in line, or put it back in stock.
+     */
+    private void passOn(Book book) {
+        if (!allocateReturnedCopy(book)) {
+            inventoryService.releaseCopy(book);
+        }
+    }
+}
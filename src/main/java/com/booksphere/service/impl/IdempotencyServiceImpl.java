@@ -0,0 +1,151 @@
+package com.booksphere.service.impl;
+
+import com.booksphere.dto.IdempotentResponseDto;
+import com.booksphere.model.IdempotencyRecord;
+import com.booksphere.repository.IdempotencyRecordRepository;
+import com.booksphere.service.IdempotencyService;
+import com.booksphere.util.LoadingCache;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.function.Supplier;
+
+/**
+ * Implementation of the IdempotencyService interface.
+ * The first request with a key claims it by inserting an in-progress record, which the unique
+ * (username, key) index makes atomic across threads and instances. Once the action returns, the
+ * record is completed with its response. Records are kept in their own transactions, so a claim
+ * is visible to a concurrent retry before the action commits. Completed responses are also kept in
+ * a bounded in-memory cache, so most retries are answered without a query; expired records are
+ * purged from the table periodically.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class IdempotencyServiceImpl implements IdempotencyService {
+
+    private static final int MAX_KEY_LENGTH = 255;
+
+    private final IdempotencyRecordRepository idempotencyRecordRepository;
+    private final PlatformTransactionManager transactionManager;
+
+    @Value("${app.idempotency.ttl-hours:24}")
+    private long ttlHours;
+
+    @Value("${app.idempotency.max-cached:10000}")
+    private int maxCached;
+
+    private LoadingCache<String, IdempotencyRecord> completed;
+    private TransactionTemplate recordTransaction;
+
+    @PostConstruct
+    public void init() {
+        completed = new LoadingCache<>(maxCached, ttlHours * 3_600_000);
+        recordTransaction = new TransactionTemplate(transactionManager);
+        recordTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    @Override
+    public IdempotentResponseDto execute(String username, String idempotencyKey, String fingerprint, String errorView,
+                                         Supplier<IdempotentResponseDto> action) {
+        if (idempotencyKey == null || idempotencyKey.isBlank()) {
+            return action.get();
+        }
+        if (idempotencyKey.length() > MAX_KEY_LENGTH) {
+            return new IdempotentResponseDto(errorView, "errorMessage",
+                    "Idempotency-Key must be at most " + MAX_KEY_LENGTH + " characters");
+        }
+
+        String cacheKey = username + "\n" + idempotencyKey;
+        IdempotencyRecord cached = completed.getIfPresent(cacheKey);
+        Claim claim = cached != null ? new Claim(cached, false) : claim(username, idempotencyKey, fingerprint);
+        IdempotencyRecord record = claim.record();
+        if (!record.getFingerprint().equals(fingerprint)) {
+            return new IdempotentResponseDto(errorView, "errorMessage",
+                    "Idempotency-Key was already used for a different request");
+        }
+        if (record.getStatus() == IdempotencyRecord.Status.COMPLETED) {
+            log.debug("Replaying response for idempotency key {} of {}", idempotencyKey, username);
+            return toResponse(record);
+        }
+        if (!claim.owned()) {
+            return new IdempotentResponseDto(errorView, "errorMessage",
+                    "A request with this Idempotency-Key is still being processed");
+        }
+
+        IdempotentResponseDto response;
+        try {
+            response = action.get();
+        } catch (RuntimeException | Error e) {
+            // Nothing to replay, so let a retry run the action again
+            Long id = record.getId();
+            recordTransaction.executeWithoutResult(status -> idempotencyRecordRepository.deleteById(id));
+            throw e;
+        }
+
+        record.setStatus(IdempotencyRecord.Status.COMPLETED);
+        record.setResponseView(response.getView());
+        record.setMessageAttribute(response.getMessageAttribute());
+        record.setMessage(truncate(response.getMessage()));
+        IdempotencyRecord saved = recordTransaction.execute(status -> idempotencyRecordRepository.save(record));
+        completed.get(cacheKey, key -> saved);
+        return response;
+    }
+
+    @Override
+    @Scheduled(fixedDelayString = "${app.idempotency.purge-interval-ms:600000}")
+    public void purgeExpired() {
+        int deleted = idempotencyRecordRepository.deleteExpired(LocalDateTime.now());
+        if (deleted > 0) {
+            log.info("Purged {} expired idempotency keys", deleted);
+        }
+    }
+
+    /**
+     * Insert an in-progress record for a key, or return the existing one.
+     */
+    private Claim claim(String username, String idempotencyKey, String fingerprint) {
+        LocalDateTime now = LocalDateTime.now();
+        IdempotencyRecord claim = new IdempotencyRecord(null, username, idempotencyKey, fingerprint,
+                IdempotencyRecord.Status.IN_PROGRESS, null, null, null, now, now.plusHours(ttlHours));
+        try {
+            return new Claim(recordTransaction.execute(status -> idempotencyRecordRepository.saveAndFlush(claim)), true);
+        } catch (DataIntegrityViolationException e) {
+            IdempotencyRecord existing = recordTransaction.execute(status -> idempotencyRecordRepository
+                    .findByUsernameAndIdempotencyKey(username, idempotencyKey)
+                    .orElse(null));
+            if (existing == null) {
+                // The other request failed and released the key in the meantime
+                return claim(username, idempotencyKey, fingerprint);
+            }
+            if (existing.getExpiresAt().isBefore(now)) {
+                recordTransaction.executeWithoutResult(status -> idempotencyRecordRepository.delete(existing));
+                return claim(username, idempotencyKey, fingerprint);
+            }
+            return new Claim(existing, false);
+        }
+    }
+
+    private static IdempotentResponseDto toResponse(IdempotencyRecord record) {
+        return new IdempotentResponseDto(record.getResponseView(), record.getMessageAttribute(), record.getMessage());
+    }
+
+    private static String truncate(String message) {
+        return message != null && message.length() > 1000 ? message.substring(0, 1000) : message;
+    }
+
+    /**
+     * A key's record, and whether this request inserted it and so runs the action.
+     */
+    private record Claim(IdempotencyRecord record, boolean owned) {
+    }
+}
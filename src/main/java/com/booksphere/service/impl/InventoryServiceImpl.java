@@ -0,0 +1,380 @@
+package com.booksphere.service.impl;
+
+import com.booksphere.event.BookStockChangedEvent;
+import com.booksphere.exception.ResourceNotFoundException;
+import com.booksphere.model.Book;
+import com.booksphere.model.BookCopyShard;
+import com.booksphere.repository.BookCopyShardRepository;
+import com.booksphere.repository.BookRepository;
+import com.booksphere.repository.RentalJdbcRepository;
+import com.booksphere.service.HoldService;
+import com.booksphere.service.InventoryService;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Implementation of the InventoryService interface.
+ * Copies are taken and returned with conditional single-row updates. For a book with striped
+ * inventory each rental starts at a random shard and moves on to the others until one has a copy,
+ * and counts itself on another random shard, so it never writes the book row. A scheduled task
+ * folds changed shards into the book row in a short transaction per book.
+ * <p>
+ * The book's inventory mode can change while a rental is in progress; a rental that finds no copy
+ * re-reads the mode and retries once it has changed. Locks are always taken shards first, then
+ * the book row.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class InventoryServiceImpl implements InventoryService {
+
+    private final BookRepository bookRepository;
+    private final BookCopyShardRepository shardRepository;
+    private final RentalJdbcRepository rentalJdbcRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final PlatformTransactionManager transactionManager;
+
+    // Lazy, as the hold service puts copies back in stock through this service
+    @Autowired
+    @Lazy
+    private HoldService holdService;
+
+    @Value("${app.inventory.max-shards:64}")
+    private int maxShards;
+
+    private TransactionTemplate flushTransaction;
+
+    @PostConstruct
+    public void init() {
+        flushTransaction = new TransactionTemplate(transactionManager);
+        flushTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    @Override
+    @Transactional
+    public void reserveCopy(Book book) {
+        int shards = book.getInventoryShards();
+        while (!(shards > 0 ? takeFromShard(book.getId(), shards) : takeFromBook(book.getId()))) {
+            Integer current = bookRepository.findInventoryShards(book.getId());
+            if (current == null || current == shards) {
+                throw new IllegalStateException("Book is not available for rental: " + book.getTitle());
+            }
+            shards = current;
+        }
+    }
+
+    @Override
+    @Transactional
+    public void reserveCopies(List<Book> books) {
+        // Sorted, so that carts holding the same books lock their rows in the same order
+        List<Long> batched = books.stream()
+                .filter(book -> book.getInventoryShards() == 0)
+                .map(Book::getId)
+                .sorted()
+                .toList();
+        int[] taken = batched.isEmpty() ? new int[0] : rentalJdbcRepository.decrementAvailableCopies(batched);
+
+        Set<Long> changed = new HashSet<>();
+        for (int i = 0; i < taken.length; i++) {
+            if (taken[i] == 1) {
+                changed.add(batched.get(i));
+            }
+        }
+        for (Book book : books) {
+            // Striped books, and books whose mode changed or whose last copy went, take the single path
+            if (!changed.contains(book.getId())) {
+                reserveCopy(book);
+            }
+        }
+        if (!changed.isEmpty()) {
+            for (Object[] row : bookRepository.findAvailableCopies(changed)) {
+                eventPublisher.publishEvent(new BookStockChangedEvent((Long) row[0], (Integer) row[1]));
+            }
+        }
+    }
+
+    @Override
+    @Transactional
+    public void releaseCopy(Book book) {
+        int shards = book.getInventoryShards();
+        while (!(shards > 0 ? returnToShard(book.getId(), shards) : returnToBook(book.getId()))) {
+            Integer current = bookRepository.findInventoryShards(book.getId());
+            if (current == null || current == shards) {
+                log.warn("Returned copy of book {} not restocked, all {} copies are already available",
+                        book.getId(), book.getTotalCopies());
+                return;
+            }
+            shards = current;
+        }
+    }
+
+    @Override
+    @Transactional
+    public void releaseCopies(List<Book> books) {
+        Map<Long, Integer> copiesByBook = new LinkedHashMap<>();
+        Set<Long> striped = new HashSet<>();
+        for (Book book : books) {
+            copiesByBook.merge(book.getId(), 1, Integer::sum);
+            if (book.getInventoryShards() > 0) {
+                striped.add(book.getId());
+            }
+        }
+        List<Long> batched = copiesByBook.keySet().stream().filter(id -> !striped.contains(id)).sorted().toList();
+        int[] updated = batched.isEmpty()
+                ? new int[0]
+                : rentalJdbcRepository.addAvailableCopies(batched, batched.stream().map(copiesByBook::get).toList());
+
+        Set<Long> changed = new HashSet<>();
+        for (int i = 0; i < updated.length; i++) {
+            if (updated[i] == 1) {
+                changed.add(batched.get(i));
+            }
+        }
+        for (Book book : books) {
+            // Striped books, and books whose mode changed, return copy by copy
+            if (!changed.contains(book.getId())) {
+                releaseCopy(book);
+            }
+        }
+        if (!changed.isEmpty()) {
+            for (Object[] row : bookRepository.findAvailableCopies(changed)) {
+                eventPublisher.publishEvent(new BookStockChangedEvent((Long) row[0], (Integer) row[1]));
+            }
+        }
+    }
+
+    @Override
+    @Transactional
+    public long recordRental(Book book) {
+        int shards = book.getInventoryShards();
+        if (shards > 0 && shardRepository.incrementPendingRentals(book.getId(), randomShard(shards)) == 1) {
+            // Read the book first: a fold between the two reads then undercounts instead of counting twice
+            long folded = bookRepository.findRentalCount(book.getId());
+            return folded + shardRepository.sumPendingRentals(book.getId());
+        }
+        bookRepository.incrementRentalCount(book.getId());
+        return bookRepository.findRentalCount(book.getId());
+    }
+
+    @Override
+    @Transactional
+    public Map<Long, Long> recordRentals(List<Book> books) {
+        Map<Long, Long> counts = new HashMap<>();
+        List<Long> batched = new ArrayList<>(books.size());
+        for (Book book : books) {
+            if (book.getInventoryShards() > 0) {
+                counts.put(book.getId(), recordRental(book));
+            } else {
+                batched.add(book.getId());
+            }
+        }
+        if (!batched.isEmpty()) {
+            rentalJdbcRepository.incrementRentalCounts(batched);
+            for (Object[] row : bookRepository.findRentalCounts(batched)) {
+                counts.put((Long) row[0], (Long) row[1]);
+            }
+        }
+        return counts;
+    }
+
+    @Override
+    @Transactional
+    public void updateCopies(Book book, int totalCopies, int availableCopies) {
+        if (totalCopies < 0 || availableCopies < 0) {
+            throw new IllegalArgumentException("Copies cannot be negative");
+        }
+        if (availableCopies > totalCopies) {
+            throw new IllegalArgumentException("Available copies cannot exceed total copies");
+        }
+        Stock stock = lockStock(book.getId());
+        restock(book, stock, totalCopies, offerAddedCopies(book, stock, totalCopies, availableCopies), stock.shards());
+    }
+
+    @Override
+    @Transactional
+    public void updateTotalCopies(Book book, int totalCopies) {
+        if (totalCopies < 0) {
+            throw new IllegalArgumentException("Total copies cannot be negative");
+        }
+        Stock stock = lockStock(book.getId());
+        int rented = stock.totalCopies() - stock.availableCopies();
+        int availableCopies = Math.max(0, totalCopies - rented);
+        restock(book, stock, totalCopies, offerAddedCopies(book, stock, totalCopies, availableCopies), stock.shards());
+    }
+
+    @Override
+    @Transactional
+    public void updateShards(Book book, int shards) {
+        if (shards < 0 || shards > maxShards) {
+            throw new IllegalArgumentException("Inventory shards must be between 0 and " + maxShards);
+        }
+        Stock stock = lockStock(book.getId());
+        if (shards != stock.shards()) {
+            restock(book, stock, stock.totalCopies(), stock.availableCopies(), shards);
+            log.info("Inventory of book {} now striped across {} shards", book.getId(), shards);
+        }
+    }
+
+    @Override
+    @Scheduled(fixedDelayString = "${app.inventory.flush-interval-ms:1000}")
+    public void flushShards() {
+        Map<Long, Integer> shown = new HashMap<>();
+        for (Object[] row : bookRepository.findStripedAvailableCopies()) {
+            shown.put((Long) row[0], (Integer) row[1]);
+        }
+        if (shown.isEmpty()) {
+            return;
+        }
+        for (Object[] row : shardRepository.sumByBook()) {
+            Long bookId = (Long) row[0];
+            Integer available = shown.get(bookId);
+            if (available != null && (((Number) row[1]).intValue() != available || ((Number) row[2]).longValue() > 0)) {
+                flushTransaction.executeWithoutResult(status -> flush(bookId));
+            }
+        }
+    }
+
+    private void flush(Long bookId) {
+        List<BookCopyShard> shards = shardRepository.findByBookIdForUpdate(bookId);
+        int available = shards.stream().mapToInt(BookCopyShard::getAvailableCopies).sum();
+        long rentals = shards.stream().mapToLong(BookCopyShard::getPendingRentals).sum();
+        if (bookRepository.applyShardTotals(bookId, available, rentals) == 0) {
+            return;
+        }
+        if (rentals > 0) {
+            shardRepository.clearPendingRentals(bookId);
+        }
+        eventPublisher.publishEvent(new BookStockChangedEvent(bookId, available));
+    }
+
+    private boolean takeFromBook(Long bookId) {
+        if (bookRepository.decrementAvailableCopies(bookId) == 0) {
+            return false;
+        }
+        publishStock(bookId);
+        return true;
+    }
+
+    private boolean returnToBook(Long bookId) {
+        if (bookRepository.incrementAvailableCopies(bookId) == 0) {
+            return false;
+        }
+        publishStock(bookId);
+        return true;
+    }
+
+    private boolean takeFromShard(Long bookId, int shards) {
+        int start = randomShard(shards);
+        for (int i = 0; i < shards; i++) {
+            if (shardRepository.decrementAvailableCopies(bookId, (start + i) % shards) == 1) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean returnToShard(Long bookId, int shards) {
+        int start = randomShard(shards);
+        for (int i = 0; i < shards; i++) {
+            if (shardRepository.incrementAvailableCopies(bookId, (start + i) % shards) == 1) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static int randomShard(int shards) {
+        return ThreadLocalRandom.current().nextInt(shards);
+    }
+
+    private void publishStock(Long bookId) {
+        eventPublisher.publishEvent(new BookStockChangedEvent(bookId, bookRepository.findAvailableCopies(bookId)));
+    }
+
+    /**
+     * Lock a book's shards and row, then read its current copy counts.
+     */
+    private Stock lockStock(Long bookId) {
+        List<BookCopyShard> shards = shardRepository.findByBookIdForUpdate(bookId);
+        List<Object[]> rows = bookRepository.lockStock(bookId);
+        if (rows.isEmpty()) {
+            throw new ResourceNotFoundException("Book not found with id: " + bookId);
+        }
+        Object[] row = rows.get(0);
+        int totalCopies = ((Number) row[0]).intValue();
+        int availableCopies = shards.isEmpty()
+                ? ((Number) row[1]).intValue()
+                : shards.stream().mapToInt(BookCopyShard::getAvailableCopies).sum();
+        return new Stock(totalCopies, availableCopies, ((Number) row[2]).intValue(), shards);
+    }
+
+    /**
+     * Replace a locked book's copy counts and shards. Shards are split as evenly as possible,
+     * which never gives a shard more available than total copies.
+     */
+    private void restock(Book book, Stock stock, int totalCopies, int availableCopies, int shards) {
+        Long bookId = book.getId();
+        if (!stock.shardRows().isEmpty()) {
+            long rentals = stock.shardRows().stream().mapToLong(BookCopyShard::getPendingRentals).sum();
+            shardRepository.deleteByBookId(bookId);
+            if (rentals > 0) {
+                bookRepository.addRentalCount(bookId, rentals);
+            }
+        }
+        if (shards > 0) {
+            List<BookCopyShard> rows = new ArrayList<>(shards);
+            for (int i = 0; i < shards; i++) {
+                rows.add(new BookCopyShard(bookId, i,
+                        availableCopies / shards + (i < availableCopies % shards ? 1 : 0),
+                        totalCopies / shards + (i < totalCopies % shards ? 1 : 0)));
+            }
+            shardRepository.saveAll(rows);
+        }
+        bookRepository.updateStock(bookId, totalCopies, availableCopies, shards);
+
+        book.setTotalCopies(totalCopies);
+        book.setAvailableCopies(availableCopies);
+        book.setInventoryShards(shards);
+    }
+
+    /**
+     * Hold copies added to stock for the waitlist first, as returned copies are. Only copies that
+     * did not exist before count as added: copies the new counts no longer show as rented out were
+     * already promised to their renters or are a correction of the counters.
+     *
+     * @return The available copies left to put in stock
+     */
+    private int offerAddedCopies(Book book, Stock stock, int totalCopies, int availableCopies) {
+        int rentedOutDelta = (stock.totalCopies() - stock.availableCopies()) - (totalCopies - availableCopies);
+        int added = Math.max(0, availableCopies - (stock.availableCopies() + rentedOutDelta));
+        int toStock = availableCopies;
+        while (added > 0 && holdService.allocateReturnedCopy(book)) {
+            added--;
+            toStock--;
+        }
+        return toStock;
+    }
+
+    private record Stock(int totalCopies, int availableCopies, int shards, List<BookCopyShard> shardRows) {
+    }
+}
@@ -0,0 +1,92 @@
+package com.booksphere.service.impl;
+
+import com.booksphere.dto.LateFeeAccrualDto;
+import com.booksphere.model.Transaction;
+import com.booksphere.repository.LateFeeAccrualRepository;
+import com.booksphere.service.LateFeeAccrualService;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Implementation of the LateFeeAccrualService interface.
+ * Overdue rentals are walked in keyset chunks of transaction IDs, each updated by a single statement
+ * in its own short transaction, so a large backlog never becomes one long transaction. Every run
+ * computes its fees at the time it started and leaves an audit row with its chunk and update counts
+ * and the total outstanding afterwards. A failed run is recorded as such; the next run recomputes
+ * every fee, so nothing needs resuming.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class LateFeeAccrualServiceImpl implements LateFeeAccrualService {
+
+    private final LateFeeAccrualRepository lateFeeAccrualRepository;
+    private final PlatformTransactionManager transactionManager;
+
+    @Value("${app.late-fees.chunk-size:1000}")
+    private int chunkSize;
+
+    private TransactionTemplate chunkTransaction;
+
+    @PostConstruct
+    public void init() {
+        chunkTransaction = new TransactionTemplate(transactionManager);
+        chunkTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    @Override
+    @Scheduled(cron = "${app.late-fees.accrual-cron:0 5 0 * * *}")
+    public synchronized LateFeeAccrualDto accrue() {
+        long start = System.currentTimeMillis();
+        LocalDateTime asOf = LocalDateTime.now();
+        long runId = lateFeeAccrualRepository.start(asOf);
+
+        int updated = 0;
+        try {
+            long lastId = 0;
+            Long toId;
+            while ((toId = lateFeeAccrualRepository.findChunkEnd(asOf, lastId, chunkSize)) != null) {
+                long afterId = lastId;
+                long chunkEnd = toId;
+                int chunkUpdated = chunkTransaction.execute(status ->
+                        lateFeeAccrualRepository.accrue(afterId, chunkEnd, asOf, Transaction.DAILY_LATE_FEE));
+                lateFeeAccrualRepository.recordChunk(runId, chunkUpdated);
+                updated += chunkUpdated;
+                lastId = chunkEnd;
+            }
+            lateFeeAccrualRepository.finish(runId, "COMPLETED", lateFeeAccrualRepository.sumOutstanding());
+            log.info("Late fees accrued for {} rentals in {} ms", updated, System.currentTimeMillis() - start);
+        } catch (RuntimeException e) {
+            // Chunks already committed hold correct fees; the next run brings the rest up to date
+            lateFeeAccrualRepository.finish(runId, "FAILED", null);
+            log.warn("Late fee accrual {} failed after {} rentals: {}", runId, updated, e.getMessage());
+        }
+        return getRecent(1).get(0);
+    }
+
+    @Override
+    public List<LateFeeAccrualDto> getRecent(int limit) {
+        return lateFeeAccrualRepository.findRecent(limit).stream()
+                .map(accrual -> new LateFeeAccrualDto(
+                        accrual.id(),
+                        accrual.asOf(),
+                        accrual.status(),
+                        accrual.chunks(),
+                        accrual.rentalsUpdated(),
+                        accrual.outstandingFees(),
+                        accrual.startedAt(),
+                        accrual.finishedAt()
+                ))
+                .toList();
+    }
+}
@@ -0,0 +1,151 @@
+package com.booksphere.service.impl;
+
+import com.booksphere.dto.NotificationOutboxStatsDto;
+import com.booksphere.model.Notification;
+import com.booksphere.repository.NotificationOutboxRepository;
+import com.booksphere.service.NotificationOutboxService;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Implementation of the NotificationOutboxService interface.
+ * A rental only appends compact rows to the outbox, one JDBC batch per transaction, so it holds its
+ * locks no longer than needed. A scheduled writer moves the rows to the notifications table: each
+ * batch is inserted and removed from the outbox in one transaction. A batch that fails is retried
+ * as a whole on the next run, so delivery is at least once; entries whose notification already
+ * exists are skipped, and the unique outbox_id index rejects a batch another writer delivered first.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class NotificationOutboxServiceImpl implements NotificationOutboxService {
+
+    private final NotificationOutboxRepository notificationOutboxRepository;
+    private final PlatformTransactionManager transactionManager;
+
+    @Value("${app.notifications.outbox.batch-size:500}")
+    private int batchSize;
+
+    @Value("${app.notifications.outbox.max-batches-per-drain:20}")
+    private int maxBatchesPerDrain;
+
+    private final AtomicLong deliveredTotal = new AtomicLong();
+    private final AtomicLong duplicatesSkipped = new AtomicLong();
+    private final AtomicLong failedDrains = new AtomicLong();
+    private final AtomicLong lastDeliveryLagMillis = new AtomicLong();
+    private final AtomicReference<LocalDateTime> lastDrainAt = new AtomicReference<>();
+
+    private TransactionTemplate drainTransaction;
+
+    @PostConstruct
+    public void init() {
+        drainTransaction = new TransactionTemplate(transactionManager);
+        drainTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void enqueue(Notification notification) {
+        notificationOutboxRepository.append(List.of(notification));
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void enqueue(List<Notification> notifications) {
+        if (!notifications.isEmpty()) {
+            notificationOutboxRepository.append(notifications);
+        }
+    }
+
+    @Override
+    @Scheduled(fixedDelayString = "${app.notifications.outbox.poll-interval-ms:500}")
+    public synchronized int drain() {
+        int delivered = 0;
+        try {
+            for (int i = 0; i < maxBatchesPerDrain; i++) {
+                Batch batch = drainTransaction.execute(status -> drainBatch());
+                if (batch.oldestCreatedAt() != null) {
+                    deliveredTotal.addAndGet(batch.delivered());
+                    duplicatesSkipped.addAndGet(batch.taken() - batch.delivered());
+                    lastDeliveryLagMillis.set(Duration.between(batch.oldestCreatedAt(), LocalDateTime.now()).toMillis());
+                }
+                delivered += batch.delivered();
+                if (batch.taken() < batchSize) {
+                    break;
+                }
+            }
+        } catch (DataAccessException e) {
+            // The batch was rolled back and stays in the outbox for the next run
+            failedDrains.incrementAndGet();
+            log.warn("Notification outbox drain failed, will retry: {}", e.getMessage());
+        }
+        lastDrainAt.set(LocalDateTime.now());
+        if (delivered > 0) {
+            log.debug("Delivered {} notifications from the outbox", delivered);
+        }
+        return delivered;
+    }
+
+    @Override
+    public NotificationOutboxStatsDto getStats() {
+        NotificationOutboxRepository.Pending pending = notificationOutboxRepository.findPending();
+        long oldestAge = pending.oldestCreatedAt() != null
+                ? Duration.between(pending.oldestCreatedAt(), LocalDateTime.now()).toMillis()
+                : 0;
+        return new NotificationOutboxStatsDto(
+                pending.count(),
+                oldestAge,
+                lastDeliveryLagMillis.get(),
+                deliveredTotal.get(),
+                duplicatesSkipped.get(),
+                failedDrains.get(),
+                lastDrainAt.get()
+        );
+    }
+
+    /**
+     * Move one batch from the outbox to the notifications table.
+     *
+     * @return The outcome of the batch
+     */
+    private Batch drainBatch() {
+        List<NotificationOutboxRepository.Entry> entries = notificationOutboxRepository.findBatch(batchSize);
+        if (entries.isEmpty()) {
+            return new Batch(0, 0, null);
+        }
+        List<Long> ids = entries.stream().map(NotificationOutboxRepository.Entry::id).toList();
+
+        Set<Long> delivered = notificationOutboxRepository.findDelivered(ids);
+        List<NotificationOutboxRepository.Entry> undelivered = delivered.isEmpty()
+                ? entries
+                : entries.stream().filter(entry -> !delivered.contains(entry.id())).toList();
+        if (!undelivered.isEmpty()) {
+            notificationOutboxRepository.deliver(undelivered);
+        }
+        notificationOutboxRepository.delete(ids);
+        return new Batch(entries.size(), undelivered.size(), entries.get(0).createdAt());
+    }
+
+    /**
+     * Entries taken from the outbox, notifications inserted for them, and the creation time of the oldest entry.
+     */
+    private record Batch(int taken, int delivered, LocalDateTime oldestCreatedAt) {
+    }
+}
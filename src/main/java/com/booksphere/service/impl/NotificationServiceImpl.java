@@ -1,20 +1,21 @@
 package com.booksphere.service.impl;
 
+import com.booksphere.dto.CursorPage;
 import com.booksphere.exception.ResourceNotFoundException;
 import com.booksphere.model.Notification;
-import com.booksphere.model.Transaction;
 import com.booksphere.model.User;
 import com.booksphere.repository.NotificationRepository;
-import com.booksphere.repository.TransactionRepository;
 import com.booksphere.repository.UserRepository;
 import com.booksphere.service.NotificationService;
+import com.booksphere.service.OverdueSweepService;
+import com.booksphere.util.KeysetCursor;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.time.LocalDateTime;
 import java.util.List;
 
 /**
@@ -26,7 +27,7 @@ public class NotificationServiceImpl implements NotificationService {
 
     private final NotificationRepository notificationRepository;
     private final UserRepository userRepository;
-    private final TransactionRepository transactionRepository;
+    private final OverdueSweepService overdueSweepService;
 
     @Override
     @Transactional(readOnly = true)
@@ -41,6 +42,23 @@ public class NotificationServiceImpl implements NotificationService {
         return notificationRepository.findByUser(user, pageable);
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public CursorPage<Notification> findByUser(User user, String cursor, int size) {
+        KeysetCursor position = KeysetCursor.parseTimestamped(cursor);
+        size = CursorPage.clampSize(size);
+        Pageable limit = PageRequest.of(0, size + 1);
+        List<Notification> rows;
+        if (position == null) {
+            rows = notificationRepository.findByUserOlderThan(user, KeysetCursor.MAX_TIMESTAMP, Long.MAX_VALUE, limit);
+        } else if (position.isPrevious()) {
+            rows = notificationRepository.findByUserNewerThan(user, position.getTimestampKey(), position.getId(), limit);
+        } else {
+            rows = notificationRepository.findByUserOlderThan(user, position.getTimestampKey(), position.getId(), limit);
+        }
+        return CursorPage.of(rows, size, position, notification -> notification.getCreatedAt().toString(), Notification::getId);
+    }
+
     @Override
     @Transactional(readOnly = true)
     public List<Notification> findUnreadByUser(User user) {
@@ -112,32 +130,8 @@ public class NotificationServiceImpl implements NotificationService {
     }
 
     @Override
-    @Transactional
     public int createOverdueNotifications() {
-        List<Transaction> overdueTransactions = transactionRepository.findOverdueTransactions(LocalDateTime.now());
-        int count = 0;
-        
-        for (Transaction transaction : overdueTransactions) {
-            // Don't create duplicate notifications - check if a notification already exists
-            List<Notification> existingNotifications = notificationRepository.findByUserAndIsReadFalse(transaction.getUser());
-            boolean alreadyNotified = existingNotifications.stream()
-                    .anyMatch(n -> n.getType() == Notification.NotificationType.OVERDUE_ALERT && 
-                                 n.getBook() != null && 
-                                 n.getBook().getId().equals(transaction.getBook().getId()));
-                                 
-            if (!alreadyNotified) {
-                Notification notification = new Notification();
-                notification.setUser(transaction.getUser());
-                notification.setMessage("Your book '" + transaction.getBook().getTitle() + "' is overdue. " +
-                                      "Please return it as soon as possible to avoid additional late fees.");
-                notification.setType(Notification.NotificationType.OVERDUE_ALERT);
-                notification.setBook(transaction.getBook());
-                
-                notificationRepository.save(notification);
-                count++;
-            }
-        }
-        
-        return count;
+        // Each chunk of the sweep commits on its own, so this runs outside a transaction
+        return overdueSweepService.sweep().getAlertsCreated();
     }
 }
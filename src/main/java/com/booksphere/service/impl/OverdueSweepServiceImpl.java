@@ -0,0 +1,179 @@
+package com.booksphere.service.impl;
+
+import com.booksphere.dto.OverdueSweepDto;
+import com.booksphere.repository.OverdueSweepRepository;
+import com.booksphere.service.OverdueSweepService;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Implementation of the OverdueSweepService interface.
+ * The sweep reads the IDs of overdue rentals one keyset chunk at a time and hands each chunk to a
+ * fixed pool of workers, keeping at most one chunk per worker in flight. Each chunk writes its alerts
+ * with a single statement in its own short transaction. Chunks are checkpointed in the order they
+ * were read, so the checkpoint only ever covers chunks that are done; a chunk run again after a
+ * failure skips the alerts it already wrote. An unfinished sweep is resumed at startup and by the
+ * next scheduled run, with the cut-off time it started with, until it has failed a configured
+ * number of times.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class OverdueSweepServiceImpl implements OverdueSweepService {
+
+    private final OverdueSweepRepository overdueSweepRepository;
+    private final PlatformTransactionManager transactionManager;
+
+    @Value("${app.overdue-sweep.chunk-size:1000}")
+    private int chunkSize;
+
+    @Value("${app.overdue-sweep.parallelism:4}")
+    private int parallelism;
+
+    @Value("${app.overdue-sweep.max-attempts:3}")
+    private int maxAttempts;
+
+    private TransactionTemplate chunkTransaction;
+    private ExecutorService workers;
+
+    @PostConstruct
+    public void init() {
+        chunkTransaction = new TransactionTemplate(transactionManager);
+        chunkTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+
+        AtomicInteger threads = new AtomicInteger();
+        workers = Executors.newFixedThreadPool(parallelism, task -> {
+            Thread thread = new Thread(task, "overdue-sweep-" + threads.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        workers.shutdownNow();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        if (overdueSweepRepository.findUnfinished().isPresent()) {
+            sweep();
+        }
+    }
+
+    @Override
+    @Scheduled(cron = "${app.overdue-sweep.cron:0 0 2 * * *}")
+    public synchronized OverdueSweepDto sweep() {
+        long start = System.currentTimeMillis();
+        Optional<OverdueSweepRepository.Sweep> unfinished = overdueSweepRepository.findUnfinished();
+        long sweepId;
+        LocalDateTime asOf;
+        long lastId;
+        int attempts;
+        if (unfinished.isPresent()) {
+            sweepId = unfinished.get().id();
+            asOf = unfinished.get().asOf();
+            lastId = unfinished.get().lastTransactionId();
+            attempts = unfinished.get().attempts() + 1;
+            overdueSweepRepository.retry(sweepId);
+            log.info("Resuming overdue sweep {} after transaction {}, attempt {}", sweepId, lastId, attempts);
+        } else {
+            asOf = LocalDateTime.now();
+            sweepId = overdueSweepRepository.start(asOf);
+            lastId = 0;
+            attempts = 1;
+        }
+
+        Deque<Chunk> inFlight = new ArrayDeque<>();
+        try {
+            List<Long> ids;
+            do {
+                ids = overdueSweepRepository.findOverdueIds(asOf, lastId, chunkSize);
+                if (ids.isEmpty()) {
+                    break;
+                }
+                long afterId = lastId;
+                long toId = ids.get(ids.size() - 1);
+                inFlight.add(new Chunk(toId, workers.submit(() ->
+                        chunkTransaction.execute(status -> overdueSweepRepository.insertAlerts(afterId, toId, asOf)))));
+                lastId = toId;
+                if (inFlight.size() >= parallelism) {
+                    checkpoint(sweepId, inFlight.poll());
+                }
+            } while (ids.size() == chunkSize);
+
+            while (!inFlight.isEmpty()) {
+                checkpoint(sweepId, inFlight.poll());
+            }
+            overdueSweepRepository.finish(sweepId);
+        } catch (ExecutionException | RuntimeException e) {
+            // Later chunks may still complete, but the checkpoint stays before the failed one
+            inFlight.forEach(chunk -> chunk.alerts().cancel(false));
+            String reason = e instanceof ExecutionException ? e.getCause().getMessage() : e.getMessage();
+            if (attempts >= maxAttempts) {
+                overdueSweepRepository.fail(sweepId);
+                log.error("Overdue sweep {} failed {} times, giving up: {}", sweepId, attempts, reason);
+            } else {
+                log.warn("Overdue sweep {} failed, will resume from its checkpoint: {}", sweepId, reason);
+            }
+        } catch (InterruptedException e) {
+            inFlight.forEach(chunk -> chunk.alerts().cancel(true));
+            Thread.currentThread().interrupt();
+        }
+
+        OverdueSweepDto result = getLatest().orElseThrow();
+        log.info("Overdue sweep {} {}: {} alerts in {} chunks, {} ms", sweepId, result.getStatus().toLowerCase(),
+                result.getAlertsCreated(), result.getChunksDone(), System.currentTimeMillis() - start);
+        return result;
+    }
+
+    @Override
+    public Optional<OverdueSweepDto> getLatest() {
+        return overdueSweepRepository.findLatest().map(sweep -> new OverdueSweepDto(
+                sweep.id(),
+                sweep.asOf(),
+                sweep.status(),
+                sweep.attempts(),
+                sweep.lastTransactionId(),
+                sweep.chunksDone(),
+                sweep.alertsCreated(),
+                sweep.startedAt(),
+                sweep.updatedAt(),
+                sweep.finishedAt()
+        ));
+    }
+
+    /**
+     * Wait for the oldest chunk in flight and move the checkpoint past it.
+     */
+    private void checkpoint(long sweepId, Chunk chunk) throws ExecutionException, InterruptedException {
+        overdueSweepRepository.checkpoint(sweepId, chunk.toId(), chunk.alerts().get());
+    }
+
+    /**
+     * A chunk of the sweep: its last transaction ID and the number of alerts it appends.
+     */
+    private record Chunk(long toId, Future<Integer> alerts) {
+    }
+}
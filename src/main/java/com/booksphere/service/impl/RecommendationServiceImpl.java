@@ -0,0 +1,292 @@
+package com.booksphere.service.impl;
+
+import com.booksphere.event.BookRentedEvent;
+import com.booksphere.repository.TransactionRepository;
+import com.booksphere.service.RecommendationService;
+import com.booksphere.util.LongIntHashMap;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Implementation of the RecommendationService interface.
+ * For every pair of books the number of users who rented both is kept in a sparse matrix of
+ * primitive maps. A rental of a book the user has not rented before adds one to the pair it forms
+ * with each book in the user's history and adjusts those books' precomputed neighbour lists, so
+ * reads are a single map lookup. The nightly rebuild computes each book's row independently,
+ * split across cores with fork/join.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class RecommendationServiceImpl implements RecommendationService {
+
+    private static final int REBUILD_SPLIT_SIZE = 64;
+    private static final long[] NONE = new long[0];
+
+    private final TransactionRepository transactionRepository;
+
+    @Value("${app.recommendations.size:10}")
+    private int size;
+
+    private final Object updateLock = new Object();
+    private final Object rebuildLock = new Object();
+
+    private volatile Matrix matrix;
+
+    // Guarded by updateLock
+    private List<BookRentedEvent> pending;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        rebuild();
+    }
+
+    @Scheduled(cron = "${app.recommendations.rebuild-cron:0 30 3 * * *}")
+    public void scheduledRebuild() {
+        rebuild();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBookRented(BookRentedEvent event) {
+        synchronized (updateLock) {
+            if (pending != null) {
+                // Replayed into the new matrix once the rebuild has read the history
+                pending.add(event);
+            }
+            if (matrix != null) {
+                matrix.record(event.getUserId(), event.getBookId());
+            }
+        }
+    }
+
+    @Override
+    public List<Long> getAlsoRented(Long bookId) {
+        Matrix current = matrix;
+        if (current == null || bookId == null) {
+            return List.of();
+        }
+        return Arrays.stream(current.neighbours.getOrDefault(bookId, NONE)).boxed().toList();
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public void rebuild() {
+        synchronized (rebuildLock) {
+            long start = System.currentTimeMillis();
+            synchronized (updateLock) {
+                pending = new ArrayList<>();
+            }
+
+            Map<Long, LongIntHashMap> booksByUser = new HashMap<>();
+            Map<Long, LongIntHashMap> usersByBook = new HashMap<>();
+            List<Object[]> pairs = transactionRepository.findAllRentalPairs();
+            for (Object[] row : pairs) {
+                Long userId = (Long) row[0];
+                Long bookId = (Long) row[1];
+                booksByUser.computeIfAbsent(userId, id -> new LongIntHashMap()).put(bookId, 1);
+                usersByBook.computeIfAbsent(bookId, id -> new LongIntHashMap()).put(userId, 1);
+            }
+            Matrix rebuilt = build(booksByUser, usersByBook);
+
+            synchronized (updateLock) {
+                for (BookRentedEvent event : pending) {
+                    // Rentals already in the history are ignored, the user has the book already
+                    rebuilt.record(event.getUserId(), event.getBookId());
+                }
+                pending = null;
+                matrix = rebuilt;
+            }
+            log.info("Recommendations rebuilt from {} user-book pairs for {} books in {} ms",
+                    pairs.size(), usersByBook.size(), System.currentTimeMillis() - start);
+        }
+    }
+
+    private Matrix build(Map<Long, LongIntHashMap> booksByUser, Map<Long, LongIntHashMap> usersByBook) {
+        Map<Long, long[]> userHistories = new HashMap<>(booksByUser.size() * 2);
+        booksByUser.forEach((userId, books) -> userHistories.put(userId, books.keys()));
+
+        long[] bookIds = usersByBook.keySet().stream().mapToLong(Long::longValue).toArray();
+        LongIntHashMap[] rows = new LongIntHashMap[bookIds.length];
+        long[][] neighbours = new long[bookIds.length][];
+        ForkJoinPool.commonPool().invoke(
+                new RowTask(bookIds, usersByBook, userHistories, rows, neighbours, size, 0, bookIds.length));
+
+        Matrix rebuilt = new Matrix(size);
+        booksByUser.forEach(rebuilt.rentedByUser::put);
+        for (int i = 0; i < bookIds.length; i++) {
+            rebuilt.rows.put(bookIds[i], rows[i]);
+            if (neighbours[i].length > 0) {
+                rebuilt.neighbours.put(bookIds[i], neighbours[i]);
+            }
+        }
+        return rebuilt;
+    }
+
+    /**
+     * Select the strongest neighbours of a row: highest count first, ties broken by lowest ID.
+     */
+    private static long[] strongest(LongIntHashMap row, int limit) {
+        long[] ids = new long[Math.min(limit, row.size())];
+        if (ids.length == 0) {
+            return ids;
+        }
+        int[] counts = new int[ids.length];
+        int[] filled = {0};
+        row.forEach((id, count) -> {
+            int n = filled[0];
+            if (n == ids.length && !ranksBefore(count, id, counts[n - 1], ids[n - 1])) {
+                return;
+            }
+            int i = n < ids.length ? n++ : n - 1;
+            while (i > 0 && ranksBefore(count, id, counts[i - 1], ids[i - 1])) {
+                ids[i] = ids[i - 1];
+                counts[i] = counts[i - 1];
+                i--;
+            }
+            ids[i] = id;
+            counts[i] = count;
+            filled[0] = n;
+        });
+        return ids;
+    }
+
+    private static boolean ranksBefore(int count, long id, int otherCount, long otherId) {
+        return count > otherCount || (count == otherCount && id < otherId);
+    }
+
+    /**
+     * Computes the rows of a range of books, splitting the range until it is small enough.
+     * Every task writes only its own slots of the result arrays.
+     */
+    private static class RowTask extends RecursiveAction {
+
+        private final long[] bookIds;
+        private final Map<Long, LongIntHashMap> usersByBook;
+        private final Map<Long, long[]> userHistories;
+        private final LongIntHashMap[] rows;
+        private final long[][] neighbours;
+        private final int size;
+        private final int from;
+        private final int to;
+
+        RowTask(long[] bookIds, Map<Long, LongIntHashMap> usersByBook, Map<Long, long[]> userHistories,
+                LongIntHashMap[] rows, long[][] neighbours, int size, int from, int to) {
+            this.bookIds = bookIds;
+            this.usersByBook = usersByBook;
+            this.userHistories = userHistories;
+            this.rows = rows;
+            this.neighbours = neighbours;
+            this.size = size;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= REBUILD_SPLIT_SIZE) {
+                for (int i = from; i < to; i++) {
+                    long bookId = bookIds[i];
+                    LongIntHashMap row = new LongIntHashMap();
+                    for (long userId : usersByBook.get(bookId).keys()) {
+                        for (long other : userHistories.get(userId)) {
+                            if (other != bookId) {
+                                row.addTo(other, 1);
+                            }
+                        }
+                    }
+                    rows[i] = row;
+                    neighbours[i] = strongest(row, size);
+                }
+                return;
+            }
+            int middle = (from + to) >>> 1;
+            invokeAll(new RowTask(bookIds, usersByBook, userHistories, rows, neighbours, size, from, middle),
+                      new RowTask(bookIds, usersByBook, userHistories, rows, neighbours, size, middle, to));
+        }
+    }
+
+    /**
+     * Co-occurrence counts and neighbour lists. Updated under the service's update lock;
+     * neighbour lists are replaced rather than modified, so they can be read without locking.
+     */
+    private static class Matrix {
+
+        private final int size;
+        private final Map<Long, LongIntHashMap> rows = new HashMap<>();
+        private final Map<Long, LongIntHashMap> rentedByUser = new HashMap<>();
+        private final Map<Long, long[]> neighbours = new ConcurrentHashMap<>();
+
+        Matrix(int size) {
+            this.size = size;
+        }
+
+        void record(long userId, long bookId) {
+            LongIntHashMap history = rentedByUser.computeIfAbsent(userId, id -> new LongIntHashMap());
+            if (history.containsKey(bookId)) {
+                return;
+            }
+            LongIntHashMap row = rows.computeIfAbsent(bookId, id -> new LongIntHashMap());
+            history.forEach((other, unused) -> {
+                int count = row.addTo(other, 1);
+                rows.computeIfAbsent(other, id -> new LongIntHashMap()).addTo(bookId, 1);
+                offer(bookId, other, count);
+                offer(other, bookId, count);
+            });
+            history.put(bookId, 1);
+        }
+
+        /**
+         * Update a book's neighbour list after the count of one candidate grew to the given value.
+         * Counts only grow, so the candidate can only move up or enter in place of the weakest entry.
+         */
+        private void offer(long bookId, long candidate, int count) {
+            long[] current = neighbours.getOrDefault(bookId, NONE);
+            LongIntHashMap row = rows.get(bookId);
+
+            int position = -1;
+            for (int i = 0; i < current.length; i++) {
+                if (current[i] == candidate) {
+                    position = i;
+                    break;
+                }
+            }
+            long[] updated;
+            if (position >= 0) {
+                updated = current.clone();
+            } else if (current.length < size) {
+                updated = Arrays.copyOf(current, current.length + 1);
+                position = current.length;
+            } else {
+                long weakest = current[current.length - 1];
+                if (!ranksBefore(count, candidate, row.get(weakest), weakest)) {
+                    return;
+                }
+                updated = current.clone();
+                position = current.length - 1;
+            }
+
+            while (position > 0 && ranksBefore(count, candidate, row.get(updated[position - 1]), updated[position - 1])) {
+                updated[position] = updated[position - 1];
+                position--;
+            }
+            updated[position] = candidate;
+            neighbours.put(bookId, updated);
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package com.booksphere.service.impl;
+
+import com.booksphere.dto.AuthorSummaryDto;
+import com.booksphere.dto.GenreDto;
+import com.booksphere.dto.RoleDto;
+import com.booksphere.event.AuthorChangedEvent;
+import com.booksphere.event.GenreChangedEvent;
+import com.booksphere.event.RoleChangedEvent;
+import com.booksphere.model.UserRole;
+import com.booksphere.repository.GenreRepository;
+import com.booksphere.repository.RoleRepository;
+import com.booksphere.repository.UserRepository;
+import com.booksphere.service.ReferenceDataService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.List;
+
+/**
+ * Implementation of the ReferenceDataService interface.
+ * Each list is an immutable snapshot replaced as a whole, so readers never block. Reloads of the
+ * same list are serialized so that a reload started after a later commit always wins.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ReferenceDataServiceImpl implements ReferenceDataService {
+
+    private final GenreRepository genreRepository;
+    private final RoleRepository roleRepository;
+    private final UserRepository userRepository;
+
+    private volatile List<GenreDto> genres;
+    private volatile List<RoleDto> roles;
+    private volatile List<AuthorSummaryDto> authors;
+
+    private final Object genreLock = new Object();
+    private final Object roleLock = new Object();
+    private final Object authorLock = new Object();
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        refresh();
+    }
+
+    @Override
+    public List<GenreDto> getGenres() {
+        List<GenreDto> current = genres;
+        return current != null ? current : reloadGenres();
+    }
+
+    @Override
+    public List<RoleDto> getRoles() {
+        List<RoleDto> current = roles;
+        return current != null ? current : reloadRoles();
+    }
+
+    @Override
+    public List<AuthorSummaryDto> getAuthors() {
+        List<AuthorSummaryDto> current = authors;
+        return current != null ? current : reloadAuthors();
+    }
+
+    @Override
+    public void refresh() {
+        reloadGenres();
+        reloadRoles();
+        reloadAuthors();
+        log.info("Reference data loaded: {} genres, {} roles, {} authors",
+                genres.size(), roles.size(), authors.size());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onGenreChanged(GenreChangedEvent event) {
+        reloadGenres();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onRoleChanged(RoleChangedEvent event) {
+        reloadRoles();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onAuthorChanged(AuthorChangedEvent event) {
+        reloadAuthors();
+    }
+
+    private List<GenreDto> reloadGenres() {
+        synchronized (genreLock) {
+            genres = genreRepository.findAll(Sort.by("name")).stream()
+                    .map(genre -> new GenreDto(genre.getId(), genre.getName(), genre.getDescription(),
+                            genre.getCreatedAt(), genre.getUpdatedAt()))
+                    .toList();
+            return genres;
+        }
+    }
+
+    private List<RoleDto> reloadRoles() {
+        synchronized (roleLock) {
+            roles = roleRepository.findAll(Sort.by("name")).stream()
+                    .map(role -> new RoleDto(role.getId(), role.getName(), role.getDescription()))
+                    .toList();
+            return roles;
+        }
+    }
+
+    private List<AuthorSummaryDto> reloadAuthors() {
+        synchronized (authorLock) {
+            authors = List.copyOf(userRepository.findSummariesByRole(UserRole.AUTHOR));
+            return authors;
+        }
+    }
+}
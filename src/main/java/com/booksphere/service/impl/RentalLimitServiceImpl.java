@@ -0,0 +1,135 @@
+package com.booksphere.service.impl;
+
+import com.booksphere.model.User;
+import com.booksphere.model.UserRole;
+import com.booksphere.repository.RentalJdbcRepository;
+import com.booksphere.repository.TransactionRepository;
+import com.booksphere.repository.UserRepository;
+import com.booksphere.service.RentalLimitService;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Implementation of the RentalLimitService interface.
+ * A rental adds to the user's counter with a conditional update that fails once the limit would be
+ * exceeded, so the check and the increment are one statement and concurrent rentals of one user
+ * cannot both pass it. Counters can still drift, e.g. through rows changed outside these paths; the
+ * reconciliation finds drifted users with one query and recounts each under a lock on its row.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class RentalLimitServiceImpl implements RentalLimitService {
+
+    private final UserRepository userRepository;
+    private final TransactionRepository transactionRepository;
+    private final RentalJdbcRepository rentalJdbcRepository;
+    private final PlatformTransactionManager transactionManager;
+
+    @Value("${app.rentals.max-active.user:5}")
+    private int userLimit;
+
+    @Value("${app.rentals.max-active.author:10}")
+    private int authorLimit;
+
+    @Value("${app.rentals.max-active.admin:0}")
+    private int adminLimit;
+
+    private TransactionTemplate reconcileTransaction;
+
+    @PostConstruct
+    public void init() {
+        reconcileTransaction = new TransactionTemplate(transactionManager);
+        reconcileTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        // Rentals seeded or changed while the application was down are not counted yet
+        reconcile();
+    }
+
+    @Scheduled(cron = "${app.rentals.reconcile-cron:0 0 4 * * *}")
+    public void scheduledReconcile() {
+        reconcile();
+    }
+
+    @Override
+    public int getLimit(UserRole role) {
+        return switch (role) {
+            case USER -> userLimit;
+            case AUTHOR -> authorLimit;
+            case ADMIN -> adminLimit;
+        };
+    }
+
+    @Override
+    @Transactional
+    public void reserve(User user, int count) {
+        int limit = getLimit(user.getUserRole());
+        if (userRepository.addActiveRentals(user.getId(), count, limit > 0 ? limit : Long.MAX_VALUE) == 0) {
+            throw new IllegalStateException("Rental limit reached: at most " + limit + " books can be rented at the same time");
+        }
+    }
+
+    @Override
+    @Transactional
+    public void release(Collection<Long> userIds) {
+        // Sorted, so concurrent batches lock user rows in the same order
+        Map<Long, Integer> counts = new TreeMap<>();
+        for (Long userId : userIds) {
+            counts.merge(userId, 1, Integer::sum);
+        }
+        if (counts.size() == 1) {
+            Map.Entry<Long, Integer> only = counts.entrySet().iterator().next();
+            userRepository.subtractActiveRentals(only.getKey(), only.getValue());
+        } else if (!counts.isEmpty()) {
+            rentalJdbcRepository.subtractActiveRentals(new ArrayList<>(counts.keySet()), new ArrayList<>(counts.values()));
+        }
+    }
+
+    @Override
+    public int reconcile() {
+        List<Long> drifted = userRepository.findDriftedActiveRentals();
+        int corrected = 0;
+        for (Long userId : drifted) {
+            Boolean changed = reconcileTransaction.execute(status -> {
+                // Waits for rentals of the user in progress, whose counter change is not committed yet
+                Integer counted = userRepository.lockActiveRentals(userId);
+                if (counted == null) {
+                    return false;
+                }
+                int actual = (int) transactionRepository.countActiveRentals(userRepository.getReferenceById(userId));
+                if (actual == counted) {
+                    return false;
+                }
+                userRepository.updateActiveRentals(userId, actual);
+                log.warn("Corrected active rentals of user {} from {} to {}", userId, counted, actual);
+                return true;
+            });
+            if (Boolean.TRUE.equals(changed)) {
+                corrected++;
+            }
+        }
+        if (corrected > 0) {
+            log.info("Reconciled active rental counters of {} users", corrected);
+        }
+        return corrected;
+    }
+}
@@ -10,6 +10,7 @@ import com.booksphere.model.User;
 import com.booksphere.repository.BookRepository;
 import com.booksphere.repository.TransactionRepository;
 import com.booksphere.repository.UserRepository;
+import com.booksphere.service.BookService;
 import com.booksphere.service.ReportService;
 import com.booksphere.util.PDFGenerator;
 import lombok.RequiredArgsConstructor;
@@ -37,6 +38,7 @@ public class ReportServiceImpl implements ReportService {
     private final TransactionRepository transactionRepository;
     private final UserRepository userRepository;
     private final BookRepository bookRepository;
+    private final BookService bookService;
     private final PDFGenerator pdfGenerator;
 
     @Override
@@ -144,7 +146,7 @@ public class ReportServiceImpl implements ReportService {
     @Override
     @Transactional(readOnly = true)
     public ReportDto generateBookPopularityReport(int limit) {
-        List<Book> popularBooks = bookRepository.findMostPopular(limit);
+        List<Book> popularBooks = bookService.findMostPopular(limit);
         
         ReportDto reportDto = new ReportDto();
         reportDto.setTitle("Book Popularity Report");
@@ -192,7 +194,8 @@ public class ReportServiceImpl implements ReportService {
             row.put("Due Date", formatDate(transaction.getDueDate()));
             row.put("Days Overdue", String.valueOf(
                     java.time.temporal.ChronoUnit.DAYS.between(transaction.getDueDate(), LocalDateTime.now())));
-            row.put("Late Fee", "$" + transaction.calculateLateFee());
+            // The fee stored by the accrual jobs
+            row.put("Late Fee", "$" + (transaction.getLateFee() != null ? transaction.getLateFee() : BigDecimal.ZERO));
             
             data.add(row);
         }
@@ -203,7 +206,7 @@ public class ReportServiceImpl implements ReportService {
         summary.put("Total Overdue Books", String.valueOf(overdueTransactions.size()));
         
         BigDecimal totalLateFees = overdueTransactions.stream()
-                .map(Transaction::calculateLateFee)
+                .map(t -> t.getLateFee() != null ? t.getLateFee() : BigDecimal.ZERO)
                 .reduce(BigDecimal.ZERO, BigDecimal::add);
                 
         summary.put("Total Late Fees", "$" + totalLateFees);
@@ -231,7 +234,7 @@ public class ReportServiceImpl implements ReportService {
             String month = transaction.getCreatedAt().getMonth().toString() + " " + transaction.getCreatedAt().getYear();
             
             BigDecimal rentalFee = transaction.getRentalPrice();
-            BigDecimal lateFee = transaction.getLateFee() != null ? transaction.getLateFee() : BigDecimal.ZERO;
+            BigDecimal lateFee = settledLateFee(transaction);
             
             revenueByMonth.put(month, revenueByMonth.getOrDefault(month, BigDecimal.ZERO).add(rentalFee).add(lateFee));
             
@@ -353,7 +356,7 @@ public class ReportServiceImpl implements ReportService {
                 .reduce(BigDecimal.ZERO, BigDecimal::add);
 
         BigDecimal lateFeeRevenue = transactions.stream()
-                .map(t -> t.getLateFee() != null ? t.getLateFee() : BigDecimal.ZERO)
+                .map(ReportServiceImpl::settledLateFee)
                 .reduce(BigDecimal.ZERO, BigDecimal::add);
 
         stats.setRentalRevenue(rentalRevenue);
@@ -408,7 +411,7 @@ public class ReportServiceImpl implements ReportService {
                 .reduce(BigDecimal.ZERO, BigDecimal::add);
 
         BigDecimal lateFeeRevenue = transactions.stream()
-                .map(t -> t.getLateFee() != null ? t.getLateFee() : BigDecimal.ZERO)
+                .map(ReportServiceImpl::settledLateFee)
                 .reduce(BigDecimal.ZERO, BigDecimal::add);
 
         stats.setRentalRevenue(rentalRevenue);
@@ -444,4 +447,14 @@ public class ReportServiceImpl implements ReportService {
         DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
         return dateTime.format(formatter);
     }
+
+    /**
+     * Get the late fee a rental has settled. Open rentals accrue a fee that is only owed once the
+     * book is returned, so it does not count as revenue yet.
+     */
+    private static BigDecimal settledLateFee(Transaction transaction) {
+        return transaction.getReturnDate() != null && transaction.getLateFee() != null
+                ? transaction.getLateFee()
+                : BigDecimal.ZERO;
+    }
 }
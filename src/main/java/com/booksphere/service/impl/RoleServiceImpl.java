@@ -1,9 +1,11 @@
 package com.booksphere.service.impl;
 
+import com.booksphere.event.RoleChangedEvent;
 import com.booksphere.model.Role;
 import com.booksphere.repository.RoleRepository;
 import com.booksphere.service.RoleService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
@@ -18,12 +20,17 @@ public class RoleServiceImpl implements RoleService {
     @Autowired
     private RoleRepository roleRepository;
 
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
     @Override
     public Role createRole(Role role) {
         if (roleRepository.existsByName(role.getName())) {
             throw new IllegalArgumentException("Role already exists: " + role.getName());
         }
-        return roleRepository.save(role);
+        Role saved = roleRepository.save(role);
+        eventPublisher.publishEvent(new RoleChangedEvent(saved.getId()));
+        return saved;
     }
 
     @Override
@@ -31,13 +38,16 @@ public class RoleServiceImpl implements RoleService {
         Role existingRole = getRoleById(id);
         existingRole.setName(role.getName());
         existingRole.setDescription(role.getDescription());
-        return roleRepository.save(existingRole);
+        Role saved = roleRepository.save(existingRole);
+        eventPublisher.publishEvent(new RoleChangedEvent(saved.getId()));
+        return saved;
     }
 
     @Override
     public void deleteRole(Long id) {
         Role role = getRoleById(id);
         roleRepository.delete(role);
+        eventPublisher.publishEvent(new RoleChangedEvent(id));
     }
 
     @Override
@@ -0,0 +1,293 @@
+package com.booksphere.service.impl;
+
+import com.booksphere.dto.BookDocumentDto;
+import com.booksphere.dto.SuggestionDto;
+import com.booksphere.dto.SuggestionDto.SuggestionType;
+import com.booksphere.event.AuthorChangedEvent;
+import com.booksphere.event.BookChangedEvent;
+import com.booksphere.event.BookRentedEvent;
+import com.booksphere.event.GenreChangedEvent;
+import com.booksphere.model.Book;
+import com.booksphere.model.Genre;
+import com.booksphere.model.User;
+import com.booksphere.model.UserRole;
+import com.booksphere.repository.BookRepository;
+import com.booksphere.repository.GenreRepository;
+import com.booksphere.repository.TransactionRepository;
+import com.booksphere.repository.UserRepository;
+import com.booksphere.service.SuggestionService;
+import com.booksphere.util.CompletionTrie;
+import com.booksphere.util.InvertedIndex;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Implementation of the SuggestionService interface.
+ * Suggestions live in a {@link CompletionTrie} weighted by rental counts (books and authors)
+ * or number of books (genres), and are updated incrementally from catalog, author and rental events.
+ * A rebuild fills a fresh trie and swaps it in once complete, so lookups keep being answered from
+ * the previous one in the meantime.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class SuggestionServiceImpl implements SuggestionService {
+
+    private static final int REBUILD_BATCH_SIZE = 500;
+    private static final int MAX_WORD_STARTS = 8;
+
+    private final BookRepository bookRepository;
+    private final GenreRepository genreRepository;
+    private final UserRepository userRepository;
+    private final TransactionRepository transactionRepository;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    // Updated under the lock of this
+    private volatile Suggestions suggestions = new Suggestions();
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void onApplicationReady() {
+        rebuild();
+    }
+
+    @Override
+    public List<SuggestionDto> suggest(String prefix, int limit) {
+        String key = normalize(prefix);
+        if (key.isEmpty()) {
+            return Collections.emptyList();
+        }
+        return suggestions.trie.complete(key, limit);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public synchronized void rebuild() {
+        long start = System.currentTimeMillis();
+        Suggestions rebuilt = new Suggestions();
+
+        for (Genre genre : genreRepository.findAll()) {
+            rebuilt.upsert(new SuggestionDto(SuggestionType.GENRE, genre.getId(), genre.getName()), 0);
+        }
+        for (User author : userRepository.findByRole(UserRole.AUTHOR)) {
+            rebuilt.upsert(new SuggestionDto(SuggestionType.AUTHOR, author.getId(), author.getFullName()), 0);
+        }
+
+        long lastId = 0;
+        List<Book> batch;
+        do {
+            batch = bookRepository.findIndexBatch(lastId, PageRequest.of(0, REBUILD_BATCH_SIZE));
+            for (Book book : batch) {
+                rebuilt.applySaved(BookDocumentDto.from(book));
+                lastId = book.getId();
+            }
+            entityManager.clear();
+        } while (batch.size() == REBUILD_BATCH_SIZE);
+
+        for (Object[] row : transactionRepository.countRentalsPerBook()) {
+            rebuilt.addRentals((Long) row[0], (Long) row[1]);
+        }
+        suggestions = rebuilt;
+        log.info("Suggestion trie built with {} entries in {} ms", rebuilt.entries.size(), System.currentTimeMillis() - start);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onBookChanged(BookChangedEvent event) {
+        if (event.isDeleted()) {
+            suggestions.applyDeleted(event.getBookId());
+        } else {
+            suggestions.applySaved(event.getDocument());
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onBookRented(BookRentedEvent event) {
+        suggestions.addRentals(event.getBookId(), 1);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onGenreChanged(GenreChangedEvent event) {
+        SuggestionDto genre = new SuggestionDto(SuggestionType.GENRE, event.getGenreId(), event.getName());
+        if (event.isDeleted()) {
+            suggestions.remove(genre);
+        } else {
+            suggestions.upsert(genre, suggestions.weightOf(genre));
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onAuthorChanged(AuthorChangedEvent event) {
+        Optional<User> author = userRepository.findById(event.getUserId())
+                .filter(user -> user.getUserRole() == UserRole.AUTHOR);
+        if (author.isPresent()) {
+            SuggestionDto suggestion = new SuggestionDto(SuggestionType.AUTHOR, event.getUserId(), author.get().getFullName());
+            suggestions.upsert(suggestion, suggestions.weightOf(suggestion));
+        } else {
+            suggestions.remove(new SuggestionDto(SuggestionType.AUTHOR, event.getUserId(), null));
+        }
+    }
+
+    /**
+     * The suggestions of one build: the trie and the entries and book references it was filled from.
+     */
+    private static class Suggestions {
+
+        private final CompletionTrie<SuggestionDto> trie = new CompletionTrie<>();
+        private final Map<SuggestionDto, Entry> entries = new HashMap<>();
+        private final Map<Long, BookRef> books = new HashMap<>();
+
+        long weightOf(SuggestionDto suggestion) {
+            Entry existing = entries.get(suggestion);
+            return existing != null ? existing.weight : 0;
+        }
+
+        void applySaved(BookDocumentDto book) {
+            SuggestionDto bookSuggestion = new SuggestionDto(SuggestionType.BOOK, book.getId(), book.getTitle());
+            Entry existing = entries.get(bookSuggestion);
+            long rentals = existing != null ? existing.weight : 0;
+            upsert(bookSuggestion, rentals);
+
+            BookRef previous = books.get(book.getId());
+            if (book.getAuthorId() != null) {
+                SuggestionDto author = new SuggestionDto(SuggestionType.AUTHOR, book.getAuthorId(), book.getAuthorName());
+                Entry authorEntry = entries.get(author);
+                upsert(author, authorEntry != null ? authorEntry.weight : 0);
+            }
+            if (previous == null || !Objects.equals(previous.authorId(), book.getAuthorId())) {
+                // Rentals of the book count towards whoever is its author now
+                if (previous != null) {
+                    adjustWeight(SuggestionType.AUTHOR, previous.authorId(), -rentals);
+                }
+                adjustWeight(SuggestionType.AUTHOR, book.getAuthorId(), rentals);
+            }
+
+            Set<Long> previousGenres = previous != null ? previous.genreIds() : Collections.emptySet();
+            for (Long genreId : previousGenres) {
+                if (!book.getGenreIds().contains(genreId)) {
+                    adjustWeight(SuggestionType.GENRE, genreId, -1);
+                }
+            }
+            for (Long genreId : book.getGenreIds()) {
+                if (!previousGenres.contains(genreId)) {
+                    adjustWeight(SuggestionType.GENRE, genreId, 1);
+                }
+            }
+            books.put(book.getId(), new BookRef(book.getAuthorId(), new HashSet<>(book.getGenreIds())));
+        }
+
+        void applyDeleted(Long bookId) {
+            BookRef previous = books.remove(bookId);
+            Entry entry = remove(new SuggestionDto(SuggestionType.BOOK, bookId, null));
+            if (previous == null) {
+                return;
+            }
+            adjustWeight(SuggestionType.AUTHOR, previous.authorId(), entry != null ? -entry.weight : 0);
+            for (Long genreId : previous.genreIds()) {
+                adjustWeight(SuggestionType.GENRE, genreId, -1);
+            }
+        }
+
+        void addRentals(Long bookId, long rentals) {
+            adjustWeight(SuggestionType.BOOK, bookId, rentals);
+            BookRef book = books.get(bookId);
+            if (book != null) {
+                adjustWeight(SuggestionType.AUTHOR, book.authorId(), rentals);
+            }
+        }
+
+        private void adjustWeight(SuggestionType type, Long id, long delta) {
+            if (id == null || delta == 0) {
+                return;
+            }
+            SuggestionDto key = new SuggestionDto(type, id, null);
+            Entry entry = entries.get(key);
+            if (entry != null) {
+                entry.weight += delta;
+                for (String trieKey : keysFor(entry.suggestion.getText())) {
+                    trie.put(trieKey, entry.suggestion, entry.weight);
+                }
+            }
+        }
+
+        void upsert(SuggestionDto suggestion, long weight) {
+            if (suggestion.getText() == null) {
+                return;
+            }
+            Entry existing = entries.get(suggestion);
+            if (existing != null && existing.suggestion.getText().equals(suggestion.getText()) && existing.weight == weight) {
+                return;
+            }
+            remove(suggestion);
+            Entry entry = new Entry(suggestion, weight);
+            entries.put(suggestion, entry);
+            for (String trieKey : keysFor(suggestion.getText())) {
+                trie.put(trieKey, suggestion, weight);
+            }
+        }
+
+        Entry remove(SuggestionDto suggestion) {
+            Entry existing = entries.remove(suggestion);
+            if (existing != null) {
+                for (String trieKey : keysFor(existing.suggestion.getText())) {
+                    trie.remove(trieKey, existing.suggestion);
+                }
+            }
+            return existing;
+        }
+    }
+
+    /**
+     * Index a text from each of its first few word starts, so "potter" completes "Harry Potter".
+     */
+    private static List<String> keysFor(String text) {
+        List<String> words = InvertedIndex.tokenize(text);
+        List<String> keys = new ArrayList<>();
+        for (int i = 0; i < words.size() && i < MAX_WORD_STARTS; i++) {
+            keys.add(String.join(" ", words.subList(i, words.size())));
+        }
+        return keys;
+    }
+
+    private static String normalize(String prefix) {
+        if (prefix == null) {
+            return "";
+        }
+        String key = String.join(" ", InvertedIndex.tokenize(prefix));
+        // Keep a trailing space so "harry " only completes titles with a following word
+        return !key.isEmpty() && Character.isWhitespace(prefix.charAt(prefix.length() - 1)) ? key + " " : key;
+    }
+
+    private static class Entry {
+
+        private final SuggestionDto suggestion;
+        private long weight;
+
+        Entry(SuggestionDto suggestion, long weight) {
+            this.suggestion = suggestion;
+            this.weight = weight;
+        }
+    }
+
+    private record BookRef(Long authorId, Set<Long> genreIds) {
+    }
+}
@@ -1,25 +1,45 @@
 package com.booksphere.service.impl;
 
+import com.booksphere.dto.CheckInRequestDto;
+import com.booksphere.dto.CheckInResultDto;
+import com.booksphere.dto.CursorPage;
+import com.booksphere.event.BookRentedEvent;
+import com.booksphere.event.BookReturnedEvent;
 import com.booksphere.exception.ResourceNotFoundException;
 import com.booksphere.model.Book;
 import com.booksphere.model.Notification;
 import com.booksphere.model.Transaction;
 import com.booksphere.model.User;
 import com.booksphere.repository.BookRepository;
-import com.booksphere.repository.NotificationRepository;
+import com.booksphere.repository.RentalJdbcRepository;
 import com.booksphere.repository.TransactionRepository;
 import com.booksphere.repository.UserRepository;
-import com.booksphere.service.BookService;
+import com.booksphere.service.HoldService;
+import com.booksphere.service.InventoryService;
+import com.booksphere.service.NotificationOutboxService;
+import com.booksphere.service.RentalLimitService;
 import com.booksphere.service.TransactionService;
+import com.booksphere.util.KeysetCursor;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 /**
  * Implementation of the TransactionService interface.
@@ -31,8 +51,12 @@ public class TransactionServiceImpl implements TransactionService {
     private final TransactionRepository transactionRepository;
     private final UserRepository userRepository;
     private final BookRepository bookRepository;
-    private final NotificationRepository notificationRepository;
-    private final BookService bookService;
+    private final RentalJdbcRepository rentalJdbcRepository;
+    private final InventoryService inventoryService;
+    private final HoldService holdService;
+    private final RentalLimitService rentalLimitService;
+    private final NotificationOutboxService notificationOutboxService;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Override
     @Transactional(readOnly = true)
@@ -56,17 +80,16 @@ public class TransactionServiceImpl implements TransactionService {
         Book book = bookRepository.findById(bookId)
                 .orElseThrow(() -> new ResourceNotFoundException("Book not found with id: " + bookId));
         
-        // Check if book is available
-        if (!book.isAvailable()) {
+        // A copy held for the user is already out of stock; this also closes the user's place on the waitlist
+        boolean held = holdService.fulfilHolds(userId, List.of(bookId)).contains(bookId);
+        
+        // Check if book is available; striped copies are only counted on the book shortly after a change
+        if (!held && book.getInventoryShards() == 0 && !book.isAvailable()) {
             throw new IllegalStateException("Book is not available for rental: " + book.getTitle());
         }
         
         // Check if user already has this book
-        List<Transaction> activeRentals = transactionRepository.findActiveRentals(user);
-        boolean alreadyRented = activeRentals.stream()
-                .anyMatch(t -> t.getBook().getId().equals(bookId));
-        
-        if (alreadyRented) {
+        if (transactionRepository.existsActiveRental(userId, bookId)) {
             throw new IllegalStateException("User already has this book: " + book.getTitle());
         }
         
@@ -80,9 +103,13 @@ public class TransactionServiceImpl implements TransactionService {
         transaction.setRentalPrice(book.getRentalPrice());
         transaction.setPaid(false);
         
-        // Update book available copies
-        book.checkoutCopy();
-        bookRepository.save(book);
+        // Count the rental against the user's limit; fails if the user already has the maximum
+        rentalLimitService.reserve(user, 1);
+        
+        // Take a copy out of stock; fails if another rental took the last one
+        if (!held) {
+            inventoryService.reserveCopy(book);
+        }
         
         // Create a notification for the author
         if (book.getAuthor() != null) {
@@ -92,10 +119,99 @@ public class TransactionServiceImpl implements TransactionService {
                 Notification.NotificationType.BOOK_AVAILABLE,
                 book
             );
-            notificationRepository.save(notification);
+            notificationOutboxService.enqueue(notification);
         }
         
-        return transactionRepository.save(transaction);
+        Transaction saved = transactionRepository.save(transaction);
+        publishRented(saved);
+        return saved;
+    }
+
+    @Override
+    @Transactional
+    public List<Transaction> issueBooks(Long userId, List<Long> bookIds, LocalDateTime dueDate) {
+        if (bookIds == null || bookIds.isEmpty()) {
+            throw new IllegalArgumentException("No books to rent");
+        }
+        Set<Long> distinctIds = new LinkedHashSet<>(bookIds);
+        if (distinctIds.size() != bookIds.size()) {
+            throw new IllegalArgumentException("A book can only be rented once per checkout");
+        }
+
+        User user = userRepository.findById(userId)
+                .orElseThrow(() -> new ResourceNotFoundException("User not found with id: " + userId));
+
+        Map<Long, Book> found = bookRepository.findByIdIn(distinctIds).stream()
+                .collect(Collectors.toMap(Book::getId, Function.identity()));
+        List<Book> books = new ArrayList<>(distinctIds.size());
+        for (Long bookId : distinctIds) {
+            Book book = found.get(bookId);
+            if (book == null) {
+                throw new ResourceNotFoundException("Book not found with id: " + bookId);
+            }
+            books.add(book);
+        }
+
+        // Copies held for the user are already out of stock; this also closes the user's places on the waitlists
+        Set<Long> held = holdService.fulfilHolds(userId, distinctIds);
+
+        // Check every book before changing anything; striped copies are only counted on the book shortly after a change
+        String unavailable = books.stream()
+                .filter(book -> !held.contains(book.getId()))
+                .filter(book -> book.getInventoryShards() == 0 && !book.isAvailable())
+                .map(Book::getTitle)
+                .collect(Collectors.joining(", "));
+        if (!unavailable.isEmpty()) {
+            throw new IllegalStateException("Books are not available for rental: " + unavailable);
+        }
+        Set<Long> alreadyRented = Set.copyOf(transactionRepository.findActiveRentalBookIds(user, distinctIds));
+        if (!alreadyRented.isEmpty()) {
+            throw new IllegalStateException("User already has these books: " + books.stream()
+                    .filter(book -> alreadyRented.contains(book.getId()))
+                    .map(Book::getTitle)
+                    .collect(Collectors.joining(", ")));
+        }
+
+        // Count the rentals against the user's limit; fails for all if they do not all fit
+        rentalLimitService.reserve(user, books.size());
+
+        // Take a copy of every book out of stock; fails for all if another rental took the last copy of one
+        inventoryService.reserveCopies(books.stream().filter(book -> !held.contains(book.getId())).toList());
+
+        LocalDateTime issueDate = LocalDateTime.now();
+        List<Transaction> transactions = new ArrayList<>(books.size());
+        List<Notification> notifications = new ArrayList<>(books.size());
+        for (Book book : books) {
+            Transaction transaction = new Transaction();
+            transaction.setUser(user);
+            transaction.setBook(book);
+            transaction.setType(Transaction.TransactionType.ISSUE);
+            transaction.setIssueDate(issueDate);
+            transaction.setDueDate(dueDate);
+            transaction.setRentalPrice(book.getRentalPrice());
+            transaction.setPaid(false);
+            transactions.add(transaction);
+
+            if (book.getAuthor() != null) {
+                notifications.add(new Notification(
+                    book.getAuthor(),
+                    "Your book '" + book.getTitle() + "' has been rented by " + user.getFullName(),
+                    Notification.NotificationType.BOOK_AVAILABLE,
+                    book
+                ));
+            }
+        }
+        List<Long> ids = rentalJdbcRepository.insertTransactions(transactions);
+        notificationOutboxService.enqueue(notifications);
+
+        Map<Long, Transaction> loaded = transactionRepository.findAllById(ids).stream()
+                .collect(Collectors.toMap(Transaction::getId, Function.identity()));
+        List<Transaction> saved = ids.stream().map(loaded::get).toList();
+        Map<Long, Long> rentalCounts = inventoryService.recordRentals(books);
+        for (Transaction transaction : saved) {
+            publishRented(transaction, rentalCounts.get(transaction.getBook().getId()));
+        }
+        return saved;
     }
 
     @Override
@@ -108,20 +224,18 @@ public class TransactionServiceImpl implements TransactionService {
             throw new IllegalStateException("Book already returned");
         }
         
-        // Update transaction
-        transaction.setReturnDate(LocalDateTime.now());
-        transaction.setType(Transaction.TransactionType.RETURN);
+        // Calculate late fee if overdue, then stamp the return
+        LocalDateTime now = LocalDateTime.now();
+        BigDecimal lateFee = transaction.isOverdue(now) ? transaction.calculateLateFee(now) : null;
+        markReturned(transaction, now, lateFee);
         
-        // Calculate late fee if overdue
-        if (transaction.isOverdue()) {
-            BigDecimal lateFee = transaction.calculateLateFee();
-            transaction.setLateFee(lateFee);
-        }
+        rentalLimitService.release(List.of(transaction.getUser().getId()));
         
-        // Update book available copies
+        // Put the copy back in stock, unless it goes to the next user on the waitlist
         Book book = transaction.getBook();
-        book.returnCopy();
-        bookRepository.save(book);
+        if (!holdService.allocateReturnedCopy(book)) {
+            inventoryService.releaseCopy(book);
+        }
         
         // Create a notification for the user
         Notification notification = new Notification(
@@ -130,7 +244,7 @@ public class TransactionServiceImpl implements TransactionService {
             Notification.NotificationType.SYSTEM_NOTIFICATION,
             book
         );
-        notificationRepository.save(notification);
+        notificationOutboxService.enqueue(notification);
         
         // Create a notification for the author
         if (book.getAuthor() != null) {
@@ -140,12 +254,115 @@ public class TransactionServiceImpl implements TransactionService {
                 Notification.NotificationType.SYSTEM_NOTIFICATION,
                 book
             );
-            notificationRepository.save(authorNotification);
+            notificationOutboxService.enqueue(authorNotification);
         }
         
+        publishReturned(transaction, transaction.getReturnDate());
         return transactionRepository.save(transaction);
     }
 
+    @Override
+    @Transactional
+    public List<CheckInResultDto> checkIn(List<CheckInRequestDto> requests) {
+        if (requests == null || requests.isEmpty()) {
+            throw new IllegalArgumentException("No books to check in");
+        }
+
+        // Resolve every request to a transaction ID, looking up ISBN and user pairs in one query
+        Map<String, Long> activeRentals = new HashMap<>();
+        Set<String> isbns = new HashSet<>();
+        Set<Long> userIds = new HashSet<>();
+        for (CheckInRequestDto request : requests) {
+            if (request.getTransactionId() == null && request.getIsbn() != null && request.getUserId() != null) {
+                isbns.add(request.getIsbn());
+                userIds.add(request.getUserId());
+            }
+        }
+        if (!isbns.isEmpty()) {
+            for (Object[] row : transactionRepository.findActiveRentalIds(isbns, userIds)) {
+                activeRentals.putIfAbsent(row[1] + "/" + row[2], (Long) row[0]);
+            }
+        }
+        List<Long> ids = requests.stream()
+                .map(request -> request.getTransactionId() != null
+                        ? request.getTransactionId()
+                        : activeRentals.get(request.getIsbn() + "/" + request.getUserId()))
+                .toList();
+
+        Map<Long, Transaction> found = new HashMap<>();
+        Set<Long> knownIds = ids.stream().filter(Objects::nonNull).collect(Collectors.toSet());
+        if (!knownIds.isEmpty()) {
+            for (Transaction transaction : transactionRepository.findWithDetailsByIdIn(knownIds)) {
+                found.put(transaction.getId(), transaction);
+            }
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        CheckInResultDto[] results = new CheckInResultDto[requests.size()];
+        List<Integer> pending = new ArrayList<>();
+        List<BigDecimal> lateFees = new ArrayList<>();
+        Set<Long> seen = new HashSet<>();
+        for (int i = 0; i < requests.size(); i++) {
+            Transaction transaction = ids.get(i) != null ? found.get(ids.get(i)) : null;
+            if (transaction == null) {
+                results[i] = CheckInResultDto.rejected(requests.get(i), CheckInResultDto.Status.NOT_FOUND);
+            } else if (!seen.add(transaction.getId())) {
+                results[i] = CheckInResultDto.rejected(requests.get(i), CheckInResultDto.Status.DUPLICATE);
+            } else if (transaction.getReturnDate() != null) {
+                results[i] = checkInResult(transaction, CheckInResultDto.Status.ALREADY_RETURNED, transaction.getLateFee());
+            } else {
+                pending.add(i);
+                lateFees.add(transaction.isOverdue(now) ? transaction.calculateLateFee(now) : null);
+            }
+        }
+
+        // Stamp all returns in one batch; a row returned concurrently is skipped and reported as such
+        List<Long> pendingIds = pending.stream().map(ids::get).toList();
+        int[] updated = pendingIds.isEmpty() ? new int[0] : rentalJdbcRepository.markReturned(pendingIds, lateFees, now);
+
+        List<Book> returnedBooks = new ArrayList<>();
+        List<Long> returnedUsers = new ArrayList<>();
+        List<Notification> notifications = new ArrayList<>();
+        for (int j = 0; j < updated.length; j++) {
+            Transaction transaction = found.get(pendingIds.get(j));
+            if (updated[j] == 0) {
+                results[pending.get(j)] = checkInResult(transaction, CheckInResultDto.Status.ALREADY_RETURNED, null);
+                continue;
+            }
+            results[pending.get(j)] = checkInResult(transaction, CheckInResultDto.Status.RETURNED, lateFees.get(j));
+
+            Book book = transaction.getBook();
+            returnedBooks.add(book);
+            returnedUsers.add(transaction.getUser().getId());
+            publishReturned(transaction, now);
+            notifications.add(new Notification(
+                transaction.getUser(),
+                "You have successfully returned '" + book.getTitle() + "'.",
+                Notification.NotificationType.SYSTEM_NOTIFICATION,
+                book
+            ));
+            if (book.getAuthor() != null) {
+                notifications.add(new Notification(
+                    book.getAuthor(),
+                    "Your book '" + book.getTitle() + "' has been returned by " + transaction.getUser().getFullName(),
+                    Notification.NotificationType.SYSTEM_NOTIFICATION,
+                    book
+                ));
+            }
+        }
+
+        // Hand copies to waiting users, and put the rest back in stock, one update per book
+        if (!returnedBooks.isEmpty()) {
+            rentalLimitService.release(returnedUsers);
+            List<Book> toStock = holdService.allocateReturnedCopies(returnedBooks);
+            if (!toStock.isEmpty()) {
+                inventoryService.releaseCopies(toStock);
+            }
+            notificationOutboxService.enqueue(notifications);
+        }
+        return List.of(results);
+    }
+
     @Override
     @Transactional(readOnly = true)
     public Page<Transaction> findByUser(User user, Pageable pageable) {
@@ -213,7 +430,7 @@ public class TransactionServiceImpl implements TransactionService {
             "Payment received for '" + transaction.getBook().getTitle() + "'.",
             Notification.NotificationType.SYSTEM_NOTIFICATION
         );
-        notificationRepository.save(notification);
+        notificationOutboxService.enqueue(notification);
         
         return transactionRepository.save(transaction);
     }
@@ -228,13 +445,32 @@ public class TransactionServiceImpl implements TransactionService {
         return transactionRepository.findByUserAndReturnDateIsNotNull(user);
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public CursorPage<Transaction> findCompletedTransactionsByUser(User user, String cursor, int size) {
+        KeysetCursor position = KeysetCursor.parseTimestamped(cursor);
+        size = CursorPage.clampSize(size);
+        Pageable limit = PageRequest.of(0, size + 1);
+        List<Transaction> rows;
+        if (position == null) {
+            rows = transactionRepository.findCompletedByUserOlderThan(user, KeysetCursor.MAX_TIMESTAMP, Long.MAX_VALUE, limit);
+        } else if (position.isPrevious()) {
+            rows = transactionRepository.findCompletedByUserNewerThan(user, position.getTimestampKey(), position.getId(), limit);
+        } else {
+            rows = transactionRepository.findCompletedByUserOlderThan(user, position.getTimestampKey(), position.getId(), limit);
+        }
+        return CursorPage.of(rows, size, position, transaction -> transaction.getIssueDate().toString(), Transaction::getId);
+    }
+
     @Override
     @Transactional
     public Transaction createTransaction(User user, Long bookId, int rentalDays) {
-        Book book = bookService.findById(bookId);
+        Book book = bookRepository.findById(bookId)
+                .orElseThrow(() -> new ResourceNotFoundException("Book not found with id: " + bookId));
         
-        if (book.getAvailableCopies() <= 0) {
-            throw new RuntimeException("Book is not available for rental");
+        boolean held = holdService.fulfilHolds(user.getId(), List.of(bookId)).contains(bookId);
+        if (!held && book.getInventoryShards() == 0 && book.getAvailableCopies() <= 0) {
+            throw new IllegalStateException("Book is not available for rental: " + book.getTitle());
         }
 
         Transaction transaction = new Transaction();
@@ -244,11 +480,16 @@ public class TransactionServiceImpl implements TransactionService {
         transaction.setDueDate(LocalDateTime.now().plusDays(rentalDays));
         transaction.setType(Transaction.TransactionType.ISSUE);
 
-        // Update book availability
-        book.setAvailableCopies(book.getAvailableCopies() - 1);
-        bookRepository.save(book);
+        rentalLimitService.reserve(user, 1);
 
-        return transactionRepository.save(transaction);
+        // Take a copy out of stock, unless one is held for the user; fails if another rental took the last one
+        if (!held) {
+            inventoryService.reserveCopy(book);
+        }
+
+        Transaction saved = transactionRepository.save(transaction);
+        publishRented(saved);
+        return saved;
     }
 
     @Override
@@ -259,17 +500,19 @@ public class TransactionServiceImpl implements TransactionService {
         }
 
         transaction.setReturnDate(LocalDateTime.now());
-        transaction.setType(Transaction.TransactionType.RETURN);
         
-        // Calculate late fee if applicable
+        // Calculate late fee if applicable, then stamp the return
         BigDecimal lateFee = BigDecimal.valueOf(calculateLateFee(transaction));
-        transaction.setLateFee(lateFee);
+        markReturned(transaction, transaction.getReturnDate(), lateFee);
 
-        // Update book availability
-        Book book = transaction.getBook();
-        book.setAvailableCopies(book.getAvailableCopies() + 1);
-        bookRepository.save(book);
+        rentalLimitService.release(List.of(transaction.getUser().getId()));
+
+        // Put the copy back in stock, unless it goes to the next user on the waitlist
+        if (!holdService.allocateReturnedCopy(transaction.getBook())) {
+            inventoryService.releaseCopy(transaction.getBook());
+        }
 
+        publishReturned(transaction, transaction.getReturnDate());
         return transactionRepository.save(transaction);
     }
 
@@ -294,11 +537,60 @@ public class TransactionServiceImpl implements TransactionService {
 
     @Override
     public long countActiveRentals() {
-        return transactionRepository.countByReturnDateIsNull();
+        return userRepository.sumActiveRentals();
     }
 
     @Override
     public long countOverdueBooks() {
         return transactionRepository.countByDueDateBeforeAndReturnDateIsNull(LocalDateTime.now());
     }
+
+    private static CheckInResultDto checkInResult(Transaction transaction, CheckInResultDto.Status status,
+                                                  BigDecimal lateFee) {
+        return new CheckInResultDto(
+                transaction.getId(),
+                transaction.getBook().getIsbn(),
+                transaction.getUser().getId(),
+                transaction.getBook().getTitle(),
+                status,
+                lateFee);
+    }
+
+    /**
+     * Stamp a rental as returned with a conditional update, so that of concurrent returns and
+     * check-ins of the same rental only one goes on to release its copy and limit.
+     */
+    private void markReturned(Transaction transaction, LocalDateTime returnDate, BigDecimal lateFee) {
+        if (rentalJdbcRepository.markReturned(transaction.getId(), lateFee, returnDate) == 0) {
+            throw new IllegalStateException("Book already returned");
+        }
+        // Keep the loaded entity in step with the row; flushing it writes the same values
+        transaction.setReturnDate(returnDate);
+        transaction.setType(Transaction.TransactionType.RETURN);
+        if (lateFee != null) {
+            transaction.setLateFee(lateFee);
+        }
+    }
+
+    private void publishRented(Transaction transaction) {
+        publishRented(transaction, inventoryService.recordRental(transaction.getBook()));
+    }
+
+    private void publishRented(Transaction transaction, long rentalCount) {
+        eventPublisher.publishEvent(new BookRentedEvent(
+                transaction.getId(),
+                transaction.getBook().getId(),
+                transaction.getUser().getId(),
+                transaction.getIssueDate(),
+                transaction.getDueDate(),
+                rentalCount));
+    }
+
+    private void publishReturned(Transaction transaction, LocalDateTime returnDate) {
+        eventPublisher.publishEvent(new BookReturnedEvent(
+                transaction.getId(),
+                transaction.getBook().getId(),
+                transaction.getUser().getId(),
+                returnDate));
+    }
 }
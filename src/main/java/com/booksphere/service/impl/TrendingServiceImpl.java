@@ -0,0 +1,113 @@
+package com.booksphere.service.impl;
+
+import com.booksphere.event.BookRentedEvent;
+import com.booksphere.repository.TransactionRepository;
+import com.booksphere.service.TrendingService;
+import com.booksphere.util.TrendingSketch;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Implementation of the TrendingService interface.
+ * Rentals feed a constant-memory heavy-hitters sketch as they commit. At startup the sketch is
+ * replayed from the rentals of the last few half-lives; anything older would weigh almost nothing.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class TrendingServiceImpl implements TrendingService {
+
+    /**
+     * Rentals older than this many half-lives weigh less than 0.1% and are not replayed.
+     */
+    private static final int HISTORY_HALF_LIVES = 10;
+
+    private final TransactionRepository transactionRepository;
+
+    @Value("${app.trending.half-life-hours:24}")
+    private long halfLifeHours;
+
+    @Value("${app.trending.capacity:200}")
+    private int capacity;
+
+    private final Object swapLock = new Object();
+
+    private volatile TrendingSketch sketch;
+
+    // Guarded by swapLock
+    private List<BookRentedEvent> pending;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        rebuild();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBookRented(BookRentedEvent event) {
+        synchronized (swapLock) {
+            if (pending != null) {
+                // Replayed into the new sketch once the rebuild has read the history
+                pending.add(event);
+            }
+            TrendingSketch current = sketch;
+            if (current != null) {
+                current.add(event.getBookId(), toEpochMillis(event.getIssueDate()));
+            }
+        }
+    }
+
+    @Override
+    public List<Long> getTrendingBookIds(int limit) {
+        TrendingSketch current = sketch;
+        return current != null ? current.top(limit) : List.of();
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public void rebuild() {
+        long start = System.currentTimeMillis();
+        long halfLifeMillis = TimeUnit.HOURS.toMillis(halfLifeHours);
+        TrendingSketch rebuilt = new TrendingSketch(capacity, halfLifeMillis, start);
+        synchronized (swapLock) {
+            pending = new ArrayList<>();
+        }
+
+        LocalDateTime since = LocalDateTime.now().minusHours(halfLifeHours * HISTORY_HALF_LIVES);
+        // Rentals do not commit in ID order, so the pending ones are matched by ID rather than by the highest ID read
+        Set<Long> replayedIds = new HashSet<>();
+        for (Object[] row : transactionRepository.findIssuesSince(since)) {
+            rebuilt.add((Long) row[1], toEpochMillis((LocalDateTime) row[2]));
+            replayedIds.add((Long) row[0]);
+        }
+
+        synchronized (swapLock) {
+            for (BookRentedEvent event : pending) {
+                // Rentals committed while the history was read may already be part of it
+                if (!replayedIds.contains(event.getTransactionId())) {
+                    rebuilt.add(event.getBookId(), toEpochMillis(event.getIssueDate()));
+                }
+            }
+            pending = null;
+            sketch = rebuilt;
+        }
+        log.info("Trending sketch rebuilt from {} rentals in {} ms", replayedIds.size(), System.currentTimeMillis() - start);
+    }
+
+    private static long toEpochMillis(LocalDateTime dateTime) {
+        return dateTime.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+}
@@ -1,15 +1,20 @@
 package com.booksphere.service.impl;
 
+import com.booksphere.dto.CursorPage;
 import com.booksphere.dto.UserDto;
 import com.booksphere.dto.RegistrationRequest;
+import com.booksphere.event.AuthorChangedEvent;
 import com.booksphere.model.Role;
 import com.booksphere.model.User;
 import com.booksphere.model.UserRole;
 import com.booksphere.repository.RoleRepository;
 import com.booksphere.repository.UserRepository;
 import com.booksphere.service.UserService;
+import com.booksphere.util.KeysetCursor;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
@@ -35,6 +40,9 @@ public class UserServiceImpl implements UserService {
     @Autowired
     private PasswordEncoder passwordEncoder;
 
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
     @Override
     @Transactional
     public User createUser(User user) {
@@ -46,7 +54,7 @@ public class UserServiceImpl implements UserService {
         }
         
         user.setPassword(passwordEncoder.encode(user.getPassword()));
-        return userRepository.save(user);
+        return saveAndPublish(user, false);
     }
 
     @Override
@@ -61,6 +69,23 @@ public class UserServiceImpl implements UserService {
         return userRepository.findAll(pageable);
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public CursorPage<User> getAllUsers(String cursor, int size) {
+        KeysetCursor position = KeysetCursor.parse(cursor);
+        size = CursorPage.clampSize(size);
+        Pageable limit = PageRequest.of(0, size + 1);
+        List<User> rows;
+        if (position == null) {
+            rows = userRepository.findAfterId(0L, limit);
+        } else if (position.isPrevious()) {
+            rows = userRepository.findBeforeId(position.getId(), limit);
+        } else {
+            rows = userRepository.findAfterId(position.getId(), limit);
+        }
+        return CursorPage.of(rows, size, position, user -> null, User::getId);
+    }
+
     @Override
     @Transactional(readOnly = true)
     public Optional<User> getUserById(Long id) {
@@ -87,7 +112,7 @@ public class UserServiceImpl implements UserService {
             user.setPassword(passwordEncoder.encode(userDto.getPassword()));
         }
 
-        return userRepository.save(user);
+        return saveAndPublish(user, false);
     }
 
     @Override
@@ -96,6 +121,9 @@ public class UserServiceImpl implements UserService {
         User user = userRepository.findById(id)
             .orElseThrow(() -> new RuntimeException("User not found"));
         userRepository.delete(user);
+        if (user.getUserRole() == UserRole.AUTHOR) {
+            eventPublisher.publishEvent(new AuthorChangedEvent(id));
+        }
     }
 
     @Override
@@ -136,7 +164,7 @@ public class UserServiceImpl implements UserService {
             .orElseThrow(() -> new RuntimeException("Role not found: " + registrationRequest.getUserRole()));
         user.addRole(role);
         
-        return userRepository.save(user);
+        return saveAndPublish(user, false);
     }
 
     @Override
@@ -174,7 +202,7 @@ public class UserServiceImpl implements UserService {
             user.setPassword(passwordEncoder.encode(userDto.getPassword()));
         }
 
-        return userRepository.save(user);
+        return saveAndPublish(user, false);
     }
 
     @Override
@@ -215,8 +243,9 @@ public class UserServiceImpl implements UserService {
     public User addRole(Long userId, String roleName) {
         User user = userRepository.findById(userId)
             .orElseThrow(() -> new RuntimeException("User not found"));
+        boolean wasAuthor = user.getUserRole() == UserRole.AUTHOR;
         user.addRole(roleName);
-        return userRepository.save(user);
+        return saveAndPublish(user, wasAuthor);
     }
 
     @Override
@@ -224,8 +253,9 @@ public class UserServiceImpl implements UserService {
     public User removeRole(Long userId, String roleName) {
         User user = userRepository.findById(userId)
             .orElseThrow(() -> new RuntimeException("User not found"));
+        boolean wasAuthor = user.getUserRole() == UserRole.AUTHOR;
         user.removeRole(roleName);
-        return userRepository.save(user);
+        return saveAndPublish(user, wasAuthor);
     }
 
     @Override
@@ -280,6 +310,22 @@ public class UserServiceImpl implements UserService {
                 .orElseThrow(() -> new IllegalArgumentException("Role not found: " + userDto.getRole()));
         user.getRoles().add(role);
         
-        return userRepository.save(user);
+        return saveAndPublish(user, false);
+    }
+
+    /**
+     * Save a user and, if the user is or was an author, publish an AuthorChangedEvent
+     * so that author lists are reloaded once the change commits.
+     *
+     * @param user The user to save
+     * @param wasAuthor Whether the user had the author role before the change
+     * @return The saved user
+     */
+    private User saveAndPublish(User user, boolean wasAuthor) {
+        User saved = userRepository.save(user);
+        if (wasAuthor || saved.getUserRole() == UserRole.AUTHOR) {
+            eventPublisher.publishEvent(new AuthorChangedEvent(saved.getId()));
+        }
+        return saved;
     }
 }
\ No newline at end of file
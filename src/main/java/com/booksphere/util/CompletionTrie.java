@@ -0,0 +1,253 @@
+package com.booksphere.util;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Thread-safe compressed (radix) trie mapping string keys to weighted values, answering
+ * "top N values whose key starts with a prefix" queries.
+ * Every node caches the highest weight found in its subtree, so a completion query is a
+ * best-first walk that only visits the branches that can still contribute to the result.
+ *
+ * @param <T> The value type; a value may be stored under several keys
+ */
+public class CompletionTrie<T> {
+
+    private final Node<T> root = new Node<>("");
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private int size;
+
+    /**
+     * Store a value under a key, replacing its weight if it is already stored there.
+     *
+     * @param key The key
+     * @param value The value
+     * @param weight The weight; higher weights are returned first
+     */
+    public void put(String key, T value, long weight) {
+        lock.writeLock().lock();
+        try {
+            Deque<Node<T>> path = new ArrayDeque<>();
+            Node<T> node = root;
+            String rest = key;
+            path.push(node);
+            while (!rest.isEmpty()) {
+                Node<T> child = node.children.get(rest.charAt(0));
+                if (child == null) {
+                    child = new Node<>(rest);
+                    node.children.put(rest.charAt(0), child);
+                    rest = "";
+                } else {
+                    int common = commonPrefixLength(child.label, rest);
+                    if (common < child.label.length()) {
+                        child = split(node, child, common);
+                    }
+                    rest = rest.substring(common);
+                }
+                node = child;
+                path.push(node);
+            }
+            if (node.values == null) {
+                node.values = new HashMap<>();
+            }
+            if (node.values.put(value, weight) == null) {
+                size++;
+            }
+            while (!path.isEmpty()) {
+                path.pop().recomputeMaxWeight();
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Remove a value from a key.
+     *
+     * @param key The key
+     * @param value The value
+     * @return true if the value was stored under the key, false otherwise
+     */
+    public boolean remove(String key, T value) {
+        lock.writeLock().lock();
+        try {
+            Deque<Node<T>> path = new ArrayDeque<>();
+            Node<T> node = root;
+            String rest = key;
+            path.push(node);
+            while (!rest.isEmpty()) {
+                Node<T> child = node.children.get(rest.charAt(0));
+                if (child == null || !rest.startsWith(child.label)) {
+                    return false;
+                }
+                rest = rest.substring(child.label.length());
+                node = child;
+                path.push(node);
+            }
+            if (node.values == null || node.values.remove(value) == null) {
+                return false;
+            }
+            size--;
+            if (node.values.isEmpty()) {
+                node.values = null;
+            }
+
+            // Walk back up, pruning empty leaves and recomputing the cached weights
+            Node<T> child = path.pop();
+            while (!path.isEmpty()) {
+                Node<T> parent = path.pop();
+                if (child.values == null && child.children.isEmpty()) {
+                    parent.children.remove(child.label.charAt(0));
+                } else {
+                    child.recomputeMaxWeight();
+                }
+                child = parent;
+            }
+            root.recomputeMaxWeight();
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Find the highest weighted values whose key starts with the given prefix.
+     *
+     * @param prefix The key prefix
+     * @param limit The maximum number of values to return
+     * @return Distinct values, highest weight first
+     */
+    public List<T> complete(String prefix, int limit) {
+        lock.readLock().lock();
+        try {
+            Node<T> start = findPrefixNode(prefix);
+            if (start == null || limit <= 0) {
+                return new ArrayList<>();
+            }
+
+            Set<T> results = new LinkedHashSet<>();
+            PriorityQueue<Candidate<T>> queue = new PriorityQueue<>();
+            queue.add(new Candidate<>(start, null, start.maxWeight));
+            while (!queue.isEmpty() && results.size() < limit) {
+                Candidate<T> candidate = queue.poll();
+                if (candidate.node == null) {
+                    results.add(candidate.value);
+                    continue;
+                }
+                Node<T> node = candidate.node;
+                if (node.values != null) {
+                    for (Map.Entry<T, Long> entry : node.values.entrySet()) {
+                        queue.add(new Candidate<>(null, entry.getKey(), entry.getValue()));
+                    }
+                }
+                for (Node<T> child : node.children.values()) {
+                    queue.add(new Candidate<>(child, null, child.maxWeight));
+                }
+            }
+            return new ArrayList<>(results);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Get the number of stored key/value pairs.
+     *
+     * @return The number of entries
+     */
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return size;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private Node<T> findPrefixNode(String prefix) {
+        Node<T> node = root;
+        String rest = prefix;
+        while (!rest.isEmpty()) {
+            Node<T> child = node.children.get(rest.charAt(0));
+            if (child == null) {
+                return null;
+            }
+            int common = commonPrefixLength(child.label, rest);
+            if (common == rest.length()) {
+                // The prefix ends on or inside this edge
+                return child;
+            }
+            if (common < child.label.length()) {
+                return null;
+            }
+            rest = rest.substring(common);
+            node = child;
+        }
+        return node;
+    }
+
+    private Node<T> split(Node<T> parent, Node<T> child, int at) {
+        Node<T> middle = new Node<>(child.label.substring(0, at));
+        child.label = child.label.substring(at);
+        middle.children.put(child.label.charAt(0), child);
+        middle.maxWeight = child.maxWeight;
+        parent.children.put(middle.label.charAt(0), middle);
+        return middle;
+    }
+
+    private static int commonPrefixLength(String a, String b) {
+        int max = Math.min(a.length(), b.length());
+        int i = 0;
+        while (i < max && a.charAt(i) == b.charAt(i)) {
+            i++;
+        }
+        return i;
+    }
+
+    private static class Node<T> {
+
+        private String label;
+        private final Map<Character, Node<T>> children = new HashMap<>(4);
+        private Map<T, Long> values;
+        private long maxWeight = Long.MIN_VALUE;
+
+        Node(String label) {
+            this.label = label;
+        }
+
+        void recomputeMaxWeight() {
+            long max = Long.MIN_VALUE;
+            if (values != null) {
+                for (long weight : values.values()) {
+                    max = Math.max(max, weight);
+                }
+            }
+            for (Node<T> child : children.values()) {
+                max = Math.max(max, child.maxWeight);
+            }
+            maxWeight = max;
+        }
+    }
+
+    private record Candidate<T>(Node<T> node, T value, long weight) implements Comparable<Candidate<T>> {
+
+        @Override
+        public int compareTo(Candidate<T> other) {
+            int byWeight = Long.compare(other.weight, weight);
+            if (byWeight != 0) {
+                return byWeight;
+            }
+            // Emit values before expanding nodes of equal weight
+            return Boolean.compare(node != null, other.node != null);
+        }
+    }
+}
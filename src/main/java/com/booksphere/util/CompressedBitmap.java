@@ -0,0 +1,584 @@
+package com.booksphere.util;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.function.IntConsumer;
+
+/**
+ * Compressed bitmap of non-negative ints in the style of Roaring bitmaps.
+ * Values are split by their high 16 bits into chunks; each chunk is stored either as a sorted
+ * array (up to 4096 values) or as a 65536-bit bitmap, whichever is smaller. Set operations work
+ * chunk by chunk, so intersecting a sparse bitmap with a dense one is cheap.
+ * Instances are not thread-safe.
+ */
+public class CompressedBitmap {
+
+    private static final int ARRAY_MAX_SIZE = 4096;
+    private static final int BITMAP_WORDS = 1024;
+
+    private char[] keys = new char[4];
+    private Container[] containers = new Container[4];
+    private int size;
+
+    /**
+     * Add a value.
+     *
+     * @param value The value (must not be negative)
+     * @return true if the value was added, false if it was already present
+     */
+    public boolean add(int value) {
+        if (value < 0) {
+            throw new IllegalArgumentException("Value cannot be negative: " + value);
+        }
+        char key = (char) (value >>> 16);
+        int index = indexOf(key);
+        if (index < 0) {
+            index = -index - 1;
+            insertContainer(index, key, new ArrayContainer());
+        }
+        Container container = containers[index];
+        int before = container.cardinality();
+        containers[index] = container.add((char) value);
+        return containers[index].cardinality() > before;
+    }
+
+    /**
+     * Remove a value.
+     *
+     * @param value The value
+     * @return true if the value was removed, false if it was not present
+     */
+    public boolean remove(int value) {
+        if (value < 0) {
+            return false;
+        }
+        int index = indexOf((char) (value >>> 16));
+        if (index < 0) {
+            return false;
+        }
+        Container container = containers[index];
+        int before = container.cardinality();
+        Container updated = container.remove((char) value);
+        if (updated.cardinality() == 0) {
+            removeContainer(index);
+        } else {
+            containers[index] = updated;
+        }
+        return updated.cardinality() < before;
+    }
+
+    /**
+     * Check whether a value is present.
+     *
+     * @param value The value
+     * @return true if present, false otherwise
+     */
+    public boolean contains(int value) {
+        if (value < 0) {
+            return false;
+        }
+        int index = indexOf((char) (value >>> 16));
+        return index >= 0 && containers[index].contains((char) value);
+    }
+
+    /**
+     * Get the number of values.
+     *
+     * @return The cardinality
+     */
+    public int cardinality() {
+        int cardinality = 0;
+        for (int i = 0; i < size; i++) {
+            cardinality += containers[i].cardinality();
+        }
+        return cardinality;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Create a copy of this bitmap.
+     *
+     * @return The copy
+     */
+    public CompressedBitmap copy() {
+        CompressedBitmap copy = new CompressedBitmap();
+        copy.keys = Arrays.copyOf(keys, Math.max(4, size));
+        copy.containers = new Container[copy.keys.length];
+        for (int i = 0; i < size; i++) {
+            copy.containers[i] = containers[i].copy();
+        }
+        copy.size = size;
+        return copy;
+    }
+
+    /**
+     * Visit every value in ascending order.
+     *
+     * @param consumer The consumer
+     */
+    public void forEach(IntConsumer consumer) {
+        for (int i = 0; i < size; i++) {
+            containers[i].forEach(keys[i] << 16, consumer);
+        }
+    }
+
+    /**
+     * Get a range of values in ascending order, skipping whole chunks where possible.
+     *
+     * @param offset The number of values to skip
+     * @param limit The maximum number of values to return
+     * @return The values
+     */
+    public int[] page(long offset, int limit) {
+        int[] result = new int[limit];
+        int count = 0;
+        long skip = offset;
+        for (int i = 0; i < size && count < limit; i++) {
+            Container container = containers[i];
+            int cardinality = container.cardinality();
+            if (skip >= cardinality) {
+                skip -= cardinality;
+                continue;
+            }
+            int[] values = container.toArray(keys[i] << 16);
+            for (int j = (int) skip; j < values.length && count < limit; j++) {
+                result[count++] = values[j];
+            }
+            skip = 0;
+        }
+        return Arrays.copyOf(result, count);
+    }
+
+    /**
+     * Intersect two bitmaps.
+     *
+     * @param a The first bitmap
+     * @param b The second bitmap
+     * @return A new bitmap with the values present in both
+     */
+    public static CompressedBitmap and(CompressedBitmap a, CompressedBitmap b) {
+        CompressedBitmap result = new CompressedBitmap();
+        int i = 0;
+        int j = 0;
+        while (i < a.size && j < b.size) {
+            if (a.keys[i] < b.keys[j]) {
+                i++;
+            } else if (a.keys[i] > b.keys[j]) {
+                j++;
+            } else {
+                Container container = a.containers[i].and(b.containers[j]);
+                if (container.cardinality() > 0) {
+                    result.insertContainer(result.size, a.keys[i], container);
+                }
+                i++;
+                j++;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Count the values present in both bitmaps without materializing the intersection.
+     *
+     * @param a The first bitmap
+     * @param b The second bitmap
+     * @return The size of the intersection
+     */
+    public static int andCardinality(CompressedBitmap a, CompressedBitmap b) {
+        int cardinality = 0;
+        int i = 0;
+        int j = 0;
+        while (i < a.size && j < b.size) {
+            if (a.keys[i] < b.keys[j]) {
+                i++;
+            } else if (a.keys[i] > b.keys[j]) {
+                j++;
+            } else {
+                cardinality += a.containers[i].andCardinality(b.containers[j]);
+                i++;
+                j++;
+            }
+        }
+        return cardinality;
+    }
+
+    /**
+     * Unite two bitmaps.
+     *
+     * @param a The first bitmap
+     * @param b The second bitmap
+     * @return A new bitmap with the values present in either
+     */
+    public static CompressedBitmap or(CompressedBitmap a, CompressedBitmap b) {
+        CompressedBitmap result = new CompressedBitmap();
+        int i = 0;
+        int j = 0;
+        while (i < a.size || j < b.size) {
+            if (j >= b.size || (i < a.size && a.keys[i] < b.keys[j])) {
+                result.insertContainer(result.size, a.keys[i], a.containers[i].copy());
+                i++;
+            } else if (i >= a.size || a.keys[i] > b.keys[j]) {
+                result.insertContainer(result.size, b.keys[j], b.containers[j].copy());
+                j++;
+            } else {
+                result.insertContainer(result.size, a.keys[i], a.containers[i].or(b.containers[j]));
+                i++;
+                j++;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Unite any number of bitmaps.
+     *
+     * @param bitmaps The bitmaps
+     * @return A new bitmap with the values present in any of them
+     */
+    public static CompressedBitmap orAll(Collection<CompressedBitmap> bitmaps) {
+        CompressedBitmap result = new CompressedBitmap();
+        for (CompressedBitmap bitmap : bitmaps) {
+            result = or(result, bitmap);
+        }
+        return result;
+    }
+
+    private int indexOf(char key) {
+        return Arrays.binarySearch(keys, 0, size, key);
+    }
+
+    private void insertContainer(int index, char key, Container container) {
+        if (size == keys.length) {
+            keys = Arrays.copyOf(keys, size * 2);
+            containers = Arrays.copyOf(containers, size * 2);
+        }
+        System.arraycopy(keys, index, keys, index + 1, size - index);
+        System.arraycopy(containers, index, containers, index + 1, size - index);
+        keys[index] = key;
+        containers[index] = container;
+        size++;
+    }
+
+    private void removeContainer(int index) {
+        System.arraycopy(keys, index + 1, keys, index, size - index - 1);
+        System.arraycopy(containers, index + 1, containers, index, size - index - 1);
+        containers[--size] = null;
+    }
+
+    /**
+     * Storage for the low 16 bits of the values in one chunk. Mutators return the container
+     * to use from then on, which may be a converted one.
+     */
+    private interface Container {
+
+        Container add(char value);
+
+        Container remove(char value);
+
+        boolean contains(char value);
+
+        int cardinality();
+
+        Container and(Container other);
+
+        int andCardinality(Container other);
+
+        Container or(Container other);
+
+        Container copy();
+
+        void forEach(int base, IntConsumer consumer);
+
+        int[] toArray(int base);
+    }
+
+    private static final class ArrayContainer implements Container {
+
+        private char[] values;
+        private int cardinality;
+
+        ArrayContainer() {
+            this(new char[4], 0);
+        }
+
+        ArrayContainer(char[] values, int cardinality) {
+            this.values = values;
+            this.cardinality = cardinality;
+        }
+
+        @Override
+        public Container add(char value) {
+            int index = Arrays.binarySearch(values, 0, cardinality, value);
+            if (index >= 0) {
+                return this;
+            }
+            if (cardinality == ARRAY_MAX_SIZE) {
+                return toBitmap().add(value);
+            }
+            index = -index - 1;
+            if (cardinality == values.length) {
+                values = Arrays.copyOf(values, Math.min(ARRAY_MAX_SIZE, cardinality * 2));
+            }
+            System.arraycopy(values, index, values, index + 1, cardinality - index);
+            values[index] = value;
+            cardinality++;
+            return this;
+        }
+
+        @Override
+        public Container remove(char value) {
+            int index = Arrays.binarySearch(values, 0, cardinality, value);
+            if (index >= 0) {
+                System.arraycopy(values, index + 1, values, index, cardinality - index - 1);
+                cardinality--;
+            }
+            return this;
+        }
+
+        @Override
+        public boolean contains(char value) {
+            return Arrays.binarySearch(values, 0, cardinality, value) >= 0;
+        }
+
+        @Override
+        public int cardinality() {
+            return cardinality;
+        }
+
+        @Override
+        public Container and(Container other) {
+            char[] result = new char[cardinality];
+            int count = 0;
+            if (other instanceof ArrayContainer array) {
+                int i = 0;
+                int j = 0;
+                while (i < cardinality && j < array.cardinality) {
+                    if (values[i] < array.values[j]) {
+                        i++;
+                    } else if (values[i] > array.values[j]) {
+                        j++;
+                    } else {
+                        result[count++] = values[i];
+                        i++;
+                        j++;
+                    }
+                }
+            } else {
+                for (int i = 0; i < cardinality; i++) {
+                    if (other.contains(values[i])) {
+                        result[count++] = values[i];
+                    }
+                }
+            }
+            return new ArrayContainer(result, count);
+        }
+
+        @Override
+        public int andCardinality(Container other) {
+            int count = 0;
+            if (other instanceof ArrayContainer array) {
+                int i = 0;
+                int j = 0;
+                while (i < cardinality && j < array.cardinality) {
+                    if (values[i] < array.values[j]) {
+                        i++;
+                    } else if (values[i] > array.values[j]) {
+                        j++;
+                    } else {
+                        count++;
+                        i++;
+                        j++;
+                    }
+                }
+            } else {
+                for (int i = 0; i < cardinality; i++) {
+                    if (other.contains(values[i])) {
+                        count++;
+                    }
+                }
+            }
+            return count;
+        }
+
+        @Override
+        public Container or(Container other) {
+            if (other instanceof BitmapContainer bitmap) {
+                return bitmap.or(this);
+            }
+            ArrayContainer array = (ArrayContainer) other;
+            if (cardinality + array.cardinality > ARRAY_MAX_SIZE) {
+                return toBitmap().or(other);
+            }
+            char[] result = new char[cardinality + array.cardinality];
+            int count = 0;
+            int i = 0;
+            int j = 0;
+            while (i < cardinality || j < array.cardinality) {
+                if (j >= array.cardinality || (i < cardinality && values[i] < array.values[j])) {
+                    result[count++] = values[i++];
+                } else if (i >= cardinality || values[i] > array.values[j]) {
+                    result[count++] = array.values[j++];
+                } else {
+                    result[count++] = values[i];
+                    i++;
+                    j++;
+                }
+            }
+            return new ArrayContainer(result, count);
+        }
+
+        @Override
+        public Container copy() {
+            return new ArrayContainer(Arrays.copyOf(values, Math.max(4, cardinality)), cardinality);
+        }
+
+        @Override
+        public void forEach(int base, IntConsumer consumer) {
+            for (int i = 0; i < cardinality; i++) {
+                consumer.accept(base | values[i]);
+            }
+        }
+
+        @Override
+        public int[] toArray(int base) {
+            int[] result = new int[cardinality];
+            for (int i = 0; i < cardinality; i++) {
+                result[i] = base | values[i];
+            }
+            return result;
+        }
+
+        private BitmapContainer toBitmap() {
+            BitmapContainer bitmap = new BitmapContainer();
+            for (int i = 0; i < cardinality; i++) {
+                bitmap.add(values[i]);
+            }
+            return bitmap;
+        }
+    }
+
+    private static final class BitmapContainer implements Container {
+
+        private final long[] words;
+        private int cardinality;
+
+        BitmapContainer() {
+            this(new long[BITMAP_WORDS], 0);
+        }
+
+        BitmapContainer(long[] words, int cardinality) {
+            this.words = words;
+            this.cardinality = cardinality;
+        }
+
+        @Override
+        public Container add(char value) {
+            long before = words[value >>> 6];
+            words[value >>> 6] = before | (1L << value);
+            if (words[value >>> 6] != before) {
+                cardinality++;
+            }
+            return this;
+        }
+
+        @Override
+        public Container remove(char value) {
+            long before = words[value >>> 6];
+            words[value >>> 6] = before & ~(1L << value);
+            if (words[value >>> 6] != before) {
+                cardinality--;
+            }
+            return cardinality <= ARRAY_MAX_SIZE ? toArrayContainer() : this;
+        }
+
+        @Override
+        public boolean contains(char value) {
+            return (words[value >>> 6] & (1L << value)) != 0;
+        }
+
+        @Override
+        public int cardinality() {
+            return cardinality;
+        }
+
+        @Override
+        public Container and(Container other) {
+            if (other instanceof ArrayContainer) {
+                return other.and(this);
+            }
+            BitmapContainer bitmap = (BitmapContainer) other;
+            long[] result = new long[BITMAP_WORDS];
+            int count = 0;
+            for (int i = 0; i < BITMAP_WORDS; i++) {
+                result[i] = words[i] & bitmap.words[i];
+                count += Long.bitCount(result[i]);
+            }
+            BitmapContainer container = new BitmapContainer(result, count);
+            return count <= ARRAY_MAX_SIZE ? container.toArrayContainer() : container;
+        }
+
+        @Override
+        public int andCardinality(Container other) {
+            if (other instanceof ArrayContainer) {
+                return other.andCardinality(this);
+            }
+            BitmapContainer bitmap = (BitmapContainer) other;
+            int count = 0;
+            for (int i = 0; i < BITMAP_WORDS; i++) {
+                count += Long.bitCount(words[i] & bitmap.words[i]);
+            }
+            return count;
+        }
+
+        @Override
+        public Container or(Container other) {
+            long[] result = Arrays.copyOf(words, BITMAP_WORDS);
+            BitmapContainer container = new BitmapContainer(result, cardinality);
+            if (other instanceof BitmapContainer bitmap) {
+                int count = 0;
+                for (int i = 0; i < BITMAP_WORDS; i++) {
+                    result[i] |= bitmap.words[i];
+                    count += Long.bitCount(result[i]);
+                }
+                container.cardinality = count;
+            } else {
+                other.forEach(0, value -> container.add((char) value));
+            }
+            return container;
+        }
+
+        @Override
+        public Container copy() {
+            return new BitmapContainer(Arrays.copyOf(words, BITMAP_WORDS), cardinality);
+        }
+
+        @Override
+        public void forEach(int base, IntConsumer consumer) {
+            for (int i = 0; i < BITMAP_WORDS; i++) {
+                long word = words[i];
+                while (word != 0) {
+                    consumer.accept(base | (i << 6) | Long.numberOfTrailingZeros(word));
+                    word &= word - 1;
+                }
+            }
+        }
+
+        @Override
+        public int[] toArray(int base) {
+            int[] result = new int[cardinality];
+            int[] count = {0};
+            forEach(base, value -> result[count[0]++] = value);
+            return result;
+        }
+
+        private ArrayContainer toArrayContainer() {
+            char[] values = new char[cardinality];
+            int[] count = {0};
+            forEach(0, value -> values[count[0]++] = (char) value);
+            return new ArrayContainer(values, cardinality);
+        }
+    }
+}
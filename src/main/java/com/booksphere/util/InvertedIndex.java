@@ -0,0 +1,240 @@
+package com.booksphere.util;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Thread-safe in-memory inverted index over documents identified by a numeric id.
+ * Each document is made of weighted text fields; a query matches documents that contain
+ * every query term (the last term also matches as a prefix) and results are ranked by
+ * field-weighted term frequency times inverse document frequency.
+ */
+public class InvertedIndex {
+
+    private static final int MAX_PREFIX_EXPANSIONS = 64;
+
+    private final NavigableMap<String, Map<Long, Float>> postings = new TreeMap<>();
+    private final Map<Long, Map<String, Float>> documents = new HashMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    /**
+     * Add or replace a document in the index.
+     *
+     * @param id The document ID
+     * @param document The document fields
+     */
+    public void put(long id, Document document) {
+        Map<String, Float> terms = new HashMap<>(document.terms());
+        lock.writeLock().lock();
+        try {
+            removeInternal(id);
+            if (terms.isEmpty()) {
+                return;
+            }
+            documents.put(id, terms);
+            for (Map.Entry<String, Float> entry : terms.entrySet()) {
+                postings.computeIfAbsent(entry.getKey(), k -> new HashMap<>()).put(id, entry.getValue());
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Remove a document from the index.
+     *
+     * @param id The document ID
+     */
+    public void remove(long id) {
+        lock.writeLock().lock();
+        try {
+            removeInternal(id);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Remove every document from the index.
+     */
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            postings.clear();
+            documents.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Get the number of indexed documents.
+     *
+     * @return The document count
+     */
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return documents.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Search the index.
+     *
+     * @param query The free-text query
+     * @return The matching documents, best match first
+     */
+    public List<Hit> search(String query) {
+        List<String> queryTerms = tokenize(query);
+        if (queryTerms.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        lock.readLock().lock();
+        try {
+            int documentCount = documents.size();
+            List<Map<Long, Float>> termPostings = new ArrayList<>(queryTerms.size());
+            for (int i = 0; i < queryTerms.size(); i++) {
+                boolean last = i == queryTerms.size() - 1;
+                Map<Long, Float> matches = last ? prefixPostings(queryTerms.get(i)) : postings.get(queryTerms.get(i));
+                if (matches == null || matches.isEmpty()) {
+                    return Collections.emptyList();
+                }
+                termPostings.add(matches);
+            }
+
+            // Drive the intersection from the rarest term
+            Map<Long, Float> smallest = Collections.min(termPostings, Comparator.comparingInt(Map::size));
+            List<Hit> hits = new ArrayList<>();
+            for (Long id : smallest.keySet()) {
+                double score = 0;
+                boolean matchesAll = true;
+                for (Map<Long, Float> termPosting : termPostings) {
+                    Float weight = termPosting.get(id);
+                    if (weight == null) {
+                        matchesAll = false;
+                        break;
+                    }
+                    double idf = Math.log(1.0 + (double) documentCount / termPosting.size());
+                    score += weight * idf;
+                }
+                if (matchesAll) {
+                    hits.add(new Hit(id, score));
+                }
+            }
+            hits.sort(Hit.BY_RELEVANCE);
+            return hits;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Split text into lower-case alphanumeric terms.
+     *
+     * @param text The text to split
+     * @return The terms in order of appearance
+     */
+    public static List<String> tokenize(String text) {
+        List<String> terms = new ArrayList<>();
+        if (text == null || text.isEmpty()) {
+            return terms;
+        }
+        String lower = text.toLowerCase(Locale.ROOT);
+        int start = -1;
+        for (int i = 0; i <= lower.length(); i++) {
+            boolean letterOrDigit = i < lower.length() && Character.isLetterOrDigit(lower.charAt(i));
+            if (letterOrDigit && start < 0) {
+                start = i;
+            } else if (!letterOrDigit && start >= 0) {
+                terms.add(lower.substring(start, i));
+                start = -1;
+            }
+        }
+        return terms;
+    }
+
+    private Map<Long, Float> prefixPostings(String prefix) {
+        Map<Long, Float> exact = postings.get(prefix);
+        NavigableMap<String, Map<Long, Float>> range = postings.subMap(prefix, false, prefix + Character.MAX_VALUE, false);
+        if (range.isEmpty()) {
+            return exact;
+        }
+
+        // Prefix expansions score lower than an exact term match
+        Map<Long, Float> merged = exact != null ? new HashMap<>(exact) : new HashMap<>();
+        int expansions = 0;
+        for (Map<Long, Float> expansion : range.values()) {
+            if (++expansions > MAX_PREFIX_EXPANSIONS) {
+                break;
+            }
+            for (Map.Entry<Long, Float> entry : expansion.entrySet()) {
+                merged.merge(entry.getKey(), entry.getValue() * 0.5f, Math::max);
+            }
+        }
+        return merged;
+    }
+
+    private void removeInternal(long id) {
+        Map<String, Float> terms = documents.remove(id);
+        if (terms == null) {
+            return;
+        }
+        for (String term : terms.keySet()) {
+            Map<Long, Float> termPosting = postings.get(term);
+            if (termPosting != null) {
+                termPosting.remove(id);
+                if (termPosting.isEmpty()) {
+                    postings.remove(term);
+                }
+            }
+        }
+    }
+
+    /**
+     * A document to be indexed, built from weighted text fields.
+     */
+    public static class Document {
+
+        private final Map<String, Float> terms = new HashMap<>();
+
+        /**
+         * Add a text field to the document.
+         *
+         * @param text The field text (may be null)
+         * @param weight The relevance weight of a term occurrence in this field
+         * @return This document
+         */
+        public Document field(String text, float weight) {
+            for (String term : tokenize(text)) {
+                terms.merge(term, weight, Float::sum);
+            }
+            return this;
+        }
+
+        Map<String, Float> terms() {
+            return terms;
+        }
+    }
+
+    /**
+     * A ranked search hit.
+     */
+    public record Hit(long id, double score) {
+
+        static final Comparator<Hit> BY_RELEVANCE = Comparator.comparingDouble(Hit::score).reversed()
+                .thenComparingLong(Hit::id);
+    }
+}
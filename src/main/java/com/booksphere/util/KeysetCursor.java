@@ -0,0 +1,163 @@
+package com.booksphere.util;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Position in a keyset (seek) paginated listing: the sort key and ID of the row a page starts after
+ * (next) or ends before (previous). Encoded as an opaque URL-safe token so clients cannot depend on
+ * its contents.
+ */
+public final class KeysetCursor {
+
+    /**
+     * Upper bound for timestamp sort keys, used to start a newest-first listing. Kept within the
+     * range of SQL TIMESTAMP columns, unlike {@link LocalDateTime#MAX}.
+     */
+    public static final LocalDateTime MAX_TIMESTAMP = LocalDateTime.of(9999, 12, 31, 23, 59, 59);
+
+    private static final char SEPARATOR = '\n';
+
+    /**
+     * Which side of the cursor row the requested page lies on.
+     */
+    public enum Direction {
+        NEXT, PREVIOUS
+    }
+
+    private final Direction direction;
+    private final String key;
+    private final long id;
+
+    private KeysetCursor(Direction direction, String key, long id) {
+        this.direction = direction;
+        this.key = key != null ? key : "";
+        this.id = id;
+    }
+
+    /**
+     * Create a cursor for the page following a row.
+     *
+     * @param key The row's sort key
+     * @param id The row's ID
+     * @return The cursor
+     */
+    public static KeysetCursor next(String key, long id) {
+        return new KeysetCursor(Direction.NEXT, key, id);
+    }
+
+    /**
+     * Create a cursor for the page preceding a row.
+     *
+     * @param key The row's sort key
+     * @param id The row's ID
+     * @return The cursor
+     */
+    public static KeysetCursor previous(String key, long id) {
+        return new KeysetCursor(Direction.PREVIOUS, key, id);
+    }
+
+    /**
+     * Decode a token produced by {@link #encode()}.
+     *
+     * @param token The token, or null or blank for the first page
+     * @return The cursor, or null for the first page
+     * @throws IllegalArgumentException if the token is malformed
+     */
+    public static KeysetCursor decode(String token) {
+        if (token == null || token.isBlank()) {
+            return null;
+        }
+        try {
+            String decoded = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int first = decoded.indexOf(SEPARATOR);
+            int last = first < 0 ? -1 : decoded.indexOf(SEPARATOR, first + 1);
+            if (last < 0) {
+                throw new IllegalArgumentException("Invalid page cursor");
+            }
+            Direction direction = decoded.charAt(0) == 'p' ? Direction.PREVIOUS : Direction.NEXT;
+            long id = Long.parseLong(decoded.substring(first + 1, last));
+            return new KeysetCursor(direction, decoded.substring(last + 1), id);
+        } catch (IllegalArgumentException e) {
+            // Also covers bad Base64 and NumberFormatException
+            throw new IllegalArgumentException("Invalid page cursor", e);
+        }
+    }
+
+    /**
+     * Decode a token taken from a request. Tokens are only ever produced by the server, so a
+     * malformed one (e.g. an edited or truncated URL) falls back to the first page.
+     *
+     * @param token The token, or null or blank for the first page
+     * @return The cursor, or null for the first page
+     */
+    public static KeysetCursor parse(String token) {
+        try {
+            return decode(token);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Decode a token taken from a request to a listing sorted by timestamp, falling back to the
+     * first page if the token is malformed or its key is not a timestamp.
+     *
+     * @param token The token, or null or blank for the first page
+     * @return The cursor, or null for the first page
+     */
+    public static KeysetCursor parseTimestamped(String token) {
+        KeysetCursor cursor = parse(token);
+        if (cursor == null) {
+            return null;
+        }
+        try {
+            cursor.getTimestampKey();
+            return cursor;
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Encode the cursor as an opaque token.
+     *
+     * @return The token
+     */
+    public String encode() {
+        String raw = (direction == Direction.PREVIOUS ? "p" : "n") + SEPARATOR + id + SEPARATOR + key;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public Direction getDirection() {
+        return direction;
+    }
+
+    public boolean isPrevious() {
+        return direction == Direction.PREVIOUS;
+    }
+
+    public String getKey() {
+        return key;
+    }
+
+    /**
+     * Get the sort key as a timestamp.
+     *
+     * @return The timestamp
+     * @throws IllegalArgumentException if the key is not a timestamp
+     */
+    public LocalDateTime getTimestampKey() {
+        try {
+            return LocalDateTime.parse(key);
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid page cursor", e);
+        }
+    }
+
+    public long getId() {
+        return id;
+    }
+}
@@ -0,0 +1,145 @@
+package com.booksphere.util;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.TreeSet;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Thread-safe ranking of IDs by score, highest first, ties broken by lowest ID.
+ * Updating a score costs O(log n) and reading the top k IDs costs O(k), so a leaderboard
+ * can be read on every request while being updated on every rental.
+ */
+public class Leaderboard {
+
+    private final Map<Long, Long> scores = new HashMap<>();
+    private final NavigableSet<Entry> ranking = new TreeSet<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    /**
+     * Set the score of an ID, adding it if needed.
+     *
+     * @param id The ID
+     * @param score The score
+     */
+    public void put(long id, long score) {
+        lock.writeLock().lock();
+        try {
+            Long previous = scores.put(id, score);
+            if (previous != null) {
+                ranking.remove(new Entry(id, previous));
+            }
+            ranking.add(new Entry(id, score));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Raise the score of an ID to at least the given value, adding it if needed. Scores that only
+     * grow can be applied in any order this way, since an older value never lowers a newer one.
+     *
+     * @param id The ID
+     * @param score The score
+     */
+    public void raise(long id, long score) {
+        lock.writeLock().lock();
+        try {
+            Long previous = scores.get(id);
+            if (previous != null && previous >= score) {
+                return;
+            }
+            if (previous != null) {
+                ranking.remove(new Entry(id, previous));
+            }
+            scores.put(id, score);
+            ranking.add(new Entry(id, score));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Remove an ID.
+     *
+     * @param id The ID
+     */
+    public void remove(long id) {
+        lock.writeLock().lock();
+        try {
+            Long previous = scores.remove(id);
+            if (previous != null) {
+                ranking.remove(new Entry(id, previous));
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Get the score of an ID.
+     *
+     * @param id The ID
+     * @return The score, or 0 if the ID is not ranked
+     */
+    public long score(long id) {
+        lock.readLock().lock();
+        try {
+            return scores.getOrDefault(id, 0L);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Get a range of IDs in rank order.
+     *
+     * @param offset The number of top ranked IDs to skip
+     * @param limit The maximum number of IDs to return
+     * @return The IDs, highest score first
+     */
+    public List<Long> top(long offset, int limit) {
+        lock.readLock().lock();
+        try {
+            List<Long> ids = new ArrayList<>(Math.min(limit, ranking.size()));
+            Iterator<Entry> it = ranking.iterator();
+            for (long skipped = 0; skipped < offset && it.hasNext(); skipped++) {
+                it.next();
+            }
+            while (ids.size() < limit && it.hasNext()) {
+                ids.add(it.next().id());
+            }
+            return ids;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Get the number of ranked IDs.
+     *
+     * @return The size
+     */
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return scores.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private record Entry(long id, long score) implements Comparable<Entry> {
+
+        @Override
+        public int compareTo(Entry other) {
+            int byScore = Long.compare(other.score, score);
+            return byScore != 0 ? byScore : Long.compare(id, other.id);
+        }
+    }
+}
@@ -0,0 +1,176 @@
+package com.booksphere.util;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * Thread-safe read-through cache bounded by size (least recently used entries are evicted first)
+ * and by time to live. Concurrent misses for the same key are coalesced so that only one caller
+ * runs the loader while the others wait for its result. A value loaded while the cache was being
+ * invalidated is returned to its callers but not stored, so an invalidation can never be undone
+ * by a load that read the old state.
+ *
+ * @param <K> The key type
+ * @param <V> The value type
+ */
+public class LoadingCache<K, V> {
+
+    private final int maxSize;
+    private final long ttlNanos;
+
+    // Guarded by this
+    private final LinkedHashMap<K, Entry<V>> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long invalidations;
+
+    private final Map<K, CompletableFuture<V>> loading = new ConcurrentHashMap<>();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder loads = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    /**
+     * Create a cache.
+     *
+     * @param maxSize The maximum number of entries
+     * @param ttlMillis How long an entry stays valid after it was loaded, in milliseconds
+     */
+    public LoadingCache(int maxSize, long ttlMillis) {
+        if (maxSize <= 0 || ttlMillis <= 0) {
+            throw new IllegalArgumentException("Cache size and time to live must be positive");
+        }
+        this.maxSize = maxSize;
+        this.ttlNanos = ttlMillis * 1_000_000L;
+    }
+
+    /**
+     * Get the value for a key, loading it on a miss. Null values are returned but not cached.
+     *
+     * @param key The key
+     * @param loader Function loading the value of a key
+     * @return The value, or null if the loader returned null
+     */
+    public V get(K key, Function<K, V> loader) {
+        long startedAfter;
+        synchronized (this) {
+            Entry<V> entry = entries.get(key);
+            if (entry != null) {
+                if (entry.expiresAt - System.nanoTime() > 0) {
+                    hits.increment();
+                    return entry.value;
+                }
+                entries.remove(key);
+                evictions.increment();
+            }
+            startedAfter = invalidations;
+        }
+        misses.increment();
+
+        CompletableFuture<V> mine = new CompletableFuture<>();
+        CompletableFuture<V> pending = loading.putIfAbsent(key, mine);
+        if (pending != null) {
+            return await(pending);
+        }
+        try {
+            loads.increment();
+            V value = loader.apply(key);
+            if (value != null) {
+                synchronized (this) {
+                    if (invalidations == startedAfter) {
+                        entries.put(key, new Entry<>(value, System.nanoTime() + ttlNanos));
+                        evictOverflow();
+                    }
+                }
+            }
+            mine.complete(value);
+            return value;
+        } catch (RuntimeException | Error e) {
+            mine.completeExceptionally(e);
+            throw e;
+        } finally {
+            loading.remove(key, mine);
+        }
+    }
+
+    /**
+     * Get the cached value for a key without loading it.
+     *
+     * @param key The key
+     * @return The value, or null if it is not cached or has expired
+     */
+    public synchronized V getIfPresent(K key) {
+        Entry<V> entry = entries.get(key);
+        return entry != null && entry.expiresAt - System.nanoTime() > 0 ? entry.value : null;
+    }
+
+    /**
+     * Remove the entry for a key.
+     *
+     * @param key The key
+     */
+    public synchronized void invalidate(K key) {
+        entries.remove(key);
+        invalidations++;
+    }
+
+    /**
+     * Remove all entries.
+     */
+    public synchronized void invalidateAll() {
+        entries.clear();
+        invalidations++;
+    }
+
+    /**
+     * Get the hit, miss, load and eviction counters.
+     *
+     * @return The statistics
+     */
+    public synchronized Stats stats() {
+        return new Stats(entries.size(), hits.sum(), misses.sum(), loads.sum(), evictions.sum());
+    }
+
+    private void evictOverflow() {
+        Iterator<Map.Entry<K, Entry<V>>> eldest = entries.entrySet().iterator();
+        while (entries.size() > maxSize && eldest.hasNext()) {
+            eldest.next();
+            eldest.remove();
+            evictions.increment();
+        }
+    }
+
+    private static <V> V await(CompletableFuture<V> pending) {
+        try {
+            return pending.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            if (e.getCause() instanceof Error cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    private record Entry<V>(V value, long expiresAt) {
+    }
+
+    /**
+     * Cache statistics. Misses count every lookup that found no valid entry, loads only those
+     * that actually ran the loader rather than waiting for a concurrent load.
+     */
+    public record Stats(int size, long hits, long misses, long loads, long evictions) {
+
+        public double hitRate() {
+            long requests = hits + misses;
+            return requests == 0 ? 0.0 : (double) hits / requests;
+        }
+    }
+}
@@ -0,0 +1,181 @@
+package com.booksphere.util;
+
+/**
+ * Open-addressing hash map from primitive long keys to primitive int values. Avoids the boxing and
+ * per-entry objects of a {@code HashMap<Long, Integer>}, which matters when millions of small
+ * counters are kept in memory. Not thread-safe; entries cannot be removed.
+ */
+public class LongIntHashMap {
+
+    private static final float LOAD_FACTOR = 0.6f;
+
+    private long[] keys;
+    private int[] values;
+    private boolean[] used;
+    private int size;
+    private int resizeAt;
+
+    /**
+     * Create an empty map.
+     */
+    public LongIntHashMap() {
+        this(4);
+    }
+
+    /**
+     * Create an empty map sized for an expected number of entries.
+     *
+     * @param expectedSize The expected number of entries
+     */
+    public LongIntHashMap(int expectedSize) {
+        int capacity = Integer.highestOneBit(Math.max(4, (int) (expectedSize / LOAD_FACTOR)) - 1) << 1;
+        allocate(capacity);
+    }
+
+    /**
+     * Get the value of a key.
+     *
+     * @param key The key
+     * @return The value, or 0 if the key is absent
+     */
+    public int get(long key) {
+        int slot = find(key);
+        return used[slot] ? values[slot] : 0;
+    }
+
+    /**
+     * Check whether a key is present.
+     *
+     * @param key The key
+     * @return true if the key is present, false otherwise
+     */
+    public boolean containsKey(long key) {
+        return used[find(key)];
+    }
+
+    /**
+     * Set the value of a key.
+     *
+     * @param key The key
+     * @param value The value
+     */
+    public void put(long key, int value) {
+        int slot = find(key);
+        if (!used[slot]) {
+            insert(slot, key, value);
+        } else {
+            values[slot] = value;
+        }
+    }
+
+    /**
+     * Add to the value of a key, treating an absent key as 0.
+     *
+     * @param key The key
+     * @param delta The amount to add
+     * @return The new value
+     */
+    public int addTo(long key, int delta) {
+        int slot = find(key);
+        if (!used[slot]) {
+            insert(slot, key, delta);
+            return delta;
+        }
+        values[slot] += delta;
+        return values[slot];
+    }
+
+    /**
+     * Get the number of entries.
+     *
+     * @return The size
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Visit every entry, in no particular order.
+     *
+     * @param consumer The entry consumer
+     */
+    public void forEach(EntryConsumer consumer) {
+        for (int slot = 0; slot < keys.length; slot++) {
+            if (used[slot]) {
+                consumer.accept(keys[slot], values[slot]);
+            }
+        }
+    }
+
+    /**
+     * Get all keys, in no particular order.
+     *
+     * @return The keys
+     */
+    public long[] keys() {
+        long[] result = new long[size];
+        int i = 0;
+        for (int slot = 0; slot < keys.length; slot++) {
+            if (used[slot]) {
+                result[i++] = keys[slot];
+            }
+        }
+        return result;
+    }
+
+    private int find(long key) {
+        int mask = keys.length - 1;
+        int slot = mix(key) & mask;
+        while (used[slot] && keys[slot] != key) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    private void insert(int slot, long key, int value) {
+        if (size >= resizeAt) {
+            grow();
+            slot = find(key);
+        }
+        keys[slot] = key;
+        values[slot] = value;
+        used[slot] = true;
+        size++;
+    }
+
+    private void grow() {
+        long[] oldKeys = keys;
+        int[] oldValues = values;
+        boolean[] oldUsed = used;
+        allocate(keys.length << 1);
+        for (int slot = 0; slot < oldKeys.length; slot++) {
+            if (oldUsed[slot]) {
+                int target = find(oldKeys[slot]);
+                keys[target] = oldKeys[slot];
+                values[target] = oldValues[slot];
+                used[target] = true;
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        keys = new long[capacity];
+        values = new int[capacity];
+        used = new boolean[capacity];
+        resizeAt = (int) (capacity * LOAD_FACTOR);
+    }
+
+    private static int mix(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+
+    /**
+     * Consumer of map entries.
+     */
+    @FunctionalInterface
+    public interface EntryConsumer {
+
+        void accept(long key, int value);
+    }
+}
@@ -0,0 +1,173 @@
+package com.booksphere.util;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Hierarchical hashed timer wheel. Each level is a ring of slots covering a range of ticks; a timer
+ * is placed in the lowest level whose range reaches its deadline and moved down a level each time
+ * the level below wraps around, until it expires from the bottom level. Scheduling and cancelling
+ * are O(1) and advancing costs O(1) per tick plus the timers moved or expired. Timers are identified
+ * by a key; scheduling a key again replaces its timer. Not thread-safe.
+ *
+ * @param <T> The type of the value carried by a timer
+ */
+public class TimerWheel<T> {
+
+    private final long tickMillis;
+    private final int bits;
+    private final int mask;
+    private final int levels;
+    private final long maxDelta;
+
+    private final Node<T>[] slots;
+    private final Map<Long, Node<T>> timers = new HashMap<>();
+    private long currentTick;
+
+    /**
+     * Create an empty wheel.
+     *
+     * @param tickMillis The length of a tick in milliseconds, the precision of the timers
+     * @param slotsPerLevel The number of slots of each level, a power of two
+     * @param levels The number of levels
+     * @param startMillis The current time in milliseconds
+     */
+    @SuppressWarnings("unchecked")
+    public TimerWheel(long tickMillis, int slotsPerLevel, int levels, long startMillis) {
+        if (tickMillis <= 0 || levels <= 0 || slotsPerLevel < 2 || Integer.bitCount(slotsPerLevel) != 1) {
+            throw new IllegalArgumentException("Tick and levels must be positive and slots a power of two");
+        }
+        this.tickMillis = tickMillis;
+        this.bits = Integer.numberOfTrailingZeros(slotsPerLevel);
+        this.mask = slotsPerLevel - 1;
+        this.levels = levels;
+        this.maxDelta = bits * levels >= 62 ? Long.MAX_VALUE : (1L << (bits * levels)) - 1;
+        this.slots = new Node[slotsPerLevel * levels];
+        this.currentTick = Math.floorDiv(startMillis, tickMillis);
+    }
+
+    /**
+     * Schedule a timer, replacing the timer of the same key. A deadline already passed expires on the next advance.
+     *
+     * @param key The key of the timer
+     * @param deadlineMillis The time at which the timer expires, in milliseconds
+     * @param value The value passed on when the timer expires
+     */
+    public void schedule(long key, long deadlineMillis, T value) {
+        cancel(key);
+        // Rounded up, so a timer never expires before its deadline
+        long deadlineTick = Math.max(currentTick + 1, Math.floorDiv(deadlineMillis + tickMillis - 1, tickMillis));
+        Node<T> node = new Node<>(key, deadlineTick, value);
+        timers.put(key, node);
+        place(node);
+    }
+
+    /**
+     * Cancel a timer.
+     *
+     * @param key The key of the timer
+     * @return true if the timer was scheduled, false otherwise
+     */
+    public boolean cancel(long key) {
+        Node<T> node = timers.remove(key);
+        if (node == null) {
+            return false;
+        }
+        unlink(node);
+        return true;
+    }
+
+    /**
+     * Move the wheel forward to the given time, expiring every timer whose deadline has passed.
+     *
+     * @param nowMillis The current time in milliseconds
+     * @param expired Consumer of the values of the expired timers, earlier ticks first
+     */
+    public void advance(long nowMillis, Consumer<T> expired) {
+        long targetTick = Math.floorDiv(nowMillis, tickMillis);
+        while (currentTick < targetTick) {
+            currentTick++;
+            // Each level wraps when all levels below it do; its next slot moves down a level
+            for (int level = 1; level < levels && (currentTick & ((1L << (bits * level)) - 1)) == 0; level++) {
+                int index = level * (mask + 1) + (int) ((currentTick >>> (bits * level)) & mask);
+                Node<T> node = slots[index];
+                slots[index] = null;
+                while (node != null) {
+                    Node<T> next = node.next;
+                    node.prev = null;
+                    node.next = null;
+                    place(node);
+                    node = next;
+                }
+            }
+
+            int index = (int) (currentTick & mask);
+            Node<T> node = slots[index];
+            slots[index] = null;
+            while (node != null) {
+                Node<T> next = node.next;
+                timers.remove(node.key);
+                expired.accept(node.value);
+                node = next;
+            }
+        }
+    }
+
+    /**
+     * Get the number of scheduled timers.
+     *
+     * @return The size
+     */
+    public int size() {
+        return timers.size();
+    }
+
+    private void place(Node<T> node) {
+        long delta = node.deadlineTick - currentTick;
+        long placeTick = node.deadlineTick;
+        if (delta > maxDelta) {
+            // Beyond the top level's range: parked at its far end and placed again when it moves down
+            placeTick = currentTick + maxDelta;
+            delta = maxDelta;
+        }
+        int level = 0;
+        while (level < levels - 1 && delta >= (1L << (bits * (level + 1)))) {
+            level++;
+        }
+        int index = level * (mask + 1) + (int) ((placeTick >>> (bits * level)) & mask);
+        node.slot = index;
+        node.next = slots[index];
+        if (node.next != null) {
+            node.next.prev = node;
+        }
+        slots[index] = node;
+    }
+
+    private void unlink(Node<T> node) {
+        if (node.prev != null) {
+            node.prev.next = node.next;
+        } else {
+            slots[node.slot] = node.next;
+        }
+        if (node.next != null) {
+            node.next.prev = node.prev;
+        }
+    }
+
+    private static final class Node<T> {
+
+        private final long key;
+        private final long deadlineTick;
+        private final T value;
+        private int slot;
+        private Node<T> prev;
+        private Node<T> next;
+
+        Node(long key, long deadlineTick, T value) {
+            this.key = key;
+            this.deadlineTick = deadlineTick;
+            this.value = value;
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package com.booksphere.util;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Lock-free token bucket. Instead of a token count and a refill time the bucket keeps one value,
+ * the time at which it will be full again, so a request takes a token with a single compare-and-set
+ * and no background refill is needed. Times are {@link System#nanoTime()} values.
+ */
+public class TokenBucket {
+
+    private final long nanosPerToken;
+    private final long capacityNanos;
+
+    private final AtomicLong fullAt;
+
+    /**
+     * Create a full bucket.
+     *
+     * @param tokensPerSecond The rate at which tokens are added
+     * @param capacity The maximum number of tokens, i.e. the largest burst allowed
+     */
+    public TokenBucket(double tokensPerSecond, int capacity) {
+        if (tokensPerSecond <= 0 || capacity <= 0) {
+            throw new IllegalArgumentException("Token rate and capacity must be positive");
+        }
+        this.nanosPerToken = Math.max(1, (long) (1_000_000_000L / tokensPerSecond));
+        this.capacityNanos = nanosPerToken * capacity;
+        this.fullAt = new AtomicLong(System.nanoTime());
+    }
+
+    /**
+     * Take a token if one is available.
+     *
+     * @param now The current time
+     * @return true if a token was taken, false if the bucket is empty
+     */
+    public boolean tryAcquire(long now) {
+        while (true) {
+            long current = fullAt.get();
+            long next = Math.max(current, now) + nanosPerToken;
+            if (next - now > capacityNanos) {
+                return false;
+            }
+            if (fullAt.compareAndSet(current, next)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Get how long until a token will be available.
+     *
+     * @param now The current time
+     * @return The wait in nanoseconds, 0 if a token is available now
+     */
+    public long nanosUntilAvailable(long now) {
+        return Math.max(0, fullAt.get() + nanosPerToken - capacityNanos - now);
+    }
+
+    /**
+     * Check whether the bucket has refilled completely, so dropping it loses nothing.
+     *
+     * @param now The current time
+     * @return true if the bucket is full
+     */
+    public boolean isFull(long now) {
+        return fullAt.get() - now <= 0;
+    }
+}
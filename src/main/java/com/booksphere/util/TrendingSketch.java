@@ -0,0 +1,147 @@
+package com.booksphere.util;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+
+/**
+ * Thread-safe Space-Saving sketch of the most frequent IDs in a stream, where each occurrence
+ * loses half its weight every half-life. Memory is bounded by the capacity no matter how many
+ * distinct IDs are seen; any ID whose decayed frequency exceeds 1/capacity of the total decayed
+ * weight is guaranteed to be tracked.
+ * <p>
+ * Decay is applied forward: an occurrence at time t is added with weight 2^((t - landmark) / halfLife)
+ * instead of shrinking every counter as time passes. All counters would shrink by the same factor,
+ * so rankings never change with time and only reported scores need scaling to the present.
+ */
+public class TrendingSketch {
+
+    /**
+     * Rescale counters once weights reach 2^RESCALE_EXPONENT to keep doubles far from overflow.
+     */
+    private static final double RESCALE_EXPONENT = 512;
+
+    private final int capacity;
+    private final double halfLifeMillis;
+
+    private final Map<Long, Counter> counters = new HashMap<>();
+    private final TreeSet<Counter> byCount = new TreeSet<>();
+    private long landmark;
+
+    /**
+     * Create a sketch.
+     *
+     * @param capacity The maximum number of tracked IDs
+     * @param halfLifeMillis The time after which an occurrence counts half, in milliseconds
+     * @param landmark The reference time of the weights, in epoch milliseconds
+     */
+    public TrendingSketch(int capacity, long halfLifeMillis, long landmark) {
+        if (capacity <= 0 || halfLifeMillis <= 0) {
+            throw new IllegalArgumentException("Sketch capacity and half-life must be positive");
+        }
+        this.capacity = capacity;
+        this.halfLifeMillis = halfLifeMillis;
+        this.landmark = landmark;
+    }
+
+    /**
+     * Record an occurrence of an ID.
+     *
+     * @param id The ID
+     * @param timestamp The time of the occurrence, in epoch milliseconds
+     */
+    public synchronized void add(long id, long timestamp) {
+        double exponent = (timestamp - landmark) / halfLifeMillis;
+        if (exponent > RESCALE_EXPONENT) {
+            rescale(timestamp);
+            exponent = 0;
+        }
+        double weight = Math.pow(2, exponent);
+
+        Counter counter = counters.get(id);
+        if (counter != null) {
+            byCount.remove(counter);
+            counter.count += weight;
+        } else if (counters.size() < capacity) {
+            counter = new Counter(id, weight, 0);
+            counters.put(id, counter);
+        } else {
+            // Replace the least frequent ID; its count bounds how much the newcomer may be overestimated
+            Counter smallest = byCount.pollFirst();
+            counters.remove(smallest.id);
+            counter = new Counter(id, smallest.count + weight, smallest.count);
+            counters.put(id, counter);
+        }
+        byCount.add(counter);
+    }
+
+    /**
+     * Get the most frequent IDs.
+     *
+     * @param limit The maximum number of IDs to return
+     * @return The IDs, most frequent first
+     */
+    public synchronized List<Long> top(int limit) {
+        List<Long> ids = new ArrayList<>(Math.min(limit, counters.size()));
+        Iterator<Counter> it = byCount.descendingIterator();
+        while (ids.size() < limit && it.hasNext()) {
+            ids.add(it.next().id);
+        }
+        return ids;
+    }
+
+    /**
+     * Get the estimated decayed frequency of an ID, which may overestimate by at most the
+     * count of the ID it replaced.
+     *
+     * @param id The ID
+     * @param now The current time, in epoch milliseconds
+     * @return The number of occurrences, each weighted by its age, or 0 if the ID is not tracked
+     */
+    public synchronized double estimate(long id, long now) {
+        Counter counter = counters.get(id);
+        return counter == null ? 0 : counter.count / Math.pow(2, (now - landmark) / halfLifeMillis);
+    }
+
+    /**
+     * Get the number of tracked IDs.
+     *
+     * @return The size
+     */
+    public synchronized int size() {
+        return counters.size();
+    }
+
+    private void rescale(long newLandmark) {
+        double factor = Math.pow(2, (landmark - newLandmark) / halfLifeMillis);
+        byCount.clear();
+        for (Counter counter : counters.values()) {
+            counter.count *= factor;
+            counter.error *= factor;
+            byCount.add(counter);
+        }
+        landmark = newLandmark;
+    }
+
+    private static final class Counter implements Comparable<Counter> {
+
+        private final long id;
+        private double count;
+        private double error;
+
+        private Counter(long id, double count, double error) {
+            this.id = id;
+            this.count = count;
+            this.error = error;
+        }
+
+        @Override
+        public int compareTo(Counter other) {
+            int byCount = Double.compare(count, other.count);
+            return byCount != 0 ? byCount : Long.compare(id, other.id);
+        }
+    }
+}
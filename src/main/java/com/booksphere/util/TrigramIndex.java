@@ -0,0 +1,217 @@
+package com.booksphere.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Thread-safe character-trigram index over the vocabulary of a document collection, used to find
+ * the known terms closest to a misspelled word. Candidate terms are gathered from the postings of
+ * the word's trigrams only, filtered by the number of shared trigrams any term within the allowed
+ * edit distance must have, and then ranked by Damerau-Levenshtein distance and document frequency.
+ */
+public class TrigramIndex {
+
+    private final Map<String, Integer> termFrequencies = new HashMap<>();
+    private final Map<Long, Set<String>> documentTerms = new HashMap<>();
+    private final Map<Long, Set<String>> trigramPostings = new HashMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    /**
+     * Add or replace the terms of a document.
+     *
+     * @param id The document ID
+     * @param terms The document's terms
+     */
+    public void put(long id, Collection<String> terms) {
+        Set<String> distinct = new HashSet<>(terms);
+        lock.writeLock().lock();
+        try {
+            removeInternal(id);
+            documentTerms.put(id, distinct);
+            for (String term : distinct) {
+                if (termFrequencies.merge(term, 1, Integer::sum) == 1) {
+                    for (long trigram : trigrams(term)) {
+                        trigramPostings.computeIfAbsent(trigram, k -> new HashSet<>()).add(term);
+                    }
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Remove a document's terms.
+     *
+     * @param id The document ID
+     */
+    public void remove(long id) {
+        lock.writeLock().lock();
+        try {
+            removeInternal(id);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Check whether a term occurs in any document.
+     *
+     * @param term The term
+     * @return true if the term is known, false otherwise
+     */
+    public boolean contains(String term) {
+        lock.readLock().lock();
+        try {
+            return termFrequencies.containsKey(term);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Find the known terms closest to a word.
+     *
+     * @param word The (possibly misspelled) word
+     * @param maxDistance The maximum edit distance
+     * @param limit The maximum number of matches
+     * @return Matches ordered by edit distance, then by document frequency
+     */
+    public List<Match> closestTerms(String word, int maxDistance, int limit) {
+        long[] wordTrigrams = trigrams(word);
+        // Each edit changes at most three trigrams
+        int minShared = wordTrigrams.length - 3 * maxDistance;
+
+        lock.readLock().lock();
+        try {
+            Map<String, Integer> shared = new HashMap<>();
+            for (long trigram : wordTrigrams) {
+                Set<String> postings = trigramPostings.get(trigram);
+                if (postings != null) {
+                    for (String term : postings) {
+                        shared.merge(term, 1, Integer::sum);
+                    }
+                }
+            }
+
+            List<Match> matches = new ArrayList<>();
+            for (Map.Entry<String, Integer> candidate : shared.entrySet()) {
+                String term = candidate.getKey();
+                if (candidate.getValue() < minShared || Math.abs(term.length() - word.length()) > maxDistance) {
+                    continue;
+                }
+                int distance = editDistance(word, term, maxDistance);
+                if (distance <= maxDistance) {
+                    matches.add(new Match(term, distance, termFrequencies.get(term)));
+                }
+            }
+            matches.sort(Match.BY_CLOSENESS);
+            return matches.size() > limit ? new ArrayList<>(matches.subList(0, limit)) : matches;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Compute the optimal string alignment distance (Levenshtein plus adjacent transpositions),
+     * giving up early once the distance is known to exceed the bound.
+     *
+     * @param a The first string
+     * @param b The second string
+     * @param bound The largest distance of interest
+     * @return The distance, or bound + 1 if it is larger than the bound
+     */
+    public static int editDistance(String a, String b, int bound) {
+        int n = a.length();
+        int m = b.length();
+        if (Math.abs(n - m) > bound) {
+            return bound + 1;
+        }
+        int[] previous2 = new int[m + 1];
+        int[] previous = new int[m + 1];
+        int[] current = new int[m + 1];
+        for (int j = 0; j <= m; j++) {
+            previous[j] = j;
+        }
+        for (int i = 1; i <= n; i++) {
+            current[0] = i;
+            int rowMin = current[0];
+            for (int j = 1; j <= m; j++) {
+                int cost = a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1;
+                int value = Math.min(Math.min(previous[j] + 1, current[j - 1] + 1), previous[j - 1] + cost);
+                if (i > 1 && j > 1 && a.charAt(i - 1) == b.charAt(j - 2) && a.charAt(i - 2) == b.charAt(j - 1)) {
+                    value = Math.min(value, previous2[j - 2] + 1);
+                }
+                current[j] = value;
+                rowMin = Math.min(rowMin, value);
+            }
+            if (rowMin > bound) {
+                return bound + 1;
+            }
+            int[] recycled = previous2;
+            previous2 = previous;
+            previous = current;
+            current = recycled;
+        }
+        return Math.min(previous[m], bound + 1);
+    }
+
+    private void removeInternal(long id) {
+        Set<String> terms = documentTerms.remove(id);
+        if (terms == null) {
+            return;
+        }
+        for (String term : terms) {
+            Integer frequency = termFrequencies.get(term);
+            if (frequency == null) {
+                continue;
+            }
+            if (frequency > 1) {
+                termFrequencies.put(term, frequency - 1);
+                continue;
+            }
+            termFrequencies.remove(term);
+            for (long trigram : trigrams(term)) {
+                Set<String> postings = trigramPostings.get(trigram);
+                if (postings != null) {
+                    postings.remove(term);
+                    if (postings.isEmpty()) {
+                        trigramPostings.remove(trigram);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Get the distinct trigrams of a word padded with one boundary marker on each side,
+     * each packed into a long.
+     */
+    private static long[] trigrams(String word) {
+        String padded = "\u0000" + word + "\u0000";
+        long[] result = new long[Math.max(0, padded.length() - 2)];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = ((long) padded.charAt(i) << 32) | ((long) padded.charAt(i + 1) << 16) | padded.charAt(i + 2);
+        }
+        return Arrays.stream(result).distinct().toArray();
+    }
+
+    /**
+     * A known term close to the queried word.
+     */
+    public record Match(String term, int distance, int frequency) {
+
+        static final Comparator<Match> BY_CLOSENESS = Comparator.comparingInt(Match::distance)
+                .thenComparing(Comparator.comparingInt(Match::frequency).reversed())
+                .thenComparing(Match::term);
+    }
+}
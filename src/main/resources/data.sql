@@ -131,6 +131,9 @@ SELECT
 FROM users u, books b
 WHERE u.username = 'user' AND b.isbn = '9781234567890';
 
+-- Initialize rental counters from the sample transactions
+UPDATE books SET rental_count = (SELECT COUNT(*) FROM transactions t WHERE t.book_id = books.id);
+
 -- Create sample notifications
 INSERT INTO notifications (user_id, message, type, is_read, created_at)
 SELECT
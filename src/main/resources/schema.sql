@@ -1,7 +1,14 @@
 -- Drop tables if they exist to ensure clean slate
+DROP TABLE IF EXISTS late_fee_accruals CASCADE;
+DROP TABLE IF EXISTS overdue_sweeps CASCADE;
+DROP TABLE IF EXISTS idempotency_keys CASCADE;
 DROP TABLE IF EXISTS transactions CASCADE;
+DROP TABLE IF EXISTS holds CASCADE;
+DROP TABLE IF EXISTS notification_outbox CASCADE;
 DROP TABLE IF EXISTS notifications CASCADE;
 DROP TABLE IF EXISTS users_roles CASCADE;
+DROP TABLE IF EXISTS book_copy_shards CASCADE;
+DROP TABLE IF EXISTS book_genres CASCADE;
 DROP TABLE IF EXISTS books CASCADE;
 DROP TABLE IF EXISTS genres CASCADE;
 DROP TABLE IF EXISTS users CASCADE;
@@ -27,6 +34,7 @@ CREATE TABLE IF NOT EXISTS users (
     active BOOLEAN DEFAULT TRUE,
     enabled BOOLEAN DEFAULT TRUE,
     user_role VARCHAR(20) NOT NULL CHECK (user_role IN ('USER', 'AUTHOR', 'ADMIN')),
+    active_rentals INTEGER NOT NULL DEFAULT 0,
     created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
     updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP
 );
@@ -58,10 +66,14 @@ CREATE TABLE IF NOT EXISTS books (
     isbn VARCHAR(13) UNIQUE,
     description TEXT,
     published_date DATE,
+    published_year INTEGER,
+    publisher VARCHAR(255) NOT NULL DEFAULT 'Default Publisher',
     price DECIMAL(10, 2) NOT NULL,
     rental_price DECIMAL(10, 2) NOT NULL,
     available_copies INTEGER NOT NULL DEFAULT 0,
     total_copies INTEGER NOT NULL DEFAULT 0,
+    rental_count BIGINT NOT NULL DEFAULT 0,
+    inventory_shards INTEGER NOT NULL DEFAULT 0,
     cover_image VARCHAR(255),
     genre_id BIGINT,
     active BOOLEAN DEFAULT TRUE,
@@ -71,6 +83,15 @@ CREATE TABLE IF NOT EXISTS books (
     FOREIGN KEY (genre_id) REFERENCES genres (id) ON DELETE SET NULL
 );
 
+-- Create Book-Genres join table (the genres of a book besides its primary genre)
+CREATE TABLE IF NOT EXISTS book_genres (
+    book_id BIGINT NOT NULL,
+    genre_id BIGINT NOT NULL,
+    PRIMARY KEY (book_id, genre_id),
+    FOREIGN KEY (book_id) REFERENCES books (id) ON DELETE CASCADE,
+    FOREIGN KEY (genre_id) REFERENCES genres (id) ON DELETE CASCADE
+);
+
 -- Create Transactions table
 CREATE TABLE IF NOT EXISTS transactions (
     id BIGINT AUTO_INCREMENT PRIMARY KEY,
@@ -97,14 +118,115 @@ CREATE TABLE IF NOT EXISTS notifications (
     type VARCHAR(20) NOT NULL,
     is_read BOOLEAN DEFAULT FALSE,
     created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
-    FOREIGN KEY (user_id) REFERENCES users (id) ON DELETE CASCADE
+    book_id BIGINT,
+    outbox_id BIGINT UNIQUE,
+    FOREIGN KEY (user_id) REFERENCES users (id) ON DELETE CASCADE,
+    FOREIGN KEY (book_id) REFERENCES books (id) ON DELETE CASCADE
+);
+
+-- Create Notification outbox table (notifications waiting to be written by the outbox writer)
+CREATE TABLE IF NOT EXISTS notification_outbox (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    user_id BIGINT NOT NULL,
+    book_id BIGINT,
+    type VARCHAR(20) NOT NULL,
+    message TEXT NOT NULL,
+    created_at TIMESTAMP NOT NULL,
+    FOREIGN KEY (user_id) REFERENCES users (id) ON DELETE CASCADE,
+    FOREIGN KEY (book_id) REFERENCES books (id) ON DELETE CASCADE
+);
+
+-- Create Holds table (waitlists of books that are out of stock)
+CREATE TABLE IF NOT EXISTS holds (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    user_id BIGINT NOT NULL,
+    book_id BIGINT NOT NULL,
+    status VARCHAR(20) NOT NULL CHECK (status IN ('WAITING', 'READY', 'FULFILLED', 'CANCELLED', 'EXPIRED')),
+    ready_at TIMESTAMP,
+    expires_at TIMESTAMP,
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    FOREIGN KEY (user_id) REFERENCES users (id) ON DELETE CASCADE,
+    FOREIGN KEY (book_id) REFERENCES books (id) ON DELETE CASCADE
+);
+
+-- Create Book copy shards table (striped inventory of hot books)
+CREATE TABLE IF NOT EXISTS book_copy_shards (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    book_id BIGINT NOT NULL,
+    shard INTEGER NOT NULL,
+    available_copies INTEGER NOT NULL DEFAULT 0,
+    total_copies INTEGER NOT NULL DEFAULT 0,
+    pending_rentals BIGINT NOT NULL DEFAULT 0,
+    UNIQUE (book_id, shard),
+    FOREIGN KEY (book_id) REFERENCES books (id) ON DELETE CASCADE
+);
+
+-- Create Idempotency keys table (responses of retried form submissions)
+CREATE TABLE IF NOT EXISTS idempotency_keys (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    username VARCHAR(50) NOT NULL,
+    idempotency_key VARCHAR(255) NOT NULL,
+    fingerprint VARCHAR(500) NOT NULL,
+    status VARCHAR(20) NOT NULL CHECK (status IN ('IN_PROGRESS', 'COMPLETED')),
+    response_view VARCHAR(255),
+    message_attribute VARCHAR(50),
+    message VARCHAR(1000),
+    created_at TIMESTAMP NOT NULL,
+    expires_at TIMESTAMP NOT NULL,
+    UNIQUE (username, idempotency_key)
+);
+
+-- Create Overdue sweeps table (progress and checkpoint of each overdue alert sweep)
+CREATE TABLE IF NOT EXISTS overdue_sweeps (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    as_of TIMESTAMP NOT NULL,
+    status VARCHAR(20) NOT NULL CHECK (status IN ('RUNNING', 'COMPLETED', 'FAILED')),
+    attempts INTEGER NOT NULL DEFAULT 1,
+    last_transaction_id BIGINT NOT NULL DEFAULT 0,
+    chunks_done INTEGER NOT NULL DEFAULT 0,
+    alerts_created INTEGER NOT NULL DEFAULT 0,
+    started_at TIMESTAMP NOT NULL,
+    updated_at TIMESTAMP NOT NULL,
+    finished_at TIMESTAMP
+);
+
+-- Create Late fee accruals table (audit record of each late fee accrual run)
+CREATE TABLE IF NOT EXISTS late_fee_accruals (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    as_of TIMESTAMP NOT NULL,
+    status VARCHAR(20) NOT NULL CHECK (status IN ('RUNNING', 'COMPLETED', 'FAILED')),
+    chunks INTEGER NOT NULL DEFAULT 0,
+    rentals_updated INTEGER NOT NULL DEFAULT 0,
+    outstanding_fees DECIMAL(12, 2),
+    started_at TIMESTAMP NOT NULL,
+    finished_at TIMESTAMP
 );
 
 -- Create indexes for performance
 CREATE INDEX IF NOT EXISTS idx_books_author_id ON books (author_id);
 CREATE INDEX IF NOT EXISTS idx_books_genre_id ON books (genre_id);
-CREATE INDEX IF NOT EXISTS idx_transactions_user_id ON transactions (user_id);
+CREATE INDEX IF NOT EXISTS idx_books_rental_count ON books (rental_count);
+CREATE INDEX IF NOT EXISTS idx_books_inventory_shards ON books (inventory_shards);
+-- Keyset pages of the catalog, seeking and ordering by (title, id)
+CREATE INDEX IF NOT EXISTS idx_books_title_id ON books (title, id);
+-- Active rentals of a user and book; the user_id prefix also serves per-user lookups
+CREATE INDEX IF NOT EXISTS idx_transactions_user_book_return ON transactions (user_id, book_id, return_date);
 CREATE INDEX IF NOT EXISTS idx_transactions_book_id ON transactions (book_id);
-CREATE INDEX IF NOT EXISTS idx_notifications_user_id ON notifications (user_id);
+CREATE INDEX IF NOT EXISTS idx_transactions_issue_date ON transactions (issue_date);
+-- Keyset pages of a user's rental history, seeking and ordering by (issue_date, id)
+CREATE INDEX IF NOT EXISTS idx_transactions_user_issue_id ON transactions (user_id, issue_date, id);
+-- Open rentals by due date, covering the overdue count
+CREATE INDEX IF NOT EXISTS idx_transactions_return_due ON transactions (return_date, due_date);
+-- Alerts of a user and book, probed by the overdue sweep; the user_id prefix also serves per-user lookups
+CREATE INDEX IF NOT EXISTS idx_notifications_user_book_type ON notifications (user_id, book_id, type);
+-- Keyset pages of a user's notifications, seeking and ordering by (created_at, id)
+CREATE INDEX IF NOT EXISTS idx_notifications_user_created_id ON notifications (user_id, created_at, id);
+CREATE INDEX IF NOT EXISTS idx_notification_outbox_user_book ON notification_outbox (user_id, book_id);
+-- Waitlist of a book in FIFO order: next hold and queue position are index range reads
+CREATE INDEX IF NOT EXISTS idx_holds_book_status_id ON holds (book_id, status, id);
+CREATE INDEX IF NOT EXISTS idx_holds_user_book ON holds (user_id, book_id);
+CREATE INDEX IF NOT EXISTS idx_holds_status_expires ON holds (status, expires_at);
+CREATE INDEX IF NOT EXISTS idx_idempotency_keys_expires_at ON idempotency_keys (expires_at);
+CREATE INDEX IF NOT EXISTS idx_overdue_sweeps_status ON overdue_sweeps (status);
 CREATE INDEX IF NOT EXISTS idx_users_username ON users (username);
 CREATE INDEX IF NOT EXISTS idx_users_email ON users (email);
\ No newline at end of file
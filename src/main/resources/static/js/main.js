@@ -97,4 +97,33 @@ document.addEventListener('DOMContentLoaded', function() {
             document.querySelector('.navbar-collapse').classList.toggle('show');
         });
     }
-});
\ No newline at end of file
+    
+    // Search box autocomplete
+    document.querySelectorAll('input[data-suggest]').forEach(input => {
+        const datalist = document.createElement('datalist');
+        datalist.id = input.name + '-suggestions';
+        input.setAttribute('list', datalist.id);
+        input.setAttribute('autocomplete', 'off');
+        input.after(datalist);
+        
+        let lastQuery = '';
+        input.addEventListener('input', function() {
+            const query = this.value;
+            if (query.trim().length < 2 || query === lastQuery) return;
+            lastQuery = query;
+            
+            fetch('/api/suggest?limit=8&q=' + encodeURIComponent(query))
+                .then(response => response.ok ? response.json() : [])
+                .then(suggestions => {
+                    if (query !== lastQuery) return;
+                    datalist.innerHTML = '';
+                    suggestions.forEach(suggestion => {
+                        const option = document.createElement('option');
+                        option.value = suggestion.text;
+                        datalist.appendChild(option);
+                    });
+                })
+                .catch(() => {});
+        });
+    });
+});
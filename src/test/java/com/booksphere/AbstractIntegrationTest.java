@@ -0,0 +1,182 @@
+package com.booksphere;
+
+import com.booksphere.model.Book;
+import com.booksphere.model.User;
+import com.booksphere.model.UserRole;
+import com.booksphere.repository.BookRepository;
+import com.booksphere.repository.UserRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Base class for tests running against the full application and an in-memory H2 database.
+ * Tests commit for real, so that concurrent callers see each other's changes; every fixture gets
+ * unique names so tests sharing the database do not interfere.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:booksphere-test;DB_CLOSE_DELAY=-1;MODE=MYSQL;"
+                + "CASE_INSENSITIVE_IDENTIFIERS=TRUE;LOCK_TIMEOUT=10000",
+        "spring.jpa.show-sql=false",
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "logging.level.org.hibernate.SQL=INFO",
+        "logging.level.org.hibernate.type.descriptor.sql.BasicBinder=INFO",
+        "logging.level.org.hibernate.engine.internal.StatisticalLoggingSessionEventListener=WARN"
+})
+public abstract class AbstractIntegrationTest {
+
+    private static final AtomicLong SEQUENCE = new AtomicLong();
+
+    @Autowired
+    protected UserRepository userRepository;
+
+    @Autowired
+    protected BookRepository bookRepository;
+
+    @Autowired
+    protected JdbcTemplate jdbcTemplate;
+
+    /**
+     * Save a user with a unique username and email.
+     *
+     * @param role The role of the user
+     * @return The saved user
+     */
+    protected User createUser(UserRole role) {
+        long n = SEQUENCE.incrementAndGet();
+        User user = new User();
+        user.setUsername("test-" + role.name().toLowerCase() + "-" + n);
+        user.setPassword("{noop}secret");
+        user.setEmail("test-" + n + "@booksphere.test");
+        user.setFirstName("Test");
+        user.setLastName("User" + n);
+        user.setActive(true);
+        user.setEnabled(true);
+        user.setCreatedAt(LocalDateTime.now());
+        user.setUpdatedAt(LocalDateTime.now());
+        user.setUserRole(role);
+        return userRepository.save(user);
+    }
+
+    /**
+     * Insert many users at once with one JDBC batch, for benchmarks needing more renters than
+     * saving entities one by one allows.
+     *
+     * @param role The role of the users
+     * @param count The number of users
+     * @return The IDs of the new users, in insertion order
+     */
+    protected List<Long> createUsers(UserRole role, int count) {
+        String prefix = "bulk-" + SEQUENCE.incrementAndGet() + "-";
+        List<Object[]> rows = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            rows.add(new Object[] {prefix + i, "{noop}secret", prefix + i + "@booksphere.test", "Bulk", "User" + i, role.name()});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO users (username, password, email, first_name, last_name, user_role) "
+                + "VALUES (?, ?, ?, ?, ?, ?)", rows);
+        return jdbcTemplate.queryForList("SELECT id FROM users WHERE username LIKE ? ORDER BY id", Long.class, prefix + "%");
+    }
+
+    /**
+     * Build a book with a unique ISBN, without saving it.
+     *
+     * @param author The author of the book
+     * @param title The title of the book
+     * @param copies The total and available copies
+     * @return The unsaved book
+     */
+    protected Book newBook(User author, String title, int copies) {
+        Book book = new Book();
+        book.setTitle(title);
+        book.setAuthor(author);
+        book.setIsbn(String.format("979%010d", SEQUENCE.incrementAndGet()));
+        book.setPrice(new BigDecimal("19.99"));
+        book.setRentalPrice(new BigDecimal("2.99"));
+        book.setTotalCopies(copies);
+        book.setAvailableCopies(copies);
+        book.setCreatedAt(LocalDateTime.now());
+        book.setUpdatedAt(LocalDateTime.now());
+        return book;
+    }
+
+    /**
+     * Save a book with a unique ISBN.
+     *
+     * @param author The author of the book
+     * @param title The title of the book
+     * @param copies The total and available copies
+     * @return The saved book
+     */
+    protected Book createBook(User author, String title, int copies) {
+        return bookRepository.save(newBook(author, title, copies));
+    }
+
+    protected int availableCopies(Long bookId) {
+        return jdbcTemplate.queryForObject("SELECT available_copies FROM books WHERE id = ?", Integer.class, bookId);
+    }
+
+    protected int activeRentals(Long userId) {
+        return jdbcTemplate.queryForObject("SELECT active_rentals FROM users WHERE id = ?", Integer.class, userId);
+    }
+
+    protected int openRentals(Long bookId) {
+        return jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM transactions WHERE book_id = ? AND return_date IS NULL", Integer.class, bookId);
+    }
+
+    protected int openRentalsOfUser(Long userId) {
+        return jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM transactions WHERE user_id = ? AND return_date IS NULL", Integer.class, userId);
+    }
+
+    /**
+     * Run tasks on their own threads, released at the same moment.
+     *
+     * @param tasks The tasks
+     * @return The exceptions thrown by the tasks that failed
+     */
+    protected List<Throwable> runConcurrently(List<? extends Runnable> tasks) throws InterruptedException {
+        ExecutorService executor = Executors.newFixedThreadPool(tasks.size());
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<Object>> futures = new ArrayList<>(tasks.size());
+            for (Runnable task : tasks) {
+                Callable<Object> gated = () -> {
+                    start.await();
+                    task.run();
+                    return null;
+                };
+                futures.add(executor.submit(gated));
+            }
+            start.countDown();
+
+            List<Throwable> failures = new ArrayList<>();
+            for (Future<Object> future : futures) {
+                try {
+                    future.get(60, TimeUnit.SECONDS);
+                } catch (ExecutionException e) {
+                    failures.add(e.getCause());
+                } catch (TimeoutException e) {
+                    throw new AssertionError("Task did not finish in time", e);
+                }
+            }
+            return failures;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
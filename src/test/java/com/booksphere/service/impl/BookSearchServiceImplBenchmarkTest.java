@@ -0,0 +1,120 @@
+package com.booksphere.service.impl;
+
+import com.booksphere.AbstractIntegrationTest;
+import com.booksphere.model.UserRole;
+import com.booksphere.service.BookSearchService;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Latency of indexed search against the LIKE query it replaced, at 100k and 1M books seeded with
+ * one JDBC batch per 10k rows. Timings are logged rather than asserted since they depend on the
+ * machine. Run with {@code mvn test -Dbenchmark=true}; pass {@code -Dbenchmark.books=100000} to
+ * skip the 1M step.
+ */
+@Slf4j
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class BookSearchServiceImplBenchmarkTest extends AbstractIntegrationTest {
+
+    private static final String[] SYLLABLES = {"ka", "lo", "mi", "ren", "tu", "sha", "vel", "dor", "ni", "qua"};
+    private static final int VOCABULARY = 1000;
+    private static final int INSERT_BATCH = 10_000;
+    private static final int WARMUP = 5;
+    private static final int QUERIES = 50;
+    private static final Pageable FIRST_PAGE = PageRequest.of(0, 10);
+
+    @Autowired
+    private BookSearchService bookSearchService;
+
+    private final Random random = new Random(42);
+    private Long firstSeededId;
+
+    @AfterEach
+    void removeSeededBooks() {
+        if (firstSeededId != null) {
+            jdbcTemplate.update("DELETE FROM books WHERE id >= ?", firstSeededId);
+            bookSearchService.rebuildIndex();
+        }
+    }
+
+    @Test
+    void indexAgainstLikeQuery() {
+        Long authorId = createUser(UserRole.AUTHOR).getId();
+        int seeded = 0;
+        for (String step : System.getProperty("benchmark.books", "100000,1000000").split(",")) {
+            int books = Integer.parseInt(step.trim());
+            seed(authorId, seeded, books - seeded);
+            seeded = books;
+
+            long start = System.nanoTime();
+            bookSearchService.rebuildIndex();
+            long buildMs = (System.nanoTime() - start) / 1_000_000;
+
+            double indexMs = averageMillis(query -> bookSearchService.search(query, FIRST_PAGE).getTotalElements());
+            double likeMs = averageMillis(query -> bookRepository.searchBooks(query, FIRST_PAGE).getTotalElements());
+            log.info("{} books: index built in {} ms; first page of a one-word search {} ms with the index, "
+                    + "{} ms with LIKE", books, buildMs, String.format("%.2f", indexMs), String.format("%.2f", likeMs));
+            assertThat(bookSearchService.getIndexedCount()).isGreaterThanOrEqualTo(books);
+        }
+    }
+
+    private void seed(Long authorId, int from, int count) {
+        for (int offset = 0; offset < count; offset += INSERT_BATCH) {
+            List<Object[]> rows = new ArrayList<>(INSERT_BATCH);
+            for (int i = offset; i < Math.min(count, offset + INSERT_BATCH); i++) {
+                int n = from + i;
+                rows.add(new Object[] {
+                        word() + " " + word() + " " + word(),
+                        authorId,
+                        String.format("978%010d", n),
+                        "A story of " + word() + ", " + word() + " and the " + word() + " of " + word() + ".",
+                        new BigDecimal("9.99"),
+                        new BigDecimal("1.99")
+                });
+            }
+            jdbcTemplate.batchUpdate("INSERT INTO books (title, author_id, isbn, description, price, rental_price, "
+                    + "available_copies, total_copies) VALUES (?, ?, ?, ?, ?, ?, 1, 1)", rows);
+        }
+        if (firstSeededId == null) {
+            firstSeededId = jdbcTemplate.queryForObject("SELECT MIN(id) FROM books WHERE isbn = ?", Long.class,
+                    String.format("978%010d", from));
+        }
+    }
+
+    private double averageMillis(Function<String, Long> search) {
+        Random queries = new Random(7);
+        for (int i = 0; i < WARMUP; i++) {
+            search.apply(word(queries));
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < QUERIES; i++) {
+            search.apply(word(queries));
+        }
+        return (System.nanoTime() - start) / 1e6 / QUERIES;
+    }
+
+    private String word() {
+        return word(random);
+    }
+
+    /**
+     * A pronounceable word from a fixed vocabulary, so searches hit a realistic share of the books.
+     */
+    private static String word(Random random) {
+        int n = random.nextInt(VOCABULARY);
+        return SYLLABLES[n / 100] + SYLLABLES[n / 10 % 10] + SYLLABLES[n % 10];
+    }
+}
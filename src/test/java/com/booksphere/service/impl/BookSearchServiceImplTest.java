@@ -0,0 +1,100 @@
+package com.booksphere.service.impl;
+
+import com.booksphere.AbstractIntegrationTest;
+import com.booksphere.model.Book;
+import com.booksphere.model.User;
+import com.booksphere.model.UserRole;
+import com.booksphere.service.BookSearchService;
+import com.booksphere.service.BookService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for the inverted index behind book search: fields searched, ranking, and index upkeep
+ * as books are created, updated and deleted.
+ */
+class BookSearchServiceImplTest extends AbstractIntegrationTest {
+
+    @Autowired
+    private BookService bookService;
+
+    @Autowired
+    private BookSearchService bookSearchService;
+
+    private User author;
+
+    @BeforeEach
+    void setUp() {
+        author = createUser(UserRole.AUTHOR);
+    }
+
+    @Test
+    void searchesAreServedFromTheIndex() {
+        assertThat(bookSearchService.isAvailable()).isTrue();
+    }
+
+    @Test
+    void findsBooksByTitleDescriptionIsbnAndAuthor() {
+        Book book = newBook(author, "Zephyrine Lighthouse", 1);
+        book.setDescription("A keeper and her marmalade-coloured cat");
+        Book saved = bookService.createBook(book);
+
+        assertThat(searchIds("zephyrine")).contains(saved.getId());
+        assertThat(searchIds("marmalade")).contains(saved.getId());
+        assertThat(searchIds(saved.getIsbn())).containsExactly(saved.getId());
+        assertThat(searchIds(author.getLastName())).contains(saved.getId());
+    }
+
+    @Test
+    void ranksTitleMatchesAboveDescriptionMatches() {
+        Book inDescription = newBook(author, "Harbour Nights", 1);
+        inDescription.setDescription("Letters sealed with quillfeather wax");
+        Long descriptionId = bookService.createBook(inDescription).getId();
+        Long titleId = bookService.createBook(newBook(author, "The Quillfeather Archive", 1)).getId();
+
+        assertThat(searchIds("quillfeather")).containsExactly(titleId, descriptionId);
+    }
+
+    @Test
+    void followsUpdatesAndDeletes() {
+        Book saved = bookService.createBook(newBook(author, "Brackenmoor Ledger", 1));
+
+        Book details = newBook(author, "Saltmarsh Ledger", 1);
+        details.setIsbn(saved.getIsbn());
+        bookService.updateBook(saved.getId(), details);
+
+        assertThat(searchIds("brackenmoor")).doesNotContain(saved.getId());
+        assertThat(searchIds("saltmarsh")).contains(saved.getId());
+
+        bookService.deleteBook(saved.getId());
+
+        assertThat(searchIds("saltmarsh")).doesNotContain(saved.getId());
+    }
+
+    @Test
+    void pagesThroughMatches() {
+        for (int i = 0; i < 5; i++) {
+            bookService.createBook(newBook(author, "Thistledown Almanac " + i, 1));
+        }
+
+        Page<Book> first = bookService.searchBooks("thistledown", PageRequest.of(0, 2));
+        Page<Book> last = bookService.searchBooks("thistledown", PageRequest.of(2, 2));
+
+        assertThat(first.getTotalElements()).isEqualTo(5);
+        assertThat(first.getContent()).hasSize(2);
+        assertThat(last.getContent()).hasSize(1);
+    }
+
+    private List<Long> searchIds(String query) {
+        return bookService.searchBooks(query, PageRequest.of(0, 20)).getContent().stream()
+                .map(Book::getId)
+                .toList();
+    }
+}
@@ -0,0 +1,50 @@
+package com.booksphere.service.impl;
+
+import com.booksphere.AbstractIntegrationTest;
+import com.booksphere.dto.BookListItemDto;
+import com.booksphere.dto.CursorPage;
+import com.booksphere.model.User;
+import com.booksphere.model.UserRole;
+import com.booksphere.service.BookService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests that keyset-paged listings serve sane pages whatever size and cursor the request carries.
+ */
+class BookServiceImplPagingTest extends AbstractIntegrationTest {
+
+    @Autowired
+    private BookService bookService;
+
+    @Test
+    void clampsThePageSize() {
+        User author = createUser(UserRole.AUTHOR);
+        for (int i = 0; i <= CursorPage.MAX_SIZE; i++) {
+            createBook(author, "Paged " + i, 1);
+        }
+
+        assertThat(bookService.findAll(null, 0).getContent()).hasSize(1);
+        assertThat(bookService.findAll(null, -5).getContent()).hasSize(1);
+        assertThat(bookService.findAll(null, 1_000_000).getContent()).hasSize(CursorPage.MAX_SIZE);
+        assertThat(bookService.findAvailable(null, 1_000_000).getContent()).hasSize(CursorPage.MAX_SIZE);
+    }
+
+    @Test
+    void malformedCursorServesTheFirstPage() {
+        User author = createUser(UserRole.AUTHOR);
+        for (int i = 0; i < 3; i++) {
+            createBook(author, "Cursor " + i, 1);
+        }
+        CursorPage<BookListItemDto> first = bookService.findAll(null, 2);
+
+        for (String cursor : new String[] {"not base64!", "bm9zZXBhcmF0b3I", "bgphYmMKeA"}) {
+            assertThat(bookService.findAll(cursor, 2).getContent())
+                    .extracting(BookListItemDto::getId)
+                    .containsExactlyElementsOf(first.getContent().stream().map(BookListItemDto::getId).toList());
+            assertThat(bookService.findAvailable(cursor, 2).hasPrevious()).isFalse();
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package com.booksphere.service.impl;
+
+import com.booksphere.AbstractIntegrationTest;
+import com.booksphere.dto.BookDto;
+import com.booksphere.model.Book;
+import com.booksphere.model.Hold;
+import com.booksphere.model.User;
+import com.booksphere.model.UserRole;
+import com.booksphere.service.BookService;
+import com.booksphere.service.HoldService;
+import com.booksphere.service.TransactionService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests that changing a book's copies offers only copies that did not exist before to its waitlist.
+ */
+class InventoryServiceImplTest extends AbstractIntegrationTest {
+
+    @Autowired
+    private BookService bookService;
+
+    @Autowired
+    private TransactionService transactionService;
+
+    @Autowired
+    private HoldService holdService;
+
+    private Book book;
+    private Hold hold;
+
+    @BeforeEach
+    void setUp() {
+        User author = createUser(UserRole.AUTHOR);
+        book = createBook(author, "Waitlisted", 1);
+        transactionService.issueBook(createUser(UserRole.USER).getId(), book.getId(), LocalDateTime.now().plusDays(14));
+        hold = holdService.placeHold(createUser(UserRole.USER).getId(), book.getId());
+    }
+
+    @Test
+    void editingMetadataKeepsCopiesOnLoanAndTheWaitlist() {
+        bookService.update(book.getId(), details("Waitlisted, Revised", 1));
+
+        assertThat(holdStatus()).isEqualTo(Hold.Status.WAITING.name());
+        assertThat(availableCopies(book.getId())).isZero();
+    }
+
+    @Test
+    void addedCopiesGoToTheWaitlistFirst() {
+        bookService.update(book.getId(), details("Waitlisted", 2));
+
+        assertThat(holdStatus()).isEqualTo(Hold.Status.READY.name());
+        assertThat(availableCopies(book.getId())).isZero();
+    }
+
+    private BookDto details(String title, int totalCopies) {
+        BookDto dto = new BookDto();
+        dto.setTitle(title);
+        dto.setDescription("Edited");
+        dto.setIsbn(book.getIsbn());
+        dto.setPrice(book.getPrice());
+        dto.setRentalPrice(book.getRentalPrice());
+        dto.setTotalCopies(totalCopies);
+        dto.setAvailableCopies(totalCopies);
+        dto.setPublishedYear(2024);
+        dto.setPublisher("Test Press");
+        return dto;
+    }
+
+    private String holdStatus() {
+        return jdbcTemplate.queryForObject("SELECT status FROM holds WHERE id = ?", String.class, hold.getId());
+    }
+}
@@ -0,0 +1,110 @@
+package com.booksphere.service.impl;
+
+import com.booksphere.AbstractIntegrationTest;
+import com.booksphere.dto.BookListItemDto;
+import com.booksphere.dto.CursorPage;
+import com.booksphere.model.Transaction;
+import com.booksphere.model.User;
+import com.booksphere.model.UserRole;
+import com.booksphere.service.BookService;
+import com.booksphere.service.TransactionService;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.TaskScheduler;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests that list pages load their rows, and everything their templates render, with one statement
+ * per listing however many authors and books the rows reference.
+ */
+class ListPageStatementCountTest extends AbstractIntegrationTest {
+
+    @Autowired
+    private BookService bookService;
+
+    @Autowired
+    private TransactionService transactionService;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private TaskScheduler taskScheduler;
+
+    @Test
+    void manageBooksPageIsOneStatement() throws InterruptedException {
+        for (int i = 0; i < 10; i++) {
+            createBook(createUser(UserRole.AUTHOR), "Listed " + i, 1);
+        }
+
+        long statements = countStatements(() -> {
+            CursorPage<BookListItemDto> page = bookService.findAll(null, 10);
+            assertThat(page.getContent()).hasSize(10);
+        });
+
+        assertThat(statements).isEqualTo(1);
+    }
+
+    @Test
+    void transactionsPageIsOneStatementPerListing() throws InterruptedException {
+        User user = createUser(UserRole.USER);
+        for (int i = 0; i < 6; i++) {
+            Long bookId = createBook(createUser(UserRole.AUTHOR), "Returned " + i, 1).getId();
+            Transaction rental = transactionService.issueBook(user.getId(), bookId, LocalDateTime.now().plusDays(14));
+            transactionService.returnBook(rental.getId());
+        }
+        for (int i = 0; i < 2; i++) {
+            Long bookId = createBook(createUser(UserRole.AUTHOR), "On Loan " + i, 1).getId();
+            transactionService.issueBook(user.getId(), bookId, LocalDateTime.now().plusDays(14));
+        }
+
+        long statements = countStatements(() -> {
+            List<Transaction> active = transactionService.findActiveTransactionsByUser(user);
+            CursorPage<Transaction> completed = transactionService.findCompletedTransactionsByUser(user, null, 10);
+            assertThat(active).hasSize(2).allSatisfy(rental -> assertThat(rental.getBook().getTitle()).startsWith("On Loan"));
+            assertThat(completed.getContent()).hasSize(6)
+                    .allSatisfy(rental -> assertThat(rental.getBook().getTitle()).startsWith("Returned"));
+        });
+
+        assertThat(statements).isEqualTo(2);
+    }
+
+    /**
+     * Count the JDBC statements Hibernate prepares while loading a page. The scheduled jobs share
+     * the statistics, so they are held on the scheduler's single thread meanwhile.
+     *
+     * @param page Loads the page and reads what its template renders
+     * @return The number of statements prepared
+     */
+    private long countStatements(Runnable page) throws InterruptedException {
+        CountDownLatch paused = new CountDownLatch(1);
+        CountDownLatch resume = new CountDownLatch(1);
+        taskScheduler.schedule(() -> {
+            paused.countDown();
+            try {
+                resume.await(1, TimeUnit.MINUTES);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }, Instant.now());
+        assertThat(paused.await(1, TimeUnit.MINUTES)).isTrue();
+        try {
+            Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+            statistics.clear();
+            page.run();
+            return statistics.getPrepareStatementCount();
+        } finally {
+            resume.countDown();
+        }
+    }
+}
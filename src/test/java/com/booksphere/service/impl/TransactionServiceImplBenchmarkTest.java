@@ -0,0 +1,173 @@
+package com.booksphere.service.impl;
+
+import com.booksphere.AbstractIntegrationTest;
+import com.booksphere.model.Book;
+import com.booksphere.model.Transaction;
+import com.booksphere.model.User;
+import com.booksphere.model.UserRole;
+import com.booksphere.service.TransactionService;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Throughput and latency benchmarks of the rental paths against H2, logged rather than asserted since the
+ * numbers depend on the machine. Run with {@code mvn test -Dbenchmark=true}.
+ */
+@Slf4j
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class TransactionServiceImplBenchmarkTest extends AbstractIntegrationTest {
+
+    private static final int THREADS = 8;
+
+    @Autowired
+    private TransactionService transactionService;
+
+    @Test
+    void rentalsPerSecondOnOneHotBook() throws InterruptedException {
+        int copies = 1500;
+        int renters = 2000;
+        Book book = createBook(createUser(UserRole.AUTHOR), "Hot Benchmark Title", copies);
+        List<Long> userIds = createUsers(UserRole.USER, renters);
+
+        List<Runnable> rentals = new ArrayList<>(renters);
+        for (Long userId : userIds) {
+            rentals.add(() -> transactionService.issueBook(userId, book.getId(), LocalDateTime.now().plusDays(14)));
+        }
+        long start = System.nanoTime();
+        int failures = runOnThreads(rentals);
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        log.info("Hot book: {} rentals and {} sold-out refusals on {} threads in {} s, {} rentals/s",
+                renters - failures, failures, THREADS, String.format("%.2f", seconds),
+                String.format("%.0f", (renters - failures) / seconds));
+        assertThat(renters - failures).isEqualTo(copies);
+        assertThat(availableCopies(book.getId())).isZero();
+        assertThat(openRentals(book.getId())).isEqualTo(copies);
+    }
+
+    @Test
+    void cartCheckoutAgainstSingleRentals() throws InterruptedException {
+        int cartSize = 5;
+        int renters = 400;
+        User author = createUser(UserRole.AUTHOR);
+
+        List<Long> cartBooks = createBookIds(author, "Cart Benchmark Title", cartSize, renters);
+        List<Runnable> carts = new ArrayList<>(renters);
+        for (Long userId : createUsers(UserRole.USER, renters)) {
+            carts.add(() -> transactionService.issueBooks(userId, cartBooks, LocalDateTime.now().plusDays(14)));
+        }
+        long start = System.nanoTime();
+        int cartFailures = runOnThreads(carts);
+        double cartSeconds = (System.nanoTime() - start) / 1e9;
+
+        List<Long> singleBooks = createBookIds(author, "Single Benchmark Title", cartSize, renters);
+        List<Runnable> singles = new ArrayList<>(renters);
+        for (Long userId : createUsers(UserRole.USER, renters)) {
+            singles.add(() -> singleBooks.forEach(bookId ->
+                    transactionService.issueBook(userId, bookId, LocalDateTime.now().plusDays(14))));
+        }
+        start = System.nanoTime();
+        int singleFailures = runOnThreads(singles);
+        double singleSeconds = (System.nanoTime() - start) / 1e9;
+
+        log.info("{}-book checkouts on {} threads: {} books/s in one cart, {} books/s as single rentals",
+                cartSize, THREADS, String.format("%.0f", renters * cartSize / cartSeconds),
+                String.format("%.0f", renters * cartSize / singleSeconds));
+        assertThat(cartFailures).isZero();
+        assertThat(singleFailures).isZero();
+        for (Long bookId : cartBooks) {
+            assertThat(openRentals(bookId)).isEqualTo(renters);
+        }
+    }
+
+    @Test
+    void issueLatencyForAUserWithALongHistory() {
+        int history = 50_000;
+        int rentals = 200;
+        User author = createUser(UserRole.AUTHOR);
+        Book book = createBook(author, "Reread Benchmark Title", 1);
+        User regular = createUser(UserRole.USER);
+        User newcomer = createUser(UserRole.USER);
+        seedReturnedRentals(regular, List.of(book, createBook(author, "Backlist Benchmark Title", 1)), history);
+
+        double regularMs = averageIssueMillis(regular, book, rentals);
+        double newcomerMs = averageIssueMillis(newcomer, book, rentals);
+
+        log.info("Issue latency: {} ms for a user with {} returned rentals, {} ms for a user with none",
+                String.format("%.2f", regularMs), history, String.format("%.2f", newcomerMs));
+        assertThat(openRentalsOfUser(regular.getId())).isZero();
+        assertThat(availableCopies(book.getId())).isEqualTo(1);
+    }
+
+    /**
+     * Rent and return the book repeatedly, timing only the rentals.
+     *
+     * @return The average latency of a rental in milliseconds
+     */
+    private double averageIssueMillis(User user, Book book, int rentals) {
+        long elapsed = 0;
+        for (int i = 0; i < rentals; i++) {
+            long start = System.nanoTime();
+            Transaction rental = transactionService.issueBook(user.getId(), book.getId(), LocalDateTime.now().plusDays(14));
+            elapsed += System.nanoTime() - start;
+            transactionService.returnBook(rental.getId());
+        }
+        return elapsed / 1e6 / rentals;
+    }
+
+    private List<Long> createBookIds(User author, String title, int count, int copies) {
+        List<Long> ids = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            ids.add(createBook(author, title + " " + i, copies).getId());
+        }
+        return ids;
+    }
+
+    private void seedReturnedRentals(User user, List<Book> books, int count) {
+        List<Object[]> rows = new ArrayList<>(count);
+        Timestamp returned = Timestamp.valueOf(LocalDateTime.now().minusDays(1));
+        for (int i = 0; i < count; i++) {
+            rows.add(new Object[] {user.getId(), books.get(i % books.size()).getId(), returned, returned, returned});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO transactions (user_id, book_id, issue_date, due_date, return_date, "
+                + "rental_price, paid, type) VALUES (?, ?, ?, ?, ?, 2.99, TRUE, 'ISSUE')", rows);
+    }
+
+    /**
+     * Run tasks on a fixed pool of {@link #THREADS} threads.
+     *
+     * @return The number of tasks that threw
+     */
+    private int runOnThreads(List<Runnable> tasks) throws InterruptedException {
+        AtomicInteger failures = new AtomicInteger();
+        List<Runnable> shuffled = new ArrayList<>(tasks);
+        Collections.shuffle(shuffled);
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        for (Runnable task : shuffled) {
+            executor.execute(() -> {
+                try {
+                    task.run();
+                } catch (RuntimeException e) {
+                    failures.incrementAndGet();
+                }
+            });
+        }
+        executor.shutdown();
+        assertThat(executor.awaitTermination(10, TimeUnit.MINUTES)).isTrue();
+        return failures.get();
+    }
+}
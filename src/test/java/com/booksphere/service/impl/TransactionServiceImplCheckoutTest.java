@@ -0,0 +1,108 @@
+package com.booksphere.service.impl;
+
+import com.booksphere.AbstractIntegrationTest;
+import com.booksphere.model.Book;
+import com.booksphere.model.Transaction;
+import com.booksphere.model.User;
+import com.booksphere.model.UserRole;
+import com.booksphere.service.TransactionService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Tests that a multi-book checkout issues every book in the cart or none of them.
+ */
+class TransactionServiceImplCheckoutTest extends AbstractIntegrationTest {
+
+    @Autowired
+    private TransactionService transactionService;
+
+    private User author;
+
+    @BeforeEach
+    void setUp() {
+        author = createUser(UserRole.AUTHOR);
+    }
+
+    @Test
+    void issuesEveryBookInTheCart() {
+        Book first = createBook(author, "Cart One", 2);
+        Book second = createBook(author, "Cart Two", 2);
+        User user = createUser(UserRole.USER);
+
+        List<Transaction> rentals = transactionService.issueBooks(user.getId(),
+                List.of(first.getId(), second.getId()), LocalDateTime.now().plusDays(14));
+
+        assertThat(rentals).extracting(rental -> rental.getBook().getId())
+                .containsExactly(first.getId(), second.getId());
+        assertThat(availableCopies(first.getId())).isEqualTo(1);
+        assertThat(availableCopies(second.getId())).isEqualTo(1);
+        assertThat(activeRentals(user.getId())).isEqualTo(2);
+        assertThat(openRentalsOfUser(user.getId())).isEqualTo(2);
+    }
+
+    @Test
+    void issuesNothingWhenOneBookIsOutOfStock() {
+        Book inStock = createBook(author, "In Stock", 1);
+        Book soldOut = createBook(author, "Out Of Stock", 0);
+        User user = createUser(UserRole.USER);
+
+        assertThatThrownBy(() -> transactionService.issueBooks(user.getId(),
+                List.of(inStock.getId(), soldOut.getId()), LocalDateTime.now().plusDays(14)))
+                .isInstanceOf(IllegalStateException.class);
+
+        assertThat(availableCopies(inStock.getId())).isEqualTo(1);
+        assertThat(activeRentals(user.getId())).isZero();
+        assertThat(openRentalsOfUser(user.getId())).isZero();
+    }
+
+    @Test
+    void rejectsDuplicateBooksInOneCart() {
+        Book book = createBook(author, "Twice In Cart", 2);
+        User user = createUser(UserRole.USER);
+
+        assertThatThrownBy(() -> transactionService.issueBooks(user.getId(),
+                List.of(book.getId(), book.getId()), LocalDateTime.now().plusDays(14)))
+                .isInstanceOf(IllegalArgumentException.class);
+
+        assertThat(availableCopies(book.getId())).isEqualTo(2);
+    }
+
+    @Test
+    void concurrentCartsInOppositeOrderNeverOversellOrSplit() throws InterruptedException {
+        int copies = 3;
+        int carts = 8;
+        Book first = createBook(author, "Contended A", copies);
+        Book second = createBook(author, "Contended B", copies);
+        List<Long> userIds = new ArrayList<>();
+        List<Runnable> checkouts = new ArrayList<>();
+        for (int i = 0; i < carts; i++) {
+            Long userId = createUser(UserRole.USER).getId();
+            List<Long> cart = i % 2 == 0
+                    ? List.of(first.getId(), second.getId())
+                    : List.of(second.getId(), first.getId());
+            userIds.add(userId);
+            checkouts.add(() -> transactionService.issueBooks(userId, cart, LocalDateTime.now().plusDays(14)));
+        }
+
+        List<Throwable> failures = runConcurrently(checkouts);
+
+        // Carts lock books in ID order, so the losers run out of stock rather than deadlock
+        assertThat(failures).hasSize(carts - copies);
+        assertThat(failures).allSatisfy(failure -> assertThat(failure).isInstanceOf(IllegalStateException.class));
+        assertThat(availableCopies(first.getId())).isZero();
+        assertThat(availableCopies(second.getId())).isZero();
+        for (Long userId : userIds) {
+            assertThat(openRentalsOfUser(userId)).isIn(0, 2);
+            assertThat(activeRentals(userId)).isEqualTo(openRentalsOfUser(userId));
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package com.booksphere.service.impl;
+
+import com.booksphere.AbstractIntegrationTest;
+import com.booksphere.model.Book;
+import com.booksphere.model.Transaction;
+import com.booksphere.model.User;
+import com.booksphere.model.UserRole;
+import com.booksphere.repository.TransactionRepository;
+import com.booksphere.service.TransactionService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Tests for the indexed check that stops a user renting a book they already have.
+ */
+class TransactionServiceImplDuplicateRentalTest extends AbstractIntegrationTest {
+
+    @Autowired
+    private TransactionService transactionService;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    private User author;
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        author = createUser(UserRole.AUTHOR);
+        user = createUser(UserRole.USER);
+    }
+
+    @Test
+    void existsActiveRentalOnlyMatchesOpenRentalsOfTheUserAndBook() {
+        Book rented = createBook(author, "Rented", 2);
+        Book other = createBook(author, "Not Rented", 2);
+        User someoneElse = createUser(UserRole.USER);
+        Transaction rental = transactionService.issueBook(user.getId(), rented.getId(), LocalDateTime.now().plusDays(14));
+
+        assertThat(transactionRepository.existsActiveRental(user.getId(), rented.getId())).isTrue();
+        assertThat(transactionRepository.existsActiveRental(user.getId(), other.getId())).isFalse();
+        assertThat(transactionRepository.existsActiveRental(someoneElse.getId(), rented.getId())).isFalse();
+
+        transactionService.returnBook(rental.getId());
+
+        assertThat(transactionRepository.existsActiveRental(user.getId(), rented.getId())).isFalse();
+    }
+
+    @Test
+    void rejectsRentingABookTheUserAlreadyHas() {
+        Book book = createBook(author, "Already Rented", 2);
+        transactionService.issueBook(user.getId(), book.getId(), LocalDateTime.now().plusDays(14));
+
+        assertThatThrownBy(() -> transactionService.issueBook(user.getId(), book.getId(), LocalDateTime.now().plusDays(14)))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("already has this book");
+
+        assertThat(availableCopies(book.getId())).isEqualTo(1);
+        assertThat(activeRentals(user.getId())).isEqualTo(1);
+    }
+
+    @Test
+    void allowsRentingAgainAfterALongHistoryOfReturns() {
+        Book book = createBook(author, "Reread", 1);
+        for (int i = 0; i < 20; i++) {
+            Transaction rental = transactionService.issueBook(user.getId(), book.getId(), LocalDateTime.now().plusDays(14));
+            transactionService.returnBook(rental.getId());
+        }
+
+        transactionService.issueBook(user.getId(), book.getId(), LocalDateTime.now().plusDays(14));
+
+        assertThat(openRentalsOfUser(user.getId())).isEqualTo(1);
+        assertThat(availableCopies(book.getId())).isZero();
+    }
+
+    @Test
+    void activeRentalLookupsAreIndexed() {
+        Integer indexes = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM INFORMATION_SCHEMA.INDEXES WHERE UPPER(INDEX_NAME) = 'IDX_TRANSACTIONS_USER_BOOK_RETURN'",
+                Integer.class);
+
+        assertThat(indexes).isPositive();
+    }
+}
@@ -0,0 +1,105 @@
+package com.booksphere.service.impl;
+
+import com.booksphere.AbstractIntegrationTest;
+import com.booksphere.model.Book;
+import com.booksphere.model.Transaction;
+import com.booksphere.model.User;
+import com.booksphere.model.UserRole;
+import com.booksphere.service.TransactionService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Tests that issuing and returning change stock and rental counters exactly once, even when
+ * callers race for the same copies or the same rental.
+ */
+class TransactionServiceImplInventoryTest extends AbstractIntegrationTest {
+
+    private static final int COPIES = 3;
+    private static final int RENTERS = 8;
+
+    @Autowired
+    private TransactionService transactionService;
+
+    private User author;
+
+    @BeforeEach
+    void setUp() {
+        author = createUser(UserRole.AUTHOR);
+    }
+
+    @Test
+    void concurrentRentalsNeverOversell() throws InterruptedException {
+        Book book = createBook(author, "Hot Title", COPIES);
+        List<Runnable> rentals = new ArrayList<>();
+        for (int i = 0; i < RENTERS; i++) {
+            Long userId = createUser(UserRole.USER).getId();
+            rentals.add(() -> transactionService.issueBook(userId, book.getId(), LocalDateTime.now().plusDays(14)));
+        }
+
+        List<Throwable> failures = runConcurrently(rentals);
+
+        assertThat(failures).hasSize(RENTERS - COPIES);
+        assertThat(failures).allSatisfy(failure -> assertThat(failure)
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("not available"));
+        assertThat(availableCopies(book.getId())).isZero();
+        assertThat(openRentals(book.getId())).isEqualTo(COPIES);
+    }
+
+    @Test
+    void rentingAnOutOfStockBookChangesNothing() {
+        Book book = createBook(author, "Sold Out", 0);
+        User user = createUser(UserRole.USER);
+
+        assertThatThrownBy(() -> transactionService.issueBook(user.getId(), book.getId(), LocalDateTime.now().plusDays(14)))
+                .isInstanceOf(IllegalStateException.class);
+
+        assertThat(availableCopies(book.getId())).isZero();
+        assertThat(activeRentals(user.getId())).isZero();
+        assertThat(openRentals(book.getId())).isZero();
+    }
+
+    @Test
+    void returningTwiceRestocksOnce() {
+        Book book = createBook(author, "Returned Once", 1);
+        User user = createUser(UserRole.USER);
+        Transaction rental = transactionService.issueBook(user.getId(), book.getId(), LocalDateTime.now().plusDays(14));
+
+        transactionService.returnBook(rental.getId());
+
+        assertThatThrownBy(() -> transactionService.returnBook(rental.getId()))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessage("Book already returned");
+        assertThat(availableCopies(book.getId())).isEqualTo(1);
+        assertThat(activeRentals(user.getId())).isZero();
+    }
+
+    @Test
+    void concurrentReturnsOfOneRentalRestockOnce() throws InterruptedException {
+        Book book = createBook(author, "Raced Return", 2);
+        User user = createUser(UserRole.USER);
+        User other = createUser(UserRole.USER);
+        Transaction rental = transactionService.issueBook(user.getId(), book.getId(), LocalDateTime.now().plusDays(14));
+        transactionService.issueBook(other.getId(), book.getId(), LocalDateTime.now().plusDays(14));
+
+        List<Throwable> failures = runConcurrently(List.of(
+                () -> transactionService.returnBook(rental.getId()),
+                () -> transactionService.returnBook(rental.getId())));
+
+        // The loser is refused, either by the conditional update or by the row lock it waited on
+        assertThat(failures).hasSize(1);
+        assertThat(availableCopies(book.getId())).isEqualTo(1);
+        assertThat(activeRentals(user.getId())).isZero();
+        assertThat(activeRentals(other.getId())).isEqualTo(1);
+        assertThat(openRentals(book.getId())).isEqualTo(1);
+    }
+}